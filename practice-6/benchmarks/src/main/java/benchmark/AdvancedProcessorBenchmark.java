@@ -0,0 +1,185 @@
+package benchmark;
+
+import model.DataRecord;
+import model.DataRecordTable;
+import model.TimeSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.AdvancedProcessor;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AdvancedProcessorBenchmark class covering every public AdvancedProcessor method
+ * The aggregations use parallel streams internally, so they run in the
+ * ThreadState pool; the moving averages are sequential and depend only on
+ * the dataset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class AdvancedProcessorBenchmark {
+
+    private final AdvancedProcessor processor = new AdvancedProcessor();
+
+    // List<DataRecord>
+
+    @Benchmark
+    public Map<String, Map<Integer, Double>> aggregateByCategories(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.aggregateByCategories(data.records));
+    }
+
+    @Benchmark
+    public Map<String, List<DataRecord>> findTopNByCategory(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findTopNByCategory(data.records, data.topN));
+    }
+
+    @Benchmark
+    public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervals(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.analyzeByTimeIntervals(data.records));
+    }
+
+    @Benchmark
+    public Map<String, Map<String, DoubleSummaryStatistics>> aggregateByCategoryAndStatus(DatasetState data,
+                                                                                          ThreadState threads) {
+        return threads.inPool(() -> processor.aggregateByCategoryAndStatus(data.records));
+    }
+
+    @Benchmark
+    public List<DataRecord> findRecordsWithTags(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findRecordsWithTags(data.records, data.tags));
+    }
+
+    @Benchmark
+    public List<DataRecord> findRecordsWithTagsIndexed(DatasetState data) {
+        return processor.findRecordsWithTags(data.records, data.tagIndex, data.tags);
+    }
+
+    @Benchmark
+    public double calculateWeightedAverage(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculateWeightedAverage(data.records));
+    }
+
+    @Benchmark
+    public Map<String, List<DataRecord>> findRecordsInValueRange(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findRecordsInValueRange(data.records, data.rangeMin, data.rangeMax));
+    }
+
+    @Benchmark
+    public Map<String, List<DataRecord>> findRecordsInValueRangeIndexed(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findRecordsInValueRange(data.records, data.valueIndex,
+                data.rangeMin, data.rangeMax));
+    }
+
+    @Benchmark
+    public Map<LocalDateTime, Double> calculateMovingAverage(DatasetState data) {
+        return processor.calculateMovingAverage(data.records, data.windowSize);
+    }
+
+    @Benchmark
+    public TimeSeries calculateMovingAverageSeries(DatasetState data) {
+        return processor.calculateMovingAverageSeries(data.records, data.windowSize);
+    }
+
+    @Benchmark
+    public TimeSeries calculateMovingAverageDuration(DatasetState data) {
+        return processor.calculateMovingAverage(data.records, Duration.ofDays(1));
+    }
+
+    @Benchmark
+    public List<DataRecord> findOutliers(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findOutliers(data.records, data.outlierThreshold));
+    }
+
+    @Benchmark
+    public double calculatePriorityValueCorrelation(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculatePriorityValueCorrelation(data.records));
+    }
+
+    // DataRecordTable
+
+    @Benchmark
+    public Map<String, Map<Integer, Double>> aggregateByCategoriesTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.aggregateByCategories(data.table));
+    }
+
+    @Benchmark
+    public Map<String, List<DataRecord>> findTopNByCategoryTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findTopNByCategory(data.table, data.topN));
+    }
+
+    @Benchmark
+    public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervalsTable(DatasetState data,
+                                                                              ThreadState threads) {
+        return threads.inPool(() -> processor.analyzeByTimeIntervals(data.table));
+    }
+
+    @Benchmark
+    public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervalsIndexed(DatasetState data,
+                                                                                ThreadState threads) {
+        return threads.inPool(() -> processor.analyzeByTimeIntervals(data.records, data.timeIndex));
+    }
+
+    @Benchmark
+    public Map<String, Map<String, DoubleSummaryStatistics>> aggregateByCategoryAndStatusTable(DatasetState data,
+                                                                                               ThreadState threads) {
+        return threads.inPool(() -> processor.aggregateByCategoryAndStatus(data.table));
+    }
+
+    @Benchmark
+    public DataRecordTable findRecordsWithTagsTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findRecordsWithTags(data.table, data.tags));
+    }
+
+    @Benchmark
+    public double calculateWeightedAverageTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculateWeightedAverage(data.table));
+    }
+
+    @Benchmark
+    public Map<String, DataRecordTable> findRecordsInValueRangeTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findRecordsInValueRange(data.table, data.rangeMin, data.rangeMax));
+    }
+
+    @Benchmark
+    public Map<String, DataRecordTable> findRecordsInValueRangeIndexedTable(DatasetState data,
+                                                                           ThreadState threads) {
+        return threads.inPool(() -> processor.findRecordsInValueRange(data.table, data.valueIndex,
+                data.rangeMin, data.rangeMax));
+    }
+
+    @Benchmark
+    public Map<LocalDateTime, Double> calculateMovingAverageTable(DatasetState data) {
+        return processor.calculateMovingAverage(data.table, data.windowSize);
+    }
+
+    @Benchmark
+    public TimeSeries calculateMovingAverageSeriesTable(DatasetState data) {
+        return processor.calculateMovingAverageSeries(data.table, data.windowSize);
+    }
+
+    @Benchmark
+    public DataRecordTable findOutliersTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findOutliers(data.table, data.outlierThreshold));
+    }
+
+    @Benchmark
+    public double calculatePriorityValueCorrelationTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculatePriorityValueCorrelation(data.table));
+    }
+}
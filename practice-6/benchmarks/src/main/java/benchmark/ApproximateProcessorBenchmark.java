@@ -0,0 +1,94 @@
+package benchmark;
+
+import model.DataRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.ApproximateProcessor;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ApproximateProcessorBenchmark class comparing sketches with the exact group-bys they replace
+ * Each approximate benchmark has an "exact" twin computing the same answer
+ * with collections; run with the GC profiler to compare allocation too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ApproximateProcessorBenchmark {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    private static final double SUPPORT = 0.05;
+
+    private final ApproximateProcessor processor = new ApproximateProcessor();
+
+    @Benchmark
+    public Map<String, Long> countDistinctIdsExact(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> data.records.parallelStream()
+                .collect(Collectors.groupingBy(DataRecord::getCategory,
+                        Collectors.collectingAndThen(
+                                Collectors.mapping(DataRecord::getId, Collectors.toSet()),
+                                ids -> (long) ids.size()))));
+    }
+
+    @Benchmark
+    public Map<String, Long> countDistinctIds(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.countDistinctIdsByCategory(data.records));
+    }
+
+    @Benchmark
+    public Map<String, Long> countDistinctIdsTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.countDistinctIdsByCategory(data.table));
+    }
+
+    @Benchmark
+    public double[] valueQuantilesExact(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> {
+            double[] values = data.records.parallelStream().mapToDouble(DataRecord::getValue).toArray();
+            Arrays.parallelSort(values);
+            return Arrays.stream(QUANTILES)
+                    .map(q -> values[Math.max((int) Math.ceil(q * values.length) - 1, 0)])
+                    .toArray();
+        });
+    }
+
+    @Benchmark
+    public double[] valueQuantiles(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.valueQuantiles(data.records, QUANTILES));
+    }
+
+    @Benchmark
+    public double[] valueQuantilesTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.valueQuantiles(data.table, QUANTILES));
+    }
+
+    @Benchmark
+    public Map<String, Long> heavyHitterTagsExact(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> data.records.parallelStream()
+                .flatMap(record -> record.getTags().stream())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting())));
+    }
+
+    @Benchmark
+    public Map<String, Long> heavyHitterTags(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findHeavyHitterTags(data.records, SUPPORT));
+    }
+
+    @Benchmark
+    public Map<String, Long> heavyHitterTagsTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findHeavyHitterTags(data.table, SUPPORT));
+    }
+}
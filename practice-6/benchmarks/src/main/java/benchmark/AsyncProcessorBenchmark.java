@@ -0,0 +1,113 @@
+package benchmark;
+
+import model.DataRecord;
+import model.DataRecordTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AsyncProcessorBenchmark class covering the public AsyncProcessor operations
+ * Each benchmark waits for its futures, so the score is end-to-end latency on
+ * an AsyncProcessor sized by ThreadState. Lifecycle methods (constructors,
+ * getBackend, shutdown) are not benchmarked.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class AsyncProcessorBenchmark {
+
+    // List<DataRecord>
+
+    @Benchmark
+    public Map<String, Double> processAsync(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.processAsync(data.records).join();
+    }
+
+    @Benchmark
+    public void processBatch(DatasetState data, ThreadState threads, Blackhole blackhole) {
+        for (CompletableFuture<List<DataRecord>> future : threads.asyncProcessor.processBatch(data.batches)) {
+            blackhole.consume(future.join());
+        }
+    }
+
+    @Benchmark
+    public void processBatchStream(DatasetState data, ThreadState threads, Blackhole blackhole) {
+        threads.asyncProcessor.processBatchStream(data.batches.iterator(), false, blackhole::consume).join();
+    }
+
+    @Benchmark
+    public Map<String, Object> combineResults(DatasetState data, ThreadState threads) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(threads.asyncProcessor.processBatch(data.batches));
+        return threads.asyncProcessor.combineResults(futures).join();
+    }
+
+    @Benchmark
+    public List<DataRecord> filterAsync(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.filterAsync(data.records, data.category, data.minValue).join();
+    }
+
+    @Benchmark
+    public Map<String, Object> analyzeAsync(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.analyzeAsync(data.records).join();
+    }
+
+    @Benchmark
+    public Map<String, List<DataRecord>> findTopNAsync(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.findTopNAsync(data.records, data.topN).join();
+    }
+
+    @Benchmark
+    public Map<String, Object> processMultipleOperationsAsync(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.processMultipleOperationsAsync(data.records).join();
+    }
+
+    // DataRecordTable
+
+    @Benchmark
+    public Map<String, Double> processAsyncTable(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.processAsync(data.table).join();
+    }
+
+    @Benchmark
+    public void processBatchTables(DatasetState data, ThreadState threads, Blackhole blackhole) {
+        for (CompletableFuture<DataRecordTable> future : threads.asyncProcessor.processBatchTables(data.tableBatches)) {
+            blackhole.consume(future.join());
+        }
+    }
+
+    @Benchmark
+    public DataRecordTable filterAsyncTable(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.filterAsync(data.table, data.category, data.minValue).join();
+    }
+
+    @Benchmark
+    public Map<String, Object> analyzeAsyncTable(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.analyzeAsync(data.table).join();
+    }
+
+    @Benchmark
+    public Map<String, List<DataRecord>> findTopNAsyncTable(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.findTopNAsync(data.table, data.topN).join();
+    }
+
+    @Benchmark
+    public Map<String, Object> processMultipleOperationsAsyncTable(DatasetState data, ThreadState threads) {
+        return threads.asyncProcessor.processMultipleOperationsAsync(data.table).join();
+    }
+}
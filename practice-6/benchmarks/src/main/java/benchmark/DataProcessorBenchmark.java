@@ -0,0 +1,170 @@
+package benchmark;
+
+import model.DataRecord;
+import model.DataRecordTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.DataProcessor;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataProcessorBenchmark class covering every public DataProcessor method
+ * Sequential methods depend only on the dataset; parallel ones also take
+ * ThreadState and run in its pool. List and table variants share a name,
+ * the table one suffixed with "Table".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DataProcessorBenchmark {
+
+    private final DataProcessor processor = new DataProcessor();
+
+    // List<DataRecord>
+
+    @Benchmark
+    public List<DataRecord> filterRecords(DatasetState data) {
+        return processor.filterRecords(data.records, data.category, data.minValue);
+    }
+
+    @Benchmark
+    public List<DataRecord> filterRecordsParallel(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.filterRecordsParallel(data.records, data.category, data.minValue));
+    }
+
+    @Benchmark
+    public List<DataRecord> filterRecordsIndexed(DatasetState data) {
+        return processor.filterRecords(data.records, data.valueIndex, data.category, data.minValue);
+    }
+
+    @Benchmark
+    public Map<String, DoubleSummaryStatistics> calculateStatistics(DatasetState data) {
+        return processor.calculateStatistics(data.records);
+    }
+
+    @Benchmark
+    public Map<String, DoubleSummaryStatistics> calculateStatisticsParallel(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculateStatisticsParallel(data.records));
+    }
+
+    @Benchmark
+    public Map<Integer, List<DataRecord>> groupByPriority(DatasetState data) {
+        return processor.groupByPriority(data.records);
+    }
+
+    @Benchmark
+    public Map<Integer, List<DataRecord>> groupByPriorityParallel(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.groupByPriorityParallel(data.records));
+    }
+
+    @Benchmark
+    public List<DataRecord> filterByStatus(DatasetState data) {
+        return processor.filterByStatus(data.records, data.status);
+    }
+
+    @Benchmark
+    public List<DataRecord> filterByStatusParallel(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.filterByStatusParallel(data.records, data.status));
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateAverageByCategory(DatasetState data) {
+        return processor.calculateAverageByCategory(data.records);
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateAverageByCategoryParallel(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculateAverageByCategoryParallel(data.records));
+    }
+
+    @Benchmark
+    public Map<String, Long> countByStatus(DatasetState data) {
+        return processor.countByStatus(data.records);
+    }
+
+    @Benchmark
+    public Map<String, Long> countByStatusParallel(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.countByStatusParallel(data.records));
+    }
+
+    // DataRecordTable
+
+    @Benchmark
+    public DataRecordTable filterRecordsTable(DatasetState data) {
+        return processor.filterRecords(data.table, data.category, data.minValue);
+    }
+
+    @Benchmark
+    public DataRecordTable filterRecordsParallelTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.filterRecordsParallel(data.table, data.category, data.minValue));
+    }
+
+    @Benchmark
+    public DataRecordTable filterRecordsIndexedTable(DatasetState data) {
+        return processor.filterRecords(data.table, data.valueIndex, data.category, data.minValue);
+    }
+
+    @Benchmark
+    public Map<String, DoubleSummaryStatistics> calculateStatisticsTable(DatasetState data) {
+        return processor.calculateStatistics(data.table);
+    }
+
+    @Benchmark
+    public Map<String, DoubleSummaryStatistics> calculateStatisticsParallelTable(DatasetState data,
+                                                                                ThreadState threads) {
+        return threads.inPool(() -> processor.calculateStatisticsParallel(data.table));
+    }
+
+    @Benchmark
+    public Map<Integer, DataRecordTable> groupByPriorityTable(DatasetState data) {
+        return processor.groupByPriority(data.table);
+    }
+
+    @Benchmark
+    public Map<Integer, DataRecordTable> groupByPriorityParallelTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.groupByPriorityParallel(data.table));
+    }
+
+    @Benchmark
+    public DataRecordTable filterByStatusTable(DatasetState data) {
+        return processor.filterByStatus(data.table, data.status);
+    }
+
+    @Benchmark
+    public DataRecordTable filterByStatusParallelTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.filterByStatusParallel(data.table, data.status));
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateAverageByCategoryTable(DatasetState data) {
+        return processor.calculateAverageByCategory(data.table);
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateAverageByCategoryParallelTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculateAverageByCategoryParallel(data.table));
+    }
+
+    @Benchmark
+    public Map<String, Long> countByStatusTable(DatasetState data) {
+        return processor.countByStatus(data.table);
+    }
+
+    @Benchmark
+    public Map<String, Long> countByStatusParallelTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.countByStatusParallel(data.table));
+    }
+}
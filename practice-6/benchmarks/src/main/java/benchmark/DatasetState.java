@@ -0,0 +1,71 @@
+package benchmark;
+
+import model.DataRecord;
+import model.DataRecordTable;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import processor.TagIndex;
+import processor.TimeIndex;
+import processor.ValueIndex;
+import util.DataGenerator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DatasetState class holding the benchmark dataset
+ * Built once per trial from a seeded DataGenerator, so every fork and release
+ * sees the same records, as a list and as a columnar table with the same rows,
+ * plus the indexes and batches the processors take.
+ * Override the parameters with -p size=... -p categories=...
+ */
+@State(Scope.Benchmark)
+public class DatasetState {
+
+    static final long SEED = 20240601L;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"10", "100"})
+    public int categories;
+
+    // Query arguments shared by the benchmarks
+    public final String category = "C0";
+    public final String status = "ACTIVE";
+    public final double minValue = 5000.0;
+    public final double rangeMin = 2500.0;
+    public final double rangeMax = 2600.0;
+    public final List<String> tags = List.of("urgent", "high");
+    public final int topN = 10;
+    public final int windowSize = 100;
+    public final double outlierThreshold = 1.5;
+    public final int batchSize = 10_000;
+
+    public List<DataRecord> records;
+    public DataRecordTable table;
+    public ValueIndex valueIndex;
+    public TagIndex tagIndex;
+    public TimeIndex timeIndex;
+    public List<List<DataRecord>> batches;
+    public List<DataRecordTable> tableBatches;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        records = new DataGenerator(SEED).withCategoryCount(categories).generate(size);
+        table = DataRecordTable.from(records);
+        // Rows are list positions, which are also table rows, so one index serves both
+        valueIndex = ValueIndex.of(table);
+        tagIndex = TagIndex.of(table);
+        timeIndex = TimeIndex.of(table, TimeIndex.Granularity.HOUR);
+        batches = new ArrayList<>();
+        for (int from = 0; from < records.size(); from += batchSize) {
+            batches.add(records.subList(from, Math.min(from + batchSize, records.size())));
+        }
+        tableBatches = batches.stream()
+                .map(DataRecordTable::from)
+                .toList();
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import model.DataRecord;
+import model.DataRecordTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.AdvancedProcessor;
+import processor.DataProcessor;
+import util.DataGenerator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FootprintBenchmark class comparing the heap of DataRecord, CompactDataRecord and DataRecordTable
+ * The trial setup generates the dataset in one representation, measures the
+ * heap it retains after a full GC and prints it ("Footprint: ... bytes/record");
+ * the benchmarks then time scans over it, which shows what the lazy timestamp
+ * views of compact records cost. 10M plain records need about 2 GB of heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class FootprintBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"record", "compact", "table"})
+    public String representation;
+
+    private final DataProcessor dataProcessor = new DataProcessor();
+    private final AdvancedProcessor advancedProcessor = new AdvancedProcessor();
+    private final List<String> tags = List.of("urgent", "high");
+    private List<DataRecord> records;
+    private DataRecordTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataGenerator generator = new DataGenerator(DatasetState.SEED);
+        System.gc();
+        long before = usedHeap();
+        switch (representation) {
+            case "record":
+                records = generator.generate(size);
+                break;
+            case "compact":
+                records = generator.generateCompact(size);
+                break;
+            case "table":
+                table = generator.generateTable(size);
+                table.trimToSize();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown representation: " + representation);
+        }
+        System.gc();
+        long bytes = usedHeap() - before;
+        System.out.printf("Footprint: %s %d records, %d MB, %.1f bytes/record%n",
+                representation, size, bytes >> 20, (double) bytes / size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        records = null;
+        table = null;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public Object filter() {
+        return table != null
+                ? dataProcessor.filterRecordsParallel(table, "A", 100.0)
+                : dataProcessor.filterRecordsParallel(records, "A", 100.0);
+    }
+
+    @Benchmark
+    public Object analyzeByDay() {
+        return table != null
+                ? advancedProcessor.analyzeByTimeIntervals(table)
+                : advancedProcessor.analyzeByTimeIntervals(records);
+    }
+
+    @Benchmark
+    public Object findRecordsWithTags() {
+        return table != null
+                ? advancedProcessor.findRecordsWithTags(table, tags)
+                : advancedProcessor.findRecordsWithTags(records, tags);
+    }
+}
@@ -0,0 +1,112 @@
+package benchmark;
+
+import kernel.NumericKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.AdvancedProcessor;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * KernelBenchmark class comparing NumericKernels with the stream chains they replace
+ * "stream" variants are the former mapToDouble(...).sum() style code;
+ * "kernels" selects the scalar or the vector implementation, and "vector"
+ * falls back to scalar (see the name in the log) without SIMD hardware.
+ * Single-threaded array benchmarks isolate the kernels; the processor
+ * benchmarks include the block copies and run on the sized pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class KernelBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String kernels;
+
+    @Param({"4096", "1000000"})
+    public int length;
+
+    private NumericKernels numericKernels;
+    private AdvancedProcessor processor;
+    private double[] values;
+    private double[] weights;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        numericKernels = "vector".equals(kernels) ? NumericKernels.get() : NumericKernels.scalar();
+        System.out.println("Kernels: " + numericKernels.getName());
+        processor = new AdvancedProcessor(numericKernels);
+        values = new SplittableRandom(DatasetState.SEED).doubles(length, 0.0, 10_000.0).toArray();
+        weights = new SplittableRandom(DatasetState.SEED + 1).ints(length, 1, 6).asDoubleStream().toArray();
+    }
+
+    @Benchmark
+    public double sumStream() {
+        return Arrays.stream(values).sum();
+    }
+
+    @Benchmark
+    public double sum() {
+        return numericKernels.sum(values, 0, length);
+    }
+
+    @Benchmark
+    public double dotStream() {
+        return IntStream.range(0, length).mapToDouble(i -> values[i] * weights[i]).sum();
+    }
+
+    @Benchmark
+    public double dot() {
+        return numericKernels.dot(values, weights, 0, length);
+    }
+
+    @Benchmark
+    public double minMaxStream() {
+        return Arrays.stream(values).min().getAsDouble() + Arrays.stream(values).max().getAsDouble();
+    }
+
+    @Benchmark
+    public double minMax() {
+        return numericKernels.min(values, 0, length) + numericKernels.max(values, 0, length);
+    }
+
+    @Benchmark
+    public long countOutsideStream() {
+        return Arrays.stream(values).filter(v -> Math.abs(v - 5000.0) > 4000.0).count();
+    }
+
+    @Benchmark
+    public int countOutside() {
+        return numericKernels.countOutside(values, 0, length, 5000.0, 4000.0);
+    }
+
+    @Benchmark
+    public double weightedAverageTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculateWeightedAverage(data.table));
+    }
+
+    @Benchmark
+    public double correlationTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.calculatePriorityValueCorrelation(data.table));
+    }
+
+    @Benchmark
+    public int outliersTable(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> processor.findOutliers(data.table, data.outlierThreshold).size());
+    }
+}
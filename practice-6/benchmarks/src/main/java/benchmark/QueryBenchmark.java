@@ -0,0 +1,77 @@
+package benchmark;
+
+import model.DataRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.AdvancedProcessor;
+import processor.DataProcessor;
+import processor.Query;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * QueryBenchmark class comparing chained processor filters with one fused Query
+ * The chained variants build an intermediate list per filter; the Query
+ * variants read the data once with the planner's condition order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    private final DataProcessor dataProcessor = new DataProcessor();
+    private final AdvancedProcessor advancedProcessor = new AdvancedProcessor();
+
+    @Benchmark
+    public List<DataRecord> filterChained(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> advancedProcessor.findRecordsWithTags(
+                dataProcessor.filterByStatusParallel(
+                        dataProcessor.filterRecordsParallel(data.records, data.category, data.minValue),
+                        data.status),
+                data.tags));
+    }
+
+    @Benchmark
+    public List<DataRecord> filterFused(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> query(data).parallel().toList());
+    }
+
+    @Benchmark
+    public Map<String, Double> groupedChained(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> dataProcessor
+                .filterRecordsParallel(data.records, data.category, data.minValue)
+                .parallelStream()
+                .collect(Collectors.groupingBy(DataRecord::getStatus,
+                        Collectors.averagingDouble(DataRecord::getValue))));
+    }
+
+    @Benchmark
+    public Map<String, Double> groupedFused(DatasetState data, ThreadState threads) {
+        return threads.inPool(() -> Query.from(data.records)
+                .where(Query.category(data.category))
+                .and(Query.valueAtLeast(data.minValue))
+                .parallel()
+                .groupBy(DataRecord::getStatus)
+                .agg(Query.avg(DataRecord::getValue)));
+    }
+
+    private static Query query(DatasetState data) {
+        return Query.from(data.records)
+                .where(Query.category(data.category))
+                .and(Query.valueAtLeast(data.minValue))
+                .and(Query.status(data.status))
+                .and(Query.hasTags(data.tags));
+    }
+}
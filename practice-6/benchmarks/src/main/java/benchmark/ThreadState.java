@@ -0,0 +1,47 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import processor.AsyncProcessor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ThreadState class bounding the parallelism of a benchmark
+ * Parallel streams started inside a ForkJoinPool task run in that pool, so
+ * {@link #inPool} makes the "threads" parameter the real degree of
+ * parallelism instead of the size of the common pool. AsyncProcessor gets a
+ * backend of the same size. Override with -p threads=...
+ */
+@State(Scope.Benchmark)
+public class ThreadState {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    public ForkJoinPool pool;
+    public AsyncProcessor asyncProcessor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        asyncProcessor = new AsyncProcessor(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+        asyncProcessor.shutdown();
+    }
+
+    /**
+     * Run a task (and any parallel streams inside it) on the sized pool
+     */
+    public <T> T inPool(Callable<T> task) {
+        return pool.submit(task).join();
+    }
+}
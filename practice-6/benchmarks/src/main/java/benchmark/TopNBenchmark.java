@@ -0,0 +1,83 @@
+package benchmark;
+
+import model.DataRecord;
+import model.DataRecordTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.AdvancedProcessor;
+import util.DataGenerator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TopNBenchmark class: bounded-heap top-N against a full sort at 1M-50M rows
+ * Uses the columnar table only, since 50M DataRecord objects do not fit a
+ * benchmark heap. The sort baseline copies each category's values and sorts
+ * them, which is what the sorted()+limit() stream it replaced amounts to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class TopNBenchmark {
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int size;
+
+    @Param({"10", "100"})
+    public int categories;
+
+    @Param({"10", "1000"})
+    public int n;
+
+    private final AdvancedProcessor processor = new AdvancedProcessor();
+    private DataRecordTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = new DataGenerator(DatasetState.SEED).withCategoryCount(categories).generateTable(size);
+    }
+
+    @Benchmark
+    public Map<String, List<DataRecord>> boundedHeap(ThreadState threads) {
+        return threads.inPool(() -> processor.findTopNByCategory(table, n));
+    }
+
+    @Benchmark
+    public double[][] fullSort() {
+        int[] counts = new int[table.getCategoryCount()];
+        for (int row = 0; row < table.size(); row++) {
+            counts[table.getCategoryCode(row)]++;
+        }
+        double[][] values = new double[counts.length][];
+        for (int code = 0; code < counts.length; code++) {
+            values[code] = new double[counts[code]];
+        }
+        int[] fill = new int[counts.length];
+        for (int row = 0; row < table.size(); row++) {
+            int code = table.getCategoryCode(row);
+            values[code][fill[code]++] = table.getValue(row);
+        }
+        double[][] top = new double[counts.length][];
+        for (int code = 0; code < counts.length; code++) {
+            Arrays.sort(values[code]);
+            int from = Math.max(values[code].length - n, 0);
+            top[code] = Arrays.copyOfRange(values[code], from, values[code].length);
+        }
+        return top;
+    }
+}
@@ -37,7 +37,7 @@ public class Demo {
             
             // Generate test data
             System.out.println("Generating test data...");
-            List<DataRecord> testData = dataGenerator.generateData(100000);
+            List<DataRecord> testData = dataGenerator.generateData();
             System.out.println("Generated " + testData.size() + " records");
             System.out.println();
             
@@ -0,0 +1,30 @@
+package kernel;
+
+/**
+ * Runtime choice of the NumericKernels implementation
+ * VectorKernels is compiled from a separate source root (src/vector/java)
+ * and only loaded reflectively, so the default build needs no incubator
+ * module and the scalar path works when the class or the module is missing.
+ */
+final class Detection {
+
+    static final NumericKernels PREFERRED = detect();
+
+    private Detection() {
+    }
+
+    private static NumericKernels detect() {
+        if (!Boolean.parseBoolean(System.getProperty("kernel.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return ScalarKernels.INSTANCE;
+        }
+        try {
+            NumericKernels vector = (NumericKernels) Class.forName("kernel.VectorKernels")
+                    .getDeclaredField("INSTANCE").get(null);
+            // Without SIMD hardware the preferred species has one lane and only adds overhead
+            return vector != null ? vector : ScalarKernels.INSTANCE;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return ScalarKernels.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package kernel;
+
+/**
+ * NumericKernels interface: reductions over primitive double columns
+ * Every method reads a[from, to). {@link #get()} returns the SIMD
+ * implementation on the jdk.incubator.vector API when it was compiled (it
+ * lives in src/vector/java), the module is present (run with --add-modules
+ * jdk.incubator.vector) and the preferred species has more than one lane;
+ * otherwise, or with -Dkernel.vector=false, the scalar implementation.
+ * Results of the two may differ in the last bits, because vector
+ * reductions add in a different order.
+ */
+public interface NumericKernels {
+
+    /**
+     * @return Sum of the values
+     */
+    double sum(double[] a, int from, int to);
+
+    /**
+     * @return Minimum value, or +Infinity for an empty range
+     */
+    double min(double[] a, int from, int to);
+
+    /**
+     * @return Maximum value, or -Infinity for an empty range
+     */
+    double max(double[] a, int from, int to);
+
+    /**
+     * @return Sum of the squared values
+     */
+    double sumOfSquares(double[] a, int from, int to);
+
+    /**
+     * @return Sum of (value - center)^2, the numerically stable form for variance
+     */
+    double sumOfSquaredDeviations(double[] a, int from, int to, double center);
+
+    /**
+     * @return Sum of a[i] * b[i]
+     */
+    double dot(double[] a, double[] b, int from, int to);
+
+    /**
+     * @return Number of values with |value - center| &gt; radius
+     */
+    int countOutside(double[] a, int from, int to, double center, double radius);
+
+    /**
+     * @return Number of values with min &lt;= value &lt;= max
+     */
+    int countBetween(double[] a, int from, int to, double min, double max);
+
+    /**
+     * @return Implementation name, e.g. "scalar" or "vector(256-bit, 4 lanes)"
+     */
+    String getName();
+
+    /**
+     * @return Kernels chosen once for this JVM
+     */
+    static NumericKernels get() {
+        return Detection.PREFERRED;
+    }
+
+    /**
+     * @return Scalar kernels, for comparison or when results must match plain loops
+     */
+    static NumericKernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+}
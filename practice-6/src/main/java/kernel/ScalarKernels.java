@@ -0,0 +1,94 @@
+package kernel;
+
+/**
+ * Scalar NumericKernels: plain loops in index order
+ */
+final class ScalarKernels implements NumericKernels {
+
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    private ScalarKernels() {
+    }
+
+    @Override
+    public double sum(double[] a, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] a, int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] a, int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public double sumOfSquares(double[] a, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            sum += a[i] * a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] a, int from, int to, double center) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            double d = a[i] - center;
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int countOutside(double[] a, int from, int to, double center, double radius) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (Math.abs(a[i] - center) > radius) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int countBetween(double[] a, int from, int to, double min, double max) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (a[i] >= min && a[i] <= max) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
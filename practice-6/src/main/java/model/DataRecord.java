@@ -1,6 +1,7 @@
 package model;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Objects;
 
@@ -70,6 +71,13 @@ public class DataRecord {
         this.timestamp = timestamp;
     }
 
+    /**
+     * @return Timestamp as UTC epoch seconds, 0 without a timestamp (as DataRecordTable stores it)
+     */
+    public long getEpochSecond() {
+        return timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : 0L;
+    }
+
     public int getPriority() {
         return priority;
     }
@@ -100,29 +108,33 @@ public class DataRecord {
                 "id=" + id +
                 ", category='" + category + '\'' +
                 ", value=" + value +
-                ", timestamp=" + timestamp +
+                ", timestamp=" + getTimestamp() +
                 ", priority=" + priority +
                 ", status='" + status + '\'' +
-                ", tags=" + tags +
+                ", tags=" + getTags() +
                 '}';
     }
 
+    /**
+     * Field-by-field equality through the getters, so a CompactDataRecord
+     * equals a DataRecord with the same values
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof DataRecord)) return false;
         DataRecord that = (DataRecord) o;
-        return id == that.id &&
-                Double.compare(that.value, value) == 0 &&
-                priority == that.priority &&
-                Objects.equals(category, that.category) &&
-                Objects.equals(timestamp, that.timestamp) &&
-                Objects.equals(status, that.status) &&
-                Objects.equals(tags, that.tags);
+        return getId() == that.getId() &&
+                Double.compare(that.getValue(), getValue()) == 0 &&
+                getPriority() == that.getPriority() &&
+                Objects.equals(getCategory(), that.getCategory()) &&
+                Objects.equals(getTimestamp(), that.getTimestamp()) &&
+                Objects.equals(getStatus(), that.getStatus()) &&
+                Objects.equals(getTags(), that.getTags());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, category, value, timestamp, priority, status, tags);
+        return Objects.hash(getId(), getCategory(), getValue(), getTimestamp(), getPriority(), getStatus(), getTags());
     }
 }
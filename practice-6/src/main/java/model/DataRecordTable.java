@@ -0,0 +1,429 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataRecordTable class storing DataRecord fields column by column
+ * (struct-of-arrays) so scans read primitive arrays instead of objects.
+ * Categories, statuses and tags are dictionary-encoded; timestamps are
+ * stored as UTC epoch seconds, so sub-second precision is dropped and
+ * toRecord returns timestamps truncated to whole seconds. A missing
+ * timestamp reads as epoch second 0 in scans (as DataRecord.getEpochSecond
+ * reports it) and is flagged in a null bitmap, so toRecord returns null
+ * again. Not thread-safe for writes.
+ */
+public class DataRecordTable implements RecordColumns {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_CODES = Byte.MAX_VALUE + 1;
+    private static final int MAX_TAGS = Short.SIZE;
+
+    private final Dictionary categoryDictionary = new Dictionary(MAX_CODES, "categories");
+    private final Dictionary statusDictionary = new Dictionary(MAX_CODES, "statuses");
+    private final Dictionary tagDictionary = new Dictionary(MAX_TAGS, "tags");
+
+    private int size;
+    private long[] ids;
+    private double[] values;
+    private int[] priorities;
+    private long[] timestamps;
+    private byte[] categoryCodes;
+    private byte[] statusCodes;
+    private short[] tagMasks;
+    /** One bit per row without timestamp; null until the first such row */
+    private long[] missingTimestamps;
+
+    /**
+     * Default constructor
+     */
+    public DataRecordTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor with initial row capacity
+     * @param capacity Initial number of rows to allocate
+     */
+    public DataRecordTable(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.ids = new long[initial];
+        this.values = new double[initial];
+        this.priorities = new int[initial];
+        this.timestamps = new long[initial];
+        this.categoryCodes = new byte[initial];
+        this.statusCodes = new byte[initial];
+        this.tagMasks = new short[initial];
+    }
+
+    /**
+     * Build a table from a list of records
+     * @param records List of DataRecord objects
+     * @return Table containing the same rows in the same order
+     */
+    public static DataRecordTable from(List<DataRecord> records) {
+        DataRecordTable table = new DataRecordTable(records.size());
+        for (DataRecord record : records) {
+            table.add(record);
+        }
+        return table;
+    }
+
+    /**
+     * Append a record to the table
+     * @param record DataRecord to append
+     * @return Row index of the appended record
+     */
+    public int add(DataRecord record) {
+        int row = add(record.getId(), record.getCategory(), record.getValue(), record.getEpochSecond(),
+                record.getPriority(), record.getStatus(), tagMask(record.getTags()));
+        if (record.getTimestamp() == null) {
+            markMissingTimestamp(row);
+        }
+        return row;
+    }
+
+    /**
+     * Append a row from already-encoded column values
+     * @return Row index of the appended row
+     */
+    public int add(long id, String category, double value, long epochSecond,
+                   int priority, String status, short tagMask) {
+        ensureCapacity(size + 1);
+        ids[size] = id;
+        values[size] = value;
+        priorities[size] = priority;
+        timestamps[size] = epochSecond;
+        categoryCodes[size] = (byte) categoryDictionary.encode(category);
+        statusCodes[size] = (byte) statusDictionary.encode(status);
+        tagMasks[size] = tagMask;
+        return size++;
+    }
+
+    /**
+     * Create a new table holding only the given rows
+     * @param rows Row indexes to copy, in output order
+     * @return New table with the selected rows
+     */
+    public DataRecordTable select(int[] rows) {
+        DataRecordTable result = new DataRecordTable(rows.length);
+        result.categoryDictionary.addAll(categoryDictionary);
+        result.statusDictionary.addAll(statusDictionary);
+        result.tagDictionary.addAll(tagDictionary);
+        boolean anyMissing = missingTimestamps != null;
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            result.ids[i] = ids[row];
+            result.values[i] = values[row];
+            result.priorities[i] = priorities[row];
+            result.timestamps[i] = timestamps[row];
+            result.categoryCodes[i] = categoryCodes[row];
+            result.statusCodes[i] = statusCodes[row];
+            result.tagMasks[i] = tagMasks[row];
+            if (anyMissing && !hasTimestamp(row)) {
+                result.markMissingTimestamp(i);
+            }
+        }
+        result.size = rows.length;
+        return result;
+    }
+
+    /**
+     * Copy rows of any columnar source into a new table
+     * Dictionaries are copied in order, so codes and tag bits stay the same.
+     * @param source Columns to copy from
+     * @param rows Row indexes to copy, in output order
+     * @return New table with the selected rows
+     */
+    public static DataRecordTable copyRows(RecordColumns source, int[] rows) {
+        DataRecordTable result = new DataRecordTable(rows.length);
+        for (int code = 0; code < source.getCategoryCount(); code++) {
+            result.categoryDictionary.encode(source.getCategoryName(code));
+        }
+        for (int code = 0; code < source.getStatusCount(); code++) {
+            result.statusDictionary.encode(source.getStatusName(code));
+        }
+        for (int code = 0; code < source.getTagCount(); code++) {
+            result.tagDictionary.encode(source.getTagName(code));
+        }
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            result.ids[i] = source.getId(row);
+            result.values[i] = source.getValue(row);
+            result.priorities[i] = source.getPriority(row);
+            result.timestamps[i] = source.getEpochSecond(row);
+            result.categoryCodes[i] = (byte) source.getCategoryCode(row);
+            result.statusCodes[i] = (byte) source.getStatusCode(row);
+            result.tagMasks[i] = (short) source.getTagMask(row);
+            if (!source.hasTimestamp(row)) {
+                result.markMissingTimestamp(i);
+            }
+        }
+        result.size = rows.length;
+        return result;
+    }
+
+    /**
+     * Materialize a single row as a DataRecord
+     * @param row Row index
+     * @return New DataRecord with the row's values
+     */
+    public DataRecord toRecord(int row) {
+        return new DataRecord(ids[row], getCategory(row), values[row], getTimestamp(row),
+                priorities[row], getStatus(row), getTags(row));
+    }
+
+    /**
+     * Materialize all rows as DataRecord objects
+     * @return List of DataRecord objects
+     */
+    public List<DataRecord> toRecords() {
+        List<DataRecord> records = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            records.add(toRecord(row));
+        }
+        return records;
+    }
+
+    /**
+     * Encode a list of tags into a bitmask, registering unseen tags
+     * @param tags Tags to encode (may be null)
+     * @return Bitmask with one bit per tag dictionary entry
+     */
+    public short tagMask(List<String> tags) {
+        int mask = 0;
+        if (tags != null) {
+            for (String tag : tags) {
+                mask |= 1 << tagDictionary.encode(tag);
+            }
+        }
+        return (short) mask;
+    }
+
+    /**
+     * Look up the bitmask for the given tags without registering new ones
+     * @param tags Tags to look up
+     * @return Bitmask, or -1 if any tag is unknown to this table
+     */
+    public int lookupTagMask(List<String> tags) {
+        int mask = 0;
+        for (String tag : tags) {
+            int code = tagDictionary.find(tag);
+            if (code < 0) {
+                return -1;
+            }
+            mask |= 1 << code;
+        }
+        return mask;
+    }
+
+    // Column accessors
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    public double getValue(int row) {
+        return values[row];
+    }
+
+    public int getPriority(int row) {
+        return priorities[row];
+    }
+
+    public long getEpochSecond(int row) {
+        return timestamps[row];
+    }
+
+    public void readValues(int from, int to, double[] target) {
+        System.arraycopy(values, from, target, 0, to - from);
+    }
+
+    public void readPriorities(int from, int to, double[] target) {
+        for (int row = from; row < to; row++) {
+            target[row - from] = priorities[row];
+        }
+    }
+
+    public boolean hasTimestamp(int row) {
+        return missingTimestamps == null || (missingTimestamps[row >>> 6] & (1L << row)) == 0;
+    }
+
+    public LocalDateTime getTimestamp(int row) {
+        return hasTimestamp(row) ? LocalDateTime.ofEpochSecond(timestamps[row], 0, ZoneOffset.UTC) : null;
+    }
+
+    public int getCategoryCode(int row) {
+        return categoryCodes[row];
+    }
+
+    public String getCategory(int row) {
+        return categoryDictionary.get(categoryCodes[row]);
+    }
+
+    public int getStatusCode(int row) {
+        return statusCodes[row];
+    }
+
+    public String getStatus(int row) {
+        return statusDictionary.get(statusCodes[row]);
+    }
+
+    public int getTagMask(int row) {
+        return tagMasks[row] & 0xFFFF;
+    }
+
+    public List<String> getTags(int row) {
+        List<String> tags = new ArrayList<>(Integer.bitCount(getTagMask(row)));
+        for (int mask = getTagMask(row); mask != 0; mask &= mask - 1) {
+            tags.add(tagDictionary.get(Integer.numberOfTrailingZeros(mask)));
+        }
+        return tags;
+    }
+
+    // Dictionary accessors
+
+    public int getCategoryCount() {
+        return categoryDictionary.size();
+    }
+
+    public String getCategoryName(int code) {
+        return categoryDictionary.get(code);
+    }
+
+    /**
+     * @return Dictionary code of the category, or -1 if it never occurs
+     */
+    public int findCategoryCode(String category) {
+        return categoryDictionary.find(category);
+    }
+
+    public int getStatusCount() {
+        return statusDictionary.size();
+    }
+
+    public String getStatusName(int code) {
+        return statusDictionary.get(code);
+    }
+
+    /**
+     * @return Dictionary code of the status, or -1 if it never occurs
+     */
+    public int findStatusCode(String status) {
+        return statusDictionary.find(status);
+    }
+
+    public int getTagCount() {
+        return tagDictionary.size();
+    }
+
+    public String getTagName(int code) {
+        return tagDictionary.get(code);
+    }
+
+    /**
+     * Approximate heap footprint of the column arrays (excluding dictionaries)
+     * @return Size in bytes of the allocated columns
+     */
+    public long estimatedSizeInBytes() {
+        long perRow = Long.BYTES + Double.BYTES + Integer.BYTES + Long.BYTES
+                + Byte.BYTES + Byte.BYTES + Short.BYTES;
+        long nullBitmap = missingTimestamps != null ? (long) Long.BYTES * missingTimestamps.length : 0;
+        return perRow * ids.length + nullBitmap;
+    }
+
+    /**
+     * Release spare capacity left over from appending
+     */
+    public void trimToSize() {
+        if (ids.length != size) {
+            resize(Math.max(size, 1));
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > ids.length) {
+            resize(Math.max(required, ids.length + (ids.length >> 1)));
+        }
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        values = Arrays.copyOf(values, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        statusCodes = Arrays.copyOf(statusCodes, capacity);
+        tagMasks = Arrays.copyOf(tagMasks, capacity);
+        if (missingTimestamps != null) {
+            missingTimestamps = Arrays.copyOf(missingTimestamps, words(capacity));
+        }
+    }
+
+    private void markMissingTimestamp(int row) {
+        if (missingTimestamps == null) {
+            missingTimestamps = new long[words(ids.length)];
+        }
+        missingTimestamps[row >>> 6] |= 1L << row;
+    }
+
+    private static int words(int rows) {
+        return (rows + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Code dictionary: names in code order plus a hash lookup from name to code
+     */
+    private static final class Dictionary {
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final int limit;
+        private final String kind;
+
+        private Dictionary(int limit, String kind) {
+            this.limit = limit;
+            this.kind = kind;
+        }
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (names.size() >= limit) {
+                throw new IllegalArgumentException(
+                        "Too many distinct " + kind + " for columnar encoding (max " + limit + ")");
+            }
+            codes.put(value, names.size());
+            names.add(value);
+            return names.size() - 1;
+        }
+
+        int find(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        String get(int code) {
+            return names.get(code);
+        }
+
+        int size() {
+            return names.size();
+        }
+
+        void addAll(Dictionary other) {
+            for (String name : other.names) {
+                encode(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RecordColumns interface: read access to DataRecord fields by row
+ * Implemented by the in-heap DataRecordTable and by memory-mapped segments,
+ * so columnar processor methods run on either. Categories, statuses and tags
+ * are dictionary codes; timestamps are UTC epoch seconds (whole seconds only).
+ */
+public interface RecordColumns {
+
+    int size();
+
+    long getId(int row);
+
+    double getValue(int row);
+
+    int getPriority(int row);
+
+    long getEpochSecond(int row);
+
+    int getCategoryCode(int row);
+
+    int getStatusCode(int row);
+
+    /**
+     * @return Bitmask with one bit per tag dictionary entry
+     */
+    int getTagMask(int row);
+
+    int getCategoryCount();
+
+    String getCategoryName(int code);
+
+    /**
+     * @return Dictionary code of the category, or -1 if it never occurs
+     */
+    int findCategoryCode(String category);
+
+    int getStatusCount();
+
+    String getStatusName(int code);
+
+    /**
+     * @return Dictionary code of the status, or -1 if it never occurs
+     */
+    int findStatusCode(String status);
+
+    int getTagCount();
+
+    String getTagName(int code);
+
+    /**
+     * Look up the bitmask for the given tags
+     * @param tags Tags to look up
+     * @return Bitmask, or -1 if any tag is unknown
+     */
+    int lookupTagMask(List<String> tags);
+
+    /**
+     * Copy the given rows into a new in-heap table
+     * @param rows Row indexes to copy, in output order
+     * @return New table with the selected rows
+     */
+    DataRecordTable select(int[] rows);
+
+    /**
+     * Copy values of rows [from, to) into target starting at index 0
+     * Bulk reads let numeric kernels run over a primitive block.
+     */
+    default void readValues(int from, int to, double[] target) {
+        for (int row = from; row < to; row++) {
+            target[row - from] = getValue(row);
+        }
+    }
+
+    /**
+     * Copy priorities of rows [from, to), widened to double, into target starting at index 0
+     */
+    default void readPriorities(int from, int to, double[] target) {
+        for (int row = from; row < to; row++) {
+            target[row - from] = getPriority(row);
+        }
+    }
+
+    /**
+     * @return false if the row was added without a timestamp; its epoch second then reads as 0
+     */
+    default boolean hasTimestamp(int row) {
+        return true;
+    }
+
+    default LocalDateTime getTimestamp(int row) {
+        return hasTimestamp(row) ? LocalDateTime.ofEpochSecond(getEpochSecond(row), 0, ZoneOffset.UTC) : null;
+    }
+
+    default String getCategory(int row) {
+        return getCategoryName(getCategoryCode(row));
+    }
+
+    default String getStatus(int row) {
+        return getStatusName(getStatusCode(row));
+    }
+
+    default List<String> getTags(int row) {
+        int tagMask = getTagMask(row);
+        List<String> tags = new ArrayList<>(Integer.bitCount(tagMask));
+        for (int mask = tagMask; mask != 0; mask &= mask - 1) {
+            tags.add(getTagName(Integer.numberOfTrailingZeros(mask)));
+        }
+        return tags;
+    }
+
+    /**
+     * Materialize a single row as a DataRecord
+     * @param row Row index
+     * @return New DataRecord with the row's values
+     */
+    default DataRecord toRecord(int row) {
+        return new DataRecord(getId(row), getCategory(row), getValue(row), getTimestamp(row),
+                getPriority(row), getStatus(row), getTags(row));
+    }
+}
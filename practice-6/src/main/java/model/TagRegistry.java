@@ -0,0 +1,181 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TagRegistry class assigning each tag a bit of a short bitmask
+ * Every distinct tag set is one shared, immutable {@link TagSet} list, so
+ * records holding the same tags hold the same object instead of an
+ * ArrayList of their own. Tags are listed in bit (registration) order;
+ * registering a known vocabulary up front, in the order records list their
+ * tags, lets those lists be shared. At most {@link #MAX_TAGS} tags; tag sets
+ * that cannot be represented are left as they are. Thread-safe.
+ */
+public final class TagRegistry {
+
+    /** Maximum number of registered tags (bits of a short) */
+    public static final int MAX_TAGS = Short.SIZE;
+
+    private static final TagRegistry SHARED = new TagRegistry();
+
+    private final Map<String, Integer> bits = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> names = new AtomicReferenceArray<>(MAX_TAGS);
+    private final AtomicReferenceArray<TagSet> sets = new AtomicReferenceArray<>(1 << MAX_TAGS);
+    private volatile int tagCount;
+
+    /**
+     * @return Registry used by CompactDataRecord
+     */
+    public static TagRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Register tags in the given order, skipping known ones
+     * @param tags Tags to register
+     * @throws IllegalStateException if the registry runs out of bits
+     */
+    public void register(String... tags) {
+        for (String tag : tags) {
+            if (bitOf(tag) < 0) {
+                throw new IllegalStateException("More than " + MAX_TAGS + " tags: " + tag);
+            }
+        }
+    }
+
+    /**
+     * Bit of a tag, registering it if it is new
+     * @param tag Tag name
+     * @return Bit index, or -1 if the registry is full
+     */
+    public int bitOf(String tag) {
+        Integer bit = bits.get(tag);
+        if (bit != null) {
+            return bit;
+        }
+        synchronized (this) {
+            bit = bits.get(tag);
+            if (bit != null) {
+                return bit;
+            }
+            if (tagCount == MAX_TAGS) {
+                return -1;
+            }
+            names.set(tagCount, tag);
+            bits.put(tag, tagCount);
+            return tagCount++;
+        }
+    }
+
+    /**
+     * Bit of a tag without registering it
+     * @param tag Tag name
+     * @return Bit index, or -1 if the tag is unknown
+     */
+    public int lookupBit(String tag) {
+        Integer bit = tag != null ? bits.get(tag) : null;
+        return bit != null ? bit : -1;
+    }
+
+    /**
+     * @return Number of registered tags
+     */
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * @param bit Bit index below {@link #getTagCount()}
+     * @return Tag name of the bit
+     */
+    public String getTagName(int bit) {
+        if (bit < 0 || bit >= tagCount) {
+            throw new IndexOutOfBoundsException("Tag bit " + bit + " of " + tagCount);
+        }
+        return names.get(bit);
+    }
+
+    /**
+     * Shared list of the tags in a mask
+     * @param mask Bitmask over registered tags
+     * @return Immutable list of the tags in bit order
+     */
+    public TagSet tags(int mask) {
+        int index = mask & 0xFFFF;
+        if ((index >>> tagCount) != 0) {
+            throw new IllegalArgumentException("Mask has unregistered bits: " + Integer.toHexString(index));
+        }
+        TagSet set = sets.get(index);
+        if (set == null) {
+            sets.compareAndSet(index, null, new TagSet(this, index));
+            set = sets.get(index);
+        }
+        return set;
+    }
+
+    /**
+     * Shared equivalent of a tag list, registering unseen tags
+     * @param tags Tags as listed by a record (may be null)
+     * @return A TagSet equal to the list, or the list itself if it has nulls or
+     *         duplicates, is not in bit order, or needs more bits than are left
+     */
+    public List<String> canonical(List<String> tags) {
+        if (tags == null || (tags instanceof TagSet && ((TagSet) tags).registry == this)) {
+            return tags;
+        }
+        int mask = 0;
+        int previous = -1;
+        for (String tag : tags) {
+            int bit = tag != null ? bitOf(tag) : -1;
+            if (bit <= previous) {
+                return tags;
+            }
+            mask |= 1 << bit;
+            previous = bit;
+        }
+        return tags(mask);
+    }
+
+    /**
+     * Immutable list of the tags of one bitmask, shared by every record with those tags
+     */
+    public static final class TagSet extends AbstractList<String> implements RandomAccess {
+        private final TagRegistry registry;
+        private final short mask;
+        private final String[] tags;
+
+        private TagSet(TagRegistry registry, int mask) {
+            this.registry = registry;
+            this.mask = (short) mask;
+            this.tags = new String[Integer.bitCount(mask)];
+            int next = 0;
+            for (int bit = 0; bit < MAX_TAGS; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    tags[next++] = registry.getTagName(bit);
+                }
+            }
+        }
+
+        /**
+         * @return Bitmask of the tags
+         */
+        public short getMask() {
+            return mask;
+        }
+
+        @Override
+        public String get(int index) {
+            return tags[index];
+        }
+
+        @Override
+        public int size() {
+            return tags.length;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TimeSeries class holding time-ordered points as primitive arrays
+ * Timestamps are UTC epoch seconds plus an optional nano-of-second column,
+ * so series built from records keep their exact timestamps; points sharing a
+ * timestamp are kept as separate entries. Instances are immutable.
+ */
+public class TimeSeries {
+
+    private final long[] epochSeconds;
+    /** Nano-of-second per point, or null when every point is on a whole second */
+    private final int[] nanos;
+    private final double[] values;
+
+    /**
+     * Constructor from already time-ordered arrays (not copied)
+     * @param epochSeconds Timestamps in ascending order
+     * @param values Values aligned with the timestamps
+     */
+    public TimeSeries(long[] epochSeconds, double[] values) {
+        this(epochSeconds, null, values);
+    }
+
+    /**
+     * Constructor from already time-ordered arrays with sub-second precision (not copied)
+     * @param epochSeconds Timestamps in ascending order
+     * @param nanos Nano-of-second of each timestamp, or null for whole seconds
+     * @param values Values aligned with the timestamps
+     */
+    public TimeSeries(long[] epochSeconds, int[] nanos, double[] values) {
+        if (epochSeconds.length != values.length || (nanos != null && nanos.length != values.length)) {
+            throw new IllegalArgumentException("Timestamps and values must have the same length");
+        }
+        this.epochSeconds = epochSeconds;
+        this.nanos = nanos;
+        this.values = values;
+    }
+
+    /**
+     * Build a series of record values ordered by timestamp
+     * @param records List of DataRecord objects in any order
+     * @return Time-ordered series
+     */
+    public static TimeSeries of(List<DataRecord> records) {
+        DataRecord[] sorted = records.toArray(new DataRecord[0]);
+        Arrays.sort(sorted, Comparator.comparing(DataRecord::getTimestamp));
+        long[] times = new long[sorted.length];
+        int[] nanoOfSecond = new int[sorted.length];
+        double[] vals = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            times[i] = sorted[i].getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            nanoOfSecond[i] = sorted[i].getTimestamp().getNano();
+            vals[i] = sorted[i].getValue();
+        }
+        return new TimeSeries(times, nanoOfSecond, vals);
+    }
+
+    /**
+     * Build a series of row values ordered by timestamp
+     * @param table Columnar rows in any order
+     * @return Time-ordered series
+     */
+    public static TimeSeries of(RecordColumns table) {
+        int size = table.size();
+        long[] times = new long[size];
+        for (int row = 0; row < size; row++) {
+            times[row] = table.getEpochSecond(row);
+        }
+        int[] order = sortedOrder(times);
+        long[] sortedTimes = new long[size];
+        double[] vals = new double[size];
+        for (int i = 0; i < size; i++) {
+            sortedTimes[i] = times[order[i]];
+            vals[i] = table.getValue(order[i]);
+        }
+        return new TimeSeries(sortedTimes, vals);
+    }
+
+    /**
+     * Stable ascending order of the keys without boxing
+     * Each key is replaced by its offset from the minimum (or, for keys spread
+     * over more than 2^32 seconds, by its rank) and packed with its index
+     * into one long, so a primitive sort orders by key, then by index.
+     */
+    private static int[] sortedOrder(long[] keys) {
+        int size = keys.length;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        boolean ascending = true;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, keys[i]);
+            max = Math.max(max, keys[i]);
+            ascending &= i == 0 || keys[i - 1] <= keys[i];
+        }
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        if (ascending) {
+            return order;
+        }
+
+        long[] ranks = new long[size];
+        if (max - min >= 0 && max - min < 1L << 32) {
+            for (int i = 0; i < size; i++) {
+                ranks[i] = keys[i] - min;
+            }
+        } else {
+            long[] sorted = keys.clone();
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || sorted[i] != sorted[unique - 1]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            long[] distinct = Arrays.copyOf(sorted, unique);
+            for (int i = 0; i < size; i++) {
+                ranks[i] = Arrays.binarySearch(distinct, keys[i]);
+            }
+        }
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ranks[i] << 31 | i;
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) (packed[i] & Integer.MAX_VALUE);
+        }
+        return order;
+    }
+
+    /**
+     * Series stamped with the timestamps of some of this series' points
+     * @param points Indexes of the points whose timestamps to use, ascending
+     * @param newValues Values aligned with the points
+     * @return New series with the same sub-second precision as this one
+     */
+    public TimeSeries at(int[] points, double[] newValues) {
+        long[] times = new long[points.length];
+        int[] nanoOfSecond = nanos != null ? new int[points.length] : null;
+        for (int i = 0; i < points.length; i++) {
+            times[i] = epochSeconds[points[i]];
+            if (nanoOfSecond != null) {
+                nanoOfSecond[i] = nanos[points[i]];
+            }
+        }
+        return new TimeSeries(times, nanoOfSecond, newValues);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public long getEpochSecond(int index) {
+        return epochSeconds[index];
+    }
+
+    public int getNano(int index) {
+        return nanos != null ? nanos[index] : 0;
+    }
+
+    public LocalDateTime getTimestamp(int index) {
+        return LocalDateTime.ofEpochSecond(epochSeconds[index], getNano(index), ZoneOffset.UTC);
+    }
+
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Time-ordered map view; later points win when timestamps repeat
+     * @return LinkedHashMap of timestamp to value
+     */
+    public Map<LocalDateTime, Double> toMap() {
+        Map<LocalDateTime, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            map.put(getTimestamp(i), values[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeSeries{" +
+                "size=" + values.length +
+                (values.length > 0 ? ", from=" + getTimestamp(0) + ", to=" + getTimestamp(values.length - 1) : "") +
+                '}';
+    }
+}
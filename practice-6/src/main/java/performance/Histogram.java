@@ -0,0 +1,92 @@
+package performance;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram class: fixed-size log-linear histogram of non-negative longs
+ * Values below 16 have their own bucket; above, every power of two is split
+ * into 8 linear sub-buckets, so a reported percentile is at most 12.5% above
+ * the true value, from nanoseconds to hours or bytes to exabytes, in 4 KB.
+ * Recording is lock-free and thread-safe.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int EXACT = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = EXACT + (63 - 3) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Record a value; negative values count as 0
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0L);
+        counts.incrementAndGet(index(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return n > 0 ? (double) getSum() / n : 0.0;
+    }
+
+    /**
+     * Value at a quantile, as the upper bound of its bucket (capped at the maximum)
+     * @param quantile Quantile in [0, 1]
+     * @return Estimated value, 0 when empty
+     */
+    public long getValueAt(double quantile) {
+        long n = getCount();
+        if (n == 0) {
+            return 0L;
+        }
+        long rank = Math.max((long) Math.ceil(quantile * n), 1L);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int index(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 3;
+        int top = (int) (value >>> shift);
+        return EXACT + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    static long upperBound(int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int shift = (index - EXACT) / SUB_BUCKETS + 1;
+        long top = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+        long upper = ((top + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
@@ -0,0 +1,54 @@
+package performance;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * OperationEvent class: JFR event for one profiled processor call
+ * Enabled by default in any recording, e.g.
+ * java -XX:StartFlightRecording=filename=ops.jfr ... then
+ * jfr print --events practice6.Operation ops.jfr
+ */
+@Name("practice6.Operation")
+@Label("Processor Operation")
+@Category({"Practice 6", "Processors"})
+@Description("One processor call measured by OperationProfiler")
+class OperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Allocated per Row")
+    @DataAmount
+    long allocatedBytesPerRow;
+
+    @Label("CPU Time")
+    @Timespan
+    long cpuNanos;
+
+    @Label("GC Count")
+    long gcCount;
+
+    @Label("GC Time")
+    @Timespan(Timespan.MILLISECONDS)
+    long gcMillis;
+
+    @Label("Fork-Join Steals")
+    @Description("Tasks stolen between workers of the pool the call ran on")
+    long steals;
+
+    @Label("Failed")
+    @Description("The call threw an exception")
+    boolean failed;
+}
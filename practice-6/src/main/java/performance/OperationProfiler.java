@@ -0,0 +1,235 @@
+package performance;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * OperationProfiler class: per-operation allocation, CPU, GC and wall time
+ * Wraps processor calls and records, for each call:
+ * <ul>
+ * <li>allocated bytes and CPU time of every live thread (caller and pool
+ * workers running its parallel streams), from ThreadMXBean deltas;</li>
+ * <li>wall time, GC collections and GC time (GarbageCollectorMXBean);</li>
+ * <li>fork-join steals on the pool the call runs on, as a proxy for the
+ * number of stream tasks split off.</li>
+ * </ul>
+ * Each call also commits a JFR OperationEvent spanning the call (failed
+ * calls included, flagged), so a flight recording shows which operations
+ * allocate per row in production. Only successful calls enter the stats. Work done by other
+ * threads at the same time is attributed to the call too, so profile
+ * operations one at a time for exact numbers. Thread-safe.
+ */
+public class OperationProfiler {
+
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean allocation;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    // Bytes the two snapshots themselves allocate on the calling thread
+    private final long overheadBytes;
+
+    public OperationProfiler() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            allocation = (com.sun.management.ThreadMXBean) threads;
+            if (allocation.isThreadAllocatedMemorySupported()) {
+                allocation.setThreadAllocatedMemoryEnabled(true);
+            }
+        } else {
+            allocation = null;
+        }
+        if (threads.isThreadCpuTimeSupported()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            Snapshot before = snapshot(ForkJoinPool.commonPool());
+            overhead = Math.min(overhead, Math.max(snapshot(ForkJoinPool.commonPool()).allocatedSince(before), 0));
+        }
+        overheadBytes = overhead;
+    }
+
+    /**
+     * Run an operation and record its measurements
+     * @param operation Operation name, e.g. "DataProcessor.calculateStatistics"
+     * @param rows Input rows, for per-row allocation (0 if not applicable)
+     * @param call Operation to run
+     * @return Result of the call
+     */
+    public <T> T profile(String operation, long rows, Supplier<T> call) {
+        ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+        // The event spans the call itself, so its JFR start time and duration match the operation
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        Snapshot before = snapshot(pool);
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            Snapshot after = snapshot(pool);
+            event.end();
+
+            long allocated = Math.max(after.allocatedSince(before) - overheadBytes, 0);
+            long cpu = after.cpuSince(before);
+            long wall = after.wallNanos - before.wallNanos;
+            long gcCount = after.gcCount - before.gcCount;
+            long gcMillis = after.gcMillis - before.gcMillis;
+            long steals = after.steals - before.steals;
+            if (!failed) {
+                stats.computeIfAbsent(operation, OperationStats::new)
+                        .record(rows, wall, cpu, allocated, gcCount, gcMillis, steals);
+            }
+
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.rows = rows;
+                event.allocatedBytes = allocated;
+                event.allocatedBytesPerRow = rows > 0 ? allocated / rows : 0;
+                event.cpuNanos = cpu;
+                event.gcCount = gcCount;
+                event.gcMillis = gcMillis;
+                event.steals = steals;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Run an operation without a result and record its measurements
+     */
+    public void profile(String operation, long rows, Runnable call) {
+        profile(operation, rows, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return Whether per-thread allocation counters are available on this JVM
+     */
+    public boolean isAllocationSupported() {
+        return allocation != null && allocation.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @return Statistics of an operation, or null if it was never profiled
+     */
+    public OperationStats getStats(String operation) {
+        return stats.get(operation);
+    }
+
+    /**
+     * @return Statistics of every profiled operation, by name
+     */
+    public Map<String, OperationStats> getAllStats() {
+        return new TreeMap<>(stats);
+    }
+
+    /**
+     * Forget all measurements
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Summary table: calls, wall time percentiles, CPU, allocation per call and per row, GC, steals
+     * @return Formatted table, one line per operation
+     */
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-44s %6s %9s %9s %9s %10s %9s %8s %8s%n",
+                "Operation", "Calls", "p50(ms)", "p99(ms)", "CPU(ms)", "Alloc/call", "B/row", "GC(ms)", "Steals"));
+        for (OperationStats op : getAllStats().values()) {
+            long calls = Math.max(op.getCalls(), 1);
+            out.append(String.format("%-44s %6d %9.2f %9.2f %9.2f %10s %9.1f %8d %8d%n",
+                    op.getOperation(),
+                    op.getCalls(),
+                    op.getWallNanos().getValueAt(0.5) / 1e6,
+                    op.getWallNanos().getValueAt(0.99) / 1e6,
+                    op.getCpuNanos() / 1e6 / calls,
+                    formatBytes((long) op.getAllocatedBytes().getMean()),
+                    op.getAllocatedBytesPerRow(),
+                    op.getGcMillis(),
+                    op.getSteals()));
+        }
+        return out.toString();
+    }
+
+    private Snapshot snapshot(ForkJoinPool pool) {
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            gcCount += Math.max(collector.getCollectionCount(), 0);
+            gcMillis += Math.max(collector.getCollectionTime(), 0);
+        }
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = isAllocationSupported() ? allocation.getThreadAllocatedBytes(ids) : new long[ids.length];
+        long[] cpu = allocation != null && threads.isThreadCpuTimeEnabled()
+                ? allocation.getThreadCpuTime(ids) : new long[ids.length];
+        return new Snapshot(ids, allocated, cpu, System.nanoTime(), gcCount, gcMillis, pool.getStealCount());
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024 * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        return String.format("%.2f GB", bytes / (1024.0 * 1024.0 * 1024.0));
+    }
+
+    /**
+     * Counters of all live threads at one instant
+     */
+    private static final class Snapshot {
+        private final Map<Long, long[]> byThread;
+        private final long wallNanos;
+        private final long gcCount;
+        private final long gcMillis;
+        private final long steals;
+
+        Snapshot(long[] ids, long[] allocated, long[] cpu, long wallNanos, long gcCount, long gcMillis,
+                 long steals) {
+            this.byThread = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                byThread.put(ids[i], new long[] {allocated[i], cpu[i]});
+            }
+            this.wallNanos = wallNanos;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+            this.steals = steals;
+        }
+
+        long allocatedSince(Snapshot before) {
+            return since(before, 0);
+        }
+
+        long cpuSince(Snapshot before) {
+            return since(before, 1);
+        }
+
+        /** Sum of per-thread deltas; threads started during the call count from 0, -1 readings are skipped */
+        private long since(Snapshot before, int field) {
+            long total = 0;
+            for (Map.Entry<Long, long[]> entry : byThread.entrySet()) {
+                long now = entry.getValue()[field];
+                if (now < 0) {
+                    continue;
+                }
+                long[] then = before.byThread.get(entry.getKey());
+                total += now - (then != null ? Math.max(then[field], 0) : 0);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package performance;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OperationStats class: accumulated measurements of one profiled operation
+ * Wall time and allocated bytes are kept as histograms per call; the other
+ * measurements as totals. Thread-safe.
+ */
+public class OperationStats {
+
+    private final String operation;
+    private final Histogram wallNanos = new Histogram();
+    private final Histogram allocatedBytes = new Histogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder gcCount = new LongAdder();
+    private final LongAdder gcMillis = new LongAdder();
+    private final LongAdder steals = new LongAdder();
+
+    OperationStats(String operation) {
+        this.operation = operation;
+    }
+
+    void record(long rows, long wallNanos, long cpuNanos, long allocatedBytes,
+                long gcCount, long gcMillis, long steals) {
+        this.rows.add(rows);
+        this.wallNanos.record(wallNanos);
+        this.cpuNanos.add(cpuNanos);
+        this.allocatedBytes.record(allocatedBytes);
+        this.gcCount.add(gcCount);
+        this.gcMillis.add(gcMillis);
+        this.steals.add(steals);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return wallNanos.getCount();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * @return Wall time per call in nanoseconds
+     */
+    public Histogram getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return Bytes allocated per call, by the caller and every other thread during the call
+     */
+    public Histogram getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return Bytes allocated per input row over all calls, -1 without rows
+     */
+    public double getAllocatedBytesPerRow() {
+        long total = getRows();
+        return total > 0 ? (double) allocatedBytes.getSum() / total : -1.0;
+    }
+
+    /**
+     * @return CPU time of all threads during the calls, in nanoseconds
+     */
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long getGcCount() {
+        return gcCount.sum();
+    }
+
+    public long getGcMillis() {
+        return gcMillis.sum();
+    }
+
+    /**
+     * @return Fork-join tasks stolen between workers during the calls
+     */
+    public long getSteals() {
+        return steals.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "OperationStats{" +
+                "operation='" + operation + '\'' +
+                ", calls=" + getCalls() +
+                ", p50Nanos=" + wallNanos.getValueAt(0.5) +
+                ", allocatedBytesPerRow=" + getAllocatedBytesPerRow() +
+                '}';
+    }
+}
@@ -1,12 +1,20 @@
 package performance;
 
 import model.DataRecord;
+import model.DataRecordTable;
 import processor.DataProcessor;
 import processor.AdvancedProcessor;
 import processor.AsyncProcessor;
+import processor.ExecutionBackend;
+import processor.TagIndex;
+import processor.ValueIndex;
+import util.DataGenerator;
+import java.lang.ref.Reference;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * PerformanceAnalyzer class for measuring and comparing performance
@@ -17,11 +25,13 @@ public class PerformanceAnalyzer {
     private final DataProcessor dataProcessor;
     private final AdvancedProcessor advancedProcessor;
     private final AsyncProcessor asyncProcessor;
+    private final OperationProfiler profiler;
     
     public PerformanceAnalyzer() {
         this.dataProcessor = new DataProcessor();
         this.advancedProcessor = new AdvancedProcessor();
         this.asyncProcessor = new AsyncProcessor();
+        this.profiler = new OperationProfiler();
     }
 
     /**
@@ -82,58 +92,287 @@ public class PerformanceAnalyzer {
     }
 
     /**
-     * Measure memory usage during processing
+     * Measure memory allocated during processing
+     * Counts the bytes allocated by the caller and the worker threads during
+     * each call (ThreadMXBean), rather than the retained heap after System.gc()
      * @param records List of DataRecord objects
      */
     public void measureMemoryUsage(List<DataRecord> records) {
         System.out.println("=== Memory Usage Analysis ===");
         
-        // Force garbage collection
-        System.gc();
-        long initialMemory = getUsedMemory();
-        
-        System.out.println("Initial memory usage: " + formatBytes(initialMemory));
+        OperationProfiler memory = new OperationProfiler();
+        if (!memory.isAllocationSupported()) {
+            System.out.println("Per-thread allocation counters are not supported by this JVM");
+            return;
+        }
+        int rows = records.size();
+        memory.profile("Sequential processing", rows, () -> dataProcessor.calculateStatistics(records));
+        memory.profile("Parallel processing", rows, () -> dataProcessor.calculateStatisticsParallel(records));
+        memory.profile("Async processing", rows, () -> asyncProcessor.processAsync(records).join());
         
-        // Test sequential processing memory usage
-        System.gc();
-        long beforeSequential = getUsedMemory();
+        for (String operation : List.of("Sequential processing", "Parallel processing", "Async processing")) {
+            OperationStats stats = memory.getStats(operation);
+            System.out.printf("%s allocated: %s (%.1f B/row), GC: %d collections, %dms%n",
+                    operation, formatBytes(stats.getAllocatedBytes().getSum()),
+                    stats.getAllocatedBytesPerRow(), stats.getGcCount(), stats.getGcMillis());
+        }
+    }
+
+    /**
+     * Profile every processor operation and print the per-operation summary
+     * Results accumulate in {@link #getProfiler()} across calls, so running
+     * this several times fills the wall time and allocation histograms.
+     * @param records List of DataRecord objects
+     */
+    public void profileOperations(List<DataRecord> records) {
+        System.out.println("=== Per-Operation Profile ===");
         
-        dataProcessor.calculateStatistics(records);
+        DataRecordTable table = DataRecordTable.from(records);
+        int rows = records.size();
+        profiler.profile("DataProcessor.filterRecords", rows,
+                () -> dataProcessor.filterRecords(records, "A", 100.0));
+        profiler.profile("DataProcessor.filterRecordsParallel", rows,
+                () -> dataProcessor.filterRecordsParallel(records, "A", 100.0));
+        profiler.profile("DataProcessor.calculateStatistics", rows,
+                () -> dataProcessor.calculateStatistics(records));
+        profiler.profile("DataProcessor.calculateStatisticsParallel", rows,
+                () -> dataProcessor.calculateStatisticsParallel(records));
+        profiler.profile("DataProcessor.calculateStatisticsParallel(table)", rows,
+                () -> dataProcessor.calculateStatisticsParallel(table));
+        profiler.profile("DataProcessor.groupByPriorityParallel", rows,
+                () -> dataProcessor.groupByPriorityParallel(records));
+        profiler.profile("DataProcessor.countByStatusParallel", rows,
+                () -> dataProcessor.countByStatusParallel(records));
+        profiler.profile("AdvancedProcessor.aggregateByCategories", rows,
+                () -> advancedProcessor.aggregateByCategories(records));
+        profiler.profile("AdvancedProcessor.findTopNByCategory", rows,
+                () -> advancedProcessor.findTopNByCategory(records, 10));
+        profiler.profile("AdvancedProcessor.analyzeByTimeIntervals", rows,
+                () -> advancedProcessor.analyzeByTimeIntervals(records));
+        profiler.profile("AdvancedProcessor.calculateWeightedAverage", rows,
+                () -> advancedProcessor.calculateWeightedAverage(records));
+        profiler.profile("AdvancedProcessor.calculateWeightedAverage(table)", rows,
+                () -> advancedProcessor.calculateWeightedAverage(table));
+        profiler.profile("AdvancedProcessor.calculatePriorityValueCorrelation", rows,
+                () -> advancedProcessor.calculatePriorityValueCorrelation(records));
+        profiler.profile("AdvancedProcessor.findOutliers", rows,
+                () -> advancedProcessor.findOutliers(records, 2.0));
+        profiler.profile("AsyncProcessor.processAsync", rows,
+                () -> asyncProcessor.processAsync(records).join());
         
+        System.out.print(profiler.summary());
+    }
+
+    /**
+     * @return Profiler holding the measurements of {@link #profileOperations(List)}
+     */
+    public OperationProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Compare the list path with the columnar DataRecordTable path
+     * Reports time per operation and the heap saved by the columnar layout
+     * @param records List of DataRecord objects
+     */
+    public void compareColumnarPerformance(List<DataRecord> records) {
+        System.out.println("=== Columnar (DataRecordTable) vs List Comparison ===");
+
         System.gc();
-        long afterSequential = getUsedMemory();
-        
-        System.out.println("Sequential processing memory delta: " + 
-                formatBytes(afterSequential - beforeSequential));
-        
-        // Test parallel processing memory usage
+        long beforeTable = getUsedMemory();
+        DataRecordTable table = DataRecordTable.from(records);
+        table.trimToSize();
         System.gc();
-        long beforeParallel = getUsedMemory();
-        
-        dataProcessor.calculateStatisticsParallel(records);
-        
+        long tableMemory = Math.max(getUsedMemory() - beforeTable, table.estimatedSizeInBytes());
+
+        long listMemory = estimateListFootprint(records);
+        System.out.println("List heap (estimated):  " + formatBytes(listMemory));
+        System.out.println("Table heap (measured):  " + formatBytes(tableMemory));
+        System.out.println("Heap saved:             " + formatBytes(listMemory - tableMemory));
+        System.out.println();
+
+        printColumnarComparison("Filtering",
+                measureTime(() -> dataProcessor.filterRecordsParallel(records, "A", 100.0)),
+                measureTime(() -> dataProcessor.filterRecordsParallel(table, "A", 100.0)));
+        printColumnarComparison("Statistics",
+                measureTime(() -> dataProcessor.calculateStatisticsParallel(records)),
+                measureTime(() -> dataProcessor.calculateStatisticsParallel(table)));
+        printColumnarComparison("Count by Status",
+                measureTime(() -> dataProcessor.countByStatusParallel(records)),
+                measureTime(() -> dataProcessor.countByStatusParallel(table)));
+        printColumnarComparison("Complex Aggregation",
+                measureTime(() -> advancedProcessor.aggregateByCategories(records)),
+                measureTime(() -> advancedProcessor.aggregateByCategories(table)));
+        printColumnarComparison("Weighted Average",
+                measureTime(() -> advancedProcessor.calculateWeightedAverage(records)),
+                measureTime(() -> advancedProcessor.calculateWeightedAverage(table)));
+        printColumnarComparison("Correlation",
+                measureTime(() -> advancedProcessor.calculatePriorityValueCorrelation(records)),
+                measureTime(() -> advancedProcessor.calculatePriorityValueCorrelation(table)));
+    }
+
+    /**
+     * Compare the retained heap of DataRecord, CompactDataRecord and DataRecordTable
+     * Each representation is generated from the same seed, measured after a
+     * full GC and dropped before the next, so only one is live at a time
+     * (10M plain records need about 2 GB of heap). The scans show what the
+     * lazy timestamp views of compact records cost.
+     * @param count Number of records, e.g. 1,000,000 or 10,000,000
+     */
+    public void compareRecordFootprint(int count) {
+        System.out.println("=== Record Footprint: DataRecord vs CompactDataRecord vs DataRecordTable ===");
+        System.out.println("Records count: " + count);
+
+        DataGenerator generator = new DataGenerator(42);
+        long plain = measureFootprint("DataRecord", count, () -> generator.generate(count));
+        long compact = measureFootprint("CompactDataRecord", count, () -> generator.generateCompact(count));
+        long table = measureFootprint("DataRecordTable", count, () -> {
+            DataRecordTable rows = generator.generateTable(count);
+            rows.trimToSize();
+            return rows;
+        });
+        System.out.printf("Compact records: %.1fx less heap, table: %.1fx less heap%n",
+                (double) plain / compact, (double) plain / table);
+    }
+
+    /**
+     * Retained heap of one representation, plus scan times for record lists
+     */
+    @SuppressWarnings("unchecked")
+    private long measureFootprint(String name, int count, Supplier<Object> build) {
         System.gc();
-        long afterParallel = getUsedMemory();
-        
-        System.out.println("Parallel processing memory delta: " + 
-                formatBytes(afterParallel - beforeParallel));
-        
-        // Test async processing memory usage
+        long before = getUsedMemory();
+        Object data = build.get();
         System.gc();
-        long beforeAsync = getUsedMemory();
-        
-        CompletableFuture<Map<String, Double>> future = asyncProcessor.processAsync(records);
-        try {
-            future.get();
-        } catch (Exception e) {
-            e.printStackTrace();
+        long bytes = getUsedMemory() - before;
+        System.out.printf("  %-18s: %s (%.1f bytes/record)%n", name, formatBytes(bytes), (double) bytes / count);
+        if (data instanceof List) {
+            List<DataRecord> records = (List<DataRecord>) data;
+            System.out.printf("  %-18s  filter %dms, by day %dms, tag search %dms%n", "",
+                    measureTime(() -> dataProcessor.filterRecordsParallel(records, "A", 100.0)),
+                    measureTime(() -> advancedProcessor.analyzeByTimeIntervals(records)),
+                    measureTime(() -> advancedProcessor.findRecordsWithTags(records, Arrays.asList("urgent", "high"))));
         }
-        
-        System.gc();
-        long afterAsync = getUsedMemory();
-        
-        System.out.println("Async processing memory delta: " + 
-                formatBytes(afterAsync - beforeAsync));
+        Reference.reachabilityFence(data);
+        return bytes;
+    }
+
+    /**
+     * Compare sort-then-limit top-N with the bounded-heap collectors
+     * @param records List of DataRecord objects
+     * @param n Number of top records per category
+     */
+    public void compareTopNPerformance(List<DataRecord> records, int n) {
+        System.out.println("=== Top-N per Category: Sort vs Bounded Heap ===");
+        System.out.println("Records count: " + records.size() + ", N=" + n);
+
+        DataRecordTable table = DataRecordTable.from(records);
+
+        long sortTime = measureTime(() -> records.parallelStream()
+                .collect(Collectors.groupingBy(
+                        DataRecord::getCategory,
+                        Collectors.collectingAndThen(
+                                Collectors.toList(),
+                                list -> list.stream()
+                                        .sorted((r1, r2) -> Double.compare(r2.getValue(), r1.getValue()))
+                                        .limit(n)
+                                        .collect(Collectors.toList())
+                        )
+                )));
+        long heapTime = measureTime(() -> advancedProcessor.findTopNByCategory(records, n));
+        long columnarTime = measureTime(() -> advancedProcessor.findTopNByCategory(table, n));
+
+        System.out.printf("  %-20s: %dms%n", "Sort + limit", sortTime);
+        System.out.printf("  %-20s: %dms (%.2fx)%n", "Bounded heap", heapTime, (double) sortTime / heapTime);
+        System.out.printf("  %-20s: %dms (%.2fx)%n", "Columnar heap", columnarTime, (double) sortTime / columnarTime);
+    }
+
+    /**
+     * Compare tag search strategies: list scan, table tag mask and tag index
+     * @param records List of DataRecord objects
+     * @param requiredTags Tags that must be present
+     */
+    public void compareTagSearchPerformance(List<DataRecord> records, List<String> requiredTags) {
+        System.out.println("=== Tag Search: Scan vs Tag Mask vs Tag Index ===");
+        System.out.println("Records count: " + records.size() + ", tags=" + requiredTags);
+
+        DataRecordTable table = DataRecordTable.from(records);
+        long buildTime = measureTime(() -> TagIndex.of(records));
+        TagIndex index = TagIndex.of(records);
+
+        long scanTime = measureTime(() -> advancedProcessor.findRecordsWithTags(records, requiredTags));
+        long maskTime = measureTime(() -> advancedProcessor.findRecordsWithTags(table, requiredTags));
+        long indexTime = measureTime(() -> advancedProcessor.findRecordsWithTags(records, index, requiredTags));
+
+        System.out.printf("  %-20s: %dms%n", "List scan", scanTime);
+        System.out.printf("  %-20s: %dms (%.2fx)%n", "Table tag mask", maskTime, (double) scanTime / maskTime);
+        System.out.printf("  %-20s: %dms (%.2fx), build=%dms%n", "Tag index", indexTime,
+                (double) scanTime / indexTime, buildTime);
+    }
+
+    /**
+     * Compare value range scans with the sorted value index
+     * @param records List of DataRecord objects
+     * @param minValue Minimum value
+     * @param maxValue Maximum value
+     */
+    public void compareValueRangePerformance(List<DataRecord> records, double minValue, double maxValue) {
+        System.out.println("=== Value Range: Scan vs Sorted Index ===");
+
+        long buildTime = measureTime(() -> ValueIndex.of(records));
+        ValueIndex index = ValueIndex.of(records);
+        System.out.printf("Records count: %d, range=[%.1f, %.1f], selectivity=%.4f%%%n",
+                records.size(), minValue, maxValue, 100.0 * index.count(minValue, maxValue) / records.size());
+
+        long scanTime = measureTime(() -> advancedProcessor.findRecordsInValueRange(records, minValue, maxValue));
+        long indexTime = measureTime(() ->
+                advancedProcessor.findRecordsInValueRange(records, index, minValue, maxValue));
+        long filterScanTime = measureTime(() -> dataProcessor.filterRecordsParallel(records, "A", maxValue));
+        long filterIndexTime = measureTime(() -> dataProcessor.filterRecords(records, index, "A", maxValue));
+
+        System.out.printf("  %-20s: Scan=%dms, Index=%dms, build=%dms%n", "Value Range", scanTime, indexTime, buildTime);
+        System.out.printf("  %-20s: Scan=%dms, Index=%dms%n", "Filter (A, >= max)", filterScanTime, filterIndexTime);
+    }
+
+    /**
+     * Compare AsyncProcessor execution backends on the same workload
+     * @param records List of DataRecord objects
+     */
+    public void compareExecutionBackends(List<DataRecord> records) {
+        System.out.println("=== AsyncProcessor Execution Backends ===");
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        List<ExecutionBackend> backends = List.of(
+                ExecutionBackend.forkJoin(parallelism),
+                ExecutionBackend.workStealing(parallelism),
+                ExecutionBackend.virtualThreads(),
+                ExecutionBackend.sequential());
+
+        for (ExecutionBackend backend : backends) {
+            AsyncProcessor processor = new AsyncProcessor(backend);
+            try {
+                long time = measureTime(() -> processor.processMultipleOperationsAsync(records).join());
+                System.out.printf("  %-24s: %dms%n", backend.getName(), time);
+            } finally {
+                processor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Estimate the heap retained by a list of DataRecord objects
+     * Assumes a 64-bit JVM with compressed oops; category, status and tag
+     * strings are shared constants and are not counted
+     */
+    private long estimateListFootprint(List<DataRecord> records) {
+        long recordObject = 56;         // header + long, double, 2 ints, 4 references
+        long localDateTime = 24 + 24 + 24; // LocalDateTime + LocalDate + LocalTime
+        long tagList = 24 + 16;         // ArrayList + backing array header
+        long total = 16 + 4L * records.size(); // list backing array
+        for (DataRecord record : records) {
+            int tagCount = record.getTags() != null ? record.getTags().size() : 0;
+            total += recordObject + localDateTime + tagList + 4L * tagCount;
+        }
+        return total;
     }
 
     /**
@@ -225,6 +464,15 @@ public class PerformanceAnalyzer {
                 operation, sequentialTime, parallelTime, speedup);
     }
 
+    /**
+     * Print list vs columnar comparison
+     */
+    private void printColumnarComparison(String operation, long listTime, long tableTime) {
+        double speedup = (double) listTime / tableTime;
+        System.out.printf("  %-20s: List=%dms, Table=%dms, Speedup=%.2fx%n",
+                operation, listTime, tableTime, speedup);
+    }
+
     /**
      * Comprehensive performance analysis
      */
@@ -240,6 +488,10 @@ public class PerformanceAnalyzer {
         analyzeSizeImpact(records);
         System.out.println();
         measureMemoryUsage(records);
+        System.out.println();
+        profileOperations(records);
+        System.out.println();
+        compareColumnarPerformance(records);
         
         // Cleanup
         asyncProcessor.shutdown();
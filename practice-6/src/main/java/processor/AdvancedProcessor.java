@@ -1,10 +1,17 @@
 package processor;
 
+import kernel.NumericKernels;
 import model.DataRecord;
+import model.DataRecordTable;
+import model.RecordColumns;
+import model.TimeSeries;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.DoubleSummaryStatistics;
 
 /**
@@ -13,6 +20,26 @@ import java.util.DoubleSummaryStatistics;
  */
 public class AdvancedProcessor {
 
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final WindowProcessor windowProcessor = new WindowProcessor();
+    private final NumericKernels kernels;
+
+    /**
+     * Default constructor: columnar reductions use the kernels detected for this JVM
+     */
+    public AdvancedProcessor() {
+        this(NumericKernels.get());
+    }
+
+    /**
+     * Constructor with explicit numeric kernels for the columnar reductions
+     * @param kernels Kernels for weighted average, correlation and outliers
+     */
+    public AdvancedProcessor(NumericKernels kernels) {
+        this.kernels = Objects.requireNonNull(kernels);
+    }
+
     /**
      * Complex aggregation by multiple parameters
      * Groups by category, then by priority, and calculates average value
@@ -20,13 +47,11 @@ public class AdvancedProcessor {
      * @return Map of category to Map of priority to average value
      */
     public Map<String, Map<Integer, Double>> aggregateByCategories(List<DataRecord> records) {
-        return records.parallelStream()
-                .collect(Collectors.groupingBy(
-                        DataRecord::getCategory,
-                        Collectors.groupingBy(
-                                DataRecord::getPriority,
-                                Collectors.averagingDouble(DataRecord::getValue)
-                        )
+        return GroupBy.parallel(records,
+                DataRecord::getCategory,
+                Collectors.groupingBy(
+                        DataRecord::getPriority,
+                        Collectors.averagingDouble(DataRecord::getValue)
                 ));
     }
 
@@ -37,17 +62,9 @@ public class AdvancedProcessor {
      * @return Map of category to list of top-N records
      */
     public Map<String, List<DataRecord>> findTopNByCategory(List<DataRecord> records, int n) {
-        return records.parallelStream()
-                .collect(Collectors.groupingBy(
-                        DataRecord::getCategory,
-                        Collectors.collectingAndThen(
-                                Collectors.toList(),
-                                list -> list.stream()
-                                        .sorted((r1, r2) -> Double.compare(r2.getValue(), r1.getValue()))
-                                        .limit(n)
-                                        .collect(Collectors.toList())
-                        )
-                ));
+        return GroupBy.parallel(records,
+                DataRecord::getCategory,
+                TopN.collector(n, Comparator.comparingDouble(DataRecord::getValue)));
     }
 
     /**
@@ -56,11 +73,37 @@ public class AdvancedProcessor {
      * @return Map of date to statistics
      */
     public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervals(List<DataRecord> records) {
-        return records.parallelStream()
-                .collect(Collectors.groupingBy(
-                        record -> record.getTimestamp().toLocalDate(),
-                        Collectors.summarizingDouble(DataRecord::getValue)
-                ));
+        return GroupBy.parallel(records,
+                record -> record.getTimestamp().toLocalDate(),
+                Collectors.summarizingDouble(DataRecord::getValue));
+    }
+
+    /**
+     * Statistical analysis by day using a time index, in O(days)
+     * @param records List of DataRecord objects the index was built from
+     * @param index TimeIndex with HOUR or DAY buckets over the same list positions
+     * @return Map of date to statistics
+     */
+    public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervals(List<DataRecord> records,
+                                                                          TimeIndex index) {
+        checkTimeIndexSize(index, records.size());
+        return byDate(index.rollUp(TimeIndex.Granularity.DAY));
+    }
+
+    /**
+     * Statistical analysis by day over the days [from, to) using a time index
+     * Only the buckets of those days are read.
+     * @param records List of DataRecord objects the index was built from
+     * @param index TimeIndex with HOUR or DAY buckets over the same list positions
+     * @param from First day (inclusive)
+     * @param to Last day (exclusive)
+     * @return Map of date to statistics
+     */
+    public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervals(List<DataRecord> records,
+                                                                          TimeIndex index,
+                                                                          LocalDate from, LocalDate to) {
+        checkTimeIndexSize(index, records.size());
+        return byDate(index.rollUp(TimeIndex.Granularity.DAY, from.atStartOfDay(), to.atStartOfDay()));
     }
 
     /**
@@ -69,13 +112,11 @@ public class AdvancedProcessor {
      * @return Map of category to Map of status to statistics
      */
     public Map<String, Map<String, DoubleSummaryStatistics>> aggregateByCategoryAndStatus(List<DataRecord> records) {
-        return records.parallelStream()
-                .collect(Collectors.groupingBy(
-                        DataRecord::getCategory,
-                        Collectors.groupingBy(
-                                DataRecord::getStatus,
-                                Collectors.summarizingDouble(DataRecord::getValue)
-                        )
+        return GroupBy.parallel(records,
+                DataRecord::getCategory,
+                Collectors.groupingBy(
+                        DataRecord::getStatus,
+                        Collectors.summarizingDouble(DataRecord::getValue)
                 ));
     }
 
@@ -92,6 +133,22 @@ public class AdvancedProcessor {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Find records with specific tag combinations using a tag index
+     * @param records List of DataRecord objects the index was built from
+     * @param index TagIndex over the same list positions
+     * @param requiredTags List of tags that must be present
+     * @return List of records containing all required tags
+     */
+    public List<DataRecord> findRecordsWithTags(List<DataRecord> records, TagIndex index,
+                                                List<String> requiredTags) {
+        if (index.size() != records.size()) {
+            throw new IllegalArgumentException("Tag index covers " + index.size() +
+                    " rows but the list has " + records.size());
+        }
+        return TagIndex.select(index.allOf(requiredTags), records);
+    }
+
     /**
      * Calculate weighted average by priority
      * @param records List of DataRecord objects
@@ -123,28 +180,60 @@ public class AdvancedProcessor {
                 .collect(Collectors.groupingBy(DataRecord::getCategory));
     }
 
+    /**
+     * Find records within value range by category using a value index
+     * The planner uses the index for selective ranges and falls back to
+     * the parallel scan when too many rows match.
+     * @param records List of DataRecord objects the index was built from
+     * @param index ValueIndex over the same list positions
+     * @param minValue Minimum value
+     * @param maxValue Maximum value
+     * @return Map of category to list of records in range (list order)
+     */
+    public Map<String, List<DataRecord>> findRecordsInValueRange(List<DataRecord> records, ValueIndex index,
+                                                               double minValue, double maxValue) {
+        DataProcessor.checkIndexSize(index, records.size());
+        if (!index.preferIndex(index.count(minValue, maxValue))) {
+            return findRecordsInValueRange(records, minValue, maxValue);
+        }
+        Map<String, List<DataRecord>> result = new HashMap<>();
+        for (int row : index.rows(minValue, maxValue)) {
+            DataRecord record = records.get(row);
+            result.computeIfAbsent(record.getCategory(), key -> new ArrayList<>()).add(record);
+        }
+        return result;
+    }
+
     /**
      * Calculate moving average for time series data
-     * @param records List of DataRecord objects sorted by timestamp
+     * @param records List of DataRecord objects (sorted by timestamp internally)
      * @param windowSize Size of the moving window
-     * @return Map of timestamp to moving average
+     * @return Time-ordered map of the records' timestamps to moving average
+     *         (the last window wins when timestamps repeat exactly; use
+     *         {@link #calculateMovingAverageSeries} to keep every point)
      */
     public Map<LocalDateTime, Double> calculateMovingAverage(List<DataRecord> records, int windowSize) {
-        List<DataRecord> sortedRecords = records.stream()
-                .sorted(Comparator.comparing(DataRecord::getTimestamp))
-                .collect(Collectors.toList());
-        
-        Map<LocalDateTime, Double> movingAverages = new HashMap<>();
-        
-        for (int i = windowSize - 1; i < sortedRecords.size(); i++) {
-            double sum = sortedRecords.subList(i - windowSize + 1, i + 1)
-                    .stream()
-                    .mapToDouble(DataRecord::getValue)
-                    .sum();
-            movingAverages.put(sortedRecords.get(i).getTimestamp(), sum / windowSize);
-        }
-        
-        return movingAverages;
+        return calculateMovingAverageSeries(records, windowSize).toMap();
+    }
+
+    /**
+     * Calculate moving average for time series data in O(n) with a running sum
+     * @param records List of DataRecord objects (sorted by timestamp internally)
+     * @param windowSize Size of the moving window
+     * @return Time-ordered series with one point per full window
+     */
+    public TimeSeries calculateMovingAverageSeries(List<DataRecord> records, int windowSize) {
+        return windowProcessor.movingAverage(TimeSeries.of(records), windowSize);
+    }
+
+    /**
+     * Calculate time-based moving average (e.g. trailing 1 hour or 30 days)
+     * @param records List of DataRecord objects (sorted by timestamp internally)
+     * @param window Window length
+     * @return Time-ordered series with one point per record
+     */
+    public TimeSeries calculateMovingAverage(List<DataRecord> records, Duration window) {
+        return windowProcessor.movingAverage(TimeSeries.of(records), window);
     }
 
     /**
@@ -154,14 +243,11 @@ public class AdvancedProcessor {
      * @return List of outlier records
      */
     public List<DataRecord> findOutliers(List<DataRecord> records, double threshold) {
-        DoubleSummaryStatistics stats = records.parallelStream()
-                .collect(Collectors.summarizingDouble(DataRecord::getValue));
+        RunningMoments moments = records.parallelStream()
+                .collect(RunningMoments.summarizing(DataRecord::getValue));
         
-        double mean = stats.getAverage();
-        double stdDev = Math.sqrt(records.parallelStream()
-                .mapToDouble(record -> Math.pow(record.getValue() - mean, 2))
-                .average()
-                .orElse(0.0));
+        double mean = moments.getMean();
+        double stdDev = moments.getPopulationStandardDeviation();
         
         return records.parallelStream()
                 .filter(record -> Math.abs(record.getValue() - mean) > threshold * stdDev)
@@ -174,19 +260,364 @@ public class AdvancedProcessor {
      * @return Correlation coefficient
      */
     public double calculatePriorityValueCorrelation(List<DataRecord> records) {
+        MultiCollector<DataRecord> sums = new MultiCollector<>();
+        MultiCollector.Slot<Integer> sumXSlot = sums.add(Collectors.summingInt(DataRecord::getPriority));
+        MultiCollector.Slot<Double> sumYSlot = sums.add(Collectors.summingDouble(DataRecord::getValue));
+        MultiCollector.Slot<Double> sumXYSlot = sums.add(Collectors.summingDouble(record ->
+                record.getPriority() * record.getValue()));
+        MultiCollector.Slot<Double> sumX2Slot = sums.add(Collectors.summingDouble(record ->
+                record.getPriority() * record.getPriority()));
+        MultiCollector.Slot<Double> sumY2Slot = sums.add(Collectors.summingDouble(record ->
+                record.getValue() * record.getValue()));
+        MultiCollector.Results results = records.parallelStream().collect(sums.build());
+        
         double n = records.size();
-        double sumX = records.parallelStream().mapToInt(DataRecord::getPriority).sum();
-        double sumY = records.parallelStream().mapToDouble(DataRecord::getValue).sum();
-        double sumXY = records.parallelStream().mapToDouble(record -> 
-                record.getPriority() * record.getValue()).sum();
-        double sumX2 = records.parallelStream().mapToDouble(record -> 
-                record.getPriority() * record.getPriority()).sum();
-        double sumY2 = records.parallelStream().mapToDouble(record -> 
-                record.getValue() * record.getValue()).sum();
+        double sumX = results.get(sumXSlot);
+        double sumY = results.get(sumYSlot);
+        double sumXY = results.get(sumXYSlot);
+        double sumX2 = results.get(sumX2Slot);
+        double sumY2 = results.get(sumY2Slot);
         
         double numerator = n * sumXY - sumX * sumY;
         double denominator = Math.sqrt((n * sumX2 - sumX * sumX) * (n * sumY2 - sumY * sumY));
         
         return denominator != 0 ? numerator / denominator : 0.0;
     }
+
+    // Columnar variants (DataRecordTable or memory-mapped segment)
+
+    /**
+     * Complex aggregation by category and priority over a columnar table
+     * @param table Columnar rows to scan
+     * @return Map of category to Map of priority to average value
+     */
+    public Map<String, Map<Integer, Double>> aggregateByCategories(RecordColumns table) {
+        Map<String, Map<Integer, DoubleSummaryStatistics>> stats =
+                statisticsByCategoryAnd(table, table::getPriority);
+        Map<String, Map<Integer, Double>> result = new HashMap<>();
+        stats.forEach((category, byPriority) -> {
+            Map<Integer, Double> averages = new HashMap<>();
+            byPriority.forEach((priority, stat) -> averages.put(priority, stat.getAverage()));
+            result.put(category, averages);
+        });
+        return result;
+    }
+
+    /**
+     * Find top-N records by value in each category over a columnar table
+     * @param table Columnar rows to scan
+     * @param n Number of top records to find
+     * @return Map of category to list of top-N records
+     */
+    public Map<String, List<DataRecord>> findTopNByCategory(RecordColumns table, int n) {
+        return findTopNByCategory(table, n, true);
+    }
+
+    /**
+     * Top-N by category over a columnar table with a choice of parallelism
+     */
+    Map<String, List<DataRecord>> findTopNByCategory(RecordColumns table, int n, boolean parallel) {
+        int categories = table.getCategoryCount();
+        IntStream rows = IntStream.range(0, table.size());
+        TopN.ValueHeap[] heaps = (parallel ? rows.parallel() : rows)
+                .collect(
+                        () -> {
+                            TopN.ValueHeap[] acc = new TopN.ValueHeap[categories];
+                            for (int i = 0; i < categories; i++) {
+                                acc[i] = new TopN.ValueHeap(n);
+                            }
+                            return acc;
+                        },
+                        (acc, row) -> acc[table.getCategoryCode(row)].offer(row, table.getValue(row)),
+                        (left, right) -> {
+                            for (int i = 0; i < left.length; i++) {
+                                left[i].merge(right[i]);
+                            }
+                        });
+        Map<String, List<DataRecord>> result = new HashMap<>();
+        for (int code = 0; code < categories; code++) {
+            if (heaps[code].size() > 0) {
+                List<DataRecord> top = new ArrayList<>(heaps[code].size());
+                for (int row : heaps[code].toSortedRows()) {
+                    top.add(table.toRecord(row));
+                }
+                result.put(table.getCategoryName(code), top);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Statistical analysis by time intervals (daily) over a columnar table
+     * @param table Columnar rows to scan
+     * @return Map of date to statistics
+     */
+    public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervals(RecordColumns table) {
+        KeyCodes days = KeyCodes.of(table.size(), row -> Math.floorDiv(table.getEpochSecond(row), SECONDS_PER_DAY));
+        DoubleSummaryStatistics[] stats = IntStream.range(0, table.size())
+                .parallel()
+                .collect(
+                        () -> DataProcessor.newStatistics(days.count()),
+                        (acc, row) -> acc[days.code(row)].accept(table.getValue(row)),
+                        AdvancedProcessor::combineStatistics);
+        Map<LocalDate, DoubleSummaryStatistics> result = new HashMap<>();
+        for (int code = 0; code < stats.length; code++) {
+            if (stats[code].getCount() > 0) {
+                result.put(LocalDate.ofEpochDay(days.key(code)), stats[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Statistical analysis by day over a columnar table using a time index, in O(days)
+     * @param table Columnar rows the index was built from
+     * @param index TimeIndex with HOUR or DAY buckets over the same table rows
+     * @return Map of date to statistics
+     */
+    public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervals(RecordColumns table, TimeIndex index) {
+        checkTimeIndexSize(index, table.size());
+        return byDate(index.rollUp(TimeIndex.Granularity.DAY));
+    }
+
+    /**
+     * Statistical analysis by day over the days [from, to) of a columnar table using a time index
+     * @param table Columnar rows the index was built from
+     * @param index TimeIndex with HOUR or DAY buckets over the same table rows
+     * @param from First day (inclusive)
+     * @param to Last day (exclusive)
+     * @return Map of date to statistics
+     */
+    public Map<LocalDate, DoubleSummaryStatistics> analyzeByTimeIntervals(RecordColumns table, TimeIndex index,
+                                                                          LocalDate from, LocalDate to) {
+        checkTimeIndexSize(index, table.size());
+        return byDate(index.rollUp(TimeIndex.Granularity.DAY, from.atStartOfDay(), to.atStartOfDay()));
+    }
+
+    /**
+     * Complex aggregation by category and status over a columnar table
+     * @param table Columnar rows to scan
+     * @return Map of category to Map of status to statistics
+     */
+    public Map<String, Map<String, DoubleSummaryStatistics>> aggregateByCategoryAndStatus(RecordColumns table) {
+        Map<String, Map<Integer, DoubleSummaryStatistics>> stats =
+                statisticsByCategoryAnd(table, table::getStatusCode);
+        Map<String, Map<String, DoubleSummaryStatistics>> result = new HashMap<>();
+        stats.forEach((category, byStatus) -> {
+            Map<String, DoubleSummaryStatistics> named = new HashMap<>();
+            byStatus.forEach((code, stat) -> named.put(table.getStatusName(code), stat));
+            result.put(category, named);
+        });
+        return result;
+    }
+
+    /**
+     * Find records with specific tag combinations over a columnar table
+     * @param table Columnar rows to scan
+     * @param requiredTags List of tags that must be present
+     * @return Table with the rows containing all required tags
+     */
+    public DataRecordTable findRecordsWithTags(RecordColumns table, List<String> requiredTags) {
+        int required = table.lookupTagMask(requiredTags);
+        if (required < 0) {
+            return table.select(new int[0]);
+        }
+        return table.select(IntStream.range(0, table.size())
+                .parallel()
+                .filter(row -> (table.getTagMask(row) & required) == required)
+                .toArray());
+    }
+
+    /**
+     * Calculate weighted average by priority over a columnar table
+     * @param table Columnar rows to scan
+     * @return Weighted average value
+     */
+    public double calculateWeightedAverage(RecordColumns table) {
+        // weightedSum, totalWeight per block
+        double[] sums = ColumnBlocks.sum(ColumnBlocks.map(table, true, true,
+                (values, priorities, length, firstRow) -> new double[] {
+                        kernels.dot(values, priorities, 0, length),
+                        kernels.sum(priorities, 0, length)
+                }), 2);
+
+        double weightedSum = sums[0];
+        double totalWeight = sums[1];
+
+        return totalWeight > 0 ? weightedSum / totalWeight : 0.0;
+    }
+
+    /**
+     * Find records within value range by category over a columnar table
+     * @param table Columnar rows to scan
+     * @param minValue Minimum value
+     * @param maxValue Maximum value
+     * @return Map of category to table of rows in range
+     */
+    public Map<String, DataRecordTable> findRecordsInValueRange(RecordColumns table,
+                                                              double minValue, double maxValue) {
+        int[] matching = IntStream.range(0, table.size())
+                .parallel()
+                .filter(row -> table.getValue(row) >= minValue && table.getValue(row) <= maxValue)
+                .toArray();
+        KeyCodes categories = KeyCodes.of(matching.length, i -> table.getCategoryCode(matching[i]));
+        int[][] rowsByCategory = categories.partition(matching);
+        Map<String, DataRecordTable> result = new HashMap<>();
+        for (int code = 0; code < rowsByCategory.length; code++) {
+            if (rowsByCategory[code].length > 0) {
+                result.put(table.getCategoryName((int) categories.key(code)), table.select(rowsByCategory[code]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find records within value range by category using a value index (columnar)
+     * @param table Columnar rows the index was built from
+     * @param index ValueIndex over the same table rows
+     * @param minValue Minimum value
+     * @param maxValue Maximum value
+     * @return Map of category to table of rows in range
+     */
+    public Map<String, DataRecordTable> findRecordsInValueRange(RecordColumns table, ValueIndex index,
+                                                              double minValue, double maxValue) {
+        DataProcessor.checkIndexSize(index, table.size());
+        if (!index.preferIndex(index.count(minValue, maxValue))) {
+            return findRecordsInValueRange(table, minValue, maxValue);
+        }
+        Map<String, DataRecordTable> result = new HashMap<>();
+        for (int code = 0; code < table.getCategoryCount(); code++) {
+            String category = table.getCategoryName(code);
+            int[] rows = index.rows(category, minValue, maxValue);
+            if (rows.length > 0) {
+                result.put(category, table.select(rows));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calculate moving average for time series data over a columnar table
+     * @param table Columnar rows to scan
+     * @param windowSize Size of the moving window
+     * @return Time-ordered map of timestamp to moving average
+     */
+    public Map<LocalDateTime, Double> calculateMovingAverage(RecordColumns table, int windowSize) {
+        return calculateMovingAverageSeries(table, windowSize).toMap();
+    }
+
+    /**
+     * Calculate moving average over a columnar table in O(n) with a running sum
+     * @param table Columnar rows to scan
+     * @param windowSize Size of the moving window
+     * @return Time-ordered series with one point per full window
+     */
+    public TimeSeries calculateMovingAverageSeries(RecordColumns table, int windowSize) {
+        return windowProcessor.movingAverage(TimeSeries.of(table), windowSize);
+    }
+
+    /**
+     * Find outliers using statistical methods over a columnar table
+     * @param table Columnar rows to scan
+     * @param threshold Standard deviation threshold (e.g., 2.0 for 2-sigma)
+     * @return Table with the outlier rows
+     */
+    public DataRecordTable findOutliers(RecordColumns table, double threshold) {
+        // Per-block mean and squared deviations, merged with Chan's formula
+        RunningMoments moments = new RunningMoments();
+        ColumnBlocks.map(table, false, true, (values, priorities, length, firstRow) -> {
+            double blockMean = kernels.sum(values, 0, length) / length;
+            return RunningMoments.of(length, blockMean,
+                    kernels.sumOfSquaredDeviations(values, 0, length, blockMean));
+        }).forEach(moments::combine);
+
+        double mean = moments.getMean();
+        double radius = threshold * moments.getPopulationStandardDeviation();
+
+        // The masked count skips blocks without outliers and sizes each block's row array exactly
+        List<int[]> blockRows = ColumnBlocks.map(table, false, true, (values, priorities, length, firstRow) -> {
+            int[] rows = new int[kernels.countOutside(values, 0, length, mean, radius)];
+            for (int i = 0, found = 0; found < rows.length; i++) {
+                if (Math.abs(values[i] - mean) > radius) {
+                    rows[found++] = firstRow + i;
+                }
+            }
+            return rows;
+        });
+        return table.select(blockRows.stream().flatMapToInt(IntStream::of).toArray());
+    }
+
+    /**
+     * Complex correlation analysis between priority and value over a columnar table
+     * @param table Columnar rows to scan
+     * @return Correlation coefficient
+     */
+    public double calculatePriorityValueCorrelation(RecordColumns table) {
+        // sumX, sumY, sumXY, sumX2, sumY2 per block, while the block is in cache
+        double[] sums = ColumnBlocks.sum(ColumnBlocks.map(table, true, true,
+                (values, priorities, length, firstRow) -> new double[] {
+                        kernels.sum(priorities, 0, length),
+                        kernels.sum(values, 0, length),
+                        kernels.dot(priorities, values, 0, length),
+                        kernels.sumOfSquares(priorities, 0, length),
+                        kernels.sumOfSquares(values, 0, length)
+                }), 5);
+
+        double n = table.size();
+        double sumX = sums[0];
+        double sumY = sums[1];
+        double sumXY = sums[2];
+        double sumX2 = sums[3];
+        double sumY2 = sums[4];
+
+        double numerator = n * sumXY - sumX * sumY;
+        double denominator = Math.sqrt((n * sumX2 - sumX * sumX) * (n * sumY2 - sumY * sumY));
+
+        return denominator != 0 ? numerator / denominator : 0.0;
+    }
+
+    private static void checkTimeIndexSize(TimeIndex index, int size) {
+        if (index.size() != size) {
+            throw new IllegalArgumentException("Time index covers " + index.size() +
+                    " rows but the data has " + size);
+        }
+    }
+
+    private static Map<LocalDate, DoubleSummaryStatistics> byDate(Map<LocalDateTime, DoubleSummaryStatistics> daily) {
+        Map<LocalDate, DoubleSummaryStatistics> result = new HashMap<>();
+        daily.forEach((start, stat) -> result.put(start.toLocalDate(), stat));
+        return result;
+    }
+
+    /**
+     * Value statistics grouped by category and a second integer key,
+     * accumulated into one flat array per thread indexed by the code of the pair
+     */
+    private static Map<String, Map<Integer, DoubleSummaryStatistics>> statisticsByCategoryAnd(
+            RecordColumns table, IntUnaryOperator secondKey) {
+        KeyCodes keys = KeyCodes.of(table.size(), secondKey::applyAsInt);
+        long width = keys.count();
+        KeyCodes pairs = KeyCodes.of(table.size(), row -> table.getCategoryCode(row) * width + keys.code(row));
+        DoubleSummaryStatistics[] grouped = IntStream.range(0, table.size())
+                .parallel()
+                .collect(
+                        () -> DataProcessor.newStatistics(pairs.count()),
+                        (acc, row) -> acc[pairs.code(row)].accept(table.getValue(row)),
+                        AdvancedProcessor::combineStatistics);
+        Map<String, Map<Integer, DoubleSummaryStatistics>> result = new HashMap<>();
+        for (int code = 0; code < grouped.length; code++) {
+            if (grouped[code].getCount() > 0) {
+                long pair = pairs.key(code);
+                result.computeIfAbsent(table.getCategoryName((int) (pair / width)), category -> new HashMap<>())
+                        .put((int) keys.key((int) (pair % width)), grouped[code]);
+            }
+        }
+        return result;
+    }
+
+    private static void combineStatistics(DoubleSummaryStatistics[] left, DoubleSummaryStatistics[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i].combine(right[i]);
+        }
+    }
 }
@@ -0,0 +1,233 @@
+package processor;
+
+import model.DataRecord;
+import model.RecordColumns;
+import sketch.HeavyHitters;
+import sketch.HyperLogLog;
+import sketch.TDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * ApproximateProcessor class answering dashboard queries from mergeable sketches
+ * Distinct counts (HyperLogLog), value quantiles (t-digest) and frequent
+ * tags (Count-Min heavy hitters) are computed in one parallel pass: every
+ * stream leaf fills its own sketches and leaves are merged at the joins.
+ * Memory per group is fixed by the error bounds instead of growing with the
+ * data, and the sketch-returning methods let callers merge results across
+ * partitions, files or time ranges.
+ */
+public class ApproximateProcessor {
+
+    /** HyperLogLog precision for about 0.8% standard error (16 KB per sketch) */
+    public static final int DEFAULT_PRECISION = 14;
+    public static final double DEFAULT_EPSILON = 0.001;
+    public static final double DEFAULT_CONFIDENCE = 0.99;
+
+    private final int precision;
+    private final double compression;
+    private final double epsilon;
+    private final double confidence;
+
+    public ApproximateProcessor() {
+        this(DEFAULT_PRECISION, TDigest.DEFAULT_COMPRESSION, DEFAULT_EPSILON, DEFAULT_CONFIDENCE);
+    }
+
+    /**
+     * @param precision HyperLogLog index bits, see {@link HyperLogLog#precisionFor}
+     * @param compression t-digest compression
+     * @param epsilon Count-Min overcount bound as a share of all tags
+     * @param confidence Probability the Count-Min bound holds
+     */
+    public ApproximateProcessor(int precision, double compression, double epsilon, double confidence) {
+        if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be in [" + HyperLogLog.MIN_PRECISION + ", "
+                    + HyperLogLog.MAX_PRECISION + "]: " + precision);
+        }
+        if (!(compression >= 10)) {
+            throw new IllegalArgumentException("compression must be >= 10: " + compression);
+        }
+        if (!(epsilon > 0 && epsilon < 1) || !(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("epsilon and confidence must be in (0, 1): "
+                    + epsilon + ", " + confidence);
+        }
+        this.precision = precision;
+        this.compression = compression;
+        this.epsilon = epsilon;
+        this.confidence = confidence;
+    }
+
+    /**
+     * Sketch distinct record ids per category
+     * @param records List of records to process
+     * @return Map of category to HyperLogLog of ids
+     */
+    public Map<String, HyperLogLog> distinctIdsByCategory(List<DataRecord> records) {
+        return GroupBy.parallel(records,
+                DataRecord::getCategory,
+                HyperLogLog.collector(precision, DataRecord::getId));
+    }
+
+    /**
+     * Estimate distinct record ids per category
+     * @param records List of records to process
+     * @return Map of category to estimated distinct id count
+     */
+    public Map<String, Long> countDistinctIdsByCategory(List<DataRecord> records) {
+        return estimates(distinctIdsByCategory(records));
+    }
+
+    /**
+     * Digest record values
+     * @param records List of records to process
+     * @return TDigest of all values
+     */
+    public TDigest valueDigest(List<DataRecord> records) {
+        return records.parallelStream()
+                .collect(TDigest.collector(compression, DataRecord::getValue));
+    }
+
+    /**
+     * Digest record values per category
+     * @param records List of records to process
+     * @return Map of category to TDigest of values
+     */
+    public Map<String, TDigest> valueDigestByCategory(List<DataRecord> records) {
+        return GroupBy.parallel(records,
+                DataRecord::getCategory,
+                TDigest.collector(compression, DataRecord::getValue));
+    }
+
+    /**
+     * Estimate value quantiles, e.g. valueQuantiles(records, 0.5, 0.95, 0.99)
+     * @param records List of records to process
+     * @param quantiles Quantiles in [0, 1]
+     * @return Estimated values in the same order
+     */
+    public double[] valueQuantiles(List<DataRecord> records, double... quantiles) {
+        return valueDigest(records).quantiles(quantiles);
+    }
+
+    /**
+     * Sketch tag frequencies
+     * @param records List of records to process
+     * @param support Minimum share of all tag occurrences for a heavy hitter
+     * @return HeavyHitters sketch of tags
+     */
+    public HeavyHitters<String> tagSketch(List<DataRecord> records, double support) {
+        return records.parallelStream()
+                .collect(HeavyHitters.collector(support, epsilon, confidence, DataRecord::getTags));
+    }
+
+    /**
+     * Find tags making up at least the given share of all tag occurrences
+     * @param records List of records to process
+     * @param support Minimum share, e.g. 0.05
+     * @return Map of tag to estimated count, most frequent first
+     */
+    public Map<String, Long> findHeavyHitterTags(List<DataRecord> records, double support) {
+        return tagSketch(records, support).getHeavyHitters();
+    }
+
+    // Columnar variants (DataRecordTable or memory-mapped segment)
+
+    /**
+     * Sketch distinct record ids per category (columnar)
+     * @param table Columnar rows to scan
+     * @return Map of category to HyperLogLog of ids
+     */
+    public Map<String, HyperLogLog> distinctIdsByCategory(RecordColumns table) {
+        int categories = table.getCategoryCount();
+        HyperLogLog[] sketches = IntStream.range(0, table.size()).parallel().collect(
+                () -> new HyperLogLog[categories],
+                (acc, row) -> {
+                    int code = table.getCategoryCode(row);
+                    if (acc[code] == null) {
+                        acc[code] = new HyperLogLog(precision);
+                    }
+                    acc[code].addLong(table.getId(row));
+                },
+                (left, right) -> {
+                    for (int code = 0; code < categories; code++) {
+                        if (left[code] == null) {
+                            left[code] = right[code];
+                        } else if (right[code] != null) {
+                            left[code].merge(right[code]);
+                        }
+                    }
+                });
+        Map<String, HyperLogLog> result = new HashMap<>();
+        for (int code = 0; code < categories; code++) {
+            if (sketches[code] != null) {
+                result.put(table.getCategoryName(code), sketches[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimate distinct record ids per category (columnar)
+     * @param table Columnar rows to scan
+     * @return Map of category to estimated distinct id count
+     */
+    public Map<String, Long> countDistinctIdsByCategory(RecordColumns table) {
+        return estimates(distinctIdsByCategory(table));
+    }
+
+    /**
+     * Digest record values (columnar)
+     * @param table Columnar rows to scan
+     * @return TDigest of all values
+     */
+    public TDigest valueDigest(RecordColumns table) {
+        return IntStream.range(0, table.size()).parallel().collect(
+                () -> new TDigest(compression),
+                (digest, row) -> digest.add(table.getValue(row)),
+                TDigest::merge);
+    }
+
+    /**
+     * Estimate value quantiles (columnar)
+     * @param table Columnar rows to scan
+     * @param quantiles Quantiles in [0, 1]
+     * @return Estimated values in the same order
+     */
+    public double[] valueQuantiles(RecordColumns table, double... quantiles) {
+        return valueDigest(table).quantiles(quantiles);
+    }
+
+    /**
+     * Sketch tag frequencies (columnar)
+     * @param table Columnar rows to scan
+     * @param support Minimum share of all tag occurrences for a heavy hitter
+     * @return HeavyHitters sketch of tags
+     */
+    public HeavyHitters<String> tagSketch(RecordColumns table, double support) {
+        return IntStream.range(0, table.size()).parallel().collect(
+                () -> new HeavyHitters<String>(support, epsilon, confidence),
+                (sketch, row) -> {
+                    for (int mask = table.getTagMask(row); mask != 0; mask &= mask - 1) {
+                        sketch.add(table.getTagName(Integer.numberOfTrailingZeros(mask)));
+                    }
+                },
+                HeavyHitters::merge);
+    }
+
+    /**
+     * Find tags making up at least the given share of all tag occurrences (columnar)
+     * @param table Columnar rows to scan
+     * @param support Minimum share, e.g. 0.05
+     * @return Map of tag to estimated count, most frequent first
+     */
+    public Map<String, Long> findHeavyHitterTags(RecordColumns table, double support) {
+        return tagSketch(table, support).getHeavyHitters();
+    }
+
+    private static Map<String, Long> estimates(Map<String, HyperLogLog> sketches) {
+        Map<String, Long> result = new HashMap<>();
+        sketches.forEach((key, sketch) -> result.put(key, sketch.estimate()));
+        return result;
+    }
+}
@@ -1,27 +1,51 @@
 package processor;
 
 import model.DataRecord;
+import model.DataRecordTable;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * AsyncProcessor class for asynchronous processing using CompletableFuture
  * Provides parallel processing of multiple data sets and result combination
+ * List operations scan their input in chunks and check a CancellationToken
+ * between chunks, so cancelling (or timing out) a returned future, or the
+ * failure of a sibling operation, stops the scan instead of letting it run
+ * to the end. Overloads taking a token with a deadline return a
+ * PartialResult over the chunks read before the deadline.
  */
 public class AsyncProcessor {
     
-    private final ExecutorService executorService;
+    private static final int BATCHES_IN_FLIGHT = Runtime.getRuntime().availableProcessors();
+    private static final int CHUNK_SIZE = ColumnBlocks.BLOCK_SIZE;
+    
+    private final ExecutionBackend backend;
+    private final DataProcessor dataProcessor = new DataProcessor();
+    private final AdvancedProcessor advancedProcessor = new AdvancedProcessor();
     
     public AsyncProcessor() {
-        this.executorService = Executors.newFixedThreadPool(
-                Runtime.getRuntime().availableProcessors());
+        this(Runtime.getRuntime().availableProcessors());
     }
     
     public AsyncProcessor(int threadPoolSize) {
-        this.executorService = Executors.newFixedThreadPool(threadPoolSize);
+        this(ExecutionBackend.forkJoin(threadPoolSize));
+    }
+    
+    /**
+     * Constructor with an explicit execution backend
+     * @param backend Backend running the tasks (and their parallel streams)
+     */
+    public AsyncProcessor(ExecutionBackend backend) {
+        this.backend = backend;
     }
 
     /**
@@ -31,45 +55,109 @@ public class AsyncProcessor {
      * @return CompletableFuture with Map of category to average value
      */
     public CompletableFuture<Map<String, Double>> processAsync(List<DataRecord> records) {
-        return CompletableFuture.supplyAsync(() -> {
-            return records.parallelStream()
-                    .collect(Collectors.groupingBy(
-                            DataRecord::getCategory,
-                            Collectors.averagingDouble(DataRecord::getValue)
-                    ));
-        }, executorService);
+        return untilComplete(token -> processAsync(records, token));
+    }
+
+    /**
+     * Cancellable, deadline-aware variant of {@link #processAsync(List)}
+     * @param records List of DataRecord objects
+     * @param token Token stopping the scan; cancelled when the returned future fails or is cancelled
+     * @return CompletableFuture with category averages over the rows scanned before the deadline
+     */
+    public CompletableFuture<PartialResult<Map<String, Double>>> processAsync(List<DataRecord> records,
+                                                                            CancellationToken token) {
+        return scanAsync(records, token, Collectors.groupingBy(
+                DataRecord::getCategory,
+                Collectors.averagingDouble(DataRecord::getValue)));
     }
 
     /**
      * Parallel processing of multiple data sets
+     * Batches go through a bounded pipeline, so at most a few batches are
+     * processed at once instead of all of them being submitted up front.
      * @param batches List of data batches to process
      * @return List of CompletableFuture objects for each batch
      */
     public List<CompletableFuture<List<DataRecord>>> processBatch(List<List<DataRecord>> batches) {
-        return batches.stream()
-                .map(batch -> CompletableFuture.supplyAsync(() -> {
-                    // Simulate some processing - filter high priority records
-                    return batch.parallelStream()
-                            .filter(record -> record.getPriority() >= 3)
-                            .collect(Collectors.toList());
-                }, executorService))
-                .collect(Collectors.toList());
+        List<CompletableFuture<List<DataRecord>>> futures = new ArrayList<>(batches.size());
+        for (int i = 0; i < batches.size(); i++) {
+            futures.add(new CompletableFuture<>());
+        }
+        Iterator<CompletableFuture<List<DataRecord>>> targets = futures.iterator();
+        batchPipeline(batches.iterator(), true)
+                .forEach(done -> {
+                    CompletableFuture<List<DataRecord>> target = targets.next();
+                    done.whenComplete((result, error) -> {
+                        if (error != null) {
+                            target.completeExceptionally(error);
+                        } else {
+                            target.complete(result);
+                        }
+                    });
+                })
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        futures.forEach(future -> future.completeExceptionally(error));
+                    }
+                });
+        return futures;
+    }
+
+    /**
+     * Process an unbounded stream of batches with constant memory
+     * @param batches Batches, consumed lazily as capacity frees up
+     * @param ordered true to deliver results in source order
+     * @param sink Receives the filtered batch of each input batch
+     * @return CompletableFuture completed when every batch has reached the sink
+     */
+    public CompletableFuture<Void> processBatchStream(Iterator<List<DataRecord>> batches, boolean ordered,
+                                                      Consumer<List<DataRecord>> sink) {
+        return batchPipeline(batches, ordered).forEach(done -> sink.accept(done.join()));
+    }
+
+    /**
+     * Pipeline running the batch filter with a bounded number of batches in flight
+     * The stage workers run on the backend and filter the batch themselves; a
+     * failed batch travels on as a failed future so its siblings still complete.
+     */
+    private Pipeline<CompletableFuture<List<DataRecord>>> batchPipeline(Iterator<List<DataRecord>> batches,
+                                                                       boolean ordered) {
+        return Pipeline.from(batches)
+                .map(batch -> {
+                    try {
+                        // Simulate some processing - filter high priority records
+                        return CompletableFuture.completedFuture(backend.stream(batch)
+                                .filter(record -> record.getPriority() >= 3)
+                                .collect(Collectors.<DataRecord>toList()));
+                    } catch (RuntimeException e) {
+                        return CompletableFuture.<List<DataRecord>>failedFuture(e);
+                    }
+                }, BATCHES_IN_FLIGHT)
+                .bufferSize(BATCHES_IN_FLIGHT)
+                .ordered(ordered)
+                .executor(backend.workerExecutor());
     }
 
     /**
      * Combine results of asynchronous processing
+     * Stops waiting at the first failure: futures still running are cancelled
+     * (which stops the scans of this processor's futures) and reported as errors.
      * @param futures List of CompletableFuture objects
      * @return CompletableFuture with combined results
      */
     public CompletableFuture<Map<String, Object>> combineResults(List<CompletableFuture<?>> futures) {
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> {
+        return allOrFirstFailure(futures)
+                .handle((v, failure) -> {
                     Map<String, Object> results = new HashMap<>();
                     
                     for (int i = 0; i < futures.size(); i++) {
+                        CompletableFuture<?> future = futures.get(i);
+                        future.cancel(true);
                         try {
-                            Object result = futures.get(i).get();
+                            Object result = future.get();
                             results.put("batch_" + i, result);
+                        } catch (CancellationException e) {
+                            results.put("batch_" + i + "_error", "cancelled");
                         } catch (Exception e) {
                             results.put("batch_" + i + "_error", e.getMessage());
                         }
@@ -88,12 +176,23 @@ public class AsyncProcessor {
      */
     public CompletableFuture<List<DataRecord>> filterAsync(List<DataRecord> records, 
                                                           String category, double minValue) {
-        return CompletableFuture.supplyAsync(() -> {
-            return records.parallelStream()
-                    .filter(record -> category.equals(record.getCategory()))
-                    .filter(record -> record.getValue() >= minValue)
-                    .collect(Collectors.toList());
-        }, executorService);
+        return untilComplete(token -> filterAsync(records, category, minValue, token));
+    }
+
+    /**
+     * Cancellable, deadline-aware variant of {@link #filterAsync(List, String, double)}
+     * @param records List of DataRecord objects
+     * @param category Category to filter by
+     * @param minValue Minimum value threshold
+     * @param token Token stopping the scan; cancelled when the returned future fails or is cancelled
+     * @return CompletableFuture with the matches among the rows scanned before the deadline
+     */
+    public CompletableFuture<PartialResult<List<DataRecord>>> filterAsync(List<DataRecord> records,
+                                                                        String category, double minValue,
+                                                                        CancellationToken token) {
+        return scanAsync(records, token, Collectors.filtering(
+                record -> category.equals(record.getCategory()) && record.getValue() >= minValue,
+                Collectors.toList()));
     }
 
     /**
@@ -102,37 +201,40 @@ public class AsyncProcessor {
      * @return CompletableFuture with statistics
      */
     public CompletableFuture<Map<String, Object>> analyzeAsync(List<DataRecord> records) {
-        return CompletableFuture.supplyAsync(() -> {
+        return untilComplete(token -> analyzeAsync(records, token));
+    }
+
+    /**
+     * Cancellable, deadline-aware variant of {@link #analyzeAsync(List)}
+     * @param records List of DataRecord objects
+     * @param token Token stopping the scan; cancelled when the returned future fails or is cancelled
+     * @return CompletableFuture with statistics over the rows scanned before the deadline
+     */
+    public CompletableFuture<PartialResult<Map<String, Object>>> analyzeAsync(List<DataRecord> records,
+                                                                             CancellationToken token) {
+        // Basic statistics, category counts and status counts in a single pass
+        MultiCollector<DataRecord> aggregates = new MultiCollector<>();
+        MultiCollector.Slot<DoubleSummaryStatistics> statsSlot =
+                aggregates.add(Collectors.summarizingDouble(DataRecord::getValue));
+        MultiCollector.Slot<Map<String, Long>> categoryCountSlot =
+                aggregates.add(Collectors.groupingBy(DataRecord::getCategory, Collectors.counting()));
+        MultiCollector.Slot<Map<String, Long>> statusCountSlot =
+                aggregates.add(Collectors.groupingBy(DataRecord::getStatus, Collectors.counting()));
+        
+        return scanAsync(records, token, Collectors.collectingAndThen(aggregates.build(), results -> {
             Map<String, Object> analysis = new HashMap<>();
             
-            // Calculate basic statistics
-            DoubleSummaryStatistics stats = records.parallelStream()
-                    .collect(Collectors.summarizingDouble(DataRecord::getValue));
-            
+            DoubleSummaryStatistics stats = results.get(statsSlot);
             analysis.put("count", stats.getCount());
             analysis.put("sum", stats.getSum());
             analysis.put("min", stats.getMin());
             analysis.put("max", stats.getMax());
             analysis.put("average", stats.getAverage());
-            
-            // Count by category
-            Map<String, Long> categoryCount = records.parallelStream()
-                    .collect(Collectors.groupingBy(
-                            DataRecord::getCategory,
-                            Collectors.counting()
-                    ));
-            analysis.put("categoryCount", categoryCount);
-            
-            // Count by status
-            Map<String, Long> statusCount = records.parallelStream()
-                    .collect(Collectors.groupingBy(
-                            DataRecord::getStatus,
-                            Collectors.counting()
-                    ));
-            analysis.put("statusCount", statusCount);
+            analysis.put("categoryCount", results.get(categoryCountSlot));
+            analysis.put("statusCount", results.get(statusCountSlot));
             
             return analysis;
-        }, executorService);
+        }));
     }
 
     /**
@@ -142,19 +244,21 @@ public class AsyncProcessor {
      * @return CompletableFuture with top-N results
      */
     public CompletableFuture<Map<String, List<DataRecord>>> findTopNAsync(List<DataRecord> records, int n) {
-        return CompletableFuture.supplyAsync(() -> {
-            return records.parallelStream()
-                    .collect(Collectors.groupingBy(
-                            DataRecord::getCategory,
-                            Collectors.collectingAndThen(
-                                    Collectors.toList(),
-                                    list -> list.stream()
-                                            .sorted((r1, r2) -> Double.compare(r2.getValue(), r1.getValue()))
-                                            .limit(n)
-                                            .collect(Collectors.toList())
-                            )
-                    ));
-        }, executorService);
+        return untilComplete(token -> findTopNAsync(records, n, token));
+    }
+
+    /**
+     * Cancellable, deadline-aware variant of {@link #findTopNAsync(List, int)}
+     * @param records List of DataRecord objects
+     * @param n Number of top records
+     * @param token Token stopping the scan; cancelled when the returned future fails or is cancelled
+     * @return CompletableFuture with top-N among the rows scanned before the deadline
+     */
+    public CompletableFuture<PartialResult<Map<String, List<DataRecord>>>> findTopNAsync(
+            List<DataRecord> records, int n, CancellationToken token) {
+        return scanAsync(records, token, Collectors.groupingBy(
+                DataRecord::getCategory,
+                TopN.collector(n, Comparator.comparingDouble(DataRecord::getValue))));
     }
 
     /**
@@ -163,36 +267,274 @@ public class AsyncProcessor {
      * @return CompletableFuture with combined analysis
      */
     public CompletableFuture<Map<String, Object>> processMultipleOperationsAsync(List<DataRecord> records) {
-        CompletableFuture<Map<String, Double>> categoryAverages = processAsync(records);
-        CompletableFuture<Map<String, Object>> analysis = analyzeAsync(records);
-        CompletableFuture<Map<String, List<DataRecord>>> topRecords = findTopNAsync(records, 5);
+        return untilComplete(token -> processMultipleOperationsAsync(records, token));
+    }
+
+    /**
+     * Process multiple operations in parallel under one token and combine results
+     * The operations fail fast together: the first failure cancels the token,
+     * so the siblings stop at their next chunk and the returned future fails
+     * without waiting for them. They are plain futures rather than a Pipeline:
+     * three independent operations have no stream to apply backpressure to,
+     * and a pipeline stage would block a worker on each operation's join().
+     * @param records List of DataRecord objects
+     * @param token Token shared by the operations
+     * @return CompletableFuture with combined analysis; rows scanned is that of the least complete operation
+     */
+    public CompletableFuture<PartialResult<Map<String, Object>>> processMultipleOperationsAsync(
+            List<DataRecord> records, CancellationToken token) {
+        Map<String, CompletableFuture<? extends PartialResult<?>>> operations = new LinkedHashMap<>();
+        operations.put("categoryAverages", processAsync(records, token));
+        operations.put("analysis", analyzeAsync(records, token));
+        operations.put("topRecords", findTopNAsync(records, 5, token));
         
+        return stopOnFailure(allOrFirstFailure(new ArrayList<>(operations.values())).thenApply(v -> {
+            Map<String, Object> combinedResults = new HashMap<>();
+            long rowsScanned = records.size();
+            for (Map.Entry<String, CompletableFuture<? extends PartialResult<?>>> operation : operations.entrySet()) {
+                PartialResult<?> result = operation.getValue().join();
+                combinedResults.put(operation.getKey(), result.getValue());
+                rowsScanned = Math.min(rowsScanned, result.getRowsScanned());
+            }
+            return new PartialResult<>(combinedResults, rowsScanned, records.size());
+        }), token);
+    }
+
+    // Cancellation
+
+    /**
+     * Run a token-taking operation with a token of its own and return just its value
+     */
+    private static <T> CompletableFuture<T> untilComplete(
+            Function<CancellationToken, CompletableFuture<PartialResult<T>>> operation) {
+        CancellationToken token = CancellationToken.create();
+        return stopOnFailure(operation.apply(token).thenApply(PartialResult::getValue), token);
+    }
+
+    /**
+     * Cancel the token when the future fails, times out or is cancelled by the caller
+     * (CompletableFuture.cancel alone leaves the task running)
+     */
+    private static <T> CompletableFuture<T> stopOnFailure(CompletableFuture<T> future, CancellationToken token) {
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                token.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Future completed when every future has completed, or exceptionally as soon as one fails
+     */
+    private static CompletableFuture<Void> allOrFirstFailure(List<? extends CompletableFuture<?>> futures) {
+        CompletableFuture<Void> all = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(futures.size());
+        for (CompletableFuture<?> future : futures) {
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    all.completeExceptionally(error);
+                } else if (pending.decrementAndGet() == 0) {
+                    all.complete(null);
+                }
+            });
+        }
+        if (futures.isEmpty()) {
+            all.complete(null);
+        }
+        return all;
+    }
+
+    /**
+     * Submit a chunked scan of the records as a task cancelled together with its future
+     */
+    private <A, R> CompletableFuture<PartialResult<R>> scanAsync(List<DataRecord> records, CancellationToken token,
+                                                               Collector<? super DataRecord, A, R> collector) {
+        return stopOnFailure(backend.submit(() -> scan(records, token, collector)), token);
+    }
+
+    /**
+     * Collect the records chunk by chunk (in parallel on parallel backends), checking the
+     * token before every chunk: cancellation aborts the scan, an expired deadline skips
+     * the remaining chunks and the result covers the chunks already read
+     */
+    private <A, R> PartialResult<R> scan(List<DataRecord> records, CancellationToken token,
+                                         Collector<? super DataRecord, A, R> collector) {
+        token.throwIfCancelled();
+        List<DataRecord> rows = records instanceof RandomAccess ? records : new ArrayList<>(records);
+        int size = rows.size();
+        Supplier<A> supplier = collector.supplier();
+        BiConsumer<A, ? super DataRecord> accumulator = collector.accumulator();
+        
+        IntStream chunks = IntStream.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        Chunk<A> total = (backend.isParallel() ? chunks.parallel() : chunks)
+                .mapToObj(chunk -> {
+                    token.throwIfCancelled();
+                    A container = supplier.get();
+                    if (token.isExpired()) {
+                        return new Chunk<>(container, 0);
+                    }
+                    int from = chunk * CHUNK_SIZE;
+                    int to = Math.min(from + CHUNK_SIZE, size);
+                    for (int i = from; i < to; i++) {
+                        accumulator.accept(container, rows.get(i));
+                    }
+                    return new Chunk<>(container, to - from);
+                })
+                .reduce((left, right) -> new Chunk<>(
+                        collector.combiner().apply(left.container, right.container), left.rows + right.rows))
+                .orElseGet(() -> new Chunk<>(supplier.get(), 0));
+        token.throwIfCancelled();
+        return new PartialResult<>(collector.finisher().apply(total.container), total.rows, size);
+    }
+
+    /**
+     * Collector container of a run of chunks and the rows it has seen
+     */
+    private static final class Chunk<A> {
+        final A container;
+        final long rows;
+
+        Chunk(A container, long rows) {
+            this.container = container;
+            this.rows = rows;
+        }
+    }
+
+    // Columnar (DataRecordTable) variants
+
+    /**
+     * Asynchronous processing over a columnar table
+     * @param table DataRecordTable to scan
+     * @return CompletableFuture with Map of category to average value
+     */
+    public CompletableFuture<Map<String, Double>> processAsync(DataRecordTable table) {
+        return backend.submit(() -> backend.isParallel()
+                ? dataProcessor.calculateAverageByCategoryParallel(table)
+                : dataProcessor.calculateAverageByCategory(table));
+    }
+
+    /**
+     * Parallel processing of multiple columnar tables
+     * (named differently because List&lt;DataRecordTable&gt; erases to the same type as the list overload)
+     * @param batches List of tables to process
+     * @return List of CompletableFuture objects for each batch
+     */
+    public List<CompletableFuture<DataRecordTable>> processBatchTables(List<DataRecordTable> batches) {
+        return batches.stream()
+                .map(batch -> backend.submit(() -> batch.select(
+                        rows(batch.size())
+                                .filter(row -> batch.getPriority(row) >= 3)
+                                .toArray())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Asynchronous filtering with custom criteria over a columnar table
+     * @param table DataRecordTable to scan
+     * @param category Category to filter by
+     * @param minValue Minimum value threshold
+     * @return CompletableFuture with filtered rows
+     */
+    public CompletableFuture<DataRecordTable> filterAsync(DataRecordTable table,
+                                                         String category, double minValue) {
+        return backend.submit(() -> backend.isParallel()
+                ? dataProcessor.filterRecordsParallel(table, category, minValue)
+                : dataProcessor.filterRecords(table, category, minValue));
+    }
+
+    /**
+     * Asynchronous statistical analysis over a columnar table
+     * @param table DataRecordTable to scan
+     * @return CompletableFuture with statistics
+     */
+    public CompletableFuture<Map<String, Object>> analyzeAsync(DataRecordTable table) {
+        return backend.submit(() -> {
+            Map<String, Object> analysis = new HashMap<>();
+
+            // Overall statistics are merged from the per-category pass instead of rescanning
+            DoubleSummaryStatistics stats = new DoubleSummaryStatistics();
+            Map<String, Long> categoryCount = new HashMap<>();
+            Map<String, DoubleSummaryStatistics> categoryStats = backend.isParallel()
+                    ? dataProcessor.calculateStatisticsParallel(table)
+                    : dataProcessor.calculateStatistics(table);
+            categoryStats.forEach((category, stat) -> {
+                stats.combine(stat);
+                categoryCount.put(category, stat.getCount());
+            });
+
+            analysis.put("count", stats.getCount());
+            analysis.put("sum", stats.getSum());
+            analysis.put("min", stats.getMin());
+            analysis.put("max", stats.getMax());
+            analysis.put("average", stats.getAverage());
+            analysis.put("categoryCount", categoryCount);
+
+            analysis.put("statusCount", backend.isParallel()
+                    ? dataProcessor.countByStatusParallel(table)
+                    : dataProcessor.countByStatus(table));
+
+            return analysis;
+        });
+    }
+
+    /**
+     * Asynchronous top-N analysis by category over a columnar table
+     * @param table DataRecordTable to scan
+     * @param n Number of top records
+     * @return CompletableFuture with top-N results
+     */
+    public CompletableFuture<Map<String, List<DataRecord>>> findTopNAsync(DataRecordTable table, int n) {
+        return backend.submit(() -> advancedProcessor.findTopNByCategory(table, n, backend.isParallel()));
+    }
+
+    /**
+     * Process multiple operations in parallel over a columnar table and combine results
+     * @param table DataRecordTable to scan
+     * @return CompletableFuture with combined analysis
+     */
+    public CompletableFuture<Map<String, Object>> processMultipleOperationsAsync(DataRecordTable table) {
+        CompletableFuture<Map<String, Double>> categoryAverages = processAsync(table);
+        CompletableFuture<Map<String, Object>> analysis = analyzeAsync(table);
+        CompletableFuture<Map<String, List<DataRecord>>> topRecords = findTopNAsync(table, 5);
+
         return CompletableFuture.allOf(categoryAverages, analysis, topRecords)
                 .thenApply(v -> {
                     Map<String, Object> combinedResults = new HashMap<>();
-                    try {
-                        combinedResults.put("categoryAverages", categoryAverages.get());
-                        combinedResults.put("analysis", analysis.get());
-                        combinedResults.put("topRecords", topRecords.get());
-                    } catch (Exception e) {
-                        combinedResults.put("error", e.getMessage());
-                    }
+                    combinedResults.put("categoryAverages", categoryAverages.join());
+                    combinedResults.put("analysis", analysis.join());
+                    combinedResults.put("topRecords", topRecords.join());
                     return combinedResults;
                 });
     }
 
     /**
-     * Shutdown the executor service
+     * Row stream for columnar variants, parallel only on parallel backends
+     */
+    private IntStream rows(int size) {
+        IntStream rows = IntStream.range(0, size);
+        return backend.isParallel() ? rows.parallel() : rows;
+    }
+
+    /**
+     * @return Backend running this processor's tasks
+     */
+    public ExecutionBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Shutdown the execution backend
      */
     public void shutdown() {
-        executorService.shutdown();
+        backend.shutdown();
     }
 
     /**
-     * Check if executor service is shutdown
+     * Check if the execution backend is shutdown
      * @return true if shutdown, false otherwise
      */
     public boolean isShutdown() {
-        return executorService.isShutdown();
+        return backend.isShutdown();
     }
 }
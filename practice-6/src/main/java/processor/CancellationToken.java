@@ -0,0 +1,97 @@
+package processor;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+/**
+ * CancellationToken class: cooperative cancellation with an optional deadline
+ * CompletableFuture.cancel does not stop a running task, so long scans in
+ * AsyncProcessor read their input in chunks and check a token between
+ * chunks. A token is stopped either explicitly ({@link #cancel()}, e.g. when
+ * the caller cancels or times out the returned future, or a sibling fails)
+ * or by its deadline passing. Explicit cancellation aborts the scan with a
+ * CancellationException; an expired deadline ends it early with a partial
+ * result. Thread-safe.
+ */
+public final class CancellationToken {
+
+    private static final Duration MAX_TIMEOUT = Duration.ofDays(365);
+
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    private CancellationToken(boolean hasDeadline, long deadlineNanos) {
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return Token without a deadline, stopped only by {@link #cancel()}
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(false, 0);
+    }
+
+    /**
+     * @param timeout Time from now after which the token expires
+     * @return Token expiring after the timeout
+     */
+    public static CancellationToken withTimeout(Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout must not be negative: " + timeout);
+        }
+        // Longer timeouts would overflow nanoTime arithmetic and never expire in practice
+        if (timeout.compareTo(MAX_TIMEOUT) > 0) {
+            return create();
+        }
+        return new CancellationToken(true, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Stop every scan checking this token at its next chunk
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return true if the token has a deadline and it has passed
+     */
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * @return true if scans should stop: cancelled or expired
+     */
+    public boolean shouldStop() {
+        return cancelled || isExpired();
+    }
+
+    /**
+     * @throws CancellationException if the token was cancelled
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Operation cancelled");
+        }
+    }
+
+    /**
+     * @return Time left before the deadline (zero once expired), or null without a deadline
+     */
+    public Duration getRemaining() {
+        if (!hasDeadline) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(deadlineNanos - System.nanoTime(), 0));
+    }
+}
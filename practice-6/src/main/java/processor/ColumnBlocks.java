@@ -0,0 +1,73 @@
+package processor;
+
+import model.RecordColumns;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ColumnBlocks class: runs numeric kernels over a column in fixed-size blocks
+ * Rows are read in blocks of BLOCK_SIZE into per-thread primitive buffers
+ * (a plain array copy for DataRecordTable), so kernels work on double[]
+ * whatever the RecordColumns implementation. Block results come back in
+ * block order and blocks do not depend on the pool size, so combining them
+ * in order gives the same bits for any parallelism.
+ */
+final class ColumnBlocks {
+
+    /** Rows per block: two 32 KB buffers stay in L1/L2 while the kernels run */
+    static final int BLOCK_SIZE = 4096;
+
+    private static final ThreadLocal<double[][]> BUFFERS =
+            ThreadLocal.withInitial(() -> new double[2][BLOCK_SIZE]);
+
+    private ColumnBlocks() {
+    }
+
+    /**
+     * Computation over one block; the buffers are reused and must not be retained
+     */
+    interface BlockFunction<R> {
+        R apply(double[] values, double[] priorities, int length, int firstRow);
+    }
+
+    /**
+     * Apply a function to every block
+     * @param table Columns to read
+     * @param withPriorities Whether to fill the priorities buffer as well as values
+     * @param parallel Whether blocks run on the current pool
+     * @param function Computation per block
+     * @return Results in block order
+     */
+    static <R> List<R> map(RecordColumns table, boolean withPriorities, boolean parallel,
+                           BlockFunction<R> function) {
+        int size = table.size();
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream indexes = IntStream.range(0, blocks);
+        return (parallel ? indexes.parallel() : indexes)
+                .mapToObj(block -> {
+                    int from = block * BLOCK_SIZE;
+                    int to = Math.min(from + BLOCK_SIZE, size);
+                    double[][] buffers = BUFFERS.get();
+                    table.readValues(from, to, buffers[0]);
+                    if (withPriorities) {
+                        table.readPriorities(from, to, buffers[1]);
+                    }
+                    return function.apply(buffers[0], buffers[1], to - from, from);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Add up per-block partial sums element-wise, in block order
+     */
+    static double[] sum(List<double[]> partials, int width) {
+        double[] total = new double[width];
+        for (double[] partial : partials) {
+            for (int i = 0; i < width; i++) {
+                total[i] += partial[i];
+            }
+        }
+        return total;
+    }
+}
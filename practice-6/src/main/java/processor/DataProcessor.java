@@ -1,10 +1,17 @@
 package processor;
 
+import kernel.NumericKernels;
 import model.DataRecord;
+import model.DataRecordTable;
+import model.RecordColumns;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.DoubleSummaryStatistics;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * DataProcessor class for basic parallel processing operations
@@ -12,6 +19,23 @@ import java.util.stream.Collectors;
  */
 public class DataProcessor {
 
+    private final NumericKernels kernels;
+
+    /**
+     * Default constructor: columnar reductions use the kernels detected for this JVM
+     */
+    public DataProcessor() {
+        this(NumericKernels.get());
+    }
+
+    /**
+     * Constructor with explicit numeric kernels for the columnar reductions
+     * @param kernels Kernels for value statistics
+     */
+    public DataProcessor(NumericKernels kernels) {
+        this.kernels = Objects.requireNonNull(kernels);
+    }
+
     /**
      * Filter records by category and minimum value (Sequential)
      * @param records List of DataRecord objects
@@ -40,6 +64,31 @@ public class DataProcessor {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Filter records by category and minimum value using a value index
+     * The planner uses the index for selective queries and falls back to
+     * the parallel scan when too many rows match.
+     * @param records List of DataRecord objects the index was built from
+     * @param index ValueIndex over the same list positions
+     * @param category Category to filter by
+     * @param minValue Minimum value threshold
+     * @return Filtered list of records in list order
+     */
+    public List<DataRecord> filterRecords(List<DataRecord> records, ValueIndex index,
+                                          String category, double minValue) {
+        checkIndexSize(index, records.size());
+        int matches = index.count(category, minValue, Double.POSITIVE_INFINITY);
+        if (!index.preferIndex(matches)) {
+            return filterRecordsParallel(records, category, minValue);
+        }
+        int[] rows = index.rows(category, minValue, Double.POSITIVE_INFINITY);
+        List<DataRecord> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(records.get(row));
+        }
+        return result;
+    }
+
     /**
      * Calculate statistics by categories (Sequential)
      * @param records List of DataRecord objects
@@ -59,11 +108,29 @@ public class DataProcessor {
      * @return Map of category to statistics
      */
     public Map<String, DoubleSummaryStatistics> calculateStatisticsParallel(List<DataRecord> records) {
+        return GroupBy.parallel(records,
+                DataRecord::getCategory,
+                Collectors.summarizingDouble(DataRecord::getValue));
+    }
+
+    /**
+     * Summary statistics of all values (Sequential)
+     * @param records List of DataRecord objects
+     * @return Count, sum, min, max and average of the values
+     */
+    public DoubleSummaryStatistics calculateValueStatistics(List<DataRecord> records) {
+        return records.stream()
+                .collect(Collectors.summarizingDouble(DataRecord::getValue));
+    }
+
+    /**
+     * Summary statistics of all values (Parallel)
+     * @param records List of DataRecord objects
+     * @return Count, sum, min, max and average of the values
+     */
+    public DoubleSummaryStatistics calculateValueStatisticsParallel(List<DataRecord> records) {
         return records.parallelStream()
-                .collect(Collectors.groupingBy(
-                        DataRecord::getCategory,
-                        Collectors.summarizingDouble(DataRecord::getValue)
-                ));
+                .collect(Collectors.summarizingDouble(DataRecord::getValue));
     }
 
     /**
@@ -82,8 +149,7 @@ public class DataProcessor {
      * @return Map of priority to list of records
      */
     public Map<Integer, List<DataRecord>> groupByPriorityParallel(List<DataRecord> records) {
-        return records.parallelStream()
-                .collect(Collectors.groupingBy(DataRecord::getPriority));
+        return GroupBy.parallelByInt(records, DataRecord::getPriority, Collectors.toList());
     }
 
     /**
@@ -129,11 +195,9 @@ public class DataProcessor {
      * @return Map of category to average value
      */
     public Map<String, Double> calculateAverageByCategoryParallel(List<DataRecord> records) {
-        return records.parallelStream()
-                .collect(Collectors.groupingBy(
-                        DataRecord::getCategory,
-                        Collectors.averagingDouble(DataRecord::getValue)
-                ));
+        return GroupBy.parallel(records,
+                DataRecord::getCategory,
+                Collectors.averagingDouble(DataRecord::getValue));
     }
 
     /**
@@ -155,10 +219,264 @@ public class DataProcessor {
      * @return Map of status to count
      */
     public Map<String, Long> countByStatusParallel(List<DataRecord> records) {
-        return records.parallelStream()
-                .collect(Collectors.groupingBy(
-                        DataRecord::getStatus,
-                        Collectors.counting()
-                ));
+        return GroupBy.parallel(records, DataRecord::getStatus, Collectors.counting());
+    }
+
+    // Columnar variants (DataRecordTable or memory-mapped segment)
+
+    /**
+     * Filter records by category and minimum value (Sequential, columnar)
+     * @param table Columnar rows to scan
+     * @param category Category to filter by
+     * @param minValue Minimum value threshold
+     * @return Table with the matching rows
+     */
+    public DataRecordTable filterRecords(RecordColumns table, String category, double minValue) {
+        return table.select(filterRows(rows(table, false), table, category, minValue));
+    }
+
+    /**
+     * Filter records by category and minimum value (Parallel, columnar)
+     * @param table Columnar rows to scan
+     * @param category Category to filter by
+     * @param minValue Minimum value threshold
+     * @return Table with the matching rows
+     */
+    public DataRecordTable filterRecordsParallel(RecordColumns table, String category, double minValue) {
+        return table.select(filterRows(rows(table, true), table, category, minValue));
+    }
+
+    /**
+     * Filter records by category and minimum value using a value index (columnar)
+     * @param table Columnar rows the index was built from
+     * @param index ValueIndex over the same table rows
+     * @param category Category to filter by
+     * @param minValue Minimum value threshold
+     * @return Table with the matching rows in row order
+     */
+    public DataRecordTable filterRecords(RecordColumns table, ValueIndex index,
+                                         String category, double minValue) {
+        checkIndexSize(index, table.size());
+        int matches = index.count(category, minValue, Double.POSITIVE_INFINITY);
+        if (!index.preferIndex(matches)) {
+            return filterRecordsParallel(table, category, minValue);
+        }
+        return table.select(index.rows(category, minValue, Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * Calculate statistics by categories (Sequential, columnar)
+     * @param table Columnar rows to scan
+     * @return Map of category to statistics
+     */
+    public Map<String, DoubleSummaryStatistics> calculateStatistics(RecordColumns table) {
+        return statisticsByCategory(rows(table, false), table);
+    }
+
+    /**
+     * Calculate statistics by categories (Parallel, columnar)
+     * @param table Columnar rows to scan
+     * @return Map of category to statistics
+     */
+    public Map<String, DoubleSummaryStatistics> calculateStatisticsParallel(RecordColumns table) {
+        return statisticsByCategory(rows(table, true), table);
+    }
+
+    /**
+     * Summary statistics of all values (Sequential, columnar)
+     * @param table Columnar rows to scan
+     * @return Count, sum, min, max and average of the values
+     */
+    public DoubleSummaryStatistics calculateValueStatistics(RecordColumns table) {
+        return valueStatistics(table, false);
+    }
+
+    /**
+     * Summary statistics of all values (Parallel, columnar)
+     * @param table Columnar rows to scan
+     * @return Count, sum, min, max and average of the values
+     */
+    public DoubleSummaryStatistics calculateValueStatisticsParallel(RecordColumns table) {
+        return valueStatistics(table, true);
+    }
+
+    /**
+     * Group records by priority (Sequential, columnar)
+     * @param table Columnar rows to scan
+     * @return Map of priority to table of rows with that priority
+     */
+    public Map<Integer, DataRecordTable> groupByPriority(RecordColumns table) {
+        return groupRowsByPriority(rows(table, false), table);
+    }
+
+    /**
+     * Group records by priority (Parallel, columnar)
+     * @param table Columnar rows to scan
+     * @return Map of priority to table of rows with that priority
+     */
+    public Map<Integer, DataRecordTable> groupByPriorityParallel(RecordColumns table) {
+        return groupRowsByPriority(rows(table, true), table);
+    }
+
+    /**
+     * Filter records by status (Sequential, columnar)
+     * @param table Columnar rows to scan
+     * @param status Status to filter by
+     * @return Table with the matching rows
+     */
+    public DataRecordTable filterByStatus(RecordColumns table, String status) {
+        int code = table.findStatusCode(status);
+        return table.select(rows(table, false).filter(row -> table.getStatusCode(row) == code).toArray());
+    }
+
+    /**
+     * Filter records by status (Parallel, columnar)
+     * @param table Columnar rows to scan
+     * @param status Status to filter by
+     * @return Table with the matching rows
+     */
+    public DataRecordTable filterByStatusParallel(RecordColumns table, String status) {
+        int code = table.findStatusCode(status);
+        return table.select(rows(table, true).filter(row -> table.getStatusCode(row) == code).toArray());
+    }
+
+    /**
+     * Calculate average value by category (Sequential, columnar)
+     * @param table Columnar rows to scan
+     * @return Map of category to average value
+     */
+    public Map<String, Double> calculateAverageByCategory(RecordColumns table) {
+        return averages(statisticsByCategory(rows(table, false), table));
+    }
+
+    /**
+     * Calculate average value by category (Parallel, columnar)
+     * @param table Columnar rows to scan
+     * @return Map of category to average value
+     */
+    public Map<String, Double> calculateAverageByCategoryParallel(RecordColumns table) {
+        return averages(statisticsByCategory(rows(table, true), table));
+    }
+
+    /**
+     * Count records by status (Sequential, columnar)
+     * @param table Columnar rows to scan
+     * @return Map of status to count
+     */
+    public Map<String, Long> countByStatus(RecordColumns table) {
+        return countRowsByStatus(rows(table, false), table);
+    }
+
+    /**
+     * Count records by status (Parallel, columnar)
+     * @param table Columnar rows to scan
+     * @return Map of status to count
+     */
+    public Map<String, Long> countByStatusParallel(RecordColumns table) {
+        return countRowsByStatus(rows(table, true), table);
+    }
+
+    static void checkIndexSize(ValueIndex index, int size) {
+        if (index.size() != size) {
+            throw new IllegalArgumentException("Value index covers " + index.size() +
+                    " rows but the data has " + size);
+        }
+    }
+
+    private DoubleSummaryStatistics valueStatistics(RecordColumns table, boolean parallel) {
+        // sum, min, max per block
+        List<double[]> blocks = ColumnBlocks.map(table, false, parallel,
+                (values, priorities, length, firstRow) -> new double[] {
+                        kernels.sum(values, 0, length),
+                        kernels.min(values, 0, length),
+                        kernels.max(values, 0, length)
+                });
+        double sum = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double[] block : blocks) {
+            sum += block[0];
+            min = Math.min(min, block[1]);
+            max = Math.max(max, block[2]);
+        }
+        return table.size() == 0
+                ? new DoubleSummaryStatistics()
+                : new DoubleSummaryStatistics(table.size(), min, max, sum);
+    }
+
+    private static IntStream rows(RecordColumns table, boolean parallel) {
+        IntStream rows = IntStream.range(0, table.size());
+        return parallel ? rows.parallel() : rows;
+    }
+
+    private static int[] filterRows(IntStream rows, RecordColumns table, String category, double minValue) {
+        int code = table.findCategoryCode(category);
+        return rows.filter(row -> table.getCategoryCode(row) == code && table.getValue(row) >= minValue)
+                .toArray();
+    }
+
+    private static Map<String, DoubleSummaryStatistics> statisticsByCategory(IntStream rows, RecordColumns table) {
+        int categories = table.getCategoryCount();
+        DoubleSummaryStatistics[] stats = rows.collect(
+                () -> newStatistics(categories),
+                (acc, row) -> acc[table.getCategoryCode(row)].accept(table.getValue(row)),
+                (left, right) -> {
+                    for (int i = 0; i < left.length; i++) {
+                        left[i].combine(right[i]);
+                    }
+                });
+        Map<String, DoubleSummaryStatistics> result = new HashMap<>();
+        for (int code = 0; code < categories; code++) {
+            if (stats[code].getCount() > 0) {
+                result.put(table.getCategoryName(code), stats[code]);
+            }
+        }
+        return result;
+    }
+
+    static DoubleSummaryStatistics[] newStatistics(int size) {
+        DoubleSummaryStatistics[] stats = new DoubleSummaryStatistics[size];
+        for (int i = 0; i < size; i++) {
+            stats[i] = new DoubleSummaryStatistics();
+        }
+        return stats;
+    }
+
+    private static Map<String, Double> averages(Map<String, DoubleSummaryStatistics> stats) {
+        Map<String, Double> result = new HashMap<>();
+        stats.forEach((category, stat) -> result.put(category, stat.getAverage()));
+        return result;
+    }
+
+    private static Map<Integer, DataRecordTable> groupRowsByPriority(IntStream rows, RecordColumns table) {
+        int[] selected = rows.toArray();
+        KeyCodes priorities = KeyCodes.of(selected.length, i -> table.getPriority(selected[i]));
+        int[][] grouped = priorities.partition(selected);
+        Map<Integer, DataRecordTable> result = new HashMap<>();
+        for (int code = 0; code < grouped.length; code++) {
+            if (grouped[code].length > 0) {
+                result.put((int) priorities.key(code), table.select(grouped[code]));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Long> countRowsByStatus(IntStream rows, RecordColumns table) {
+        int statuses = table.getStatusCount();
+        long[] counts = rows.collect(
+                () -> new long[statuses],
+                (acc, row) -> acc[table.getStatusCode(row)]++,
+                (left, right) -> {
+                    for (int i = 0; i < left.length; i++) {
+                        left[i] += right[i];
+                    }
+                });
+        Map<String, Long> result = new HashMap<>();
+        for (int code = 0; code < statuses; code++) {
+            if (counts[code] > 0) {
+                result.put(table.getStatusName(code), counts[code]);
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,218 @@
+package processor;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ExecutionBackend interface deciding where AsyncProcessor tasks run
+ * ForkJoin-based backends also keep parallel streams inside a task on the
+ * task's own pool (a parallel stream started from a ForkJoinPool worker runs
+ * in that pool), so the pool size really bounds CPU use. Backends that are
+ * not ForkJoin-based run streams sequentially inside each task instead of
+ * spilling onto the common pool.
+ */
+public interface ExecutionBackend {
+
+    /**
+     * Run a task asynchronously on this backend
+     * @param task Task to run
+     * @param <T> Result type
+     * @return Future completed with the task result
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> task);
+
+    /**
+     * @return true if streams inside a task should be parallel
+     */
+    boolean isParallel();
+
+    /**
+     * @return Short backend name for reports
+     */
+    String getName();
+
+    void shutdown();
+
+    boolean isShutdown();
+
+    /**
+     * Executor for long-running workers that block on each other, such as Pipeline stages
+     * ForkJoin-based backends add spare workers while a worker blocks on a pipeline queue.
+     * @return Executor running each worker as a task of this backend, or null if tasks
+     *         run on the caller's thread and therefore cannot wait for each other
+     */
+    default Executor workerExecutor() {
+        return task -> submit(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stream over a list, parallel only when the backend keeps it on its own pool
+     * @param records Source list
+     * @param <T> Element type
+     * @return Sequential or parallel stream
+     */
+    default <T> Stream<T> stream(List<T> records) {
+        return isParallel() ? records.parallelStream() : records.stream();
+    }
+
+    /**
+     * Dedicated ForkJoinPool; tasks and their parallel streams share it
+     * @param parallelism Number of worker threads
+     */
+    static ExecutionBackend forkJoin(int parallelism) {
+        return new ExecutorBackend("forkjoin", new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Work-stealing pool (asynchronous FIFO ForkJoinPool), suited to many small tasks
+     * @param parallelism Number of worker threads
+     */
+    static ExecutionBackend workStealing(int parallelism) {
+        return new ExecutorBackend("workstealing", Executors.newWorkStealingPool(parallelism), true);
+    }
+
+    /**
+     * One virtual thread per task, for IO-bound stages; streams inside a task run sequentially.
+     * Falls back to a cached pool of daemon platform threads on JDKs without virtual threads.
+     */
+    static ExecutionBackend virtualThreads() {
+        ExecutorService executor;
+        String name;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            name = "virtual";
+        } catch (ReflectiveOperationException e) {
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "io-task");
+                thread.setDaemon(true);
+                return thread;
+            });
+            name = "virtual(cached-fallback)";
+        }
+        return new ExecutorBackend(name, executor, false);
+    }
+
+    /**
+     * Caller-runs backend: tasks and streams run sequentially on the calling thread
+     */
+    static ExecutionBackend sequential() {
+        return new SequentialBackend();
+    }
+
+    /**
+     * Create a backend by name, e.g. from the async.execution.backend property
+     * @param name forkjoin, workstealing, virtual or sequential
+     * @param parallelism Worker threads for pool-based backends
+     */
+    static ExecutionBackend fromName(String name, int parallelism) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "forkjoin":
+                return forkJoin(parallelism);
+            case "workstealing":
+                return workStealing(parallelism);
+            case "virtual":
+                return virtualThreads();
+            case "sequential":
+                return sequential();
+            default:
+                throw new IllegalArgumentException("Unknown execution backend: " + name);
+        }
+    }
+
+    /**
+     * Backend running tasks on an ExecutorService
+     */
+    final class ExecutorBackend implements ExecutionBackend {
+        private final String name;
+        private final ExecutorService executor;
+        private final boolean parallel;
+
+        private ExecutorBackend(String name, ExecutorService executor, boolean parallel) {
+            this.name = name;
+            this.executor = executor;
+            this.parallel = parallel;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> submit(Supplier<T> task) {
+            return CompletableFuture.supplyAsync(task, executor);
+        }
+
+        @Override
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+    }
+
+    /**
+     * Backend running every task immediately on the caller's thread
+     */
+    final class SequentialBackend implements ExecutionBackend {
+        private volatile boolean shutdown;
+
+        private SequentialBackend() {
+        }
+
+        @Override
+        public <T> CompletableFuture<T> submit(Supplier<T> task) {
+            if (shutdown) {
+                throw new IllegalStateException("Execution backend is shut down");
+            }
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public boolean isParallel() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return "sequential";
+        }
+
+        @Override
+        public Executor workerExecutor() {
+            return null;
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+    }
+}
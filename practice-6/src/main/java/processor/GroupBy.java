@@ -0,0 +1,468 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * GroupBy class: parallel group-by engine replacing groupingBy on parallel streams
+ * Collectors.groupingBy on a parallel stream builds a HashMap in every fork
+ * and merges maps at every join. Here the list is cut into one contiguous
+ * range per task instead, and the strategy is chosen from the key
+ * cardinality estimated on a sample:
+ * <ul>
+ * <li>DENSE (few distinct keys, e.g. priority, category, status): each task
+ * maps keys to slots in a small open-addressing table and accumulates into
+ * an array of containers indexed by slot; the per-task arrays are merged
+ * once at the end.</li>
+ * <li>PARTITIONED (many distinct keys): tasks first scatter row numbers into
+ * hash partitions, then each partition is aggregated by one task into its
+ * own map. Partitions hold disjoint keys, so nothing is merged.</li>
+ * </ul>
+ * Within a group, elements are accumulated in list order, so order-sensitive
+ * downstream collectors (toList, TopN) give the same result as groupingBy.
+ * Integer keys (priority, day number) go through {@link #parallelByInt}, which
+ * keeps them in int code arrays and boxes each distinct key once.
+ */
+public final class GroupBy {
+
+    /** Grouping strategy */
+    public enum Strategy {
+        DENSE,
+        PARTITIONED
+    }
+
+    /** Above this many distinct keys in the sample, rows are hash-partitioned */
+    public static final int DENSE_KEY_LIMIT = 1024;
+
+    /** Below this many rows, or with a parallelism of 1, the group-by runs in the calling thread */
+    static final int SEQUENTIAL_THRESHOLD = 8192;
+
+    private static final int SAMPLE_SIZE = 2048;
+
+    private GroupBy() {
+    }
+
+    /**
+     * Group in parallel, choosing the strategy from the key cardinality
+     * @param items Elements to group
+     * @param classifier Key of an element
+     * @param downstream Collector applied to each group
+     * @return Map of key to downstream result
+     */
+    public static <T, K, A, R> Map<K, R> parallel(List<? extends T> items,
+                                                  Function<? super T, ? extends K> classifier,
+                                                  Collector<? super T, A, R> downstream) {
+        return group(items, item -> true, classifier, downstream, null);
+    }
+
+    /**
+     * Group the elements matching a filter in parallel, in the same pass
+     * @param items Elements to group
+     * @param filter Elements failing it are skipped before classification
+     * @param classifier Key of an element
+     * @param downstream Collector applied to each group
+     * @return Map of key to downstream result (keys of matching elements only)
+     */
+    public static <T, K, A, R> Map<K, R> parallel(List<? extends T> items,
+                                                  Predicate<? super T> filter,
+                                                  Function<? super T, ? extends K> classifier,
+                                                  Collector<? super T, A, R> downstream) {
+        return group(items, filter, classifier, downstream, null);
+    }
+
+    /**
+     * Group in parallel with an explicit strategy
+     */
+    public static <T, K, A, R> Map<K, R> parallel(List<? extends T> items,
+                                                  Function<? super T, ? extends K> classifier,
+                                                  Collector<? super T, A, R> downstream,
+                                                  Strategy strategy) {
+        return group(items, item -> true, classifier, downstream, strategy);
+    }
+
+    /**
+     * Group by an int key in parallel without boxing a key per element
+     * Keys are computed into an int array and coded with KeyCodes. With few
+     * codes every task accumulates into an array of containers indexed by
+     * code and the arrays are merged once; with many, rows are split by code
+     * with a counting sort and each group is aggregated by itself.
+     * @param items Elements to group
+     * @param classifier Int key of an element
+     * @param downstream Collector applied to each group
+     * @return Map of key to downstream result
+     */
+    public static <T, A, R> Map<Integer, R> parallelByInt(List<? extends T> items,
+                                                          ToIntFunction<? super T> classifier,
+                                                          Collector<? super T, A, R> downstream) {
+        List<? extends T> source = randomAccess(items);
+        int size = source.size();
+        int tasks = tasks(size);
+        int[] keys = new int[size];
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            int to = end(task, tasks, size);
+            for (int i = end(task - 1, tasks, size); i < to; i++) {
+                keys[i] = classifier.applyAsInt(source.get(i));
+            }
+        });
+        KeyCodes codes = KeyCodes.of(size, i -> keys[i]);
+        A[] containers = codes.count() <= DENSE_KEY_LIMIT
+                ? denseByCode(source, codes, downstream, tasks)
+                : partitionedByCode(source, codes, downstream);
+
+        Function<A, R> finisher = downstream.finisher();
+        Map<Integer, R> result = new HashMap<>(containers.length * 2);
+        for (int code = 0; code < containers.length; code++) {
+            if (containers[code] != null) {
+                result.put((int) codes.key(code), finisher.apply(containers[code]));
+            }
+        }
+        return result;
+    }
+
+    private static <T, K, A, R> Map<K, R> group(List<? extends T> items,
+                                                Predicate<? super T> filter,
+                                                Function<? super T, ? extends K> classifier,
+                                                Collector<? super T, A, R> downstream,
+                                                Strategy strategy) {
+        List<? extends T> source = randomAccess(items);
+        int tasks = tasks(source.size());
+        Strategy chosen = strategy != null ? strategy : chooseStrategy(source, classifier);
+        Map<K, A> groups = chosen == Strategy.DENSE
+                ? dense(source, filter, classifier, downstream, tasks)
+                : partitioned(source, filter, classifier, downstream, tasks);
+        return finish(groups, downstream);
+    }
+
+    /**
+     * Choose DENSE when a strided sample has few distinct keys
+     * Lists without random access are sampled in one pass of their iterator.
+     * @return Strategy the parallel method would use
+     */
+    public static <T, K> Strategy chooseStrategy(List<? extends T> items,
+                                                 Function<? super T, ? extends K> classifier) {
+        int size = items.size();
+        int samples = Math.min(size, SAMPLE_SIZE);
+        if (samples == 0) {
+            return Strategy.DENSE;
+        }
+        Set<K> distinct = new HashSet<>();
+        int stride = Math.max(size / samples, 1);
+        if (items instanceof RandomAccess) {
+            for (long i = 0; i < size && distinct.size() <= DENSE_KEY_LIMIT; i += stride) {
+                distinct.add(classifier.apply(items.get((int) i)));
+            }
+        } else {
+            Iterator<? extends T> iterator = items.iterator();
+            for (int i = 0; iterator.hasNext() && distinct.size() <= DENSE_KEY_LIMIT; i++) {
+                T item = iterator.next();
+                if (i % stride == 0) {
+                    distinct.add(classifier.apply(item));
+                }
+            }
+        }
+        // Mostly-unique keys (ids, timestamps) would make every task's table as large as the input
+        boolean dense = distinct.size() <= DENSE_KEY_LIMIT && distinct.size() * 4 <= samples;
+        return dense ? Strategy.DENSE : Strategy.PARTITIONED;
+    }
+
+    private static int parallelism() {
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        return (pool != null ? pool : ForkJoinPool.commonPool()).getParallelism();
+    }
+
+    /** Number of row ranges to split a list of the given size into */
+    private static int tasks(int size) {
+        int parallelism = parallelism();
+        return size < SEQUENTIAL_THRESHOLD || parallelism == 1 ? 1 : parallelism * 2;
+    }
+
+    private static <T> List<? extends T> randomAccess(List<? extends T> items) {
+        return items instanceof RandomAccess ? items : new ArrayList<>(items);
+    }
+
+    /**
+     * Every task fills an array of containers indexed by code; arrays are merged in task order
+     */
+    private static <T, A> A[] denseByCode(List<? extends T> items, KeyCodes codes,
+                                          Collector<? super T, A, ?> downstream, int tasks) {
+        Supplier<A> supplier = downstream.supplier();
+        BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+        BinaryOperator<A> combiner = downstream.combiner();
+        int size = items.size();
+        int count = codes.count();
+
+        List<A[]> partials = IntStream.range(0, tasks)
+                .parallel()
+                .mapToObj(task -> {
+                    A[] containers = newArray(count);
+                    int to = end(task, tasks, size);
+                    for (int i = end(task - 1, tasks, size); i < to; i++) {
+                        int code = codes.code(i);
+                        if (containers[code] == null) {
+                            containers[code] = supplier.get();
+                        }
+                        accumulate(accumulator, containers[code], items.get(i));
+                    }
+                    return containers;
+                })
+                .collect(Collectors.toList());
+
+        A[] merged = partials.get(0);
+        for (int task = 1; task < partials.size(); task++) {
+            A[] containers = partials.get(task);
+            for (int code = 0; code < count; code++) {
+                if (containers[code] != null) {
+                    merged[code] = merged[code] == null
+                            ? containers[code]
+                            : combiner.apply(merged[code], containers[code]);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Rows are split by code with a counting sort; each group is aggregated by one task
+     */
+    private static <T, A> A[] partitionedByCode(List<? extends T> items, KeyCodes codes,
+                                                Collector<? super T, A, ?> downstream) {
+        Supplier<A> supplier = downstream.supplier();
+        BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+        int[][] groups = codes.partition(IntStream.range(0, items.size()).toArray());
+        A[] containers = newArray(groups.length);
+        IntStream.range(0, groups.length).parallel().forEach(code -> {
+            if (groups[code].length == 0) {
+                return;
+            }
+            A container = supplier.get();
+            for (int row : groups[code]) {
+                accumulate(accumulator, container, items.get(row));
+            }
+            containers[code] = container;
+        });
+        return containers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> A[] newArray(int length) {
+        return (A[]) new Object[length];
+    }
+
+    private static <T, K, A> Map<K, A> dense(List<? extends T> items, Predicate<? super T> filter,
+                                             Function<? super T, ? extends K> classifier,
+                                             Collector<? super T, A, ?> downstream, int tasks) {
+        Supplier<A> supplier = downstream.supplier();
+        BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+        BinaryOperator<A> combiner = downstream.combiner();
+        int size = items.size();
+
+        List<SlotTable<K, A>> partials = IntStream.range(0, tasks)
+                .parallel()
+                .mapToObj(task -> {
+                    SlotTable<K, A> table = new SlotTable<>();
+                    int to = end(task, tasks, size);
+                    for (int i = end(task - 1, tasks, size); i < to; i++) {
+                        T item = items.get(i);
+                        if (!filter.test(item)) {
+                            continue;
+                        }
+                        int slot = table.slot(key(classifier, item), supplier);
+                        accumulate(accumulator, table.containers[slot], item);
+                    }
+                    return table;
+                })
+                .collect(Collectors.toList());
+
+        // One merge, in task order so groups keep list order
+        Map<K, A> groups = new HashMap<>();
+        for (SlotTable<K, A> table : partials) {
+            for (int slot = 0; slot < table.count; slot++) {
+                A container = table.containers[slot];
+                groups.merge(table.keys.get(slot), container, combiner);
+            }
+        }
+        return groups;
+    }
+
+    private static <T, K, A> Map<K, A> partitioned(List<? extends T> items, Predicate<? super T> filter,
+                                                   Function<? super T, ? extends K> classifier,
+                                                   Collector<? super T, A, ?> downstream, int tasks) {
+        Supplier<A> supplier = downstream.supplier();
+        BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+        int size = items.size();
+        if (tasks == 1) {
+            // Nothing to run concurrently, so scattering would only add a pass
+            Map<K, A> groups = new HashMap<>();
+            for (T item : items) {
+                if (!filter.test(item)) {
+                    continue;
+                }
+                accumulate(accumulator, groups.computeIfAbsent(key(classifier, item), key -> supplier.get()), item);
+            }
+            return groups;
+        }
+        int partitions = Integer.highestOneBit(tasks * 2 - 1);
+
+        // Phase 1: every task scatters its row numbers by key hash
+        List<IntBuffer[]> scattered = IntStream.range(0, tasks)
+                .parallel()
+                .mapToObj(task -> {
+                    IntBuffer[] buffers = new IntBuffer[partitions];
+                    for (int p = 0; p < partitions; p++) {
+                        buffers[p] = new IntBuffer();
+                    }
+                    int to = end(task, tasks, size);
+                    for (int i = end(task - 1, tasks, size); i < to; i++) {
+                        T item = items.get(i);
+                        if (filter.test(item)) {
+                            buffers[partition(key(classifier, item), partitions)].add(i);
+                        }
+                    }
+                    return buffers;
+                })
+                .collect(Collectors.toList());
+
+        // Phase 2: each partition is aggregated by one task; partitions share no keys
+        List<Map<K, A>> results = IntStream.range(0, partitions)
+                .parallel()
+                .mapToObj(p -> {
+                    Map<K, A> groups = new HashMap<>();
+                    for (IntBuffer[] buffers : scattered) {
+                        IntBuffer rows = buffers[p];
+                        for (int j = 0; j < rows.size; j++) {
+                            T item = items.get(rows.values[j]);
+                            A container = groups.computeIfAbsent(classifier.apply(item), key -> supplier.get());
+                            accumulate(accumulator, container, item);
+                        }
+                    }
+                    return groups;
+                })
+                .collect(Collectors.toList());
+
+        Map<K, A> groups = new HashMap<>();
+        results.forEach(groups::putAll);
+        return groups;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, A, R> Map<K, R> finish(Map<K, A> groups, Collector<?, A, R> downstream) {
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return (Map<K, R>) groups;
+        }
+        Function<A, R> finisher = downstream.finisher();
+        Map<K, R> result = new HashMap<>(groups.size() * 2);
+        groups.forEach((key, container) -> result.put(key, finisher.apply(container)));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, A> void accumulate(BiConsumer<A, ? super T> accumulator, A container, T item) {
+        ((BiConsumer<A, T>) accumulator).accept(container, item);
+    }
+
+    private static <T, K> K key(Function<? super T, ? extends K> classifier, T item) {
+        return Objects.requireNonNull(classifier.apply(item), "element cannot be mapped to a null key");
+    }
+
+    /** Exclusive end of a task's row range (task -1 gives 0) */
+    private static int end(int task, int tasks, int size) {
+        return (int) ((long) size * (task + 1) / tasks);
+    }
+
+    private static int partition(Object key, int partitions) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h * 0x9E3779B9 >>> 16) & (partitions - 1);
+    }
+
+    /**
+     * Per-task key-to-slot table with containers in a parallel array
+     */
+    private static final class SlotTable<K, A> {
+        private Object[] probeKeys = new Object[16];
+        private int[] probeSlots = new int[16];
+        private final List<K> keys = new ArrayList<>();
+        private A[] containers = GroupBy.newArray(8);
+        private int count;
+
+        int slot(K key, Supplier<A> supplier) {
+            int mask = probeKeys.length - 1;
+            int i = spread(key) & mask;
+            while (probeSlots[i] != 0) {
+                Object existing = probeKeys[i];
+                if (existing == key || existing.equals(key)) {
+                    return probeSlots[i] - 1;
+                }
+                i = (i + 1) & mask;
+            }
+            if (count == containers.length) {
+                containers = Arrays.copyOf(containers, count * 2);
+            }
+            containers[count] = supplier.get();
+            keys.add(key);
+            probeKeys[i] = key;
+            probeSlots[i] = ++count;
+            if (count * 2 > probeKeys.length) {
+                rehash();
+            }
+            return count - 1;
+        }
+
+        private void rehash() {
+            Object[] oldKeys = probeKeys;
+            int[] oldSlots = probeSlots;
+            probeKeys = new Object[oldKeys.length * 2];
+            probeSlots = new int[oldSlots.length * 2];
+            int mask = probeKeys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldSlots[j] != 0) {
+                    int i = spread(oldKeys[j]) & mask;
+                    while (probeSlots[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    probeKeys[i] = oldKeys[j];
+                    probeSlots[i] = oldSlots[j];
+                }
+            }
+        }
+
+        private static int spread(Object key) {
+            int h = key.hashCode();
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Growable int array
+     */
+    private static final class IntBuffer {
+        int[] values = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
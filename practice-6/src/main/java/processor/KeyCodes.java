@@ -0,0 +1,114 @@
+package processor;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * KeyCodes class: maps the integer key of every position to a small code
+ * Keys that fall in a narrow range (priorities, dictionary codes, days of a
+ * data set) get code = key - min; sparse keys are coded by their rank among
+ * the distinct keys. Either way grouping becomes array indexing by code, so
+ * columnar scans accumulate into primitive arrays instead of boxed map keys.
+ */
+final class KeyCodes {
+
+    /** Key range always coded directly, whatever the number of positions */
+    private static final int MIN_DENSE_RANGE = 4096;
+
+    private final long base;
+    private final long[] distinct;
+    private final int[] codes;
+    private final int count;
+
+    private KeyCodes(long base, long[] distinct, int[] codes, int count) {
+        this.base = base;
+        this.distinct = distinct;
+        this.codes = codes;
+        this.count = count;
+    }
+
+    /**
+     * Compute the key of every position and assign codes
+     * @param size Number of positions
+     * @param key Key of a position
+     * @return Codes of positions 0..size-1
+     */
+    static KeyCodes of(int size, IntToLongFunction key) {
+        long[] keys = new long[size];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            keys[i] = key.applyAsLong(i);
+            min = Math.min(min, keys[i]);
+            max = Math.max(max, keys[i]);
+        }
+        int[] codes = new int[size];
+        if (size == 0) {
+            return new KeyCodes(0, null, codes, 0);
+        }
+        // max - min overflows only for keys spread over the whole long range
+        long range = max - min + 1;
+        if (range > 0 && range <= Math.max(MIN_DENSE_RANGE, size)) {
+            for (int i = 0; i < size; i++) {
+                codes[i] = (int) (keys[i] - min);
+            }
+            return new KeyCodes(min, null, codes, (int) range);
+        }
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || sorted[i] != sorted[unique - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        long[] distinct = Arrays.copyOf(sorted, unique);
+        for (int i = 0; i < size; i++) {
+            codes[i] = Arrays.binarySearch(distinct, keys[i]);
+        }
+        return new KeyCodes(0, distinct, codes, unique);
+    }
+
+    /**
+     * @return Number of codes; some codes of a dense range may have no positions
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return Code of the position
+     */
+    int code(int position) {
+        return codes[position];
+    }
+
+    /**
+     * @return Key that the code stands for
+     */
+    long key(int code) {
+        return distinct != null ? distinct[code] : base + code;
+    }
+
+    /**
+     * Split values by the code of their position with a counting sort
+     * @param values One value per position, e.g. row indexes
+     * @return Values of each code in their original order, indexed by code
+     */
+    int[][] partition(int[] values) {
+        int[] sizes = new int[count];
+        for (int code : codes) {
+            sizes[code]++;
+        }
+        int[][] groups = new int[count][];
+        for (int code = 0; code < count; code++) {
+            groups[code] = new int[sizes[code]];
+        }
+        int[] fill = new int[count];
+        for (int i = 0; i < codes.length; i++) {
+            int code = codes[i];
+            groups[code][fill[code]++] = values[i];
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,170 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * MultiCollector class for computing several aggregates in a single pass
+ * Each aggregate is declared as a regular Collector; the combined collector
+ * keeps one accumulator per aggregate in every stream leaf (thread) and
+ * merges them once in the combiner, so a parallel stream reads the data once
+ * instead of once per aggregate.
+ *
+ * <pre>
+ * MultiCollector&lt;DataRecord&gt; multi = new MultiCollector&lt;&gt;();
+ * MultiCollector.Slot&lt;DoubleSummaryStatistics&gt; stats =
+ *         multi.add(Collectors.summarizingDouble(DataRecord::getValue));
+ * MultiCollector.Results results = records.parallelStream().collect(multi.build());
+ * DoubleSummaryStatistics summary = results.get(stats);
+ * </pre>
+ *
+ * @param <T> Type of the stream elements
+ */
+public class MultiCollector<T> {
+
+    private final List<Collector<? super T, ?, ?>> collectors = new ArrayList<>();
+
+    /**
+     * Declare an aggregate
+     * @param collector Collector computing the aggregate
+     * @param <R> Result type of the aggregate
+     * @return Slot used to read the result back
+     */
+    public <R> Slot<R> add(Collector<? super T, ?, R> collector) {
+        collectors.add(collector);
+        return new Slot<>(this, collectors.size() - 1);
+    }
+
+    /**
+     * Build the combined collector for all declared aggregates
+     * @return Collector producing the results of every aggregate
+     */
+    public Collector<T, Object[], Results> build() {
+        int size = collectors.size();
+        List<Part<T, ?, ?>> parts = new ArrayList<>(size);
+        boolean unordered = true;
+        for (Collector<? super T, ?, ?> collector : collectors) {
+            parts.add(new Part<>(collector));
+            unordered &= collector.characteristics().contains(Collector.Characteristics.UNORDERED);
+        }
+
+        Supplier<Object[]> supplier = () -> {
+            Object[] containers = new Object[size];
+            for (int i = 0; i < size; i++) {
+                containers[i] = parts.get(i).create();
+            }
+            return containers;
+        };
+        BiConsumer<Object[], T> accumulator = (containers, element) -> {
+            for (int i = 0; i < size; i++) {
+                parts.get(i).accept(containers[i], element);
+            }
+        };
+        BinaryOperator<Object[]> combiner = (left, right) -> {
+            for (int i = 0; i < size; i++) {
+                left[i] = parts.get(i).combine(left[i], right[i]);
+            }
+            return left;
+        };
+        Function<Object[], Results> finisher = containers -> {
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = parts.get(i).finish(containers[i]);
+            }
+            return new Results(this, values);
+        };
+
+        // Never CONCURRENT: every leaf gets its own accumulators and they are merged once
+        return unordered && size > 0
+                ? Collector.of(supplier, accumulator, combiner, finisher, Collector.Characteristics.UNORDERED)
+                : Collector.of(supplier, accumulator, combiner, finisher);
+    }
+
+    /**
+     * One declared collector with its container type captured, so parts with
+     * different container types share the Object[] of the combined collector
+     */
+    private static final class Part<T, A, R> {
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, ? super T> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Function<A, R> finisher;
+
+        private Part(Collector<? super T, A, R> collector) {
+            this.supplier = collector.supplier();
+            this.accumulator = collector.accumulator();
+            this.combiner = collector.combiner();
+            this.finisher = collector.finisher();
+        }
+
+        Object create() {
+            return supplier.get();
+        }
+
+        void accept(Object container, T element) {
+            accumulator.accept(container(container), element);
+        }
+
+        Object combine(Object left, Object right) {
+            return combiner.apply(container(left), container(right));
+        }
+
+        Object finish(Object container) {
+            return finisher.apply(container(container));
+        }
+
+        // The slot of this part in Object[] only ever holds what create() returned
+        @SuppressWarnings("unchecked")
+        private A container(Object container) {
+            return (A) container;
+        }
+    }
+
+    /**
+     * Typed handle for one declared aggregate
+     * @param <R> Result type of the aggregate
+     */
+    public static final class Slot<R> {
+        private final MultiCollector<?> owner;
+        private final int index;
+
+        private Slot(MultiCollector<?> owner, int index) {
+            this.owner = owner;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Results of a single pass, read back through the slots
+     */
+    public static final class Results {
+        private final MultiCollector<?> owner;
+        private final List<Object> values;
+
+        private Results(MultiCollector<?> owner, Object[] values) {
+            this.owner = owner;
+            this.values = Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        /**
+         * Get the result of a declared aggregate
+         * @param slot Slot returned by {@link MultiCollector#add}
+         * @param <R> Result type of the aggregate
+         * @return Aggregate result
+         */
+        @SuppressWarnings("unchecked")
+        public <R> R get(Slot<R> slot) {
+            if (slot.owner != owner) {
+                throw new IllegalArgumentException("Slot belongs to a different MultiCollector");
+            }
+            return (R) values.get(slot.index);
+        }
+    }
+}
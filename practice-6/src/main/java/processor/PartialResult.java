@@ -0,0 +1,70 @@
+package processor;
+
+/**
+ * PartialResult class: result of a deadline-bound operation
+ * When the deadline passes mid-scan the operation returns what it computed
+ * over the rows it had read instead of failing, together with how many rows
+ * that was, so a dashboard can show an approximate answer and its coverage.
+ *
+ * @param <T> Result type
+ */
+public final class PartialResult<T> {
+
+    private final T value;
+    private final long rowsScanned;
+    private final long totalRows;
+
+    /**
+     * @param value Result over the scanned rows
+     * @param rowsScanned Rows the result covers
+     * @param totalRows Rows in the input
+     */
+    public PartialResult(T value, long rowsScanned, long totalRows) {
+        if (rowsScanned < 0 || rowsScanned > totalRows) {
+            throw new IllegalArgumentException("Rows scanned out of range: " + rowsScanned + " of " + totalRows);
+        }
+        this.value = value;
+        this.rowsScanned = rowsScanned;
+        this.totalRows = totalRows;
+    }
+
+    /**
+     * @return Result over the scanned rows
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return Rows the result covers
+     */
+    public long getRowsScanned() {
+        return rowsScanned;
+    }
+
+    /**
+     * @return Rows in the input
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * @return true if every row was scanned before the deadline
+     */
+    public boolean isComplete() {
+        return rowsScanned == totalRows;
+    }
+
+    /**
+     * @return Fraction of the rows scanned, 1.0 for an empty input
+     */
+    public double getCoverage() {
+        return totalRows == 0 ? 1.0 : (double) rowsScanned / totalRows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PartialResult[%d/%d rows, %s]", rowsScanned, totalRows, value);
+    }
+}
@@ -0,0 +1,361 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Pipeline class: staged, backpressured processing of an unbounded source
+ * source &rarr; map/filter stages &rarr; sink, connected by bounded queues.
+ * Each stage runs on its own workers with configurable parallelism; when a
+ * queue is full the upstream worker blocks, so the number of items in flight
+ * (and the memory they hold) is bounded no matter how long the source is.
+ * Completion can be ordered (sink sees source order) or unordered. In ordered
+ * mode the source also takes a permit per item that the sink returns when it
+ * emits the item, so a slow item cannot make the sink's reorder buffer grow
+ * past bufferSize * (stages + 1) items.
+ *
+ * Workers (the source, every stage worker and the sink) are long-running
+ * tasks that block on each other, so the executor must be able to run all of
+ * them at once. By default they run on a shared cached pool whose threads are
+ * reused across runs. Pipeline instances are immutable builders;
+ * {@link #forEach} starts a run.
+ *
+ * @param <T> Type of the items leaving the last stage
+ */
+public final class Pipeline<T> {
+
+    private static final Object SKIP = new Object();
+    private static final Object NULL = new Object();
+    private static final Item END = new Item(-1, null);
+    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "pipeline-worker-" + WORKER_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Iterator<?> source;
+    private final List<Stage> stages;
+    private final int bufferSize;
+    private final boolean ordered;
+    private final Executor executor;
+
+    private Pipeline(Iterator<?> source, List<Stage> stages, int bufferSize, boolean ordered, Executor executor) {
+        this.source = source;
+        this.stages = stages;
+        this.bufferSize = bufferSize;
+        this.ordered = ordered;
+        this.executor = executor;
+    }
+
+    /**
+     * Start a pipeline from a (possibly unbounded) iterator
+     * @param source Items to process; consumed lazily by the source thread
+     * @param <T> Item type
+     * @return Pipeline with no stages, ordered, buffer of 16 items per queue
+     */
+    public static <T> Pipeline<T> from(Iterator<? extends T> source) {
+        return new Pipeline<>(source, Collections.emptyList(), 16, true, WORKERS);
+    }
+
+    /**
+     * Start a pipeline from an iterable
+     */
+    public static <T> Pipeline<T> from(Iterable<? extends T> source) {
+        return from(source.iterator());
+    }
+
+    /**
+     * Add a mapping stage
+     * @param function Mapping applied to every item
+     * @param parallelism Worker threads for this stage
+     * @param <R> Result type
+     * @return New pipeline ending with this stage
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<R> map(Function<? super T, ? extends R> function, int parallelism) {
+        return withStage(new Stage(item -> ((Function<Object, Object>) function).apply(item), parallelism));
+    }
+
+    /**
+     * Add a filtering stage
+     * @param predicate Items failing the predicate are dropped
+     * @param parallelism Worker threads for this stage
+     * @return New pipeline ending with this stage
+     */
+    @SuppressWarnings("unchecked")
+    public Pipeline<T> filter(Predicate<? super T> predicate, int parallelism) {
+        Predicate<Object> test = (Predicate<Object>) predicate;
+        return withStage(new Stage(item -> test.test(item) ? item : SKIP, parallelism));
+    }
+
+    /**
+     * @param size Capacity of every inter-stage queue (the backpressure bound)
+     */
+    public Pipeline<T> bufferSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + size);
+        }
+        return new Pipeline<>(source, stages, size, ordered, executor);
+    }
+
+    /**
+     * @param inOrder true to deliver items to the sink in source order
+     */
+    public Pipeline<T> ordered(boolean inOrder) {
+        return new Pipeline<>(source, stages, bufferSize, inOrder, executor);
+    }
+
+    /**
+     * @param workers Executor able to run every worker of a run at once
+     *                (see {@link ExecutionBackend#workerExecutor}), or null for the shared pool
+     */
+    public Pipeline<T> executor(Executor workers) {
+        return new Pipeline<>(source, stages, bufferSize, ordered, workers != null ? workers : WORKERS);
+    }
+
+    /**
+     * Run the pipeline, delivering results to a single-threaded sink
+     * @param sink Consumer of the results
+     * @return Future completed when the source is exhausted and every item has
+     *         reached the sink, or exceptionally on the first failure.
+     *         Cancelling it interrupts all workers of the run.
+     */
+    public CompletableFuture<Void> forEach(Consumer<? super T> sink) {
+        return new Run(sink).start();
+    }
+
+    private <R> Pipeline<R> withStage(Stage stage) {
+        List<Stage> next = new ArrayList<>(stages);
+        next.add(stage);
+        return new Pipeline<>(source, Collections.unmodifiableList(next), bufferSize, ordered, executor);
+    }
+
+    private static final class Stage {
+        final Function<Object, Object> function;
+        final int parallelism;
+
+        Stage(Function<Object, Object> function, int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+            }
+            this.function = function;
+            this.parallelism = parallelism;
+        }
+    }
+
+    private static final class Item {
+        final long sequence;
+        final Object value;
+
+        Item(long sequence, Object value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+
+    /**
+     * One execution of the pipeline
+     */
+    private final class Run {
+        private final Consumer<? super T> sink;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final Set<Thread> running = new HashSet<>();
+        /** Sequence numbers handed out but not yet emitted by the sink; ordered runs only */
+        private final int window = bufferSize * (stages.size() + 1);
+        private final Semaphore outstanding = ordered ? new Semaphore(window) : null;
+
+        Run(Consumer<? super T> sink) {
+            this.sink = sink;
+        }
+
+        CompletableFuture<Void> start() {
+            List<BlockingQueue<Item>> queues = new ArrayList<>();
+            for (int i = 0; i <= stages.size(); i++) {
+                queues.add(new ArrayBlockingQueue<>(bufferSize));
+            }
+
+            List<Runnable> workers = new ArrayList<>();
+            int firstConsumers = stages.isEmpty() ? 1 : stages.get(0).parallelism;
+            workers.add(() -> runSource(queues.get(0), firstConsumers));
+            for (int i = 0; i < stages.size(); i++) {
+                Stage stage = stages.get(i);
+                BlockingQueue<Item> in = queues.get(i);
+                BlockingQueue<Item> out = queues.get(i + 1);
+                int downstream = i + 1 < stages.size() ? stages.get(i + 1).parallelism : 1;
+                AtomicInteger remaining = new AtomicInteger(stage.parallelism);
+                for (int w = 0; w < stage.parallelism; w++) {
+                    workers.add(() -> runStage(stage, in, out, remaining, downstream));
+                }
+            }
+            workers.add(() -> runSink(queues.get(stages.size())));
+
+            result.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    interruptWorkers();
+                }
+            });
+            try {
+                workers.forEach(worker -> executor.execute(() -> runWorker(worker)));
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+            return result;
+        }
+
+        /**
+         * Run a worker on a borrowed thread, which stays interruptible only while the worker runs
+         */
+        private void runWorker(Runnable worker) {
+            Thread thread = Thread.currentThread();
+            synchronized (running) {
+                if (result.isDone()) {
+                    return;
+                }
+                running.add(thread);
+            }
+            try {
+                worker.run();
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                synchronized (running) {
+                    running.remove(thread);
+                }
+                // Clear an interrupt aimed at this run before the thread goes back to its pool
+                Thread.interrupted();
+            }
+        }
+
+        private void interruptWorkers() {
+            synchronized (running) {
+                running.forEach(Thread::interrupt);
+            }
+        }
+
+        private void runSource(BlockingQueue<Item> out, int consumers) {
+            long sequence = 0;
+            try {
+                while (failure.get() == null && acquireSequence() && source.hasNext()) {
+                    out.put(new Item(sequence++, source.next()));
+                }
+                for (int i = 0; i < consumers; i++) {
+                    out.put(END);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Wait until fewer than window sequence numbers are outstanding (ordered runs)
+         * Goes through managedBlock so a ForkJoinPool executor adds a spare worker meanwhile.
+         */
+        private boolean acquireSequence() throws InterruptedException {
+            if (outstanding == null || outstanding.tryAcquire()) {
+                return true;
+            }
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                private boolean acquired;
+
+                @Override
+                public boolean block() throws InterruptedException {
+                    if (!acquired) {
+                        outstanding.acquire();
+                        acquired = true;
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return acquired || (acquired = outstanding.tryAcquire());
+                }
+            });
+            return true;
+        }
+
+        private void runStage(Stage stage, BlockingQueue<Item> in, BlockingQueue<Item> out,
+                              AtomicInteger remaining, int downstream) {
+            try {
+                while (true) {
+                    Item item = in.take();
+                    if (item == END) {
+                        if (remaining.decrementAndGet() == 0) {
+                            for (int i = 0; i < downstream; i++) {
+                                out.put(END);
+                            }
+                        }
+                        return;
+                    }
+                    // Skipped items still travel on so ordered sinks can advance past them
+                    Object value = item.value == SKIP ? SKIP : stage.function.apply(item.value);
+                    out.put(new Item(item.sequence, value));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void runSink(BlockingQueue<Item> in) {
+            // Reorder ring: at most window sequence numbers are outstanding, so slots never collide
+            Object[] pending = ordered ? new Object[window] : null;
+            long next = 0;
+            try {
+                while (true) {
+                    Item item = in.take();
+                    if (item == END) {
+                        break;
+                    }
+                    if (!ordered) {
+                        emit(item.value);
+                        continue;
+                    }
+                    pending[(int) (item.sequence % window)] = item.value == null ? NULL : item.value;
+                    int slot;
+                    while (pending[slot = (int) (next % window)] != null) {
+                        Object value = pending[slot];
+                        pending[slot] = null;
+                        next++;
+                        emit(value == NULL ? null : value);
+                        outstanding.release();
+                    }
+                }
+                result.complete(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void emit(Object value) {
+            if (value != SKIP) {
+                sink.accept((T) value);
+            }
+        }
+
+        private void fail(Throwable error) {
+            if (failure.compareAndSet(null, error)) {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+}
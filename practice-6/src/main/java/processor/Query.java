@@ -0,0 +1,330 @@
+package processor;
+
+import model.DataRecord;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Query class: lazy, fused filtering and aggregation over DataRecord lists
+ * Chaining filterRecords, filterByStatus and findRecordsWithTags builds a
+ * new list per call. A Query only records its conditions; the terminal
+ * operation (toList, count, aggregate, groupBy(...).agg) asks the
+ * QueryPlanner for a plan, which orders the conditions by estimated
+ * selectivity and cost and is cached per query shape, then reads the data
+ * once with all conditions fused into one predicate.
+ *
+ * <pre>
+ * Map&lt;String, Double&gt; averages = Query.from(records)
+ *         .where(Query.category("A"))
+ *         .and(Query.valueAtLeast(100.0))
+ *         .and(Query.hasTags("urgent", "high"))
+ *         .parallel()
+ *         .groupBy(DataRecord::getStatus)
+ *         .agg(Query.avg(DataRecord::getValue));
+ * </pre>
+ *
+ * Queries are immutable: every builder call returns a new Query, so a
+ * partial query can be shared and extended.
+ */
+public final class Query {
+
+    private final List<DataRecord> records;
+    private final List<Condition> conditions;
+    private final boolean parallel;
+    private final QueryPlanner planner;
+
+    private Query(List<DataRecord> records, List<Condition> conditions, boolean parallel, QueryPlanner planner) {
+        this.records = records;
+        this.conditions = conditions;
+        this.parallel = parallel;
+        this.planner = planner;
+    }
+
+    /**
+     * Start a query planned by the shared planner
+     * @param records List of DataRecord objects
+     * @return Query matching every record
+     */
+    public static Query from(List<DataRecord> records) {
+        return from(records, QueryPlanner.shared());
+    }
+
+    /**
+     * Start a query planned (and cached) by the given planner
+     * @param records List of DataRecord objects
+     * @param planner Planner holding the plan cache
+     * @return Query matching every record
+     */
+    public static Query from(List<DataRecord> records, QueryPlanner planner) {
+        return new Query(Objects.requireNonNull(records), Collections.emptyList(), false,
+                Objects.requireNonNull(planner));
+    }
+
+    // Conditions
+
+    /**
+     * @return Condition category == {@code category}
+     */
+    public static Condition category(String category) {
+        return new Condition("category=" + category, Condition.CHEAP,
+                record -> category.equals(record.getCategory()));
+    }
+
+    /**
+     * @return Condition status == {@code status}
+     */
+    public static Condition status(String status) {
+        return new Condition("status=" + status, Condition.CHEAP,
+                record -> status.equals(record.getStatus()));
+    }
+
+    /**
+     * @return Condition priority == {@code priority}
+     */
+    public static Condition priority(int priority) {
+        return new Condition("priority=" + priority, Condition.CHEAP,
+                record -> record.getPriority() == priority);
+    }
+
+    /**
+     * @return Condition value &gt;= {@code minValue}
+     */
+    public static Condition valueAtLeast(double minValue) {
+        return new Condition("value>=", Condition.CHEAP, record -> record.getValue() >= minValue);
+    }
+
+    /**
+     * @return Condition {@code minValue} &lt;= value &lt;= {@code maxValue}
+     */
+    public static Condition valueBetween(double minValue, double maxValue) {
+        return new Condition("value[]", Condition.CHEAP,
+                record -> record.getValue() >= minValue && record.getValue() <= maxValue);
+    }
+
+    /**
+     * @return Condition tags contain every given tag
+     */
+    public static Condition hasTags(String... tags) {
+        return hasTags(Arrays.asList(tags));
+    }
+
+    /**
+     * @return Condition tags contain every given tag
+     */
+    public static Condition hasTags(Collection<String> tags) {
+        Set<String> required = new LinkedHashSet<>(tags);
+        return new Condition("tags>=" + required, Condition.CHEAP + required.size(),
+                record -> record.getTags() != null && record.getTags().containsAll(required));
+    }
+
+    /**
+     * Arbitrary condition; its shape is the predicate's class, so one lambda
+     * call site is one shape whatever it captures
+     * @return Condition backed by the predicate
+     */
+    public static Condition matching(Predicate<? super DataRecord> predicate) {
+        return new Condition("custom:" + predicate.getClass().getName(), Condition.CUSTOM, predicate);
+    }
+
+    /**
+     * @return Collector averaging a numeric field, for {@link Grouped#agg}
+     */
+    public static Collector<DataRecord, ?, Double> avg(ToDoubleFunction<? super DataRecord> field) {
+        return Collectors.averagingDouble(field);
+    }
+
+    // Builder
+
+    /**
+     * Add a condition (all conditions must hold)
+     * @return New query with the condition added
+     */
+    public Query where(Condition condition) {
+        List<Condition> combined = new ArrayList<>(conditions.size() + 1);
+        combined.addAll(conditions);
+        combined.add(Objects.requireNonNull(condition));
+        return new Query(records, Collections.unmodifiableList(combined), parallel, planner);
+    }
+
+    /**
+     * Same as {@link #where(Condition)}, for readable chains
+     */
+    public Query and(Condition condition) {
+        return where(condition);
+    }
+
+    /**
+     * Add an arbitrary predicate, see {@link #matching(Predicate)}
+     */
+    public Query and(Predicate<? super DataRecord> predicate) {
+        return where(matching(predicate));
+    }
+
+    /**
+     * @return New query whose terminal operations run in parallel
+     */
+    public Query parallel() {
+        return new Query(records, conditions, true, planner);
+    }
+
+    /**
+     * @return Plan the terminal operations would use (cached per shape)
+     */
+    public QueryPlanner.Plan plan() {
+        return planner.plan(conditions, records);
+    }
+
+    // Terminal operations
+
+    /**
+     * @return Matching records in list order
+     */
+    public List<DataRecord> toList() {
+        Predicate<DataRecord> filter = compile();
+        if (parallel) {
+            return records.parallelStream().filter(filter).collect(Collectors.toList());
+        }
+        List<DataRecord> result = new ArrayList<>();
+        for (DataRecord record : records) {
+            if (filter.test(record)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of matching records, without building a list
+     */
+    public long count() {
+        Predicate<DataRecord> filter = compile();
+        if (parallel) {
+            return records.parallelStream().filter(filter).count();
+        }
+        long count = 0;
+        for (DataRecord record : records) {
+            if (filter.test(record)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Lazy stream of the matching records
+     */
+    public Stream<DataRecord> stream() {
+        Stream<DataRecord> stream = parallel ? records.parallelStream() : records.stream();
+        return stream.filter(compile());
+    }
+
+    /**
+     * Aggregate the matching records without grouping
+     * @param collector Aggregate to compute
+     * @return Aggregate over the matching records
+     */
+    public <R> R aggregate(Collector<? super DataRecord, ?, R> collector) {
+        return stream().collect(collector);
+    }
+
+    /**
+     * Group the matching records
+     * @param classifier Group key of a record
+     * @return Grouping step; call agg or count to run the query
+     */
+    public <K> Grouped<K> groupBy(Function<? super DataRecord, ? extends K> classifier) {
+        return new Grouped<>(this, Objects.requireNonNull(classifier));
+    }
+
+    private Predicate<DataRecord> compile() {
+        return planner.plan(conditions, records).bind(conditions);
+    }
+
+    /**
+     * Grouping step of a query
+     * @param <K> Group key type
+     */
+    public static final class Grouped<K> {
+        private final Query query;
+        private final Function<? super DataRecord, ? extends K> classifier;
+
+        private Grouped(Query query, Function<? super DataRecord, ? extends K> classifier) {
+            this.query = query;
+            this.classifier = classifier;
+        }
+
+        /**
+         * Aggregate every group in the same pass as the filter
+         * @param downstream Aggregate computed per group
+         * @return Map of key to aggregate; groups without matches are absent
+         */
+        public <R> Map<K, R> agg(Collector<? super DataRecord, ?, R> downstream) {
+            Predicate<DataRecord> filter = query.compile();
+            if (query.parallel) {
+                return GroupBy.parallel(query.records, filter, classifier, downstream);
+            }
+            return query.records.stream()
+                    .filter(filter)
+                    .collect(Collectors.groupingBy(classifier, downstream));
+        }
+
+        /**
+         * @return Map of key to number of matching records
+         */
+        public Map<K, Long> count() {
+            return agg(Collectors.counting());
+        }
+    }
+
+    /**
+     * A filter condition with the shape used as plan cache key and a relative cost
+     */
+    public static final class Condition {
+        static final double CHEAP = 1.0;
+        static final double CUSTOM = 4.0;
+
+        private final String shape;
+        private final double cost;
+        private final Predicate<? super DataRecord> predicate;
+
+        private Condition(String shape, double cost, Predicate<? super DataRecord> predicate) {
+            this.shape = shape;
+            this.cost = cost;
+            this.predicate = predicate;
+        }
+
+        /**
+         * @return Shape of the condition: its kind plus any equality operands,
+         * but not numeric bounds, which usually vary between runs
+         */
+        public String getShape() {
+            return shape;
+        }
+
+        double getCost() {
+            return cost;
+        }
+
+        boolean test(DataRecord record) {
+            return predicate.test(record);
+        }
+
+        @Override
+        public String toString() {
+            return shape;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package processor;
+
+import model.DataRecord;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * QueryPlanner class: orders Query conditions and caches the plans
+ * The selectivity of every condition is estimated on a strided sample of the
+ * data, and conditions are evaluated in descending order of
+ * (1 - selectivity) / cost, so cheap conditions that reject most records run
+ * first and short-circuit the rest. Plans are kept in a small LRU cache keyed
+ * by the query shape (the condition shapes in declaration order), so a
+ * repeated query pays for the sample once. Numeric bounds are not part of a
+ * shape; a plan estimated with one bound is reused for others. Thread-safe.
+ */
+public final class QueryPlanner {
+
+    /** Default number of cached plans */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final int SAMPLE_SIZE = 1024;
+    private static final QueryPlanner SHARED = new QueryPlanner(DEFAULT_CACHE_SIZE);
+
+    private final Map<List<String>, Plan> cache;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param cacheSize Maximum number of cached plans
+     */
+    public QueryPlanner(int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + cacheSize);
+        }
+        this.cache = new LinkedHashMap<List<String>, Plan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, Plan> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @return Planner used by {@link Query#from(List)}
+     */
+    public static QueryPlanner shared() {
+        return SHARED;
+    }
+
+    /**
+     * Cached plan for the shape of the conditions, estimating one on a miss
+     * @param conditions Query conditions in declaration order
+     * @param records Data sampled to estimate selectivity on a miss
+     * @return Plan for the conditions
+     */
+    public Plan plan(List<Query.Condition> conditions, List<DataRecord> records) {
+        List<String> shape = new ArrayList<>(conditions.size());
+        for (Query.Condition condition : conditions) {
+            shape.add(condition.getShape());
+        }
+        synchronized (this) {
+            Plan plan = cache.get(shape);
+            if (plan != null) {
+                hits++;
+                return plan;
+            }
+            misses++;
+        }
+        // Estimated outside the lock; a concurrent miss on the same shape computes an equal plan
+        Plan plan = estimate(shape, conditions, sample(records));
+        synchronized (this) {
+            cache.putIfAbsent(shape, plan);
+            return cache.get(shape);
+        }
+    }
+
+    /**
+     * @return Number of plans served from the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Number of plans estimated from a sample
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Number of cached plans
+     */
+    public synchronized int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Drop all cached plans, e.g. after the data distribution changed
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    private static Plan estimate(List<String> shape, List<Query.Condition> conditions, List<DataRecord> sample) {
+        int size = conditions.size();
+        double[] selectivity = new double[size];
+        double[] rank = new double[size];
+        for (int i = 0; i < size; i++) {
+            Query.Condition condition = conditions.get(i);
+            int matches = 0;
+            for (DataRecord record : sample) {
+                if (condition.test(record)) {
+                    matches++;
+                }
+            }
+            // Laplace smoothing keeps an empty sample from claiming 0% or 100%
+            selectivity[i] = (matches + 1.0) / (sample.size() + 2.0);
+            rank[i] = (1.0 - selectivity[i]) / condition.getCost();
+        }
+        int[] order = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> rank[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        return new Plan(shape, order, selectivity);
+    }
+
+    private static List<DataRecord> sample(List<DataRecord> records) {
+        int size = records.size();
+        int samples = Math.min(size, SAMPLE_SIZE);
+        List<DataRecord> sample = new ArrayList<>(samples);
+        if (records instanceof RandomAccess) {
+            long stride = Math.max(size / Math.max(samples, 1), 1);
+            for (long i = 0; i < size && sample.size() < samples; i += stride) {
+                sample.add(records.get((int) i));
+            }
+        } else {
+            Iterator<DataRecord> iterator = records.iterator();
+            while (iterator.hasNext() && sample.size() < samples) {
+                sample.add(iterator.next());
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Evaluation order for one query shape
+     */
+    public static final class Plan {
+        private final List<String> shape;
+        private final int[] order;
+        private final double[] selectivity;
+
+        private Plan(List<String> shape, int[] order, double[] selectivity) {
+            this.shape = shape;
+            this.order = order;
+            this.selectivity = selectivity;
+        }
+
+        /**
+         * @return Condition positions (declaration order) in evaluation order
+         */
+        public int[] getOrder() {
+            return order.clone();
+        }
+
+        /**
+         * @return Estimated selectivity of each condition, in declaration order
+         */
+        public double[] getSelectivity() {
+            return selectivity.clone();
+        }
+
+        /**
+         * Fuse the conditions of a query with this shape into one predicate
+         * @param conditions Conditions in declaration order
+         * @return Predicate testing them in plan order
+         */
+        Predicate<DataRecord> bind(List<Query.Condition> conditions) {
+            switch (order.length) {
+                case 0:
+                    return record -> true;
+                case 1: {
+                    Query.Condition only = conditions.get(0);
+                    return only::test;
+                }
+                case 2: {
+                    Query.Condition first = conditions.get(order[0]);
+                    Query.Condition second = conditions.get(order[1]);
+                    return record -> first.test(record) && second.test(record);
+                }
+                default: {
+                    Query.Condition[] ordered = new Query.Condition[order.length];
+                    for (int i = 0; i < order.length; i++) {
+                        ordered[i] = conditions.get(order[i]);
+                    }
+                    return record -> {
+                        for (Query.Condition condition : ordered) {
+                            if (!condition.test(record)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    };
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder("Plan[");
+            for (int i = 0; i < order.length; i++) {
+                if (i > 0) {
+                    result.append(" -> ");
+                }
+                result.append(shape.get(order[i]))
+                        .append(String.format(" (%.1f%%)", selectivity[order[i]] * 100));
+            }
+            return result.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package processor;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * RunningMoments class computing count, mean and variance in one pass
+ * Uses Welford's update for single values and Chan's formula to merge
+ * partial results from parallel stream leaves.
+ */
+public class RunningMoments implements DoubleConsumer {
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    /**
+     * Collector summarizing a double-valued property in one pass
+     * @param mapper Function extracting the value
+     * @param <T> Type of the stream elements
+     * @return Collector producing RunningMoments
+     */
+    public static <T> Collector<T, RunningMoments, RunningMoments> summarizing(ToDoubleFunction<? super T> mapper) {
+        return Collector.of(
+                RunningMoments::new,
+                (moments, element) -> moments.accept(mapper.applyAsDouble(element)),
+                RunningMoments::combine,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Moments of a block computed elsewhere, e.g. by a numeric kernel
+     * @param count Number of values
+     * @param mean Mean of the values
+     * @param m2 Sum of squared deviations from the mean
+     * @return RunningMoments that can be combined with others
+     */
+    static RunningMoments of(long count, double mean, double m2) {
+        RunningMoments moments = new RunningMoments();
+        moments.count = count;
+        moments.mean = mean;
+        moments.m2 = m2;
+        return moments;
+    }
+
+    @Override
+    public void accept(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Merge another partial result into this one
+     * @param other Partial result to merge
+     * @return this
+     */
+    public RunningMoments combine(RunningMoments other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return Population variance (divides by n), 0.0 for an empty set
+     */
+    public double getPopulationVariance() {
+        return count > 0 ? m2 / count : 0.0;
+    }
+
+    /**
+     * @return Population standard deviation, 0.0 for an empty set
+     */
+    public double getPopulationStandardDeviation() {
+        return Math.sqrt(getPopulationVariance());
+    }
+
+    @Override
+    public String toString() {
+        return "RunningMoments{" +
+                "count=" + count +
+                ", mean=" + mean +
+                ", variance=" + getPopulationVariance() +
+                '}';
+    }
+}
@@ -0,0 +1,213 @@
+package processor;
+
+import model.DataRecord;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StreamingDataProcessor class maintaining DataProcessor statistics incrementally
+ * Records are accepted one at a time or in micro-batches and keyed by id:
+ * accepting a record with a known id replaces (updates) the previous version,
+ * and retract removes it. Counters are striped (LongAdder/DoubleAdder) so
+ * writers never block each other and snapshot reads never block writers;
+ * snapshots are weakly consistent while ingestion is running.
+ *
+ * Counts, sums, averages and min/max are exact under retraction: each
+ * category keeps a sorted multiset of its values (value to occurrence count),
+ * so removing the current minimum or maximum exposes the next one.
+ * {@link #rebuild} fills a new state and swaps it in with one write, so
+ * readers see either the old or the new state; accepts running concurrently
+ * with a rebuild may land in the replaced state and are dropped with it.
+ * Records must not be mutated after being accepted; pass the new version
+ * to {@link #accept} instead.
+ */
+public class StreamingDataProcessor {
+
+    private volatile State state = new State();
+
+    /**
+     * Accept a new record or a new version of an existing one (same id)
+     * @param record DataRecord to add or update
+     */
+    public void accept(DataRecord record) {
+        state.accept(record);
+    }
+
+    /**
+     * Accept a micro-batch of records
+     * @param batch Records to add or update
+     */
+    public void acceptAll(Collection<DataRecord> batch) {
+        State current = state;
+        batch.forEach(current::accept);
+    }
+
+    /**
+     * Retract a record, e.g. after it was deleted upstream
+     * @param id Id of the record to retract
+     * @return true if the record was present
+     */
+    public boolean retract(long id) {
+        return state.retract(id);
+    }
+
+    /**
+     * Replace all state with the given records
+     * @param snapshot Full set of current records
+     */
+    public void rebuild(Collection<DataRecord> snapshot) {
+        State rebuilt = new State();
+        snapshot.forEach(rebuilt::accept);
+        state = rebuilt;
+    }
+
+    /**
+     * @return Number of records currently held
+     */
+    public int size() {
+        return state.records.size();
+    }
+
+    /**
+     * Statistics by category, equivalent to DataProcessor.calculateStatistics
+     * @return Map of category to statistics snapshot
+     */
+    public Map<String, DoubleSummaryStatistics> calculateStatistics() {
+        Map<String, DoubleSummaryStatistics> result = new HashMap<>();
+        state.categoryStatistics.forEach((category, stats) -> {
+            DoubleSummaryStatistics snapshot = stats.snapshot();
+            if (snapshot.getCount() > 0) {
+                result.put(category, snapshot);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Average value by category, equivalent to DataProcessor.calculateAverageByCategory
+     * @return Map of category to average value
+     */
+    public Map<String, Double> calculateAverageByCategory() {
+        Map<String, Double> result = new HashMap<>();
+        calculateStatistics().forEach((category, stats) -> result.put(category, stats.getAverage()));
+        return result;
+    }
+
+    /**
+     * Record count by status, equivalent to DataProcessor.countByStatus
+     * @return Map of status to count
+     */
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> result = new HashMap<>();
+        state.statusCounts.forEach((status, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                result.put(status, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Records grouped by priority, equivalent to DataProcessor.groupByPriority
+     * @return Map of priority to list of records
+     */
+    public Map<Integer, List<DataRecord>> groupByPriority() {
+        Map<Integer, List<DataRecord>> result = new HashMap<>();
+        state.priorityGroups.forEach((priority, group) -> {
+            if (!group.isEmpty()) {
+                result.put(priority, new ArrayList<>(group.values()));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Records and the statistics derived from them; replaced as a whole by rebuild
+     */
+    private static final class State {
+        private final Map<Long, DataRecord> records = new ConcurrentHashMap<>();
+        private final Map<String, CategoryStatistics> categoryStatistics = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        private final Map<Integer, Map<Long, DataRecord>> priorityGroups = new ConcurrentHashMap<>();
+
+        void accept(DataRecord record) {
+            // compute() serializes writers of the same id; other ids proceed in parallel
+            records.compute(record.getId(), (id, previous) -> {
+                if (previous != null) {
+                    remove(previous);
+                }
+                add(record);
+                return record;
+            });
+        }
+
+        boolean retract(long id) {
+            boolean[] removed = new boolean[1];
+            records.computeIfPresent(id, (key, previous) -> {
+                remove(previous);
+                removed[0] = true;
+                return null;
+            });
+            return removed[0];
+        }
+
+        private void add(DataRecord record) {
+            categoryStatistics.computeIfAbsent(record.getCategory(), key -> new CategoryStatistics())
+                    .add(record.getValue());
+            statusCounts.computeIfAbsent(record.getStatus(), key -> new LongAdder()).increment();
+            priorityGroups.computeIfAbsent(record.getPriority(), key -> new ConcurrentHashMap<>())
+                    .put(record.getId(), record);
+        }
+
+        private void remove(DataRecord record) {
+            categoryStatistics.computeIfAbsent(record.getCategory(), key -> new CategoryStatistics())
+                    .remove(record.getValue());
+            statusCounts.computeIfAbsent(record.getStatus(), key -> new LongAdder()).decrement();
+            Map<Long, DataRecord> group = priorityGroups.get(record.getPriority());
+            if (group != null) {
+                group.remove(record.getId(), record);
+            }
+        }
+    }
+
+    /**
+     * Striped per-category accumulators plus a sorted multiset of values for min/max
+     */
+    private static final class CategoryStatistics {
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+        private final ConcurrentSkipListMap<Double, Long> values = new ConcurrentSkipListMap<>();
+
+        void add(double value) {
+            // Value first, so a reader that sees the new count also sees valid min/max
+            values.merge(value, 1L, Long::sum);
+            sum.add(value);
+            count.increment();
+        }
+
+        void remove(double value) {
+            count.decrement();
+            sum.add(-value);
+            values.computeIfPresent(value, (key, occurrences) -> occurrences > 1 ? occurrences - 1 : null);
+        }
+
+        DoubleSummaryStatistics snapshot() {
+            long n = count.sum();
+            Map.Entry<Double, Long> min = values.firstEntry();
+            Map.Entry<Double, Long> max = values.lastEntry();
+            if (n <= 0 || min == null || max == null) {
+                return new DoubleSummaryStatistics();
+            }
+            return new DoubleSummaryStatistics(n, min.getKey(), max.getKey(), sum.sum());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package processor;
+
+import model.DataRecord;
+import model.DataRecordTable;
+import model.RecordColumns;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TagIndex class: inverted index from tag to a bitmap of row positions
+ * Rows are positions in the indexed list or table, so AND/OR/NOT tag queries
+ * become bitmap intersections, unions and differences instead of a scan with
+ * List.containsAll per record. The index is appended to incrementally as
+ * records are added. Not thread-safe for writes.
+ */
+public class TagIndex {
+
+    private final Map<String, BitSet> bitmaps = new HashMap<>();
+    private int size;
+
+    /**
+     * Build an index over a list; row i refers to records.get(i)
+     * @param records List of DataRecord objects
+     * @return TagIndex over the list positions
+     */
+    public static TagIndex of(List<DataRecord> records) {
+        TagIndex index = new TagIndex();
+        for (DataRecord record : records) {
+            index.add(record.getTags());
+        }
+        return index;
+    }
+
+    /**
+     * Build an index over a columnar table; row i refers to table row i
+     * @param table Columnar rows to index
+     * @return TagIndex over the table rows
+     */
+    public static TagIndex of(RecordColumns table) {
+        TagIndex index = new TagIndex();
+        for (int row = 0; row < table.size(); row++) {
+            index.add(table.getTags(row));
+        }
+        return index;
+    }
+
+    /**
+     * Append the next row
+     * @param record Record appended to the indexed list or table
+     * @return Row position assigned to the record
+     */
+    public int add(DataRecord record) {
+        return add(record.getTags());
+    }
+
+    /**
+     * Append the next row by its tags
+     * @param tags Tags of the row (may be null)
+     * @return Row position assigned to the row
+     */
+    public int add(Collection<String> tags) {
+        int row = size++;
+        if (tags != null) {
+            for (String tag : tags) {
+                bitmaps.computeIfAbsent(tag, key -> new BitSet()).set(row);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @return Number of indexed rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Rows carrying every given tag (AND)
+     * @param tags Required tags
+     * @return Bitmap of matching rows
+     */
+    public BitSet allOf(Collection<String> tags) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        for (String tag : tags) {
+            BitSet bitmap = bitmaps.get(tag);
+            if (bitmap == null) {
+                return new BitSet();
+            }
+            result.and(bitmap);
+        }
+        return result;
+    }
+
+    /**
+     * Rows carrying at least one of the given tags (OR)
+     * @param tags Candidate tags
+     * @return Bitmap of matching rows
+     */
+    public BitSet anyOf(Collection<String> tags) {
+        BitSet result = new BitSet(size);
+        for (String tag : tags) {
+            BitSet bitmap = bitmaps.get(tag);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Combined query: all of {@code required}, at least one of {@code any}
+     * (ignored when empty) and none of {@code excluded}
+     * @return Bitmap of matching rows
+     */
+    public BitSet query(Collection<String> required, Collection<String> any, Collection<String> excluded) {
+        BitSet result = allOf(required);
+        if (!any.isEmpty()) {
+            result.and(anyOf(any));
+        }
+        result.andNot(anyOf(excluded));
+        return result;
+    }
+
+    /**
+     * Resolve matching rows against the indexed list
+     * @param rows Bitmap returned by a query
+     * @param records The list this index was built from
+     * @return Matching records in list order
+     */
+    public static List<DataRecord> select(BitSet rows, List<DataRecord> records) {
+        List<DataRecord> result = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            result.add(records.get(row));
+        }
+        return result;
+    }
+
+    /**
+     * Resolve matching rows against the indexed table
+     * @param rows Bitmap returned by a query
+     * @param table The table this index was built from
+     * @return Table with the matching rows in row order
+     */
+    public static DataRecordTable select(BitSet rows, RecordColumns table) {
+        return table.select(rows.stream().toArray());
+    }
+}
@@ -0,0 +1,384 @@
+package processor;
+
+import model.DataRecord;
+import model.RecordColumns;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * TimeIndex class: time-partitioned layout with pre-aggregated buckets
+ * Rows are bucketed by UTC timestamp at a base granularity into dense
+ * epoch-bucket arrays: count/sum/min/max per bucket, and the rows of each
+ * bucket stored contiguously (with their timestamps and values) in bucket
+ * order. Reports at the base or a coarser granularity read the bucket
+ * aggregates, so a day-level report costs O(days) instead of O(records);
+ * a [from, to) range query reads the aggregates of the buckets it covers
+ * and scans only the rows of the two edge buckets. Rows are positions in
+ * the indexed list or table. The index is immutable; rebuild it when the
+ * data changes.
+ */
+public class TimeIndex {
+
+    /** Bucket size; weeks start on Monday, months on the first day */
+    public enum Granularity {
+        HOUR,
+        DAY,
+        WEEK,
+        MONTH;
+
+        private static final long SECONDS_PER_HOUR = 3_600L;
+        private static final long SECONDS_PER_DAY = 86_400L;
+        // Epoch day 0 (1970-01-01) is a Thursday
+        private static final long MONDAY_OFFSET = 3L;
+
+        /**
+         * @return Bucket number of a UTC epoch second
+         */
+        public long bucket(long epochSecond) {
+            switch (this) {
+                case HOUR:
+                    return Math.floorDiv(epochSecond, SECONDS_PER_HOUR);
+                case DAY:
+                    return Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+                case WEEK:
+                    return Math.floorDiv(Math.floorDiv(epochSecond, SECONDS_PER_DAY) + MONDAY_OFFSET, 7);
+                default:
+                    LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+                    return date.getYear() * 12L + date.getMonthValue() - 1;
+            }
+        }
+
+        /**
+         * @return UTC epoch second at which a bucket starts
+         */
+        public long start(long bucket) {
+            switch (this) {
+                case HOUR:
+                    return bucket * SECONDS_PER_HOUR;
+                case DAY:
+                    return bucket * SECONDS_PER_DAY;
+                case WEEK:
+                    return (bucket * 7 - MONDAY_OFFSET) * SECONDS_PER_DAY;
+                default:
+                    LocalDate first = LocalDate.of((int) Math.floorDiv(bucket, 12L),
+                            (int) Math.floorMod(bucket, 12L) + 1, 1);
+                    return first.toEpochDay() * SECONDS_PER_DAY;
+            }
+        }
+
+        /**
+         * Whether every bucket of this granularity lies inside one bucket of {@code target}
+         * (hour -> day -> week, and day -> month; a week can span two months)
+         */
+        public boolean rollsUpTo(Granularity target) {
+            if (this == target) {
+                return true;
+            }
+            switch (this) {
+                case HOUR:
+                    return true;
+                case DAY:
+                    return target == WEEK || target == MONTH;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /** Refuse layouts with more empty buckets than this many per row (e.g. hours over centuries) */
+    private static final long MAX_BUCKETS_PER_ROW = 16;
+    private static final long MIN_BUCKET_LIMIT = 1 << 20;
+
+    private final Granularity granularity;
+    private final long firstBucket;
+    // Per bucket, index = bucket - firstBucket
+    private final int[] offsets;
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] mins;
+    private final double[] maxs;
+    // Per row, in bucket order (ascending row within a bucket)
+    private final int[] rows;
+    private final long[] seconds;
+    private final double[] values;
+
+    private TimeIndex(Granularity granularity, long firstBucket, int[] offsets, int[] rows,
+                      long[] seconds, double[] values) {
+        this.granularity = granularity;
+        this.firstBucket = firstBucket;
+        this.offsets = offsets;
+        this.rows = rows;
+        this.seconds = seconds;
+        this.values = values;
+        int buckets = offsets.length - 1;
+        this.counts = new long[buckets];
+        this.sums = new double[buckets];
+        this.mins = new double[buckets];
+        this.maxs = new double[buckets];
+        for (int b = 0; b < buckets; b++) {
+            counts[b] = offsets[b + 1] - offsets[b];
+            double sum = 0.0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = offsets[b]; i < offsets[b + 1]; i++) {
+                sum += values[i];
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            sums[b] = sum;
+            mins[b] = min;
+            maxs[b] = max;
+        }
+    }
+
+    /**
+     * Build a day-partitioned index over a list; row i refers to records.get(i)
+     * @param records List of DataRecord objects
+     * @return TimeIndex over the list positions
+     */
+    public static TimeIndex of(List<DataRecord> records) {
+        return of(records, Granularity.DAY);
+    }
+
+    /**
+     * Build an index over a list at the given base granularity
+     * @param records List of DataRecord objects
+     * @param granularity Finest granularity reports can use
+     * @return TimeIndex over the list positions
+     */
+    public static TimeIndex of(List<DataRecord> records, Granularity granularity) {
+        return build(records.size(), row -> records.get(row).getEpochSecond(),
+                row -> records.get(row).getValue(), granularity);
+    }
+
+    /**
+     * Build a day-partitioned index over a columnar table; row i refers to table row i
+     * @param table Columnar rows to index
+     * @return TimeIndex over the table rows
+     */
+    public static TimeIndex of(RecordColumns table) {
+        return of(table, Granularity.DAY);
+    }
+
+    /**
+     * Build an index over a columnar table at the given base granularity
+     * @param table Columnar rows to index
+     * @param granularity Finest granularity reports can use
+     * @return TimeIndex over the table rows
+     */
+    public static TimeIndex of(RecordColumns table, Granularity granularity) {
+        return build(table.size(), table::getEpochSecond, table::getValue, granularity);
+    }
+
+    private static TimeIndex build(int size, IntToLongFunction second, IntToDoubleFunction value,
+                                   Granularity granularity) {
+        long[] rowSeconds = new long[size];
+        long[] rowBuckets = new long[size];
+        long minBucket = Long.MAX_VALUE;
+        long maxBucket = Long.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            rowSeconds[row] = second.applyAsLong(row);
+            rowBuckets[row] = granularity.bucket(rowSeconds[row]);
+            minBucket = Math.min(minBucket, rowBuckets[row]);
+            maxBucket = Math.max(maxBucket, rowBuckets[row]);
+        }
+        if (size == 0) {
+            return new TimeIndex(granularity, 0, new int[1], new int[0], new long[0], new double[0]);
+        }
+        long span = maxBucket - minBucket + 1;
+        if (span > Math.max(MIN_BUCKET_LIMIT, MAX_BUCKETS_PER_ROW * size)) {
+            throw new IllegalArgumentException("Timestamps span " + span + " " + granularity +
+                    " buckets for " + size + " rows; use a coarser granularity");
+        }
+
+        // Counting sort of rows by bucket keeps ascending row order inside each bucket
+        int[] offsets = new int[(int) span + 1];
+        for (long bucket : rowBuckets) {
+            offsets[(int) (bucket - minBucket) + 1]++;
+        }
+        for (int b = 0; b < span; b++) {
+            offsets[b + 1] += offsets[b];
+        }
+        int[] fill = Arrays.copyOf(offsets, (int) span);
+        int[] rows = new int[size];
+        long[] seconds = new long[size];
+        double[] values = new double[size];
+        for (int row = 0; row < size; row++) {
+            int position = fill[(int) (rowBuckets[row] - minBucket)]++;
+            rows[position] = row;
+            seconds[position] = rowSeconds[row];
+            values[position] = value.applyAsDouble(row);
+        }
+        return new TimeIndex(granularity, minBucket, offsets, rows, seconds, values);
+    }
+
+    private static long epochSecond(LocalDateTime timestamp) {
+        // DataRecordTable stores a missing timestamp as 0 as well
+        return timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : 0L;
+    }
+
+    /**
+     * @return Number of indexed rows
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * @return Base granularity of the buckets
+     */
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * Statistics per non-empty bucket at the base granularity
+     * @return Map of bucket start to statistics, in time order
+     */
+    public NavigableMap<LocalDateTime, DoubleSummaryStatistics> statistics() {
+        return rollUp(granularity);
+    }
+
+    /**
+     * Roll the bucket aggregates up to a coarser granularity in O(buckets)
+     * @param target Granularity of the report
+     * @return Map of bucket start to statistics, in time order
+     */
+    public NavigableMap<LocalDateTime, DoubleSummaryStatistics> rollUp(Granularity target) {
+        checkRollUp(target);
+        NavigableMap<LocalDateTime, DoubleSummaryStatistics> result = new TreeMap<>();
+        DoubleSummaryStatistics current = null;
+        long currentBucket = 0;
+        for (int b = 0; b < counts.length; b++) {
+            if (counts[b] == 0) {
+                continue;
+            }
+            long bucket = target.bucket(granularity.start(firstBucket + b));
+            if (current == null || bucket != currentBucket) {
+                current = new DoubleSummaryStatistics();
+                currentBucket = bucket;
+                result.put(toDateTime(target.start(bucket)), current);
+            }
+            current.combine(bucketStatistics(b));
+        }
+        return result;
+    }
+
+    /**
+     * Roll up only the rows with from &lt;= timestamp &lt; to
+     * Buckets fully inside the range use their aggregates; only the rows of
+     * the (at most two) partially covered base buckets are scanned.
+     * @param target Granularity of the report
+     * @param from Inclusive start
+     * @param to Exclusive end
+     * @return Map of bucket start to statistics, in time order
+     */
+    public NavigableMap<LocalDateTime, DoubleSummaryStatistics> rollUp(Granularity target,
+                                                                       LocalDateTime from, LocalDateTime to) {
+        checkRollUp(target);
+        long fromSecond = epochSecond(from);
+        long toSecond = epochSecond(to);
+        NavigableMap<LocalDateTime, DoubleSummaryStatistics> result = new TreeMap<>();
+        int first = Math.max(localBucket(fromSecond), 0);
+        int last = Math.min(localBucket(toSecond - 1), counts.length - 1);
+        for (int b = first; b <= last; b++) {
+            DoubleSummaryStatistics stats = rangeStatistics(b, fromSecond, toSecond);
+            if (stats.getCount() > 0) {
+                long bucket = target.bucket(granularity.start(firstBucket + b));
+                result.computeIfAbsent(toDateTime(target.start(bucket)), key -> new DoubleSummaryStatistics())
+                        .combine(stats);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Statistics of the rows with from &lt;= timestamp &lt; to
+     * @param from Inclusive start
+     * @param to Exclusive end
+     * @return Combined statistics of the range
+     */
+    public DoubleSummaryStatistics summarize(LocalDateTime from, LocalDateTime to) {
+        long fromSecond = epochSecond(from);
+        long toSecond = epochSecond(to);
+        DoubleSummaryStatistics result = new DoubleSummaryStatistics();
+        int first = Math.max(localBucket(fromSecond), 0);
+        int last = Math.min(localBucket(toSecond - 1), counts.length - 1);
+        for (int b = first; b <= last; b++) {
+            result.combine(rangeStatistics(b, fromSecond, toSecond));
+        }
+        return result;
+    }
+
+    /**
+     * Rows with from &lt;= timestamp &lt; to, in ascending row order
+     * @param from Inclusive start
+     * @param to Exclusive end
+     * @return Row positions in the indexed list or table
+     */
+    public int[] rows(LocalDateTime from, LocalDateTime to) {
+        long fromSecond = epochSecond(from);
+        long toSecond = epochSecond(to);
+        int first = Math.max(localBucket(fromSecond), 0);
+        int last = Math.min(localBucket(toSecond - 1), counts.length - 1);
+        if (first > last) {
+            return new int[0];
+        }
+        int[] result = new int[offsets[last + 1] - offsets[first]];
+        int found = 0;
+        for (int i = offsets[first]; i < offsets[last + 1]; i++) {
+            if (seconds[i] >= fromSecond && seconds[i] < toSecond) {
+                result[found++] = rows[i];
+            }
+        }
+        result = Arrays.copyOf(result, found);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void checkRollUp(Granularity target) {
+        if (!granularity.rollsUpTo(target)) {
+            throw new IllegalArgumentException("Cannot roll " + granularity + " buckets up to " + target);
+        }
+    }
+
+    /** Bucket position of an epoch second, clamped to the int range */
+    private int localBucket(long epochSecond) {
+        long local = granularity.bucket(epochSecond) - firstBucket;
+        return (int) Math.max(Math.min(local, Integer.MAX_VALUE), Integer.MIN_VALUE);
+    }
+
+    private DoubleSummaryStatistics bucketStatistics(int b) {
+        return counts[b] == 0
+                ? new DoubleSummaryStatistics()
+                : new DoubleSummaryStatistics(counts[b], mins[b], maxs[b], sums[b]);
+    }
+
+    /** Aggregate of a whole bucket, or a scan of its rows when the range cuts it */
+    private DoubleSummaryStatistics rangeStatistics(int b, long fromSecond, long toSecond) {
+        long start = granularity.start(firstBucket + b);
+        long end = granularity.start(firstBucket + b + 1);
+        if (start >= fromSecond && end <= toSecond) {
+            return bucketStatistics(b);
+        }
+        DoubleSummaryStatistics stats = new DoubleSummaryStatistics();
+        for (int i = offsets[b]; i < offsets[b + 1]; i++) {
+            if (seconds[i] >= fromSecond && seconds[i] < toSecond) {
+                stats.accept(values[i]);
+            }
+        }
+        return stats;
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
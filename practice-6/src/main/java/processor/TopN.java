@@ -0,0 +1,183 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+/**
+ * TopN class with bounded-heap collectors for top-N queries
+ * Each stream leaf keeps a min-heap of at most N elements, so finding the
+ * top N of m elements costs O(m log N) time and O(N) memory per leaf
+ * instead of sorting all m elements.
+ */
+public final class TopN {
+
+    private TopN() {
+    }
+
+    /**
+     * Collector keeping the N greatest elements according to a comparator
+     * @param n Number of elements to keep
+     * @param comparator Ordering; the greatest elements are kept
+     * @param <T> Type of the stream elements
+     * @return Collector producing the top-N elements in descending order
+     */
+    public static <T> Collector<T, ?, List<T>> collector(int n, Comparator<? super T> comparator) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        return Collector.of(
+                () -> new BoundedHeap<T>(n, comparator),
+                BoundedHeap::offer,
+                BoundedHeap::merge,
+                BoundedHeap::toSortedList);
+    }
+
+    /**
+     * Min-heap holding at most N elements
+     */
+    private static final class BoundedHeap<T> {
+        private final int limit;
+        private final Comparator<? super T> comparator;
+        private final PriorityQueue<T> heap;
+
+        BoundedHeap(int limit, Comparator<? super T> comparator) {
+            this.limit = limit;
+            this.comparator = comparator;
+            this.heap = new PriorityQueue<>(Math.max(limit, 1), comparator);
+        }
+
+        void offer(T element) {
+            if (heap.size() < limit) {
+                heap.add(element);
+            } else if (limit > 0 && comparator.compare(element, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(element);
+            }
+        }
+
+        BoundedHeap<T> merge(BoundedHeap<T> other) {
+            for (T element : other.heap) {
+                offer(element);
+            }
+            return this;
+        }
+
+        List<T> toSortedList() {
+            List<T> result = new ArrayList<>(heap);
+            result.sort(comparator.reversed());
+            return result;
+        }
+    }
+
+    /**
+     * Primitive min-heap of (row, value) pairs keeping the N largest values
+     * Used by the columnar path so no object is allocated per row
+     */
+    public static final class ValueHeap {
+        private final int limit;
+        private final int[] rows;
+        private final double[] values;
+        private int size;
+
+        public ValueHeap(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("limit must not be negative: " + limit);
+            }
+            this.limit = limit;
+            this.rows = new int[limit];
+            this.values = new double[limit];
+        }
+
+        /**
+         * Offer a row; it is kept if it is among the N largest values seen
+         * @param row Row index
+         * @param value Value of the row
+         */
+        public void offer(int row, double value) {
+            if (size < limit) {
+                rows[size] = row;
+                values[size] = value;
+                siftUp(size++);
+            } else if (limit > 0 && Double.compare(value, values[0]) > 0) {
+                rows[0] = row;
+                values[0] = value;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Merge another heap into this one
+         * @param other Heap to merge
+         * @return this
+         */
+        public ValueHeap merge(ValueHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.rows[i], other.values[i]);
+            }
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return Row indexes ordered by value, largest first
+         */
+        public int[] toSortedRows() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(values[b], values[a]));
+            int[] result = new int[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = rows[order[i]];
+            }
+            return result;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (Double.compare(values[index], values[parent]) >= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left;
+                int right = left + 1;
+                if (right < size && Double.compare(values[right], values[left]) < 0) {
+                    smallest = right;
+                }
+                if (Double.compare(values[smallest], values[index]) >= 0) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+            double value = values[a];
+            values[a] = values[b];
+            values[b] = value;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package processor;
+
+import model.DataRecord;
+import model.RecordColumns;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * ValueIndex class: secondary index on DataRecord value
+ * Keeps (value, row) pairs sorted by value as primitive arrays, once for all
+ * rows and once per category, so a value range is found with two binary
+ * searches and costs O(log n + k). Rows are positions in the indexed list or
+ * table. The index is immutable; rebuild it when the data changes.
+ */
+public class ValueIndex {
+
+    /** Default selectivity above which a sequential scan is preferred */
+    public static final double DEFAULT_SCAN_THRESHOLD = 0.10;
+
+    private final int size;
+    private final Sorted all;
+    private final Map<String, Sorted> byCategory;
+    private final double scanThreshold;
+
+    private ValueIndex(int size, Sorted all, Map<String, Sorted> byCategory, double scanThreshold) {
+        this.size = size;
+        this.all = all;
+        this.byCategory = byCategory;
+        this.scanThreshold = scanThreshold;
+    }
+
+    /**
+     * Build an index over a list; row i refers to records.get(i)
+     * @param records List of DataRecord objects
+     * @return ValueIndex over the list positions
+     */
+    public static ValueIndex of(List<DataRecord> records) {
+        return build(records.size(), row -> records.get(row).getValue(),
+                row -> records.get(row).getCategory(), DEFAULT_SCAN_THRESHOLD);
+    }
+
+    /**
+     * Build an index over a columnar table; row i refers to table row i
+     * @param table Columnar rows to index
+     * @return ValueIndex over the table rows
+     */
+    public static ValueIndex of(RecordColumns table) {
+        return build(table.size(), table::getValue, table::getCategory, DEFAULT_SCAN_THRESHOLD);
+    }
+
+    /**
+     * Copy of this index using a different planner threshold
+     * @param threshold Selectivity (0..1) above which the planner chooses a scan
+     * @return ValueIndex sharing the same sorted arrays
+     */
+    public ValueIndex withScanThreshold(double threshold) {
+        return new ValueIndex(size, all, byCategory, threshold);
+    }
+
+    private static ValueIndex build(int size, IntToDoubleFunction value, IntFunction<String> category,
+                                    double scanThreshold) {
+        double[] keys = new double[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = value.applyAsDouble(row);
+        }
+        int[] order = IntStream.range(0, size).toArray();
+        mergeSort(order, new int[size], keys, 0, size);
+        Sorted all = new Sorted(order, value);
+
+        // A stable split of the globally sorted order is sorted per category too
+        Map<String, int[]> rowsByCategory = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (int row : order) {
+            counts.merge(category.apply(row), 1, Integer::sum);
+        }
+        counts.forEach((key, count) -> rowsByCategory.put(key, new int[count]));
+        Map<String, Integer> fill = new HashMap<>();
+        for (int row : order) {
+            String key = category.apply(row);
+            int position = fill.merge(key, 1, Integer::sum) - 1;
+            rowsByCategory.get(key)[position] = row;
+        }
+        Map<String, Sorted> byCategory = new HashMap<>();
+        rowsByCategory.forEach((key, rows) -> byCategory.put(key, new Sorted(rows, value)));
+
+        return new ValueIndex(size, all, byCategory, scanThreshold);
+    }
+
+    /**
+     * Stable merge sort of row numbers by key without boxing
+     */
+    private static void mergeSort(int[] rows, int[] buffer, double[] keys, int from, int to) {
+        if (to - from < 32) {
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && Double.compare(keys[rows[j]], keys[row]) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(rows, buffer, keys, from, mid);
+        mergeSort(rows, buffer, keys, mid, to);
+        if (Double.compare(keys[rows[mid - 1]], keys[rows[mid]]) <= 0) {
+            return;
+        }
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && Double.compare(keys[buffer[left]], keys[buffer[right]]) <= 0)) {
+                rows[i] = buffer[left++];
+            } else {
+                rows[i] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * @return Number of indexed rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Count rows with min &lt;= value &lt;= max in O(log n)
+     */
+    public int count(double minValue, double maxValue) {
+        return all.count(minValue, maxValue);
+    }
+
+    /**
+     * Count rows of a category with min &lt;= value &lt;= max in O(log n)
+     */
+    public int count(String category, double minValue, double maxValue) {
+        Sorted sorted = byCategory.get(category);
+        return sorted != null ? sorted.count(minValue, maxValue) : 0;
+    }
+
+    /**
+     * Rows with min &lt;= value &lt;= max, in ascending row order
+     */
+    public int[] rows(double minValue, double maxValue) {
+        return all.rows(minValue, maxValue);
+    }
+
+    /**
+     * Rows of a category with min &lt;= value &lt;= max, in ascending row order
+     */
+    public int[] rows(String category, double minValue, double maxValue) {
+        Sorted sorted = byCategory.get(category);
+        return sorted != null ? sorted.rows(minValue, maxValue) : new int[0];
+    }
+
+    /**
+     * Decide between the index and a scan from the exact match count
+     * @param matches Number of rows the query matches
+     * @return true if the index should be used
+     */
+    public boolean preferIndex(int matches) {
+        return size == 0 || (double) matches / size <= scanThreshold;
+    }
+
+    /**
+     * Sorted (value, row) pairs
+     */
+    private static final class Sorted {
+        private final double[] values;
+        private final int[] rows;
+
+        Sorted(int[] rows, IntToDoubleFunction value) {
+            this.rows = rows;
+            this.values = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                values[i] = value.applyAsDouble(rows[i]);
+            }
+        }
+
+        int count(double minValue, double maxValue) {
+            return Math.max(upperBound(maxValue) - lowerBound(minValue), 0);
+        }
+
+        int[] rows(double minValue, double maxValue) {
+            int from = lowerBound(minValue);
+            int to = upperBound(maxValue);
+            if (to <= from) {
+                return new int[0];
+            }
+            int[] result = Arrays.copyOfRange(rows, from, to);
+            Arrays.sort(result);
+            return result;
+        }
+
+        /** First position with value &gt;= key */
+        private int lowerBound(double key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** First position with value &gt; key */
+        private int upperBound(double key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
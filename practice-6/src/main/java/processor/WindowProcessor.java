@@ -0,0 +1,226 @@
+package processor;
+
+import model.TimeSeries;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * WindowProcessor class for sliding and fixed windows over time series
+ * Every operation is a single O(n) pass over a time-ordered TimeSeries:
+ * running sums for averages and monotonic deques for min/max. Results keep
+ * the input points' exact timestamps; time-based windows are measured in
+ * whole seconds.
+ */
+public class WindowProcessor {
+
+    /**
+     * Count-based moving average using a running sum
+     * @param series Time-ordered series
+     * @param windowSize Number of points in each window
+     * @return Series with one point per full window, stamped with the window's last timestamp
+     */
+    public TimeSeries movingAverage(TimeSeries series, int windowSize) {
+        requirePositive(windowSize, "windowSize");
+        int n = series.size();
+        int outSize = Math.max(n - windowSize + 1, 0);
+        int[] points = new int[outSize];
+        double[] averages = new double[outSize];
+
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += series.getValue(i);
+            if (i >= windowSize) {
+                sum -= series.getValue(i - windowSize);
+            }
+            if (i >= windowSize - 1) {
+                int out = i - windowSize + 1;
+                points[out] = i;
+                averages[out] = sum / windowSize;
+            }
+        }
+        return series.at(points, averages);
+    }
+
+    /**
+     * Time-based trailing moving average over (t - window, t]
+     * @param series Time-ordered series
+     * @param window Window length (e.g. 1 hour, 30 days)
+     * @return Series with one point per input point
+     */
+    public TimeSeries movingAverage(TimeSeries series, Duration window) {
+        long span = requirePositive(window);
+        int n = series.size();
+        int[] points = new int[n];
+        double[] averages = new double[n];
+
+        double sum = 0.0;
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            long now = series.getEpochSecond(i);
+            sum += series.getValue(i);
+            while (series.getEpochSecond(start) <= now - span) {
+                sum -= series.getValue(start++);
+            }
+            points[i] = i;
+            averages[i] = sum / (i - start + 1);
+        }
+        return series.at(points, averages);
+    }
+
+    /**
+     * Tumbling (non-overlapping) window averages aligned to the epoch
+     * @param series Time-ordered series
+     * @param window Window length
+     * @return Series with one point per non-empty window, stamped with the window start
+     */
+    public TimeSeries tumblingAverage(TimeSeries series, Duration window) {
+        return hoppingAverage(series, window, window);
+    }
+
+    /**
+     * Hopping window averages: windows of the given size starting every hop
+     * @param series Time-ordered series
+     * @param window Window length
+     * @param hop Distance between window starts (at most the window length)
+     * @return Series with one point per non-empty window, stamped with the window start
+     */
+    public TimeSeries hoppingAverage(TimeSeries series, Duration window, Duration hop) {
+        long span = requirePositive(window);
+        long step = requirePositive(hop);
+        if (step > span) {
+            throw new IllegalArgumentException("hop must not exceed the window length");
+        }
+        int n = series.size();
+        if (n == 0) {
+            return new TimeSeries(new long[0], new double[0]);
+        }
+
+        long first = Math.floorDiv(series.getEpochSecond(0) - span + step, step) * step;
+        long last = Math.floorDiv(series.getEpochSecond(n - 1), step) * step;
+        // Every point falls into at most ceil(window / hop) windows
+        long windowsPerPoint = (span + step - 1) / step;
+        long maxWindows = Math.min((long) n * windowsPerPoint, Integer.MAX_VALUE - 8);
+        int capacity = (int) Math.min((last - first) / step + 1, maxWindows);
+        long[] times = new long[capacity];
+        double[] averages = new double[capacity];
+        int out = 0;
+
+        double sum = 0.0;
+        int head = 0;
+        int tail = 0;
+        for (long windowStart = first; windowStart <= last; windowStart += step) {
+            long windowEnd = windowStart + span;
+            while (tail < n && series.getEpochSecond(tail) < windowEnd) {
+                sum += series.getValue(tail++);
+            }
+            while (head < tail && series.getEpochSecond(head) < windowStart) {
+                sum -= series.getValue(head++);
+            }
+            if (tail > head) {
+                times[out] = windowStart;
+                averages[out] = sum / (tail - head);
+                out++;
+            } else if (tail < n) {
+                // Skip empty stretches without iterating every window in between
+                long next = Math.floorDiv(series.getEpochSecond(tail) - span, step) * step;
+                if (next > windowStart) {
+                    windowStart = next;
+                }
+            }
+        }
+        return new TimeSeries(Arrays.copyOf(times, out), Arrays.copyOf(averages, out));
+    }
+
+    /**
+     * Exponentially weighted moving average
+     * @param series Time-ordered series
+     * @param alpha Smoothing factor in (0, 1]; higher reacts faster
+     * @return Series with one point per input point
+     */
+    public TimeSeries exponentialMovingAverage(TimeSeries series, double alpha) {
+        if (!(alpha > 0.0 && alpha <= 1.0)) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+        int n = series.size();
+        int[] points = new int[n];
+        double[] averages = new double[n];
+
+        double ewma = 0.0;
+        for (int i = 0; i < n; i++) {
+            double value = series.getValue(i);
+            ewma = i == 0 ? value : alpha * value + (1 - alpha) * ewma;
+            points[i] = i;
+            averages[i] = ewma;
+        }
+        return series.at(points, averages);
+    }
+
+    /**
+     * Count-based moving minimum using a monotonic deque
+     * @param series Time-ordered series
+     * @param windowSize Number of points in each window
+     * @return Series with one point per full window
+     */
+    public TimeSeries movingMin(TimeSeries series, int windowSize) {
+        return movingExtreme(series, windowSize, false);
+    }
+
+    /**
+     * Count-based moving maximum using a monotonic deque
+     * @param series Time-ordered series
+     * @param windowSize Number of points in each window
+     * @return Series with one point per full window
+     */
+    public TimeSeries movingMax(TimeSeries series, int windowSize) {
+        return movingExtreme(series, windowSize, true);
+    }
+
+    private TimeSeries movingExtreme(TimeSeries series, int windowSize, boolean max) {
+        requirePositive(windowSize, "windowSize");
+        int n = series.size();
+        int outSize = Math.max(n - windowSize + 1, 0);
+        int[] points = new int[outSize];
+        double[] extremes = new double[outSize];
+
+        // Ring buffer of indexes whose values are monotonic from head to tail
+        int[] deque = new int[Math.min(windowSize, Math.max(n, 1))];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (size > 0 && deque[head] <= i - windowSize) {
+                head = (head + 1) % deque.length;
+                size--;
+            }
+            double value = series.getValue(i);
+            while (size > 0) {
+                double back = series.getValue(deque[(head + size - 1) % deque.length]);
+                if (max ? back > value : back < value) {
+                    break;
+                }
+                size--;
+            }
+            deque[(head + size) % deque.length] = i;
+            size++;
+            if (i >= windowSize - 1) {
+                int out = i - windowSize + 1;
+                points[out] = i;
+                extremes[out] = series.getValue(deque[head]);
+            }
+        }
+        return series.at(points, extremes);
+    }
+
+    private static void requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
+    private static long requirePositive(Duration duration) {
+        long seconds = duration.getSeconds();
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("Window duration must be at least one second: " + duration);
+        }
+        return seconds;
+    }
+}
@@ -0,0 +1,156 @@
+package sketch;
+
+/**
+ * CountMinSketch class estimating item frequencies in fixed memory
+ * A depth x width table of counters; every item increments one counter per
+ * row and its estimate is the smallest of those counters. Estimates never
+ * undercount, and overcount by at most epsilon * total with probability
+ * confidence, where width = ceil(e / epsilon) and depth = ceil(ln(1 / (1 - confidence))).
+ * Sketches with the same dimensions merge by adding counters.
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long totalCount;
+
+    /**
+     * @param width Counters per row
+     * @param depth Number of rows (independent hash functions)
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be positive: " + width + "x" + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[Math.multiplyExact(width, depth)];
+    }
+
+    /**
+     * Sketch sized for the given error bounds
+     * @param epsilon Overcount bound as a fraction of the total count, e.g. 0.001
+     * @param confidence Probability the bound holds, e.g. 0.99
+     * @return Empty sketch
+     */
+    public static CountMinSketch withErrorBounds(double epsilon, double confidence) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("epsilon must be in (0, 1): " + epsilon);
+        }
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be in (0, 1): " + confidence);
+        }
+        int width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1.0 / (1.0 - confidence)));
+        return new CountMinSketch(width, depth);
+    }
+
+    /**
+     * Count one occurrence of an item
+     */
+    public void add(Object item) {
+        addHash(Hashing.hash(item), 1);
+    }
+
+    /**
+     * Count occurrences of an item
+     */
+    public void add(Object item, long count) {
+        addHash(Hashing.hash(item), count);
+    }
+
+    /**
+     * Count occurrences of an item by a uniformly distributed 64-bit hash
+     */
+    public void addHash(long hash, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(h1, h2, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    /**
+     * @return Estimated number of occurrences of the item (never less than the true count)
+     */
+    public long estimateCount(Object item) {
+        return estimateHash(Hashing.hash(item));
+    }
+
+    /**
+     * @return Estimated number of occurrences of the item with the given hash
+     */
+    public long estimateHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + column(h1, h2, row)]);
+        }
+        return estimate;
+    }
+
+    /** Row hash derived from two halves of one 64-bit hash (Kirsch-Mitzenmacher) */
+    private int column(int h1, int h2, int row) {
+        int combined = h1 + row * h2;
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+
+    /**
+     * Merge another sketch into this one
+     * @param other Sketch with the same dimensions
+     * @return this
+     */
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge " + other.depth + "x" + other.width
+                    + " into " + depth + "x" + width);
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        totalCount += other.totalCount;
+        return this;
+    }
+
+    /**
+     * @return Sum of all counts added
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return Overcount bound as a fraction of the total count
+     */
+    public double getRelativeError() {
+        return Math.E / width;
+    }
+
+    /**
+     * @return Probability that an estimate is within the error bound
+     */
+    public double getConfidence() {
+        return 1.0 - Math.exp(-depth);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return Bytes used by the counters
+     */
+    public long sizeInBytes() {
+        return (long) counters.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,25 @@
+package sketch;
+
+/**
+ * Hashing class with the 64-bit mixer shared by the sketches
+ * Sketch accuracy assumes hash bits are uniform; ids and hashCode values are
+ * not, so they are passed through the SplitMix64 finalizer first.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static long hash(Object item) {
+        if (item instanceof Long) {
+            return mix64((Long) item);
+        }
+        return mix64(item.hashCode());
+    }
+}
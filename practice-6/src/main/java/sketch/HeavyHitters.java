@@ -0,0 +1,150 @@
+package sketch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * HeavyHitters class finding items above a support threshold with a Count-Min sketch
+ * The sketch only answers "how often was x seen", so a small candidate set
+ * remembers which items were frequent when they were last added. An item
+ * whose final count reaches support * total was a candidate after its last
+ * occurrence and stays one, and an item heavy overall is heavy in at least
+ * one partition, so candidates survive merging.
+ *
+ * @param <T> Type of the items
+ */
+public final class HeavyHitters<T> {
+
+    private final double support;
+    private final CountMinSketch sketch;
+    private final Set<T> candidates = new HashSet<>();
+    private int pruneAt;
+
+    /**
+     * @param support Minimum share of the total count, e.g. 0.05
+     * @param epsilon Count-Min overcount bound; must be below support
+     * @param confidence Probability the overcount bound holds
+     */
+    public HeavyHitters(double support, double epsilon, double confidence) {
+        if (!(support > 0 && support < 1)) {
+            throw new IllegalArgumentException("support must be in (0, 1): " + support);
+        }
+        if (!(epsilon < support)) {
+            throw new IllegalArgumentException("epsilon must be below support: " + epsilon);
+        }
+        this.support = support;
+        this.sketch = CountMinSketch.withErrorBounds(epsilon, confidence);
+        this.pruneAt = initialPruneAt(support);
+    }
+
+    /**
+     * Collector finding heavy hitters among the items of every element, e.g. record tags
+     * @param support Minimum share of all items
+     * @param epsilon Count-Min overcount bound
+     * @param confidence Probability the overcount bound holds
+     * @param items Function returning the items of an element
+     * @param <T> Type of the stream elements
+     * @param <E> Type of the items
+     * @return Collector producing a HeavyHitters sketch
+     */
+    public static <T, E> Collector<T, HeavyHitters<E>, HeavyHitters<E>> collector(
+            double support, double epsilon, double confidence,
+            Function<? super T, ? extends Iterable<? extends E>> items) {
+        return Collector.of(
+                () -> new HeavyHitters<E>(support, epsilon, confidence),
+                (sketch, element) -> {
+                    for (E item : items.apply(element)) {
+                        sketch.add(item);
+                    }
+                },
+                HeavyHitters::merge,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    private static int initialPruneAt(double support) {
+        return Math.max(16, (int) Math.ceil(4 / support));
+    }
+
+    /**
+     * Count one occurrence of an item
+     */
+    public void add(T item) {
+        long hash = Hashing.hash(item);
+        sketch.addHash(hash, 1);
+        if (sketch.estimateHash(hash) >= threshold() && candidates.add(item) && candidates.size() > pruneAt) {
+            prune();
+        }
+    }
+
+    /**
+     * Merge another sketch into this one
+     * @param other Sketch created with the same parameters
+     * @return this
+     */
+    public HeavyHitters<T> merge(HeavyHitters<T> other) {
+        if (other.support != support) {
+            throw new IllegalArgumentException("Cannot merge support " + other.support + " into " + support);
+        }
+        sketch.merge(other.sketch);
+        candidates.addAll(other.candidates);
+        prune();
+        return this;
+    }
+
+    private double threshold() {
+        return support * sketch.getTotalCount();
+    }
+
+    private void prune() {
+        double threshold = threshold();
+        candidates.removeIf(item -> sketch.estimateCount(item) < threshold);
+        pruneAt = Math.max(initialPruneAt(support), candidates.size() * 2);
+    }
+
+    /**
+     * @return Items whose estimated count reaches support * total, most frequent first
+     */
+    public Map<T, Long> getHeavyHitters() {
+        double threshold = threshold();
+        List<Map.Entry<T, Long>> entries = new ArrayList<>();
+        for (T item : candidates) {
+            long estimate = sketch.estimateCount(item);
+            if (estimate >= threshold) {
+                entries.add(Map.entry(item, estimate));
+            }
+        }
+        entries.sort(Map.Entry.<T, Long>comparingByValue().reversed());
+        Map<T, Long> result = new LinkedHashMap<>();
+        entries.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    /**
+     * @return Estimated number of occurrences of the item
+     */
+    public long estimateCount(T item) {
+        return sketch.estimateCount(item);
+    }
+
+    public long getTotalCount() {
+        return sketch.getTotalCount();
+    }
+
+    public double getSupport() {
+        return support;
+    }
+
+    /**
+     * @return Bytes used by the sketch counters (candidates excluded)
+     */
+    public long sizeInBytes() {
+        return sketch.sizeInBytes();
+    }
+}
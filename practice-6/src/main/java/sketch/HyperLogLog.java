@@ -0,0 +1,168 @@
+package sketch;
+
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * HyperLogLog class estimating the number of distinct items
+ * Each item is hashed to 64 bits; the top p bits pick one of 2^p registers
+ * and the register keeps the longest run of leading zeros seen in the rest.
+ * The relative standard error is about 1.04 / sqrt(2^p) for one byte per
+ * register, whatever the number of items. Sketches with the same precision
+ * merge by taking the register-wise maximum, so partitions can be sketched
+ * in parallel and combined exactly.
+ */
+public final class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * @param precision Number of index bits p; 2^p registers are kept
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be in [" + MIN_PRECISION + ", "
+                    + MAX_PRECISION + "]: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Precision giving at most the requested relative standard error
+     * @param relativeError Target relative standard error, e.g. 0.01
+     * @return Number of index bits
+     */
+    public static int precisionFor(double relativeError) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("relativeError must be in (0, 1): " + relativeError);
+        }
+        double registers = Math.pow(1.04 / relativeError, 2);
+        int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    /**
+     * Collector sketching a long-valued property, e.g. the record id
+     * @param precision Number of index bits
+     * @param mapper Function extracting the item
+     * @param <T> Type of the stream elements
+     * @return Collector producing a HyperLogLog
+     */
+    public static <T> Collector<T, HyperLogLog, HyperLogLog> collector(int precision,
+                                                                       ToLongFunction<? super T> mapper) {
+        return Collector.of(
+                () -> new HyperLogLog(precision),
+                (sketch, element) -> sketch.addLong(mapper.applyAsLong(element)),
+                HyperLogLog::merge,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Add a long item (ids are sketched without boxing)
+     */
+    public void addLong(long item) {
+        addHash(Hashing.mix64(item));
+    }
+
+    /**
+     * Add an item by its hashCode; equal items must have equal hash codes
+     */
+    public void add(Object item) {
+        addHash(Hashing.hash(item));
+    }
+
+    /**
+     * Add an item by a uniformly distributed 64-bit hash
+     */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Sentinel bit bounds the rank at 64 - p + 1 when the remaining bits are all zero
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Merge another sketch into this one
+     * @param other Sketch with the same precision
+     * @return this
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return Estimated number of distinct items added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1.0 + 1.079 / m);
+        }
+    }
+
+    /**
+     * @return Relative standard error of the estimate
+     */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return Bytes used by the registers
+     */
+    public long sizeInBytes() {
+        return registers.length;
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog{" +
+                "precision=" + precision +
+                ", estimate=" + estimate() +
+                '}';
+    }
+}
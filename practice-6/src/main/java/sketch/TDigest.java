@@ -0,0 +1,275 @@
+package sketch;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * TDigest class estimating quantiles of a stream of doubles
+ * Values are buffered, sorted and merged into a sorted list of weighted
+ * centroids. A centroid may only grow while it spans at most one unit of the
+ * scale function k(q) = compression / (2 pi) * asin(2q - 1), which is steep
+ * near q = 0 and q = 1, so tail centroids stay small and p99 is much more
+ * accurate than p50. At most compression + 2 centroids are kept. Digests
+ * merge by merging their centroid lists, so partitions can be digested in
+ * parallel.
+ */
+public final class TDigest {
+
+    /** Compression used when none is configured */
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+    private double[] nextMeans;
+    private double[] nextWeights;
+    private final double[] buffer;
+    private int buffered;
+    private double mergedWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param compression Accuracy/size trade-off (&gt;= 10); larger keeps more centroids
+     */
+    public TDigest(double compression) {
+        if (!(compression >= 10)) {
+            throw new IllegalArgumentException("compression must be >= 10: " + compression);
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) + 2;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.nextMeans = new double[capacity];
+        this.nextWeights = new double[capacity];
+        this.buffer = new double[capacity * 5];
+    }
+
+    /**
+     * Collector digesting a double-valued property
+     * @param compression Accuracy/size trade-off
+     * @param mapper Function extracting the value
+     * @param <T> Type of the stream elements
+     * @return Collector producing a TDigest
+     */
+    public static <T> Collector<T, TDigest, TDigest> collector(double compression,
+                                                               ToDoubleFunction<? super T> mapper) {
+        return Collector.of(
+                () -> new TDigest(compression),
+                (digest, element) -> digest.add(mapper.applyAsDouble(element)),
+                TDigest::merge,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Add a value
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Cannot add NaN");
+        }
+        if (buffered == buffer.length) {
+            compress();
+        }
+        buffer[buffered++] = value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Merge another digest into this one
+     * @param other Digest to merge
+     * @return this
+     */
+    public TDigest merge(TDigest other) {
+        if (other.getCount() == 0) {
+            return this;
+        }
+        compress();
+        other.compress();
+        // Copied because mergeSorted reuses the centroid arrays (and other may be this)
+        double[] otherMeans = Arrays.copyOf(other.means, other.centroids);
+        double[] otherWeights = Arrays.copyOf(other.weights, other.centroids);
+        mergeSorted(otherMeans, otherWeights, otherMeans.length, other.mergedWeight);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Fold buffered values into the centroids
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        int count = buffered;
+        buffered = 0;
+        mergeSorted(buffer, null, count, count);
+    }
+
+    /**
+     * Merge-join the centroids with sorted (mean, weight) pairs and re-cluster
+     * @param otherWeights Weights, or null when every weight is 1
+     */
+    private void mergeSorted(double[] otherMeans, double[] otherWeights, int otherCount, double otherWeight) {
+        double total = mergedWeight + otherWeight;
+        int out = 0;
+        double before = 0.0;
+        double currentMean = 0.0;
+        double currentWeight = 0.0;
+        double weightLimit = 0.0;
+        int i = 0;
+        int j = 0;
+        while (i < centroids || j < otherCount) {
+            double mean;
+            double weight;
+            if (j >= otherCount || (i < centroids && means[i] <= otherMeans[j])) {
+                mean = means[i];
+                weight = weights[i++];
+            } else {
+                mean = otherMeans[j];
+                weight = otherWeights == null ? 1.0 : otherWeights[j];
+                j++;
+            }
+            if (currentWeight == 0.0) {
+                currentMean = mean;
+                currentWeight = weight;
+                weightLimit = weightLimit(before, total);
+            } else if (before + currentWeight + weight <= weightLimit) {
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            } else {
+                if (out == nextMeans.length - 1) {
+                    nextMeans = Arrays.copyOf(nextMeans, out * 2);
+                    nextWeights = Arrays.copyOf(nextWeights, out * 2);
+                }
+                nextMeans[out] = currentMean;
+                nextWeights[out++] = currentWeight;
+                before += currentWeight;
+                currentMean = mean;
+                currentWeight = weight;
+                weightLimit = weightLimit(before, total);
+            }
+        }
+        nextMeans[out] = currentMean;
+        nextWeights[out++] = currentWeight;
+
+        double[] swap = means;
+        means = nextMeans;
+        nextMeans = swap;
+        swap = weights;
+        weights = nextWeights;
+        nextWeights = swap;
+        centroids = out;
+        mergedWeight = total;
+    }
+
+    /**
+     * Cumulative weight at which a centroid starting at {@code before} spans one unit of k
+     * (solved once per centroid instead of evaluating k for every value)
+     */
+    private double weightLimit(double before, double total) {
+        double k = compression / (2 * Math.PI) * Math.asin(2 * Math.min(before / total, 1.0) - 1) + 1;
+        double q = k >= compression / 4 ? 1.0 : (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+        return q * total;
+    }
+
+    /**
+     * Estimate a quantile
+     * @param q Quantile in [0, 1], e.g. 0.99
+     * @return Estimated value, NaN for an empty digest
+     */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("q must be in [0, 1]: " + q);
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        // Centroid i represents the weight around its mean; interpolate between neighbouring means
+        double index = q * mergedWeight;
+        double firstHalf = weights[0] / 2;
+        if (index < firstHalf) {
+            return min + (means[0] - min) * index / firstHalf;
+        }
+        double lastHalf = weights[centroids - 1] / 2;
+        if (index > mergedWeight - lastHalf) {
+            return max - (max - means[centroids - 1]) * (mergedWeight - index) / lastHalf;
+        }
+        double cumulative = firstHalf;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step >= index) {
+                return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / step;
+            }
+            cumulative += step;
+        }
+        return means[centroids - 1];
+    }
+
+    /**
+     * Estimate several quantiles
+     * @param qs Quantiles in [0, 1]
+     * @return Estimated values in the same order
+     */
+    public double[] quantiles(double... qs) {
+        double[] result = new double[qs.length];
+        for (int i = 0; i < qs.length; i++) {
+            result[i] = quantile(qs[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of values added
+     */
+    public long getCount() {
+        return (long) mergedWeight + buffered;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    /**
+     * @return Number of centroids after folding in buffered values
+     */
+    public int centroidCount() {
+        compress();
+        return centroids;
+    }
+
+    /**
+     * @return Bytes used by the centroid and buffer arrays
+     */
+    public long sizeInBytes() {
+        return (4L * means.length + buffer.length) * Double.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return "TDigest{" +
+                "count=" + getCount() +
+                ", centroids=" + centroidCount() +
+                ", p50=" + quantile(0.5) +
+                ", p99=" + quantile(0.99) +
+                '}';
+    }
+}
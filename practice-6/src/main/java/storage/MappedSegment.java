@@ -0,0 +1,183 @@
+package storage;
+
+import model.DataRecordTable;
+import model.RecordColumns;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * MappedSegment class: read-only view of a segment file through FileChannel.map
+ * Column accessors read straight from the mapped pages, so scans allocate
+ * nothing per row and the data lives in the page cache rather than on the
+ * heap; a segment larger than the heap can be processed. The file is mapped
+ * in 1 GiB regions. Absolute reads are thread-safe, so parallel streams can
+ * scan one segment. The mapping is released when the segment is garbage
+ * collected; rows appended after opening are not visible.
+ */
+public final class MappedSegment implements RecordColumns {
+
+    private final int size;
+    private final ByteBuffer[] regions;
+    private final List<String> categories;
+    private final List<String> statuses;
+    private final List<String> tags;
+
+    private MappedSegment(int size, ByteBuffer[] regions, List<List<String>> dictionaries) {
+        this.size = size;
+        this.regions = regions;
+        this.categories = Collections.unmodifiableList(dictionaries.get(0));
+        this.statuses = Collections.unmodifiableList(dictionaries.get(1));
+        this.tags = Collections.unmodifiableList(dictionaries.get(2));
+    }
+
+    /**
+     * Map the committed rows of a segment file
+     * @param path Segment file written by SegmentWriter
+     * @return Mapped segment
+     */
+    public static MappedSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SegmentFormat.Header header = SegmentFormat.readHeader(channel);
+            if (header.rowCount > Integer.MAX_VALUE) {
+                throw new IOException("Segment has " + header.rowCount + " rows; at most "
+                        + Integer.MAX_VALUE + " can be mapped");
+            }
+            int size = (int) header.rowCount;
+            int regionCount = (size + SegmentFormat.REGION_ROWS - 1) >>> SegmentFormat.REGION_SHIFT;
+            ByteBuffer[] regions = new ByteBuffer[regionCount];
+            for (int region = 0; region < regionCount; region++) {
+                long firstRow = (long) region << SegmentFormat.REGION_SHIFT;
+                long rows = Math.min(SegmentFormat.REGION_ROWS, size - firstRow);
+                regions[region] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                SegmentFormat.footerOffset(firstRow), rows * SegmentFormat.ROW_BYTES)
+                        .order(SegmentFormat.ORDER);
+            }
+            return new MappedSegment(size, regions, SegmentFormat.readDictionaries(channel, header.footerOffset));
+        }
+    }
+
+    /**
+     * Copy the whole segment onto the heap
+     * @return DataRecordTable with every row
+     */
+    public DataRecordTable toTable() {
+        return select(IntStream.range(0, size).toArray());
+    }
+
+    @Override
+    public DataRecordTable select(int[] rows) {
+        return DataRecordTable.copyRows(this, rows);
+    }
+
+    // Column accessors
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getId(int row) {
+        return region(row).getLong(offset(row, SegmentFormat.ID));
+    }
+
+    @Override
+    public double getValue(int row) {
+        return region(row).getDouble(offset(row, SegmentFormat.VALUE));
+    }
+
+    @Override
+    public int getPriority(int row) {
+        return region(row).getInt(offset(row, SegmentFormat.PRIORITY));
+    }
+
+    @Override
+    public long getEpochSecond(int row) {
+        return region(row).getLong(offset(row, SegmentFormat.EPOCH_SECOND));
+    }
+
+    @Override
+    public int getCategoryCode(int row) {
+        return region(row).get(offset(row, SegmentFormat.CATEGORY));
+    }
+
+    @Override
+    public int getStatusCode(int row) {
+        return region(row).get(offset(row, SegmentFormat.STATUS));
+    }
+
+    @Override
+    public int getTagMask(int row) {
+        return region(row).getShort(offset(row, SegmentFormat.TAG_MASK)) & 0xFFFF;
+    }
+
+    // Dictionary accessors
+
+    @Override
+    public int getCategoryCount() {
+        return categories.size();
+    }
+
+    @Override
+    public String getCategoryName(int code) {
+        return categories.get(code);
+    }
+
+    @Override
+    public int findCategoryCode(String category) {
+        return categories.indexOf(category);
+    }
+
+    @Override
+    public int getStatusCount() {
+        return statuses.size();
+    }
+
+    @Override
+    public String getStatusName(int code) {
+        return statuses.get(code);
+    }
+
+    @Override
+    public int findStatusCode(String status) {
+        return statuses.indexOf(status);
+    }
+
+    @Override
+    public int getTagCount() {
+        return tags.size();
+    }
+
+    @Override
+    public String getTagName(int code) {
+        return tags.get(code);
+    }
+
+    @Override
+    public int lookupTagMask(List<String> required) {
+        int mask = 0;
+        for (String tag : required) {
+            int code = tags.indexOf(tag);
+            if (code < 0) {
+                return -1;
+            }
+            mask |= 1 << code;
+        }
+        return mask;
+    }
+
+    /** Rows past the end fail the mapped buffer's own bounds check */
+    private ByteBuffer region(int row) {
+        return regions[row >>> SegmentFormat.REGION_SHIFT];
+    }
+
+    private static int offset(int row, int field) {
+        return (row & SegmentFormat.REGION_MASK) * SegmentFormat.ROW_BYTES + field;
+    }
+}
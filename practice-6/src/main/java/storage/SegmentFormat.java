@@ -0,0 +1,189 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SegmentFormat class describing the binary segment layout
+ *
+ * <pre>
+ * header  (64 bytes)  magic "P6RECSEG", int version, int row width,
+ *                     long row count, long footer offset
+ * rows    (32 bytes each, little-endian)
+ *         0 long id | 8 double value | 16 long epoch second |
+ *         24 int priority | 28 byte category | 29 byte status | 30 short tag mask
+ * footer  category, status and tag dictionaries, at the footer offset:
+ *         int count, then per entry int length + UTF-8 bytes
+ * </pre>
+ *
+ * Rows are fixed width, so row i lives at HEADER_BYTES + i * ROW_BYTES.
+ * The footer starts at or after the end of the committed rows; bytes between
+ * them belong to an append that was never committed. The header is the
+ * commit point: a writer never overwrites the footer the header points to,
+ * it writes a new footer elsewhere, forces it to disk and only then switches
+ * the header. Dictionaries only grow, so a newer footer still decodes every
+ * committed row.
+ */
+final class SegmentFormat {
+
+    static final byte[] MAGIC = "P6RECSEG".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_BYTES = 64;
+    static final int VERSION_OFFSET = 8;
+    static final int ROW_BYTES_OFFSET = 12;
+    static final int ROW_COUNT_OFFSET = 16;
+    static final int FOOTER_OFFSET = 24;
+
+    static final int ROW_BYTES = 32;
+    static final int ID = 0;
+    static final int VALUE = 8;
+    static final int EPOCH_SECOND = 16;
+    static final int PRIORITY = 24;
+    static final int CATEGORY = 28;
+    static final int STATUS = 29;
+    static final int TAG_MASK = 30;
+
+    /** Same limits as DataRecordTable, so segments and tables share codes */
+    static final int MAX_CODES = Byte.MAX_VALUE + 1;
+    static final int MAX_TAGS = Short.SIZE;
+
+    /** Rows per mapped region: 2^25 rows * 32 bytes = 1 GiB, below the 2 GiB mapping limit */
+    static final int REGION_SHIFT = 25;
+    static final int REGION_ROWS = 1 << REGION_SHIFT;
+    static final int REGION_MASK = REGION_ROWS - 1;
+
+    private SegmentFormat() {
+    }
+
+    /**
+     * Header contents
+     */
+    static final class Header {
+        final long rowCount;
+        final long footerOffset;
+
+        Header(long rowCount, long footerOffset) {
+            this.rowCount = rowCount;
+            this.footerOffset = footerOffset;
+        }
+    }
+
+    static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a DataRecord segment (bad magic)");
+        }
+        int version = header.getInt(VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IOException("Unsupported segment version " + version);
+        }
+        int rowBytes = header.getInt(ROW_BYTES_OFFSET);
+        if (rowBytes != ROW_BYTES) {
+            throw new IOException("Unsupported row width " + rowBytes);
+        }
+        long rowCount = header.getLong(ROW_COUNT_OFFSET);
+        long footerOffset = header.getLong(FOOTER_OFFSET);
+        if (rowCount < 0 || footerOffset < footerOffset(rowCount) || footerOffset > channel.size()) {
+            throw new IOException("Corrupt segment header: " + rowCount + " rows, footer at " + footerOffset);
+        }
+        return new Header(rowCount, footerOffset);
+    }
+
+    static void writeHeader(FileChannel channel, long rowCount, long footerOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+        header.put(MAGIC)
+                .putInt(VERSION)
+                .putInt(ROW_BYTES)
+                .putLong(rowCount)
+                .putLong(footerOffset)
+                .clear();
+        writeFully(channel, 0, header);
+    }
+
+    /**
+     * @return Offset of the first byte after rowCount rows, where a tightly packed footer starts
+     */
+    static long footerOffset(long rowCount) {
+        return HEADER_BYTES + rowCount * ROW_BYTES;
+    }
+
+    /**
+     * Read the three dictionaries (categories, statuses, tags) from the footer
+     */
+    static List<List<String>> readDictionaries(FileChannel channel, long footerOffset) throws IOException {
+        long length = channel.size() - footerOffset;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt segment footer: " + length + " bytes");
+        }
+        ByteBuffer footer = readFully(channel, footerOffset, (int) length);
+        List<List<String>> dictionaries = new ArrayList<>(3);
+        int[] limits = {MAX_CODES, MAX_CODES, MAX_TAGS};
+        for (int limit : limits) {
+            int count = footer.getInt();
+            if (count < 0 || count > limit) {
+                throw new IOException("Corrupt segment dictionary size " + count);
+            }
+            List<String> dictionary = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[footer.getInt()];
+                footer.get(bytes);
+                dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            dictionaries.add(dictionary);
+        }
+        return dictionaries;
+    }
+
+    /**
+     * Encode the dictionaries as a footer
+     */
+    static ByteBuffer encodeDictionaries(List<String> categories, List<String> statuses, List<String> tags) {
+        List<byte[]> encoded = new ArrayList<>();
+        int length = 0;
+        for (List<String> dictionary : List.of(categories, statuses, tags)) {
+            length += Integer.BYTES;
+            for (String entry : dictionary) {
+                byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                length += Integer.BYTES + bytes.length;
+            }
+        }
+        ByteBuffer footer = ByteBuffer.allocate(length).order(ORDER);
+        int next = 0;
+        for (List<String> dictionary : List.of(categories, statuses, tags)) {
+            footer.putInt(dictionary.size());
+            for (int i = 0; i < dictionary.size(); i++) {
+                byte[] bytes = encoded.get(next++);
+                footer.putInt(bytes.length).put(bytes);
+            }
+        }
+        return footer.flip();
+    }
+
+    static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment at " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+
+    static void writeFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package storage;
+
+import model.DataRecord;
+import model.RecordColumns;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SegmentWriter class appending DataRecord rows to a binary segment file
+ * Rows are encoded into a direct buffer and written in blocks; dictionaries
+ * grow as new categories, statuses and tags appear. Written rows become
+ * visible to readers on {@link #flush()} or {@link #close()}, which write the
+ * dictionary footer and then the header. Rows never overwrite the committed
+ * footer: when they would, the footer is first rewritten further along the
+ * file and the header switched to it, so a crash during an append leaves the
+ * segment as of the last commit. Not thread-safe.
+ */
+public final class SegmentWriter implements AutoCloseable {
+
+    private static final int BUFFER_ROWS = 8192;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_ROWS * SegmentFormat.ROW_BYTES)
+            .order(SegmentFormat.ORDER);
+    private final Dictionary categories;
+    private final Dictionary statuses;
+    private final Dictionary tags;
+    private long written;
+    private long committed;
+    private long committedFooterOffset;
+    private long committedFooterEnd;
+    private boolean closed;
+
+    private SegmentWriter(FileChannel channel, long committed, long footerOffset, long footerEnd,
+                          List<List<String>> dictionaries) {
+        this.channel = channel;
+        this.written = committed;
+        this.committed = committed;
+        this.committedFooterOffset = footerOffset;
+        this.committedFooterEnd = footerEnd;
+        this.categories = new Dictionary(dictionaries.get(0), SegmentFormat.MAX_CODES, "categories");
+        this.statuses = new Dictionary(dictionaries.get(1), SegmentFormat.MAX_CODES, "statuses");
+        this.tags = new Dictionary(dictionaries.get(2), SegmentFormat.MAX_TAGS, "tags");
+    }
+
+    /**
+     * Create a new, empty segment (replacing any existing file)
+     * @param path Segment file
+     * @return Writer positioned at row 0
+     */
+    public static SegmentWriter create(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        SegmentWriter writer = new SegmentWriter(channel, 0, SegmentFormat.HEADER_BYTES, SegmentFormat.HEADER_BYTES,
+                List.of(List.of(), List.of(), List.of()));
+        writer.flush();
+        return writer;
+    }
+
+    /**
+     * Open a segment for appending, creating it if it does not exist
+     * @param path Segment file
+     * @return Writer positioned after the last committed row
+     */
+    public static SegmentWriter append(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return create(path);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            SegmentFormat.Header header = SegmentFormat.readHeader(channel);
+            // Anything past the footer offset is treated as footer, including the tail of a torn append
+            return new SegmentWriter(channel, header.rowCount, header.footerOffset, channel.size(),
+                    SegmentFormat.readDictionaries(channel, header.footerOffset));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a record
+     * @param record DataRecord to append
+     */
+    public void write(DataRecord record) throws IOException {
+        write(record.getId(), categories.encode(record.getCategory()), record.getValue(), record.getEpochSecond(),
+                record.getPriority(), statuses.encode(record.getStatus()), tagMask(record.getTags()));
+    }
+
+    /**
+     * Append records, e.g. from DataGenerator.stream(count)::iterator
+     * @param records Records to append
+     */
+    public void writeAll(Iterable<? extends DataRecord> records) throws IOException {
+        for (DataRecord record : records) {
+            write(record);
+        }
+    }
+
+    /**
+     * Append every row of a columnar source without materializing DataRecord objects
+     * @param columns Rows to append (a DataRecordTable or another segment)
+     */
+    public void writeAll(RecordColumns columns) throws IOException {
+        int[] categoryCodes = new int[columns.getCategoryCount()];
+        for (int code = 0; code < categoryCodes.length; code++) {
+            categoryCodes[code] = categories.encode(columns.getCategoryName(code));
+        }
+        int[] statusCodes = new int[columns.getStatusCount()];
+        for (int code = 0; code < statusCodes.length; code++) {
+            statusCodes[code] = statuses.encode(columns.getStatusName(code));
+        }
+        int[] tagBits = new int[columns.getTagCount()];
+        for (int code = 0; code < tagBits.length; code++) {
+            tagBits[code] = 1 << tags.encode(columns.getTagName(code));
+        }
+        for (int row = 0; row < columns.size(); row++) {
+            int mask = 0;
+            for (int source = columns.getTagMask(row); source != 0; source &= source - 1) {
+                mask |= tagBits[Integer.numberOfTrailingZeros(source)];
+            }
+            write(columns.getId(row), categoryCodes[columns.getCategoryCode(row)], columns.getValue(row),
+                    columns.getEpochSecond(row), columns.getPriority(row),
+                    statusCodes[columns.getStatusCode(row)], mask);
+        }
+    }
+
+    private void write(long id, int category, double value, long epochSecond,
+                       int priority, int status, int tagMask) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.putLong(id)
+                .putDouble(value)
+                .putLong(epochSecond)
+                .putInt(priority)
+                .put((byte) category)
+                .put((byte) status)
+                .putShort((short) tagMask);
+        written++;
+    }
+
+    /**
+     * @return Number of rows written, including rows not yet flushed
+     */
+    public long size() {
+        return written;
+    }
+
+    /**
+     * Commit written rows: write buffered rows, the dictionary footer and the header
+     */
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        ByteBuffer footer = encodeFooter();
+        long footerOffset = SegmentFormat.footerOffset(written);
+        if (overlapsCommittedFooter(footerOffset, footerOffset + footer.remaining())) {
+            footerOffset = committedFooterEnd;
+        }
+        commit(written, footerOffset, footer);
+        channel.truncate(committedFooterEnd);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        int rows = buffer.remaining() / SegmentFormat.ROW_BYTES;
+        long start = SegmentFormat.footerOffset(written - rows);
+        long end = start + buffer.remaining();
+        if (overlapsCommittedFooter(start, end)) {
+            // Move the footer past twice the uncommitted rows, so a long append relocates it O(log n) times
+            long uncommitted = end - SegmentFormat.footerOffset(committed);
+            commit(committed, Math.max(committedFooterEnd, end + uncommitted), encodeFooter());
+        }
+        SegmentFormat.writeFully(channel, start, buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Write a footer, force it to disk, then point the header at it
+     */
+    private void commit(long rows, long footerOffset, ByteBuffer footer) throws IOException {
+        long footerEnd = footerOffset + footer.remaining();
+        SegmentFormat.writeFully(channel, footerOffset, footer);
+        channel.force(false);
+        SegmentFormat.writeHeader(channel, rows, footerOffset);
+        channel.force(false);
+        committed = rows;
+        committedFooterOffset = footerOffset;
+        committedFooterEnd = footerEnd;
+    }
+
+    private boolean overlapsCommittedFooter(long start, long end) {
+        return start < committedFooterEnd && end > committedFooterOffset;
+    }
+
+    private ByteBuffer encodeFooter() {
+        return SegmentFormat.encodeDictionaries(categories.entries, statuses.entries, tags.entries);
+    }
+
+    private int tagMask(List<String> recordTags) {
+        int mask = 0;
+        if (recordTags != null) {
+            for (String tag : recordTags) {
+                mask |= 1 << tags.encode(tag);
+            }
+        }
+        return mask;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Segment writer is closed");
+        }
+    }
+
+    /**
+     * String dictionary with constant-time lookup
+     */
+    private static final class Dictionary {
+        final List<String> entries;
+        final Map<String, Integer> codes = new HashMap<>();
+        final int limit;
+        final String kind;
+
+        Dictionary(List<String> initial, int limit, String kind) {
+            this.entries = new ArrayList<>(initial);
+            this.limit = limit;
+            this.kind = kind;
+            for (int code = 0; code < entries.size(); code++) {
+                codes.put(entries.get(code), code);
+            }
+        }
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (entries.size() >= limit) {
+                throw new IllegalArgumentException(
+                        "Too many distinct " + kind + " for a segment (max " + limit + ")");
+            }
+            entries.add(value);
+            codes.put(value, entries.size() - 1);
+            return entries.size() - 1;
+        }
+    }
+}
@@ -1,101 +1,256 @@
 package util;
 
+import model.CompactDataRecord;
 import model.DataRecord;
+import model.DataRecordTable;
+import model.TagRegistry;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * DataGenerator class for creating test data collections
- * Generates at least 1,000,000 records with different values
+ * Generates exactly the requested number of records with different values;
+ * generateData() without a count gives DEFAULT_RECORD_COUNT (1,000,000)
+ *
+ * Records are generated in fixed-size chunks, each from its own
+ * SplittableRandom seeded from (seed, chunk index). Workers never share a
+ * random source, and record i is the same for a given seed whatever the
+ * thread count or whether it is produced as a list, a lazy stream, a
+ * columnar table or a file.
  */
 public class DataGenerator {
-    
+
     private static final String[] CATEGORIES = {
         "A", "B", "C", "D", "E", "F", "G", "H", "I", "J"
     };
-    
+
     private static final String[] STATUSES = {
         "ACTIVE", "INACTIVE", "PENDING", "COMPLETED", "FAILED"
     };
-    
+
     private static final String[] TAG_POOL = {
-        "urgent", "normal", "low", "high", "critical", "maintenance", 
+        "urgent", "normal", "low", "high", "critical", "maintenance",
         "update", "delete", "create", "read", "write", "process"
     };
-    
-    private final Random random = new Random();
-    
+
+    /** Number of records generateData() produces */
+    public static final int DEFAULT_RECORD_COUNT = 1_000_000;
+
+    /** Records per chunk; one random source per chunk */
+    static final int CHUNK_SIZE = 4096;
+
+    /** End of the timestamp range for seeded generators, so their output is reproducible */
+    private static final LocalDateTime SEEDED_END_TIME = LocalDateTime.of(2024, 6, 1, 0, 0);
+    private static final long YEAR_SECONDS = ChronoUnit.DAYS.getDuration().getSeconds() * 365;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final long endEpochSecond;
+    private final String[] categories;
+    private final ZipfDistribution categoryDistribution;
+    private final ZipfDistribution tagDistribution;
+
+    /**
+     * Generator with a random seed; timestamps fall within the last year
+     */
+    public DataGenerator() {
+        this(new SplittableRandom().nextLong(), LocalDateTime.now(), CATEGORIES, 0.0, 0.0);
+    }
+
+    /**
+     * Reproducible generator: the same seed always gives the same records
+     * @param seed Random seed
+     */
+    public DataGenerator(long seed) {
+        this(seed, SEEDED_END_TIME, CATEGORIES, 0.0, 0.0);
+    }
+
+    private DataGenerator(long seed, LocalDateTime endTime, String[] categories,
+                          double categorySkew, double tagSkew) {
+        this.seed = seed;
+        this.endEpochSecond = endTime.toEpochSecond(ZoneOffset.UTC);
+        this.categories = categories;
+        this.categoryDistribution = new ZipfDistribution(categories.length, categorySkew);
+        this.tagDistribution = new ZipfDistribution(TAG_POOL.length, tagSkew);
+    }
+
+    /**
+     * Copy of this generator using categories "C0".."C{count-1}"
+     * @param count Number of distinct categories (at most 128 for DataRecordTable)
+     */
+    public DataGenerator withCategoryCount(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "C" + i;
+        }
+        return new DataGenerator(seed, endTime(), names,
+                categoryDistribution.getExponent(), tagDistribution.getExponent());
+    }
+
+    /**
+     * Copy of this generator with Zipf-distributed categories
+     * @param exponent 0 for uniform, about 1 for a few dominant categories
+     */
+    public DataGenerator withCategorySkew(double exponent) {
+        return new DataGenerator(seed, endTime(), categories, exponent, tagDistribution.getExponent());
+    }
+
+    /**
+     * Copy of this generator with Zipf-distributed tags
+     * @param exponent 0 for uniform, about 1 for a few dominant tags
+     */
+    public DataGenerator withTagSkew(double exponent) {
+        return new DataGenerator(seed, endTime(), categories, categoryDistribution.getExponent(), exponent);
+    }
+
+    /**
+     * Copy of this generator whose timestamps fall within the year before endTime
+     */
+    public DataGenerator withEndTime(LocalDateTime endTime) {
+        return new DataGenerator(seed, endTime, categories,
+                categoryDistribution.getExponent(), tagDistribution.getExponent());
+    }
+
+    private LocalDateTime endTime() {
+        return LocalDateTime.ofEpochSecond(endEpochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Generate DEFAULT_RECORD_COUNT (1,000,000) records
+     * @return List of DataRecord objects
+     */
+    public List<DataRecord> generateData() {
+        return generateData(DEFAULT_RECORD_COUNT);
+    }
+
     /**
-     * Generate a collection of DataRecord objects
-     * @param count Number of records to generate (minimum 1,000,000)
+     * Generate a collection of DataRecord objects, reporting the count on stdout
+     * @param count Number of records to generate
      * @return List of DataRecord objects
      */
     public List<DataRecord> generateData(int count) {
-        if (count < 1_000_000) {
-            count = 1_000_000;
-        }
-        
         System.out.println("Generating " + count + " data records...");
-        
-        return IntStream.range(0, count)
+
+        return generate(count);
+    }
+
+    /**
+     * Generate exactly count records in parallel, one chunk per task
+     * @param count Number of records to generate
+     * @return List of DataRecord objects
+     */
+    public List<DataRecord> generate(int count) {
+        DataRecord[] records = new DataRecord[count];
+        IntStream.range(0, chunkCount(count))
                 .parallel()
-                .mapToObj(this::generateRecord)
-                .collect(Collectors.toList());
-    }
-    
-    /**
-     * Generate a single DataRecord
-     * @param index Index of the record
-     * @return Generated DataRecord
-     */
-    private DataRecord generateRecord(int index) {
-        long id = index + 1;
-        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
-        double value = ThreadLocalRandom.current().nextDouble(0.0, 10000.0);
-        LocalDateTime timestamp = generateRandomTimestamp();
-        int priority = random.nextInt(1, 6); // 1-5
-        String status = STATUSES[random.nextInt(STATUSES.length)];
-        List<String> tags = generateRandomTags();
-        
-        return new DataRecord(id, category, value, timestamp, priority, status, tags);
-    }
-    
-    /**
-     * Generate a random timestamp within the last year
-     * @return Random LocalDateTime
-     */
-    private LocalDateTime generateRandomTimestamp() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime oneYearAgo = now.minus(365, ChronoUnit.DAYS);
-        
-        long daysBetween = ChronoUnit.DAYS.between(oneYearAgo, now);
-        long randomDays = ThreadLocalRandom.current().nextLong(0, daysBetween + 1);
-        
-        return oneYearAgo.plusDays(randomDays)
-                .plusHours(ThreadLocalRandom.current().nextLong(0, 24))
-                .plusMinutes(ThreadLocalRandom.current().nextLong(0, 60))
-                .plusSeconds(ThreadLocalRandom.current().nextLong(0, 60));
-    }
-    
-    /**
-     * Generate a random list of tags
-     * @return List of random tags
-     */
-    private List<String> generateRandomTags() {
-        int tagCount = random.nextInt(1, 5); // 1-4 tags
-        Set<String> selectedTags = new HashSet<>();
-        
-        while (selectedTags.size() < tagCount) {
-            selectedTags.add(TAG_POOL[random.nextInt(TAG_POOL.length)]);
+                .forEach(chunk -> {
+                    Chunk rows = generateChunk(chunk, count, 0.0, 10000.0);
+                    for (int i = 0; i < rows.size; i++) {
+                        records[(int) rows.from + i] = rows.toRecord(i, null);
+                    }
+                });
+        return new ArrayList<>(Arrays.asList(records));
+    }
+
+    /**
+     * Generate exactly count records as CompactDataRecord objects
+     * The tag pool is registered with the shared TagRegistry first, in pool
+     * order, so tag lists come out as the registry's shared tag sets
+     * (a full registry just leaves them as lists).
+     * @param count Number of records to generate
+     * @return List of records equal to {@link #generate(int)} with the same seed
+     */
+    public List<DataRecord> generateCompact(int count) {
+        for (String tag : TAG_POOL) {
+            TagRegistry.shared().bitOf(tag);
+        }
+        DataRecord[] records = new DataRecord[count];
+        IntStream.range(0, chunkCount(count))
+                .parallel()
+                .forEach(chunk -> {
+                    Chunk rows = generateChunk(chunk, count, 0.0, 10000.0);
+                    for (int i = 0; i < rows.size; i++) {
+                        records[(int) rows.from + i] = CompactDataRecord.of(rows.toRecord(i, null));
+                    }
+                });
+        return new ArrayList<>(Arrays.asList(records));
+    }
+
+    /**
+     * Lazily generate records; only the chunks being consumed are held in memory
+     * @param count Number of records to generate
+     * @return Sequential stream of records in id order (call parallel() to split by chunk)
+     */
+    public Stream<DataRecord> stream(long count) {
+        return LongStream.range(0, chunkCount(count))
+                .mapToObj(chunk -> generateChunk(chunk, count, 0.0, 10000.0))
+                .flatMap(rows -> IntStream.range(0, rows.size).mapToObj(i -> rows.toRecord(i, null)));
+    }
+
+    /**
+     * Generate records straight into a columnar table, without DataRecord objects
+     * @param count Number of rows to generate
+     * @return DataRecordTable with the generated rows
+     */
+    public DataRecordTable generateTable(int count) {
+        DataRecordTable table = new DataRecordTable(count);
+        // Register tags in pool order so mask bit i is TAG_POOL[i]
+        table.tagMask(Arrays.asList(TAG_POOL));
+        IntStream.range(0, chunkCount(count))
+                .parallel()
+                .mapToObj(chunk -> generateChunk(chunk, count, 0.0, 10000.0))
+                .forEachOrdered(rows -> {
+                    for (int i = 0; i < rows.size; i++) {
+                        table.add(rows.from + i + 1, categories[rows.categoryCodes[i]], rows.values[i],
+                                rows.epochSeconds[i], rows.priorities[i], STATUSES[rows.statuses[i]],
+                                rows.tagMasks[i]);
+                    }
+                });
+        return table;
+    }
+
+    /**
+     * Stream records to a CSV file (id,category,value,timestamp,priority,status,tags)
+     * Chunks are generated in parallel a few at a time and written in order,
+     * so memory stays bounded however many records are written.
+     * @param path Output file
+     * @param count Number of records to write
+     */
+    public void writeCsv(Path path, long count) throws IOException {
+        long chunks = chunkCount(count);
+        int wave = Runtime.getRuntime().availableProcessors() * 2;
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("id,category,value,timestamp,priority,status,tags");
+            writer.newLine();
+            for (long first = 0; first < chunks; first += wave) {
+                List<Chunk> batch = LongStream.range(first, Math.min(first + wave, chunks))
+                        .parallel()
+                        .mapToObj(chunk -> generateChunk(chunk, count, 0.0, 10000.0))
+                        .collect(Collectors.toList());
+                for (Chunk rows : batch) {
+                    for (int i = 0; i < rows.size; i++) {
+                        writer.write(rows.toCsv(i));
+                        writer.newLine();
+                    }
+                }
+            }
         }
-        
-        return new ArrayList<>(selectedTags);
     }
-    
+
     /**
      * Generate data with specific characteristics for testing
      * @param count Number of records
@@ -104,21 +259,118 @@ public class DataGenerator {
      * @param valueRangeMax Maximum value
      * @return List of DataRecord objects
      */
-    public List<DataRecord> generateDataWithCharacteristics(int count, String categoryFilter, 
+    public List<DataRecord> generateDataWithCharacteristics(int count, String categoryFilter,
                                                            double valueRangeMin, double valueRangeMax) {
-        return IntStream.range(0, count)
+        DataRecord[] records = new DataRecord[count];
+        IntStream.range(0, chunkCount(count))
                 .parallel()
-                .mapToObj(i -> {
-                    long id = i + 1;
-                    String category = categoryFilter != null ? categoryFilter : CATEGORIES[random.nextInt(CATEGORIES.length)];
-                    double value = ThreadLocalRandom.current().nextDouble(valueRangeMin, valueRangeMax);
-                    LocalDateTime timestamp = generateRandomTimestamp();
-                    int priority = random.nextInt(1, 6);
-                    String status = STATUSES[random.nextInt(STATUSES.length)];
-                    List<String> tags = generateRandomTags();
-                    
-                    return new DataRecord(id, category, value, timestamp, priority, status, tags);
-                })
-                .collect(Collectors.toList());
+                .forEach(chunk -> {
+                    Chunk rows = generateChunk(chunk, count, valueRangeMin, valueRangeMax);
+                    for (int i = 0; i < rows.size; i++) {
+                        records[(int) rows.from + i] = rows.toRecord(i, categoryFilter);
+                    }
+                });
+        return new ArrayList<>(Arrays.asList(records));
+    }
+
+    private static int chunkCount(int count) {
+        return (int) chunkCount((long) count);
+    }
+
+    private static long chunkCount(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be >= 0: " + count);
+        }
+        return (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Generate one chunk of rows from its own random source
+     * @param chunk Chunk index
+     * @param count Total number of records (the last chunk may be short)
+     * @return Primitive columns of the chunk
+     */
+    private Chunk generateChunk(long chunk, long count, double valueMin, double valueMax) {
+        SplittableRandom random = new SplittableRandom(mix(seed + GOLDEN_GAMMA * (chunk + 1)));
+        long from = chunk * CHUNK_SIZE;
+        Chunk rows = new Chunk(from, (int) Math.min(CHUNK_SIZE, count - from));
+        for (int i = 0; i < rows.size; i++) {
+            rows.categoryCodes[i] = categoryDistribution.sample(random);
+            rows.values[i] = random.nextDouble(valueMin, valueMax);
+            rows.epochSeconds[i] = endEpochSecond - random.nextLong(YEAR_SECONDS + 1);
+            rows.priorities[i] = random.nextInt(1, 6); // 1-5
+            rows.statuses[i] = random.nextInt(STATUSES.length);
+            rows.tagMasks[i] = generateTagMask(random);
+        }
+        return rows;
+    }
+
+    /**
+     * Generate a random set of 1-4 distinct tags as a bitmask over TAG_POOL
+     */
+    private short generateTagMask(SplittableRandom random) {
+        int tagCount = random.nextInt(1, 5); // 1-4 tags
+        int mask = 0;
+        while (Integer.bitCount(mask) < tagCount) {
+            mask |= 1 << tagDistribution.sample(random);
+        }
+        return (short) mask;
+    }
+
+    /**
+     * SplitMix64 finalizer, so neighbouring chunk indexes get unrelated seeds
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * One chunk of generated rows as primitive columns
+     */
+    private final class Chunk {
+        final long from;
+        final int size;
+        final int[] categoryCodes;
+        final double[] values;
+        final long[] epochSeconds;
+        final int[] priorities;
+        final int[] statuses;
+        final short[] tagMasks;
+
+        Chunk(long from, int size) {
+            this.from = from;
+            this.size = size;
+            this.categoryCodes = new int[size];
+            this.values = new double[size];
+            this.epochSeconds = new long[size];
+            this.priorities = new int[size];
+            this.statuses = new int[size];
+            this.tagMasks = new short[size];
+        }
+
+        DataRecord toRecord(int i, String categoryOverride) {
+            String category = categoryOverride != null ? categoryOverride : DataGenerator.this.categories[categoryCodes[i]];
+            return new DataRecord(from + i + 1, category, values[i],
+                    LocalDateTime.ofEpochSecond(epochSeconds[i], 0, ZoneOffset.UTC),
+                    priorities[i], STATUSES[statuses[i]], tags(tagMasks[i]));
+        }
+
+        String toCsv(int i) {
+            return (from + i + 1) + "," + DataGenerator.this.categories[categoryCodes[i]] + "," + values[i] + ","
+                    + LocalDateTime.ofEpochSecond(epochSeconds[i], 0, ZoneOffset.UTC) + ","
+                    + priorities[i] + "," + STATUSES[statuses[i]] + "," + String.join(";", tags(tagMasks[i]));
+        }
+    }
+
+    private static List<String> tags(short mask) {
+        List<String> tags = new ArrayList<>(Integer.bitCount(mask & 0xFFFF));
+        for (int i = 0; i < TAG_POOL.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                tags.add(TAG_POOL[i]);
+            }
+        }
+        return tags;
     }
 }
@@ -0,0 +1,72 @@
+package util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * ZipfDistribution class for sampling skewed ranks
+ * Rank k (0-based) is drawn with probability proportional to 1 / (k + 1)^s.
+ * An exponent of 0 gives a uniform distribution; around 1 gives the usual
+ * "few hot keys" skew of real data. The CDF is precomputed, so a sample is
+ * one random double and a binary search. Immutable and thread-safe; the
+ * caller supplies the random source.
+ */
+public final class ZipfDistribution {
+
+    private final double exponent;
+    private final double[] cumulative;
+
+    /**
+     * @param size Number of ranks
+     * @param exponent Skew exponent (&gt;= 0)
+     */
+    public ZipfDistribution(int size, double exponent) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        if (exponent < 0 || Double.isNaN(exponent)) {
+            throw new IllegalArgumentException("exponent must be >= 0: " + exponent);
+        }
+        this.exponent = exponent;
+        this.cumulative = new double[size];
+        double total = 0.0;
+        for (int k = 0; k < size; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= total;
+        }
+        cumulative[size - 1] = 1.0;
+    }
+
+    /**
+     * Draw a rank
+     * @param random Random source
+     * @return Rank in 0..size-1
+     */
+    public int sample(SplittableRandom random) {
+        if (exponent == 0.0) {
+            return random.nextInt(cumulative.length);
+        }
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        // Rank k covers [cumulative[k - 1], cumulative[k])
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    /**
+     * @param rank Rank in 0..size-1
+     * @return Probability of drawing the rank
+     */
+    public double probability(int rank) {
+        return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+}
@@ -3,6 +3,13 @@ package performance;
 import model.DataRecord;
 import util.DataGenerator;
 import processor.AsyncProcessor;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +49,9 @@ public class PerformanceTests {
         // Test memory usage
         testMemoryUsage(testData);
         
+        // Test per-operation profiling
+        testOperationProfiling(testData);
+        
         // Test async processing
         testAsyncProcessing(testData);
         
@@ -78,6 +88,69 @@ public class PerformanceTests {
         performanceAnalyzer.measureMemoryUsage(testData);
     }
     
+    /**
+     * Test allocation accounting, histograms and JFR events of the operation profiler
+     */
+    private void testOperationProfiling(List<DataRecord> testData) {
+        System.out.println("\n--- Testing Operation Profiling ---");
+        
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        long p50 = histogram.getValueAt(0.5);
+        System.out.println("Histogram p50 within 12.5%: " + (p50 >= 500_000 && p50 <= 562_500) +
+                ", max exact: " + (histogram.getValueAt(1.0) == 1_000_000));
+        
+        OperationProfiler profiler = new OperationProfiler();
+        try (Recording recording = new Recording()) {
+            recording.enable("practice6.Operation");
+            recording.start();
+            for (int i = 0; i < 3; i++) {
+                // 1M longs: 8 MB allocated on the calling thread
+                profiler.profile("allocate", 1_000_000, () -> new long[1_000_000]);
+            }
+            profiler.profile("filter", testData.size(),
+                    () -> testData.parallelStream().filter(record -> record.getValue() > 100.0).count());
+            profiler.profile("sleep", 0, () -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            try {
+                profiler.profile("fail", 0, () -> {
+                    throw new IllegalStateException("expected");
+                });
+            } catch (IllegalStateException expected) {
+                // The event is still committed
+            }
+            recording.stop();
+            Path file = Files.createTempFile("operations", ".jfr");
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            Files.delete(file);
+            System.out.println("JFR events recorded: " + (events.size() == 6) + ", operation field: " +
+                    events.stream().anyMatch(event -> "allocate".equals(event.getString("operation"))));
+            System.out.println("JFR event spans the call: " + events.stream()
+                    .filter(event -> "sleep".equals(event.getString("operation")))
+                    .allMatch(event -> event.getDuration().toMillis() >= 20));
+            System.out.println("Failed call committed, not counted: " + (events.stream()
+                    .anyMatch(event -> "fail".equals(event.getString("operation")) && event.getBoolean("failed"))
+                    && profiler.getStats("fail") == null));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        OperationStats allocate = profiler.getStats("allocate");
+        System.out.println("Allocation supported: " + profiler.isAllocationSupported());
+        System.out.println("Allocation counted: " + (allocate.getAllocatedBytes().getValueAt(0.5) >= 8_000_000) +
+                ", per row ~8 B: " + (Math.abs(allocate.getAllocatedBytesPerRow() - 8.0) < 1.0));
+        System.out.println("Calls counted: " + (allocate.getCalls() == 3 && profiler.getStats("filter").getCalls() == 1));
+        System.out.print(profiler.summary());
+    }
+    
     /**
      * Test async processing functionality
      */
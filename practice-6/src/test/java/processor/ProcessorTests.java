@@ -1,12 +1,40 @@
 package processor;
 
+import kernel.NumericKernels;
+import model.CompactDataRecord;
 import model.DataRecord;
+import model.DataRecordTable;
+import model.TimeSeries;
+import sketch.HyperLogLog;
+import sketch.TDigest;
+import storage.MappedSegment;
+import storage.SegmentWriter;
 import util.DataGenerator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.DoubleSummaryStatistics;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Test class for processor functionality
@@ -39,6 +67,51 @@ public class ProcessorTests {
         // Test AdvancedProcessor
         testAdvancedProcessor(testData);
         
+        // Test single-pass aggregation
+        testSinglePassAggregation(testData);
+        
+        // Test execution backends
+        testExecutionBackends(testData);
+        
+        // Test staged pipeline
+        testPipeline(testData);
+        
+        // Test incremental statistics
+        testStreamingProcessor(testData);
+        
+        // Test window operations
+        testWindowing();
+        
+        // Test reproducible data generation
+        testDataGenerator();
+        
+        // Test parallel group-by strategies
+        testGroupBy();
+        
+        // Test sketch-based approximate queries
+        testApproximateProcessor();
+        
+        // Test fused queries and the plan cache
+        testQuery();
+        
+        // Test numeric kernels
+        testNumericKernels();
+        
+        // Test time-partitioned index
+        testTimeIndex();
+        
+        // Test cancellation, deadlines and partial results
+        testCancellation();
+        
+        // Test compact records
+        testCompactRecords();
+        
+        // Test DataRecordTable
+        testColumnarTable(testData);
+        
+        // Test memory-mapped segments
+        testMappedSegment(testData);
+        
         System.out.println("All processor tests completed successfully!");
     }
     
@@ -133,6 +206,866 @@ public class ProcessorTests {
         System.out.println("Priority-Value correlation: " + String.format("%.4f", correlation));
     }
     
+    /**
+     * Test single-pass aggregation against the multi-pass formulas
+     */
+    private void testSinglePassAggregation(List<DataRecord> testData) {
+        System.out.println("\n--- Testing Single-Pass Aggregation ---");
+        
+        RunningMoments moments = testData.parallelStream()
+                .collect(RunningMoments.summarizing(DataRecord::getValue));
+        double mean = testData.stream().mapToDouble(DataRecord::getValue).average().orElse(0.0);
+        double variance = testData.stream()
+                .mapToDouble(record -> Math.pow(record.getValue() - mean, 2))
+                .average()
+                .orElse(0.0);
+        System.out.println("Welford mean/variance match: " +
+                (Math.abs(moments.getMean() - mean) < 1e-9 &&
+                 Math.abs(moments.getPopulationVariance() - variance) < 1e-6));
+        
+        MultiCollector<DataRecord> multi = new MultiCollector<>();
+        MultiCollector.Slot<Long> count = multi.add(Collectors.counting());
+        MultiCollector.Slot<Map<String, Long>> byStatus =
+                multi.add(Collectors.groupingBy(DataRecord::getStatus, Collectors.counting()));
+        MultiCollector.Results results = testData.parallelStream().collect(multi.build());
+        System.out.println("Multi-aggregate results match: " +
+                (results.get(count) == testData.size() &&
+                 results.get(byStatus).equals(dataProcessor.countByStatus(testData))));
+        
+        System.out.println("Outliers (1-sigma): " + advancedProcessor.findOutliers(testData, 1.0).size());
+    }
+    
+    /**
+     * Test execution backends: results and where parallel streams run
+     */
+    private void testExecutionBackends(List<DataRecord> testData) {
+        System.out.println("\n--- Testing Execution Backends ---");
+        
+        Map<String, Double> expected = dataProcessor.calculateAverageByCategory(testData);
+        for (String name : Arrays.asList("forkjoin", "workstealing", "virtual", "sequential")) {
+            AsyncProcessor processor = new AsyncProcessor(ExecutionBackend.fromName(name, 2));
+            try {
+                boolean matches = processor.processAsync(testData).join().equals(expected);
+                System.out.println("  " + processor.getBackend().getName() + " results match: " + matches);
+            } finally {
+                processor.shutdown();
+            }
+        }
+        
+        // Parallel streams started inside a ForkJoin task must stay on that pool
+        ExecutionBackend forkJoin = ExecutionBackend.forkJoin(2);
+        Set<String> threads = forkJoin.submit(() -> forkJoin.stream(dataGenerator.generate(200_000))
+                .map(record -> Thread.currentThread().getName())
+                .collect(Collectors.toSet())).join();
+        forkJoin.shutdown();
+        System.out.println("  Inner stream avoided common pool: " +
+                threads.stream().noneMatch(name -> name.contains("commonPool")));
+    }
+    
+    /**
+     * Test the staged pipeline: ordering, filtering, backpressure and failures
+     */
+    private void testPipeline(List<DataRecord> testData) {
+        System.out.println("\n--- Testing Pipeline ---");
+        
+        List<Integer> ordered = new ArrayList<>();
+        Pipeline.from(IntStream.range(0, 1000).boxed().iterator())
+                .map(i -> i * 2, 4)
+                .filter(i -> i % 3 != 0, 3)
+                .bufferSize(8)
+                .forEach(ordered::add)
+                .join();
+        List<Integer> expected = IntStream.range(0, 1000).map(i -> i * 2).filter(i -> i % 3 != 0)
+                .boxed().collect(Collectors.toList());
+        System.out.println("Ordered output matches: " + ordered.equals(expected));
+        
+        // An endless source must not run ahead of a slow sink by more than the buffers
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        Iterator<Integer> endless = new Iterator<Integer>() {
+            public boolean hasNext() {
+                return produced.get() < 200;
+            }
+            public Integer next() {
+                return produced.incrementAndGet();
+            }
+        };
+        AtomicInteger consumed = new AtomicInteger();
+        Pipeline.from(endless)
+                .map(i -> i, 2)
+                .bufferSize(4)
+                .ordered(false)
+                .forEach(i -> {
+                    consumed.incrementAndGet();
+                    maxAhead.accumulateAndGet(produced.get() - consumed.get(), Math::max);
+                })
+                .join();
+        System.out.println("Backpressure bounded (max ahead " + maxAhead.get() + "): " + (maxAhead.get() <= 16));
+        
+        // A stalled item must not let the ordered sink buffer everything behind it
+        AtomicInteger emitted = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        AtomicInteger issued = new AtomicInteger();
+        Iterator<Integer> counting = new Iterator<Integer>() {
+            public boolean hasNext() {
+                return issued.get() < 5_000;
+            }
+            public Integer next() {
+                maxOutstanding.accumulateAndGet(issued.incrementAndGet() - emitted.get(), Math::max);
+                return issued.get() - 1;
+            }
+        };
+        Pipeline.from(counting)
+                .map(i -> { if (i == 0) sleep(300); return i; }, 4)
+                .bufferSize(4)
+                .forEach(i -> emitted.incrementAndGet())
+                .join();
+        System.out.println("Reorder buffer bounded (max outstanding " + maxOutstanding.get() + "): " +
+                (emitted.get() == 5_000 && maxOutstanding.get() <= 4 * 2));
+        
+        // Workers come from a reused pool, not new threads per run
+        Set<String> workerThreads = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        for (int run = 0; run < 20; run++) {
+            Pipeline.from(Arrays.asList(1, 2, 3))
+                    .map(i -> { workerThreads.add(Thread.currentThread().getName()); return i; }, 2)
+                    .forEach(i -> { })
+                    .join();
+        }
+        System.out.println("Worker threads reused: " + (workerThreads.size() <= 8));
+        
+        CompletableFuture<Void> failed = Pipeline.from(Arrays.asList(1, 2, 3))
+                .map(i -> { if (i == 2) throw new IllegalStateException("boom"); return i; }, 1)
+                .forEach(i -> { });
+        System.out.println("Failure propagated: " + failed.handle((v, e) -> e != null).join());
+        
+        AsyncProcessor asyncProcessor = new AsyncProcessor(2);
+        try {
+            List<CompletableFuture<List<DataRecord>>> batches = asyncProcessor.processBatch(
+                    Arrays.asList(testData.subList(0, 2), testData.subList(2, 5)));
+            System.out.println("Batch results: " + batches.get(0).join().size() + ", " + batches.get(1).join().size());
+            System.out.println("Multiple operations keys: " +
+                    new TreeSet<>(asyncProcessor.processMultipleOperationsAsync(testData).join().keySet()));
+        } finally {
+            asyncProcessor.shutdown();
+        }
+    }
+    
+    /**
+     * Test incremental statistics against full recomputation
+     */
+    private void testStreamingProcessor(List<DataRecord> testData) {
+        System.out.println("\n--- Testing StreamingDataProcessor ---");
+        
+        StreamingDataProcessor streaming = new StreamingDataProcessor();
+        streaming.accept(testData.get(0));
+        streaming.acceptAll(testData.subList(1, testData.size()));
+        System.out.println("Status counts match: " +
+                streaming.countByStatus().equals(dataProcessor.countByStatus(testData)));
+        System.out.println("Category averages match: " +
+                streaming.calculateAverageByCategory().equals(dataProcessor.calculateAverageByCategory(testData)));
+        
+        // Retract record 5 and move record 2 to category A
+        DataRecord original = testData.get(1);
+        DataRecord updated = new DataRecord(original.getId(), "A", original.getValue(), original.getTimestamp(),
+                original.getPriority(), "ACTIVE", original.getTags());
+        streaming.retract(5);
+        streaming.accept(updated);
+        List<DataRecord> expected = Arrays.asList(testData.get(0), updated, testData.get(2), testData.get(3));
+        System.out.println("After retract/update counts match: " +
+                streaming.countByStatus().equals(dataProcessor.countByStatus(expected)));
+        System.out.println("After retract/update averages match: " +
+                streaming.calculateAverageByCategory().equals(dataProcessor.calculateAverageByCategory(expected)));
+        System.out.println("Priority groups: " + streaming.groupByPriority().keySet());
+        
+        // Min/max follow retraction: dropping the extremes exposes the next values
+        StreamingDataProcessor extremes = new StreamingDataProcessor();
+        extremes.acceptAll(Arrays.asList(
+                new DataRecord(1, "A", 10.0, null, 1, "ACTIVE", null),
+                new DataRecord(2, "A", 50.0, null, 1, "ACTIVE", null),
+                new DataRecord(3, "A", 50.0, null, 1, "ACTIVE", null),
+                new DataRecord(4, "A", 30.0, null, 1, "ACTIVE", null)));
+        extremes.retract(1);
+        extremes.retract(2);
+        DoubleSummaryStatistics afterRetract = extremes.calculateStatistics().get("A");
+        extremes.accept(new DataRecord(3, "A", 20.0, null, 1, "ACTIVE", null));
+        DoubleSummaryStatistics afterUpdate = extremes.calculateStatistics().get("A");
+        System.out.println("Min/max after retract/update: " +
+                (afterRetract.getMin() == 30.0 && afterRetract.getMax() == 50.0 &&
+                 afterUpdate.getMin() == 20.0 && afterUpdate.getMax() == 30.0));
+        
+        // Rebuild swaps in the new state while writers keep going; readers never see a cleared state
+        List<DataRecord> snapshot = testData.subList(0, 3);
+        AtomicInteger emptyReads = new AtomicInteger();
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                streaming.accept(testData.get(i % 3));
+            }
+        });
+        CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                if (streaming.size() == 0) {
+                    emptyReads.incrementAndGet();
+                }
+            }
+        });
+        for (int i = 0; i < 200; i++) {
+            streaming.rebuild(snapshot);
+        }
+        writer.join();
+        reader.join();
+        System.out.println("Rebuild swaps atomically: " + (emptyReads.get() == 0 && streaming.size() == 3 &&
+                streaming.countByStatus().equals(dataProcessor.countByStatus(snapshot))));
+    }
+    
+    /**
+     * Test that generated data depends only on the seed, whatever the output form
+     */
+    private void testDataGenerator() {
+        System.out.println("\n--- Testing DataGenerator ---");
+        
+        DataGenerator seeded = new DataGenerator(42);
+        List<DataRecord> records = seeded.generate(20_000);
+        List<DataRecord> singleThread = new ForkJoinPool(1).submit(() -> seeded.generate(20_000)).join();
+        System.out.println("Exact count: " + (records.size() == 20_000));
+        System.out.println("Same for 1 thread: " + records.equals(singleThread));
+        System.out.println("Same for another instance: " + records.equals(new DataGenerator(42).generate(20_000)));
+        System.out.println("Lazy stream matches: " +
+                records.equals(seeded.stream(20_000).parallel().collect(Collectors.toList())));
+        DataRecordTable table = seeded.generateTable(20_000);
+        System.out.println("Table matches: " + (ids(table.toRecords()).equals(ids(records)) &&
+                table.getValue(19_999) == records.get(19_999).getValue()));
+        
+        Map<String, Long> skewed = seeded.withCategoryCount(20).withCategorySkew(1.0).generate(20_000).stream()
+                .collect(Collectors.groupingBy(DataRecord::getCategory, Collectors.counting()));
+        System.out.println("Zipf categories skewed: " +
+                (skewed.get("C0") > skewed.get("C1") && skewed.get("C1") > skewed.get("C19")));
+    }
+    
+    /**
+     * Test both GroupBy strategies against sequential groupingBy
+     */
+    private void testGroupBy() {
+        System.out.println("\n--- Testing GroupBy ---");
+        
+        List<DataRecord> records = new DataGenerator(42).withCategoryCount(50).generate(50_000);
+        System.out.println("Category picks DENSE: " +
+                (GroupBy.chooseStrategy(records, DataRecord::getCategory) == GroupBy.Strategy.DENSE));
+        System.out.println("Id picks PARTITIONED: " +
+                (GroupBy.chooseStrategy(records, DataRecord::getId) == GroupBy.Strategy.PARTITIONED));
+        System.out.println("Linked list sample picks PARTITIONED: " +
+                (GroupBy.chooseStrategy(new LinkedList<>(records), DataRecord::getId) == GroupBy.Strategy.PARTITIONED));
+        
+        Map<String, Long> counts = records.stream()
+                .collect(Collectors.groupingBy(DataRecord::getCategory, Collectors.counting()));
+        Map<Integer, List<DataRecord>> byPriority = records.stream()
+                .collect(Collectors.groupingBy(DataRecord::getPriority));
+        Map<Long, List<DataRecord>> byId = records.stream()
+                .collect(Collectors.groupingBy(DataRecord::getId));
+        Map<String, Double> averages = records.stream()
+                .collect(Collectors.groupingBy(DataRecord::getCategory, Collectors.averagingDouble(DataRecord::getValue)));
+        for (GroupBy.Strategy strategy : GroupBy.Strategy.values()) {
+            System.out.println(strategy + " counts match: " + counts.equals(
+                    GroupBy.parallel(records, DataRecord::getCategory, Collectors.counting(), strategy)));
+            System.out.println(strategy + " lists keep order: " + byPriority.equals(
+                    GroupBy.parallel(records, DataRecord::getPriority, Collectors.toList(), strategy)));
+            System.out.println(strategy + " unique keys match: " + byId.equals(
+                    GroupBy.parallel(records, DataRecord::getId, Collectors.toList(), strategy)));
+            Map<String, Double> parallelAverages = GroupBy.parallel(records, DataRecord::getCategory,
+                    Collectors.averagingDouble(DataRecord::getValue), strategy);
+            System.out.println(strategy + " averages match: " + (parallelAverages.keySet().equals(averages.keySet()) &&
+                    averages.entrySet().stream().allMatch(e ->
+                            Math.abs(e.getValue() - parallelAverages.get(e.getKey())) < 1e-6)));
+        }
+        System.out.println("Int keys keep order: " + byPriority.equals(
+                GroupBy.parallelByInt(records, DataRecord::getPriority, Collectors.toList())));
+        System.out.println("Int keys (many) match: " + records.stream()
+                .collect(Collectors.groupingBy(record -> (int) record.getId() * 7919, Collectors.counting()))
+                .equals(GroupBy.parallelByInt(new LinkedList<>(records), record -> (int) record.getId() * 7919,
+                        Collectors.counting())));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        System.out.println("Int keys across tasks keep order: " + byPriority.equals(pool.submit(() ->
+                GroupBy.parallelByInt(records, DataRecord::getPriority, Collectors.toList())).join()));
+        pool.shutdown();
+        System.out.println("Small input matches: " + dataProcessor.countByStatus(records.subList(0, 100))
+                .equals(dataProcessor.countByStatusParallel(records.subList(0, 100))));
+        System.out.println("Top N by category matches: " + advancedProcessor.findTopNByCategory(records, 5)
+                .equals(records.stream().collect(Collectors.groupingBy(DataRecord::getCategory,
+                        TopN.collector(5, Comparator.comparingDouble(DataRecord::getValue))))));
+    }
+    
+    /**
+     * Test sketch estimates against exact answers and sketch merging
+     */
+    private void testApproximateProcessor() {
+        System.out.println("\n--- Testing ApproximateProcessor ---");
+        
+        DataGenerator seeded = new DataGenerator(42).withCategoryCount(5).withTagSkew(1.0);
+        List<DataRecord> records = seeded.generate(200_000);
+        ApproximateProcessor approximate = new ApproximateProcessor();
+        
+        Map<String, Long> distinct = approximate.countDistinctIdsByCategory(records);
+        Map<String, Set<Long>> exactIds = records.stream().collect(Collectors.groupingBy(DataRecord::getCategory,
+                Collectors.mapping(DataRecord::getId, Collectors.toSet())));
+        System.out.println("Distinct ids within 5%: " + (distinct.keySet().equals(exactIds.keySet()) &&
+                exactIds.entrySet().stream().allMatch(e ->
+                        Math.abs(distinct.get(e.getKey()) - e.getValue().size()) <= 0.05 * e.getValue().size())));
+        
+        // Sketching two halves and merging gives the same registers as one pass
+        HyperLogLog left = approximate.distinctIdsByCategory(records.subList(0, 100_000)).get("C0");
+        HyperLogLog right = approximate.distinctIdsByCategory(records.subList(100_000, 200_000)).get("C0");
+        System.out.println("Merged HyperLogLog matches: " +
+                (left.merge(right).estimate() == distinct.get("C0")));
+        
+        double[] sorted = records.stream().mapToDouble(DataRecord::getValue).sorted().toArray();
+        double[] quantiles = {0.5, 0.95, 0.99};
+        double[] estimates = approximate.valueQuantiles(records, quantiles);
+        boolean quantilesClose = true;
+        for (int i = 0; i < quantiles.length; i++) {
+            int rank = Math.abs(Arrays.binarySearch(sorted, estimates[i]));
+            quantilesClose &= Math.abs((double) rank / sorted.length - quantiles[i]) < 0.01;
+        }
+        System.out.println("Quantiles within 1% rank: " + quantilesClose);
+        TDigest digest = approximate.valueDigest(records.subList(0, 100_000))
+                .merge(approximate.valueDigest(records.subList(100_000, 200_000)));
+        System.out.println("Merged digest count: " + (digest.getCount() == records.size()) +
+                ", min/max exact: " + (digest.getMin() == sorted[0] && digest.getMax() == sorted[sorted.length - 1]));
+        
+        Map<String, Long> tagCounts = records.stream().flatMap(record -> record.getTags().stream())
+                .collect(Collectors.groupingBy(tag -> tag, Collectors.counting()));
+        long totalTags = tagCounts.values().stream().mapToLong(Long::longValue).sum();
+        Set<String> expectedHeavy = tagCounts.entrySet().stream()
+                .filter(e -> e.getValue() >= 0.1 * totalTags).map(Map.Entry::getKey).collect(Collectors.toSet());
+        Map<String, Long> heavy = approximate.findHeavyHitterTags(records, 0.1);
+        System.out.println("Heavy hitter tags found: " + (heavy.keySet().containsAll(expectedHeavy) &&
+                heavy.entrySet().stream().allMatch(e -> e.getValue() >= tagCounts.get(e.getKey()) &&
+                        e.getValue() <= tagCounts.get(e.getKey()) + 0.001 * totalTags)));
+        
+        DataRecordTable table = seeded.generateTable(200_000);
+        System.out.println("Columnar matches list: " + (approximate.countDistinctIdsByCategory(table).equals(distinct) &&
+                approximate.findHeavyHitterTags(table, 0.1).equals(heavy)));
+    }
+    
+    /**
+     * Test fused queries against chained filters, and plan caching per shape
+     */
+    private void testQuery() {
+        System.out.println("\n--- Testing Query ---");
+        
+        List<DataRecord> records = new DataGenerator(42).withCategoryCount(10).generate(50_000);
+        List<DataRecord> chained = advancedProcessor.findRecordsWithTags(
+                dataProcessor.filterByStatus(dataProcessor.filterRecords(records, "C1", 2000.0), "ACTIVE"),
+                Arrays.asList("urgent"));
+        QueryPlanner planner = new QueryPlanner(16);
+        Query query = Query.from(records, planner)
+                .where(Query.hasTags("urgent"))
+                .and(Query.valueAtLeast(2000.0))
+                .and(Query.status("ACTIVE"))
+                .and(Query.category("C1"));
+        System.out.println("Fused filter matches chained: " + query.toList().equals(chained));
+        System.out.println("Parallel filter matches: " + query.parallel().toList().equals(chained) +
+                ", count matches: " + (query.count() == chained.size()));
+        System.out.println("Plan: " + query.plan());
+        
+        // Same shape with another bound reuses the plan
+        Query other = Query.from(records, planner)
+                .where(Query.hasTags("urgent"))
+                .and(Query.valueAtLeast(100.0))
+                .and(Query.status("ACTIVE"))
+                .and(Query.category("C1"));
+        System.out.println("Plan cached per shape: " + (other.plan() == query.plan() && planner.getMisses() == 1));
+        System.out.println("Selective condition first: " + (query.plan().getOrder()[0] != 0));
+        
+        Map<String, Double> expected = records.stream()
+                .filter(record -> "C1".equals(record.getCategory()) && record.getValue() >= 2000.0)
+                .collect(Collectors.groupingBy(DataRecord::getStatus, Collectors.averagingDouble(DataRecord::getValue)));
+        Query byCategory = Query.from(records, planner).where(Query.category("C1")).and(Query.valueAtLeast(2000.0));
+        Map<String, Double> sequential = byCategory.groupBy(DataRecord::getStatus).agg(Query.avg(DataRecord::getValue));
+        Map<String, Double> parallel = byCategory.parallel()
+                .groupBy(DataRecord::getStatus).agg(Query.avg(DataRecord::getValue));
+        System.out.println("Grouped aggregate matches: " + (sequential.equals(expected) &&
+                expected.entrySet().stream().allMatch(e -> Math.abs(e.getValue() - parallel.get(e.getKey())) < 1e-6)));
+        System.out.println("Custom predicate matches: " + (Query.from(records, planner)
+                .and(record -> record.getPriority() > 3).count() ==
+                records.stream().filter(record -> record.getPriority() > 3).count()));
+    }
+    
+    /**
+     * Test the detected kernels against the scalar ones, and columnar reductions against list results
+     */
+    private void testNumericKernels() {
+        System.out.println("\n--- Testing NumericKernels ---");
+        
+        NumericKernels kernels = NumericKernels.get();
+        NumericKernels scalar = NumericKernels.scalar();
+        System.out.println("Kernels: " + kernels.getName());
+        double[] a = new java.util.SplittableRandom(7).doubles(10_003, -50.0, 50.0).toArray();
+        double[] b = new java.util.SplittableRandom(8).doubles(10_003, 0.0, 5.0).toArray();
+        boolean match = true;
+        // Odd bounds exercise the scalar tails
+        for (int[] range : new int[][] {{0, a.length}, {3, 10}, {5, 5}, {1, 1001}}) {
+            int from = range[0];
+            int to = range[1];
+            match &= Math.abs(kernels.sum(a, from, to) - scalar.sum(a, from, to)) < 1e-6 &&
+                    kernels.min(a, from, to) == scalar.min(a, from, to) &&
+                    kernels.max(a, from, to) == scalar.max(a, from, to) &&
+                    Math.abs(kernels.sumOfSquares(a, from, to) - scalar.sumOfSquares(a, from, to)) < 1e-3 &&
+                    Math.abs(kernels.sumOfSquaredDeviations(a, from, to, 1.5)
+                            - scalar.sumOfSquaredDeviations(a, from, to, 1.5)) < 1e-3 &&
+                    Math.abs(kernels.dot(a, b, from, to) - scalar.dot(a, b, from, to)) < 1e-6 &&
+                    kernels.countOutside(a, from, to, 0.0, 40.0) == scalar.countOutside(a, from, to, 0.0, 40.0) &&
+                    kernels.countBetween(a, from, to, -10.0, 10.0) == scalar.countBetween(a, from, to, -10.0, 10.0);
+        }
+        System.out.println("Kernels match scalar: " + match);
+        
+        List<DataRecord> records = new DataGenerator(42).generate(30_000);
+        DataRecordTable table = DataRecordTable.from(records);
+        DoubleSummaryStatistics expected = dataProcessor.calculateValueStatistics(records);
+        DoubleSummaryStatistics columnar = dataProcessor.calculateValueStatisticsParallel(table);
+        System.out.println("Value statistics match: " + (columnar.getCount() == expected.getCount() &&
+                columnar.getMin() == expected.getMin() && columnar.getMax() == expected.getMax() &&
+                Math.abs(columnar.getSum() - expected.getSum()) < 1e-6 * Math.abs(expected.getSum())));
+        System.out.println("Weighted average matches: " + (Math.abs(advancedProcessor.calculateWeightedAverage(table)
+                - advancedProcessor.calculateWeightedAverage(records)) < 1e-9));
+        System.out.println("Correlation matches: " + (Math.abs(advancedProcessor.calculatePriorityValueCorrelation(table)
+                - advancedProcessor.calculatePriorityValueCorrelation(records)) < 1e-9));
+        System.out.println("Outliers match: " + ids(advancedProcessor.findOutliers(table, 1.5).toRecords())
+                .equals(ids(advancedProcessor.findOutliers(records, 1.5))));
+        System.out.println("Scalar processor matches: " +
+                (Math.abs(new AdvancedProcessor(scalar).calculatePriorityValueCorrelation(table)
+                        - advancedProcessor.calculatePriorityValueCorrelation(table)) < 1e-9));
+    }
+    
+    /**
+     * Test time index roll-ups and range queries against grouping every record
+     */
+    private void testTimeIndex() {
+        System.out.println("\n--- Testing TimeIndex ---");
+        
+        List<DataRecord> records = new DataGenerator(42).generate(50_000);
+        TimeIndex hourly = TimeIndex.of(records, TimeIndex.Granularity.HOUR);
+        Map<java.time.LocalDate, DoubleSummaryStatistics> expected = records.stream()
+                .collect(Collectors.groupingBy(record -> record.getTimestamp().toLocalDate(),
+                        Collectors.summarizingDouble(DataRecord::getValue)));
+        Map<java.time.LocalDate, DoubleSummaryStatistics> daily =
+                advancedProcessor.analyzeByTimeIntervals(records, hourly);
+        System.out.println("Daily roll-up matches: " + sameStatistics(daily, expected));
+        System.out.println("Day index matches: " + sameStatistics(
+                advancedProcessor.analyzeByTimeIntervals(DataRecordTable.from(records), TimeIndex.of(records)),
+                expected));
+        
+        Map<LocalDateTime, DoubleSummaryStatistics> monthly = hourly.rollUp(TimeIndex.Granularity.MONTH);
+        Map<LocalDateTime, DoubleSummaryStatistics> weekly = hourly.rollUp(TimeIndex.Granularity.WEEK);
+        System.out.println("Month/week totals match: " +
+                (monthly.values().stream().mapToLong(DoubleSummaryStatistics::getCount).sum() == records.size() &&
+                 weekly.values().stream().mapToLong(DoubleSummaryStatistics::getCount).sum() == records.size()) +
+                ", weeks start on Monday: " + weekly.keySet().stream()
+                        .allMatch(start -> start.getDayOfWeek() == java.time.DayOfWeek.MONDAY));
+        
+        // Range edges in the middle of an hour bucket
+        LocalDateTime from = records.get(10).getTimestamp().minusMinutes(17);
+        LocalDateTime to = from.plusDays(40).plusMinutes(33);
+        List<DataRecord> inRange = records.stream()
+                .filter(record -> !record.getTimestamp().isBefore(from) && record.getTimestamp().isBefore(to))
+                .collect(Collectors.toList());
+        DoubleSummaryStatistics range = hourly.summarize(from, to);
+        System.out.println("Range summary matches: " + (range.getCount() == inRange.size() &&
+                Math.abs(range.getSum() - inRange.stream().mapToDouble(DataRecord::getValue).sum()) < 1e-6));
+        System.out.println("Range rows match: " + ids(Arrays.stream(hourly.rows(from, to)).mapToObj(records::get)
+                .collect(Collectors.toList()))
+                .equals(ids(inRange)));
+        java.time.LocalDate firstDay = from.toLocalDate();
+        Map<java.time.LocalDate, DoubleSummaryStatistics> days = advancedProcessor.analyzeByTimeIntervals(
+                records, hourly, firstDay, firstDay.plusDays(7));
+        System.out.println("Day range matches: " + sameStatistics(days, expected.entrySet().stream()
+                .filter(e -> !e.getKey().isBefore(firstDay) && e.getKey().isBefore(firstDay.plusDays(7)))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))));
+        boolean rejected;
+        try {
+            TimeIndex.of(records, TimeIndex.Granularity.WEEK).rollUp(TimeIndex.Granularity.MONTH);
+            rejected = false;
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        System.out.println("Week to month roll-up rejected: " + rejected);
+    }
+    
+    /**
+     * Test that cancelled, failed and expired async operations stop scanning
+     */
+    private void testCancellation() {
+        System.out.println("\n--- Testing Cancellation ---");
+        
+        List<DataRecord> records = new DataGenerator(42).generate(20_000);
+        AsyncProcessor processor = new AsyncProcessor(2);
+        try {
+            PartialResult<Map<String, Double>> full =
+                    processor.processAsync(records, CancellationToken.create()).join();
+            Map<String, Double> expected = dataProcessor.calculateAverageByCategory(records);
+            System.out.println("Token results match: " + (full.isComplete() &&
+                    full.getValue().keySet().equals(expected.keySet()) &&
+                    expected.entrySet().stream().allMatch(e ->
+                            Math.abs(e.getValue() - full.getValue().get(e.getKey())) < 1e-6)));
+            PartialResult<List<DataRecord>> expired = processor.filterAsync(records, "A", 0.0,
+                    CancellationToken.withTimeout(Duration.ZERO)).join();
+            System.out.println("Expired deadline gives partial result: " +
+                    (!expired.isComplete() && expired.getRowsScanned() == 0));
+            
+            // Cancelling the future stops the scan
+            SlowList slow = new SlowList(records, 400_000);
+            CompletableFuture<Map<String, List<DataRecord>>> topN = processor.findTopNAsync(slow, 3);
+            sleep(50);
+            topN.cancel(true);
+            System.out.println("Cancelled scan stopped: " + slow.stopsBefore(slow.size()));
+            
+            // A deadline returns what was scanned so far
+            slow = new SlowList(records, 400_000);
+            PartialResult<Map<String, Object>> partial =
+                    processor.analyzeAsync(slow, CancellationToken.withTimeout(Duration.ofMillis(50))).join();
+            System.out.println("Deadline partial result consistent: " + (!partial.isComplete() &&
+                    partial.getRowsScanned() > 0 &&
+                    ((Long) partial.getValue().get("count")) == partial.getRowsScanned()));
+            
+            // A failing sibling cancels the others and fails the combined result
+            List<DataRecord> failing = new ArrayList<>(records);
+            failing.set(0, new DataRecord(0, "A", 1.0, LocalDateTime.now(), 1, null, List.of()));
+            SlowList failingSlow = new SlowList(failing, 400_000);
+            long started = System.nanoTime();
+            boolean failed = processor.processMultipleOperationsAsync(failingSlow)
+                    .handle((result, error) -> error != null).join();
+            System.out.println("Sibling failure fails fast: " + (failed &&
+                    System.nanoTime() - started < 2_000_000_000L && failingSlow.stopsBefore(failingSlow.size() * 3L)));
+            
+            // combineResults stops waiting at the first failure
+            slow = new SlowList(records, 400_000);
+            Map<String, Object> combined = processor.combineResults(Arrays.asList(
+                    processor.processAsync(slow),
+                    CompletableFuture.failedFuture(new IllegalStateException("boom")))).join();
+            System.out.println("Combine stopped at failure: " + ("cancelled".equals(combined.get("batch_0_error")) &&
+                    combined.containsKey("batch_1_error") && slow.stopsBefore(slow.size())));
+        } finally {
+            processor.shutdown();
+        }
+    }
+    
+    /**
+     * Test that compact records read back, compare and aggregate like plain records
+     */
+    private void testCompactRecords() {
+        System.out.println("\n--- Testing Compact Records ---");
+        
+        List<DataRecord> plain = new DataGenerator(42).generate(20_000);
+        List<DataRecord> compact = new DataGenerator(42).generateCompact(20_000);
+        System.out.println("Compact records equal plain: " + (compact.equals(plain) && plain.equals(compact) &&
+                compact.hashCode() == plain.hashCode() && compact.get(0) instanceof CompactDataRecord));
+        System.out.println("Tag lists shared: " + compact.stream()
+                .filter(record -> record.getTags().equals(compact.get(0).getTags()))
+                .allMatch(record -> record.getTags() == compact.get(0).getTags()));
+        System.out.println("Compact aggregates match: " +
+                (sameStatistics(advancedProcessor.analyzeByTimeIntervals(compact),
+                        advancedProcessor.analyzeByTimeIntervals(plain)) &&
+                 ids(advancedProcessor.findRecordsWithTags(compact, Arrays.asList("urgent", "high")))
+                        .equals(ids(advancedProcessor.findRecordsWithTags(plain, Arrays.asList("urgent", "high")))) &&
+                 sameStatistics(TimeIndex.of(compact).statistics(), TimeIndex.of(plain).statistics())));
+        
+        // Values the compact form cannot share are kept exactly
+        LocalDateTime precise = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789);
+        List<String> unordered = new ArrayList<>(Arrays.asList("process", "urgent", "urgent"));
+        DataRecord original = new DataRecord(7, "A", 1.5, precise, 2, "ACTIVE", unordered);
+        CompactDataRecord copy = CompactDataRecord.of(original);
+        boolean exact = copy.equals(original) && copy.getTimestamp().equals(precise) &&
+                copy.getTags().equals(unordered);
+        copy.setTimestamp(precise.withNano(0));
+        copy.setTags(null);
+        exact &= copy.getTimestamp().equals(precise.withNano(0)) && copy.getTags() == null &&
+                copy.getEpochSecond() == precise.withNano(0).toEpochSecond(java.time.ZoneOffset.UTC) &&
+                !copy.equals(original);
+        System.out.println("Unshared values kept: " + exact);
+    }
+    
+    /**
+     * Large list reading slowly (1 ms per 1024 rows) and counting reads
+     */
+    private static final class SlowList extends java.util.AbstractList<DataRecord> implements java.util.RandomAccess {
+        private final List<DataRecord> base;
+        private final int size;
+        private final java.util.concurrent.atomic.AtomicLong reads = new java.util.concurrent.atomic.AtomicLong();
+        
+        SlowList(List<DataRecord> base, int size) {
+            this.base = base;
+            this.size = size;
+        }
+        
+        @Override
+        public DataRecord get(int index) {
+            if (reads.incrementAndGet() % 1024 == 0) {
+                sleep(1);
+            }
+            return base.get(index % base.size());
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+        
+        /**
+         * @return true if reads stop (stay unchanged for 50 ms) before reaching the limit
+         */
+        boolean stopsBefore(long limit) {
+            long before;
+            do {
+                before = reads.get();
+                sleep(50);
+            } while (reads.get() != before);
+            return before < limit;
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Compare statistics maps by count, sum, min and max
+     */
+    private <K> boolean sameStatistics(Map<K, DoubleSummaryStatistics> actual, Map<K, DoubleSummaryStatistics> expected) {
+        return actual.keySet().equals(expected.keySet()) && expected.entrySet().stream().allMatch(e -> {
+            DoubleSummaryStatistics a = actual.get(e.getKey());
+            DoubleSummaryStatistics b = e.getValue();
+            return a.getCount() == b.getCount() && a.getMin() == b.getMin() && a.getMax() == b.getMax() &&
+                    Math.abs(a.getSum() - b.getSum()) < 1e-6 * Math.max(1.0, Math.abs(b.getSum()));
+        });
+    }
+    
+    /**
+     * Test window operations against naive recomputation
+     */
+    private void testWindowing() {
+        System.out.println("\n--- Testing WindowProcessor ---");
+        
+        WindowProcessor windows = new WindowProcessor();
+        int n = 500;
+        long[] times = new long[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = i * 600L + (i % 7) * 60L; // roughly every 10 minutes
+            values[i] = (i * 37) % 101;
+        }
+        TimeSeries series = new TimeSeries(times, values);
+        int windowSize = 12;
+        
+        TimeSeries average = windows.movingAverage(series, windowSize);
+        TimeSeries min = windows.movingMin(series, windowSize);
+        TimeSeries max = windows.movingMax(series, windowSize);
+        boolean countWindowsMatch = average.size() == n - windowSize + 1;
+        for (int i = windowSize - 1; i < n && countWindowsMatch; i++) {
+            double sum = 0.0;
+            double lo = Double.MAX_VALUE;
+            double hi = -Double.MAX_VALUE;
+            for (int j = i - windowSize + 1; j <= i; j++) {
+                sum += values[j];
+                lo = Math.min(lo, values[j]);
+                hi = Math.max(hi, values[j]);
+            }
+            int out = i - windowSize + 1;
+            countWindowsMatch = Math.abs(average.getValue(out) - sum / windowSize) < 1e-9 &&
+                    min.getValue(out) == lo && max.getValue(out) == hi;
+        }
+        System.out.println("Count windows (avg/min/max) match: " + countWindowsMatch);
+        
+        Duration hour = Duration.ofHours(1);
+        TimeSeries trailing = windows.movingAverage(series, hour);
+        boolean trailingMatch = true;
+        for (int i = 0; i < n && trailingMatch; i++) {
+            double sum = 0.0;
+            int count = 0;
+            for (int j = 0; j <= i; j++) {
+                if (times[j] > times[i] - hour.getSeconds()) {
+                    sum += values[j];
+                    count++;
+                }
+            }
+            trailingMatch = Math.abs(trailing.getValue(i) - sum / count) < 1e-9;
+        }
+        System.out.println("Time window average matches: " + trailingMatch);
+        
+        TimeSeries hopping = windows.hoppingAverage(series, Duration.ofHours(2), Duration.ofMinutes(30));
+        boolean hoppingMatch = hopping.size() > 0;
+        for (int w = 0; w < hopping.size() && hoppingMatch; w++) {
+            long start = hopping.getEpochSecond(w);
+            double sum = 0.0;
+            int count = 0;
+            for (int j = 0; j < n; j++) {
+                if (times[j] >= start && times[j] < start + 7200) {
+                    sum += values[j];
+                    count++;
+                }
+            }
+            hoppingMatch = count > 0 && Math.abs(hopping.getValue(w) - sum / count) < 1e-9;
+        }
+        System.out.println("Hopping windows match: " + hoppingMatch);
+        System.out.println("Tumbling 1-day windows: " + windows.tumblingAverage(series, Duration.ofDays(1)).size());
+        System.out.println("EWMA last value: " +
+                String.format("%.2f", windows.exponentialMovingAverage(series, 0.2).getValue(n - 1)));
+        
+        // Map keys keep sub-second precision, so records in one second stay apart and can be looked up
+        LocalDateTime second = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+        List<DataRecord> precise = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            precise.add(new DataRecord(i, "A", i, second.plusNanos(i * 100_000_000L), 1, "ACTIVE", null));
+        }
+        Map<LocalDateTime, Double> byTime = advancedProcessor.calculateMovingAverage(precise, 2);
+        System.out.println("Moving average keys found: " + (byTime.size() == 4 &&
+                byTime.get(precise.get(4).getTimestamp()) == 3.5 &&
+                byTime.get(precise.get(1).getTimestamp()) == 0.5));
+        
+        // Columnar series sort rows by time and keep equal times in row order
+        DataRecordTable shuffled = DataRecordTable.from(Arrays.asList(
+                new DataRecord(1, "A", 1.0, second.plusHours(2), 1, "ACTIVE", null),
+                new DataRecord(2, "A", 2.0, second, 1, "ACTIVE", null),
+                new DataRecord(3, "A", 3.0, second.plusHours(2), 1, "ACTIVE", null),
+                new DataRecord(4, "A", 4.0, second.minusYears(200), 1, "ACTIVE", null)));
+        TimeSeries ordered = TimeSeries.of(shuffled);
+        System.out.println("Columnar series ordered: " + (ordered.getValue(0) == 4.0 && ordered.getValue(1) == 2.0 &&
+                ordered.getValue(2) == 1.0 && ordered.getValue(3) == 3.0));
+    }
+    
+    /**
+     * Test that processors give the same results over a memory-mapped segment
+     */
+    private void testMappedSegment(List<DataRecord> testData) {
+        System.out.println("\n--- Testing MappedSegment ---");
+        
+        try {
+            Path path = Files.createTempFile("records", ".seg");
+            try (SegmentWriter writer = SegmentWriter.create(path)) {
+                writer.writeAll(testData.subList(0, 3));
+            }
+            try (SegmentWriter writer = SegmentWriter.append(path)) {
+                writer.writeAll(DataRecordTable.from(testData.subList(3, testData.size())));
+            }
+            MappedSegment segment = MappedSegment.open(path);
+            System.out.println("Segment rows: " + segment.size() + ", round trip matches: " +
+                    ids(segment.toTable().toRecords()).equals(ids(testData)));
+            System.out.println("Statistics match: " +
+                    dataProcessor.calculateAverageByCategory(segment)
+                            .equals(dataProcessor.calculateAverageByCategory(testData)));
+            System.out.println("Status counts match: " +
+                    dataProcessor.countByStatusParallel(segment).equals(dataProcessor.countByStatus(testData)));
+            System.out.println("Tag filter matches: " +
+                    ids(advancedProcessor.findRecordsWithTags(segment, Arrays.asList("urgent")).toRecords())
+                            .equals(ids(advancedProcessor.findRecordsWithTags(testData, Arrays.asList("urgent")))));
+            System.out.println("Correlation matches: " +
+                    (advancedProcessor.calculatePriorityValueCorrelation(segment) ==
+                            advancedProcessor.calculatePriorityValueCorrelation(DataRecordTable.from(testData))));
+            
+            // Snapshot the file after an append has drained rows but not committed them (a crash)
+            Path crashed = Files.createTempFile("records", ".seg");
+            try (SegmentWriter writer = SegmentWriter.append(path)) {
+                writer.writeAll(new DataGenerator(7).generate(20_000));
+                Files.copy(path, crashed, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // Scribble over the uncommitted rows (64-byte header, 32-byte rows)
+            try (FileChannel channel = FileChannel.open(crashed, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[64 * 1024]), 64 + 32L * testData.size());
+            }
+            MappedSegment recovered = MappedSegment.open(crashed);
+            System.out.println("Crashed append keeps committed rows: " + (recovered.size() == testData.size() &&
+                    ids(recovered.toTable().toRecords()).equals(ids(testData))));
+            try (SegmentWriter writer = SegmentWriter.append(crashed)) {
+                writer.writeAll(testData.subList(0, 3));
+            }
+            System.out.println("Append after crash rows: " + MappedSegment.open(crashed).size() +
+                    ", committed append rows: " + MappedSegment.open(path).size());
+            Files.delete(crashed);
+            Files.delete(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Test DataRecordTable variants against the list-based results
+     */
+    private void testColumnarTable(List<DataRecord> testData) {
+        System.out.println("\n--- Testing DataRecordTable ---");
+        
+        DataRecordTable table = DataRecordTable.from(testData);
+        // Timestamps are stored with second precision, so rows are compared by id
+        System.out.println("Table rows: " + table.size() + ", round trip matches: " +
+                ids(table.toRecords()).equals(ids(testData)));
+        
+        System.out.println("Filtered rows match: " +
+                ids(dataProcessor.filterRecords(table, "A", 100.0).toRecords())
+                        .equals(ids(dataProcessor.filterRecords(testData, "A", 100.0))));
+        System.out.println("Status counts match: " +
+                dataProcessor.countByStatusParallel(table).equals(dataProcessor.countByStatus(testData)));
+        System.out.println("Category averages match: " +
+                dataProcessor.calculateAverageByCategory(table)
+                        .equals(dataProcessor.calculateAverageByCategory(testData)));
+        System.out.println("Top-N rows match: " +
+                (advancedProcessor.findTopNByCategory(table, 1).get("B").get(0).getId() ==
+                        advancedProcessor.findTopNByCategory(testData, 1).get("B").get(0).getId()));
+        ValueIndex valueIndex = ValueIndex.of(testData).withScanThreshold(1.0);
+        System.out.println("Value index filter matches: " +
+                dataProcessor.filterRecords(testData, valueIndex, "A", 120.0)
+                        .equals(dataProcessor.filterRecords(testData, "A", 120.0)));
+        System.out.println("Value index range matches: " +
+                advancedProcessor.findRecordsInValueRange(testData, valueIndex, 150.0, 250.0)
+                        .equals(advancedProcessor.findRecordsInValueRange(testData, 150.0, 250.0)));
+        System.out.println("Value index count [100, 200]: " + valueIndex.count(100.0, 200.0));
+        
+        TagIndex index = TagIndex.of(testData);
+        System.out.println("Tag index matches: " +
+                advancedProcessor.findRecordsWithTags(testData, index, Arrays.asList("urgent", "high"))
+                        .equals(advancedProcessor.findRecordsWithTags(testData, Arrays.asList("urgent", "high"))));
+        System.out.println("Tag index OR/NOT rows: " +
+                index.query(Arrays.asList(), Arrays.asList("urgent", "normal"), Arrays.asList("high")));
+        System.out.println("Tag search matches: " +
+                ids(advancedProcessor.findRecordsWithTags(table, Arrays.asList("urgent")).toRecords())
+                        .equals(ids(advancedProcessor.findRecordsWithTags(testData, Arrays.asList("urgent")))));
+        System.out.println("Correlation matches: " +
+                (Math.abs(advancedProcessor.calculatePriorityValueCorrelation(table)
+                        - advancedProcessor.calculatePriorityValueCorrelation(testData)) < 1e-9));
+        
+        // Group-bys accumulate by key code; compare them with the list versions
+        Map<Integer, List<DataRecord>> byPriority = dataProcessor.groupByPriority(testData);
+        System.out.println("Priority groups match: " + (dataProcessor.groupByPriorityParallel(table).entrySet().stream()
+                .allMatch(e -> ids(e.getValue().toRecords()).equals(ids(byPriority.get(e.getKey())))) &&
+                dataProcessor.groupByPriority(table).keySet().equals(byPriority.keySet())));
+        Map<String, List<DataRecord>> inRange = advancedProcessor.findRecordsInValueRange(testData, 150.0, 250.0);
+        System.out.println("Value range groups match: " + advancedProcessor.findRecordsInValueRange(table, 150.0, 250.0)
+                .entrySet().stream()
+                .allMatch(e -> ids(e.getValue().toRecords()).equals(ids(inRange.get(e.getKey())))));
+        System.out.println("Daily groups match: " + sameStatistics(advancedProcessor.analyzeByTimeIntervals(table),
+                advancedProcessor.analyzeByTimeIntervals(testData)));
+        Map<String, Map<String, DoubleSummaryStatistics>> byStatus = advancedProcessor.aggregateByCategoryAndStatus(testData);
+        System.out.println("Category/status groups match: " + advancedProcessor.aggregateByCategoryAndStatus(table)
+                .entrySet().stream()
+                .allMatch(e -> sameStatistics(e.getValue(), byStatus.get(e.getKey()))));
+        
+        // A missing timestamp scans as epoch second 0 but round trips as null
+        DataRecordTable withMissing = DataRecordTable.from(Arrays.asList(
+                new DataRecord(1, "A", 1.0, null, 1, "ACTIVE", null),
+                new DataRecord(2, "A", 2.0, LocalDateTime.of(2024, 3, 1, 12, 0), 1, "ACTIVE", null)));
+        DataRecordTable selected = withMissing.select(new int[] {1, 0});
+        System.out.println("Missing timestamp kept: " + (withMissing.toRecord(0).getTimestamp() == null &&
+                withMissing.getEpochSecond(0) == 0 && withMissing.toRecord(1).getTimestamp() != null &&
+                selected.getTimestamp(1) == null && selected.hasTimestamp(0) &&
+                DataRecordTable.copyRows(withMissing, new int[] {0}).getTimestamp(0) == null));
+    }
+    
+    /**
+     * Extract record ids for order-sensitive comparison
+     */
+    private List<Long> ids(List<DataRecord> records) {
+        return records.stream().map(DataRecord::getId).collect(Collectors.toList());
+    }
+    
     /**
      * Test with larger dataset
      */
@@ -0,0 +1,148 @@
+package kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD NumericKernels on the jdk.incubator.vector API
+ * Each kernel keeps lane-wise accumulators over the species-aligned part of
+ * the range, reduces the lanes once at the end and finishes the tail with
+ * scalar code. Loaded only by Detection, when the module is present.
+ */
+final class VectorKernels implements NumericKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /** null when the preferred species has a single lane (no SIMD to gain) */
+    static final VectorKernels INSTANCE = SPECIES.length() > 1 ? new VectorKernels() : null;
+
+    private VectorKernels() {
+    }
+
+    @Override
+    public double sum(double[] a, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            acc = acc.add(DoubleVector.fromArray(SPECIES, a, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] a, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector acc = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            acc = acc.min(DoubleVector.fromArray(SPECIES, a, i));
+        }
+        double min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] a, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector acc = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            acc = acc.max(DoubleVector.fromArray(SPECIES, a, i));
+        }
+        double max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public double sumOfSquares(double[] a, int from, int to) {
+        return dot(a, a, from, to);
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] a, int from, int to, double center) {
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector c = DoubleVector.broadcast(SPECIES, center);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, a, i).sub(c);
+            acc = d.fma(d, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double d = a[i] - center;
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            acc = DoubleVector.fromArray(SPECIES, a, i).fma(DoubleVector.fromArray(SPECIES, b, i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int countOutside(double[] a, int from, int to, double center, double radius) {
+        int bound = from + SPECIES.loopBound(to - from);
+        int count = 0;
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> outside = DoubleVector.fromArray(SPECIES, a, i)
+                    .sub(center)
+                    .abs()
+                    .compare(VectorOperators.GT, radius);
+            count += outside.trueCount();
+        }
+        for (; i < to; i++) {
+            if (Math.abs(a[i] - center) > radius) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int countBetween(double[] a, int from, int to, double min, double max) {
+        int bound = from + SPECIES.loopBound(to - from);
+        int count = 0;
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, a, i);
+            count += v.compare(VectorOperators.GE, min).and(v.compare(VectorOperators.LE, max)).trueCount();
+        }
+        for (; i < to; i++) {
+            if (a[i] >= min && a[i] <= max) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String getName() {
+        return "vector(" + SPECIES.vectorBitSize() + "-bit, " + SPECIES.length() + " lanes)";
+    }
+}
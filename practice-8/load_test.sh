@@ -0,0 +1,82 @@
+#!/bin/bash
+#
+# Навантажувальний тест пропускної здатності обробки за пріоритетами
+#
+# Використання: ./load_test.sh [мітка] [замовлень на пріоритет] [макс. тривалість, с]
+#
+# Порівняння режимів обробки:
+#   1. mvn spring-boot:run
+#      ./load_test.sh platform
+#   2. Перезапустити застосунок з віртуальними потоками (потрібна Java 21):
+#      mvn spring-boot:run -Dspring-boot.run.arguments=--queue.processing.virtual-threads.enabled=true
+#      ./load_test.sh virtual
+#   3. Результати обох запусків дописуються в load_test_results.csv
+
+LABEL=${1:-run}
+COUNT=${2:-1000}
+MAX_SECONDS=${3:-300}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+RESULTS=${RESULTS:-load_test_results.csv}
+PRIORITIES="URGENT VIP STANDARD BACKGROUND"
+
+# Пропускна здатність рахується до обробки 95% замовлень: останні 5% - це
+# переважно повтори з delay-черг, чий час визначає TTL, а не обробники
+TARGET=$((COUNT * 95 / 100))
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+echo "=== Навантажувальний тест: $LABEL, $COUNT замовлень на пріоритет ==="
+echo ""
+
+curl -s -X POST "$BASE_URL/api/orders/reset" > /dev/null
+
+start=$(now_ms)
+for priority in $PRIORITIES; do
+    curl -s -X POST "$BASE_URL/api/orders/bulk?count=$COUNT&priority=$priority" > /dev/null &
+done
+wait
+echo "Замовлення опубліковано за $(( $(now_ms) - start )) мс"
+
+declare -A reached
+while true; do
+    elapsed=$(( $(now_ms) - start ))
+    stats=$(curl -s "$BASE_URL/api/orders/stats")
+    pending=0
+    line=""
+    for priority in $PRIORITIES; do
+        processed=$(echo "$stats" | jq ".${priority}.totalProcessed // 0")
+        line="$line $priority=$processed"
+        if [ -z "${reached[$priority]}" ]; then
+            if [ "$processed" -ge "$TARGET" ]; then
+                reached[$priority]=$elapsed
+            else
+                pending=1
+            fi
+        fi
+    done
+    echo "  $((elapsed / 1000)) с:$line"
+    if [ $pending -eq 0 ] || [ $elapsed -ge $((MAX_SECONDS * 1000)) ]; then
+        break
+    fi
+    sleep 1
+done
+
+echo ""
+echo "Пріоритет        Час 95%, с      Замовлень/с"
+[ -f "$RESULTS" ] || echo "label,priority,count,seconds_to_95,orders_per_second" > "$RESULTS"
+for priority in $PRIORITIES; do
+    if [ -n "${reached[$priority]}" ]; then
+        seconds=$(awk "BEGIN { printf \"%.1f\", ${reached[$priority]} / 1000 }")
+        rate=$(awk "BEGIN { printf \"%.1f\", $TARGET * 1000 / ${reached[$priority]} }")
+    else
+        seconds="-"
+        rate="-"
+    fi
+    printf "%-12s %14s %16s\n" "$priority" "$seconds" "$rate"
+    echo "$LABEL,$priority,$COUNT,$seconds,$rate" >> "$RESULTS"
+done
+
+echo ""
+echo "Результати дописано в $RESULTS"
@@ -2,6 +2,7 @@ package ua.edu.practice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Головний клас застосунку для обробки замовлень з використанням черг
@@ -14,10 +15,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - Балансування навантаження
  * - Моніторинг та збір метрик
  * - Гарантована обробка повідомлень
+ * - Повторна обробка через delay-черги та parking-lot
  * 
  * @author КН-261; КБ-263
  */
 @SpringBootApplication
+@EnableScheduling
 public class OrderProcessingApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,60 @@
+package ua.edu.practice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Межі споживачів і prefetch контейнерів слухачів за пріоритетами
+ *
+ * Одні й ті самі значення використовують RabbitMQConfig, що створює фабрики
+ * контейнерів, і AdaptiveScalingController, що змінює кількість споживачів
+ * лише в цих межах. Concurrency задається у форматі Spring AMQP "min-max".
+ */
+@Component
+public class ListenerLimits {
+
+    private final Map<OrderPriority, int[]> concurrency = new EnumMap<>(OrderPriority.class);
+    private final Map<OrderPriority, Integer> prefetch = new EnumMap<>(OrderPriority.class);
+
+    public ListenerLimits(@Value("${queue.listeners.urgent.concurrency:3-6}") String urgentConcurrency,
+                          @Value("${queue.listeners.urgent.prefetch:5}") int urgentPrefetch,
+                          @Value("${queue.listeners.vip.concurrency:2-5}") String vipConcurrency,
+                          @Value("${queue.listeners.vip.prefetch:10}") int vipPrefetch,
+                          @Value("${queue.listeners.standard.concurrency:2-4}") String standardConcurrency,
+                          @Value("${queue.listeners.standard.prefetch:20}") int standardPrefetch,
+                          @Value("${queue.listeners.background.concurrency:2-4}") String backgroundConcurrency,
+                          @Value("${queue.listeners.background.prefetch:20}") int backgroundPrefetch) {
+        put(OrderPriority.URGENT, urgentConcurrency, urgentPrefetch);
+        put(OrderPriority.VIP, vipConcurrency, vipPrefetch);
+        put(OrderPriority.STANDARD, standardConcurrency, standardPrefetch);
+        put(OrderPriority.BACKGROUND, backgroundConcurrency, backgroundPrefetch);
+    }
+
+    private void put(OrderPriority priority, String range, int prefetchCount) {
+        String[] bounds = range.split("-");
+        int min = Integer.parseInt(bounds[0].trim());
+        int max = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : min;
+        if (min < 1 || max < min || prefetchCount < 1) {
+            throw new IllegalArgumentException("Invalid listener limits for " + priority + ": "
+                    + range + ", prefetch " + prefetchCount);
+        }
+        concurrency.put(priority, new int[] {min, max});
+        prefetch.put(priority, prefetchCount);
+    }
+
+    public int getConcurrentConsumers(OrderPriority priority) {
+        return concurrency.get(priority)[0];
+    }
+
+    public int getMaxConcurrentConsumers(OrderPriority priority) {
+        return concurrency.get(priority)[1];
+    }
+
+    public int getPrefetchCount(OrderPriority priority) {
+        return prefetch.get(priority);
+    }
+}
@@ -11,6 +11,12 @@ import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import ua.edu.practice.model.OrderPriority;
+import ua.edu.practice.service.DeliveryDispatcher;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Конфігурація RabbitMQ: черги, exchange, routing keys
@@ -18,6 +24,9 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RabbitMQConfig {
 
+    private final RetryTopology retryTopology;
+    private final ListenerLimits listenerLimits;
+
     @Value("${queue.order.exchanges.main}")
     private String mainExchange;
 
@@ -45,17 +54,24 @@ public class RabbitMQConfig {
     @Value("${queue.order.routing-keys.background}")
     private String backgroundRoutingKey;
 
+    public RabbitMQConfig(RetryTopology retryTopology, ListenerLimits listenerLimits) {
+        this.retryTopology = retryTopology;
+        this.listenerLimits = listenerLimits;
+    }
+
     // Exchange
     @Bean
     public TopicExchange orderExchange() {
         return new TopicExchange(mainExchange);
     }
 
-    // Queues з пріоритетами
+    // Queues з пріоритетами; відхилені повідомлення йдуть у parking-lot через DLX пріоритету
     @Bean
     public Queue urgentOrderQueue() {
         return QueueBuilder.durable(urgentQueue)
                 .withArgument("x-max-priority", 10)
+                .deadLetterExchange(retryTopology.deadLetterExchange(OrderPriority.URGENT))
+                .deadLetterRoutingKey(RetryTopology.PARKING_ROUTING_KEY)
                 .build();
     }
 
@@ -63,6 +79,8 @@ public class RabbitMQConfig {
     public Queue vipOrderQueue() {
         return QueueBuilder.durable(vipQueue)
                 .withArgument("x-max-priority", 8)
+                .deadLetterExchange(retryTopology.deadLetterExchange(OrderPriority.VIP))
+                .deadLetterRoutingKey(RetryTopology.PARKING_ROUTING_KEY)
                 .build();
     }
 
@@ -70,6 +88,8 @@ public class RabbitMQConfig {
     public Queue standardOrderQueue() {
         return QueueBuilder.durable(standardQueue)
                 .withArgument("x-max-priority", 5)
+                .deadLetterExchange(retryTopology.deadLetterExchange(OrderPriority.STANDARD))
+                .deadLetterRoutingKey(RetryTopology.PARKING_ROUTING_KEY)
                 .build();
     }
 
@@ -77,6 +97,8 @@ public class RabbitMQConfig {
     public Queue backgroundTaskQueue() {
         return QueueBuilder.durable(backgroundQueue)
                 .withArgument("x-max-priority", 1)
+                .deadLetterExchange(retryTopology.deadLetterExchange(OrderPriority.BACKGROUND))
+                .deadLetterRoutingKey(RetryTopology.PARKING_ROUTING_KEY)
                 .build();
     }
 
@@ -113,6 +135,32 @@ public class RabbitMQConfig {
                 .with(backgroundRoutingKey);
     }
 
+    // Повторна обробка: DLX на пріоритет, delay-черги з TTL, що зростає, і parking-lot
+    @Bean
+    public Declarables retryDeclarables() {
+        List<Declarable> declarables = new ArrayList<>();
+        Queue parkingLot = QueueBuilder.durable(retryTopology.parkingLotQueue()).build();
+        declarables.add(parkingLot);
+
+        for (OrderPriority priority : OrderPriority.values()) {
+            DirectExchange deadLetter = new DirectExchange(retryTopology.deadLetterExchange(priority));
+            declarables.add(deadLetter);
+            declarables.add(BindingBuilder.bind(parkingLot).to(deadLetter).with(RetryTopology.PARKING_ROUTING_KEY));
+
+            for (int stage = 1; stage <= retryTopology.getStageCount(); stage++) {
+                // Без споживачів: після TTL повідомлення повертається в робочу чергу пріоритету
+                Queue delayQueue = QueueBuilder.durable(retryTopology.delayQueue(priority, stage))
+                        .ttl((int) retryTopology.getDelayMillis(stage))
+                        .deadLetterExchange(mainExchange)
+                        .deadLetterRoutingKey(retryTopology.routingKey(priority))
+                        .build();
+                declarables.add(delayQueue);
+                declarables.add(BindingBuilder.bind(delayQueue).to(deadLetter).with(retryTopology.retryRoutingKey(stage)));
+            }
+        }
+        return new Declarables(declarables);
+    }
+
     // Message Converter
     @Bean
     public MessageConverter jsonMessageConverter() {
@@ -122,49 +170,76 @@ public class RabbitMQConfig {
     }
 
     @Bean
+    @Primary
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter());
         return template;
     }
 
+    /**
+     * Окремий шаблон BatchingPublisher: unroutable повідомлення повертаються,
+     * тож вони не вважаються підтвердженими; спільний шаблон лишається без mandatory
+     */
+    @Bean
+    public RabbitTemplate confirmingRabbitTemplate(ConnectionFactory connectionFactory) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(jsonMessageConverter());
+        template.setMandatory(true);
+        return template;
+    }
+
     // Listener Container Factory для urgent orders
     @Bean
     public SimpleRabbitListenerContainerFactory urgentRabbitListenerContainerFactory(
-            ConnectionFactory connectionFactory) {
-        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
-        factory.setConnectionFactory(connectionFactory);
-        factory.setMessageConverter(jsonMessageConverter());
-        factory.setConcurrentConsumers(3);
-        factory.setMaxConcurrentConsumers(6);
-        factory.setPrefetchCount(5);
-        return factory;
+            ConnectionFactory connectionFactory, DeliveryDispatcher deliveryDispatcher) {
+        return listenerContainerFactory(connectionFactory, deliveryDispatcher, OrderPriority.URGENT);
     }
 
     // Listener Container Factory для VIP orders
     @Bean
     public SimpleRabbitListenerContainerFactory vipRabbitListenerContainerFactory(
-            ConnectionFactory connectionFactory) {
-        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
-        factory.setConnectionFactory(connectionFactory);
-        factory.setMessageConverter(jsonMessageConverter());
-        factory.setConcurrentConsumers(2);
-        factory.setMaxConcurrentConsumers(5);
-        factory.setPrefetchCount(10);
-        return factory;
+            ConnectionFactory connectionFactory, DeliveryDispatcher deliveryDispatcher) {
+        return listenerContainerFactory(connectionFactory, deliveryDispatcher, OrderPriority.VIP);
     }
 
     // Listener Container Factory для standard orders
     @Bean
     public SimpleRabbitListenerContainerFactory standardRabbitListenerContainerFactory(
-            ConnectionFactory connectionFactory) {
+            ConnectionFactory connectionFactory, DeliveryDispatcher deliveryDispatcher) {
+        return listenerContainerFactory(connectionFactory, deliveryDispatcher, OrderPriority.STANDARD);
+    }
+
+    // Listener Container Factory для background tasks
+    @Bean
+    public SimpleRabbitListenerContainerFactory backgroundRabbitListenerContainerFactory(
+            ConnectionFactory connectionFactory, DeliveryDispatcher deliveryDispatcher) {
+        return listenerContainerFactory(connectionFactory, deliveryDispatcher, OrderPriority.BACKGROUND);
+    }
+
+    /**
+     * У режимі віртуальних потоків один споживач на чергу лише отримує доставки,
+     * а обробляє їх DeliveryDispatcher; prefetch обмежує кількість замовлень в обробці.
+     * Інакше межі споживачів і prefetch беруться з ListenerLimits
+     */
+    private SimpleRabbitListenerContainerFactory listenerContainerFactory(
+            ConnectionFactory connectionFactory, DeliveryDispatcher deliveryDispatcher, OrderPriority priority) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
-        factory.setConcurrentConsumers(2);
-        factory.setMaxConcurrentConsumers(4);
-        factory.setPrefetchCount(20);
+        // Помилки не повертають повідомлення в чергу: без гарячого циклу повторних доставок
+        factory.setDefaultRequeueRejected(false);
+        if (deliveryDispatcher.isEnabled()) {
+            factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+            factory.setErrorHandler(deliveryDispatcher.errorHandler());
+            factory.setConcurrentConsumers(1);
+            factory.setMaxConcurrentConsumers(1);
+            factory.setPrefetchCount(deliveryDispatcher.getInFlightLimit());
+        } else {
+            factory.setConcurrentConsumers(listenerLimits.getConcurrentConsumers(priority));
+            factory.setMaxConcurrentConsumers(listenerLimits.getMaxConcurrentConsumers(priority));
+            factory.setPrefetchCount(listenerLimits.getPrefetchCount(priority));
+        }
         return factory;
     }
 }
-
@@ -0,0 +1,105 @@
+package ua.edu.practice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Імена та затримки топології повторної обробки замовлень
+ *
+ * Кожен пріоритет має власний dead-letter exchange (order-dlx.urgent, ...).
+ * До нього прив'язані delay-черги retry.1..N з x-message-ttl, що зростає
+ * з номером спроби: прострочене повідомлення повертається через main
+ * exchange у робочу чергу свого пріоритету. Спроби понад N, а також
+ * повідомлення, відхилені брокером, потрапляють у спільну parking-lot чергу.
+ */
+@Component
+public class RetryTopology {
+
+    /** Routing key parking-lot черги в dead-letter exchange */
+    public static final String PARKING_ROUTING_KEY = "parking";
+
+    private final String deadLetterExchange;
+    private final String parkingLotQueue;
+    private final List<Long> delays;
+    private final Map<OrderPriority, String> workQueues = new EnumMap<>(OrderPriority.class);
+    private final Map<OrderPriority, String> routingKeys = new EnumMap<>(OrderPriority.class);
+
+    public RetryTopology(@Value("${queue.order.exchanges.dead-letter}") String deadLetterExchange,
+                         @Value("${queue.order.queues.parking-lot}") String parkingLotQueue,
+                         @Value("${queue.order.retry.delays-ms}") List<Long> delays,
+                         @Value("${queue.order.queues.urgent}") String urgentQueue,
+                         @Value("${queue.order.queues.vip}") String vipQueue,
+                         @Value("${queue.order.queues.standard}") String standardQueue,
+                         @Value("${queue.order.queues.background}") String backgroundQueue,
+                         @Value("${queue.order.routing-keys.urgent}") String urgentRoutingKey,
+                         @Value("${queue.order.routing-keys.vip}") String vipRoutingKey,
+                         @Value("${queue.order.routing-keys.standard}") String standardRoutingKey,
+                         @Value("${queue.order.routing-keys.background}") String backgroundRoutingKey) {
+        this.deadLetterExchange = deadLetterExchange;
+        this.parkingLotQueue = parkingLotQueue;
+        this.delays = List.copyOf(delays);
+        workQueues.put(OrderPriority.URGENT, urgentQueue);
+        workQueues.put(OrderPriority.VIP, vipQueue);
+        workQueues.put(OrderPriority.STANDARD, standardQueue);
+        workQueues.put(OrderPriority.BACKGROUND, backgroundQueue);
+        routingKeys.put(OrderPriority.URGENT, urgentRoutingKey);
+        routingKeys.put(OrderPriority.VIP, vipRoutingKey);
+        routingKeys.put(OrderPriority.STANDARD, standardRoutingKey);
+        routingKeys.put(OrderPriority.BACKGROUND, backgroundRoutingKey);
+    }
+
+    /**
+     * Кількість повторних спроб обробки (delay-черг на пріоритет)
+     */
+    public int getStageCount() {
+        return delays.size();
+    }
+
+    /**
+     * Затримка перед спробою stage (1..getStageCount())
+     */
+    public long getDelayMillis(int stage) {
+        return delays.get(stage - 1);
+    }
+
+    public String deadLetterExchange(OrderPriority priority) {
+        return deadLetterExchange + "." + priority.name().toLowerCase();
+    }
+
+    public String workQueue(OrderPriority priority) {
+        return workQueues.get(priority);
+    }
+
+    public String routingKey(OrderPriority priority) {
+        return routingKeys.get(priority);
+    }
+
+    public String delayQueue(OrderPriority priority, int stage) {
+        return workQueues.get(priority) + ".retry." + stage;
+    }
+
+    public String retryRoutingKey(int stage) {
+        return "retry." + stage;
+    }
+
+    public String parkingLotQueue() {
+        return parkingLotQueue;
+    }
+
+    /**
+     * Імена всіх delay-черг пріоритету в порядку спроб
+     */
+    public List<String> delayQueues(OrderPriority priority) {
+        List<String> queues = new ArrayList<>(delays.size());
+        for (int stage = 1; stage <= delays.size(); stage++) {
+            queues.add(delayQueue(priority, stage));
+        }
+        return queues;
+    }
+}
@@ -1,17 +1,22 @@
 package ua.edu.practice.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ua.edu.practice.model.EnqueueStatus;
 import ua.edu.practice.model.OrderEvent;
 import ua.edu.practice.model.OrderPriority;
 import ua.edu.practice.service.QueueMonitor;
 import ua.edu.practice.service.QueueService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST контролер для управління замовленнями та моніторингу
@@ -45,29 +50,39 @@ public class OrderController {
                 .status("PENDING")
                 .build();
         
-        queueService.enqueueOrder(event);
+        EnqueueStatus status = queueService.enqueueOrder(event);
         
-        log.info("Created order: {} with priority: {}", orderId, request.priority());
+        log.info("Created order: {} with priority: {}, status: {}", orderId, request.priority(), status);
         
         Map<String, Object> response = new HashMap<>();
         response.put("orderId", orderId);
         response.put("priority", request.priority());
-        response.put("status", "ENQUEUED");
+        response.put("status", status);
         response.put("createdAt", event.getCreatedAt());
         
+        // ACCEPTED, PENDING і RETRYING - замовлення прийнято; REJECTED - брокер недоступний і бюджет повторів вичерпано
+        if (status == EnqueueStatus.REJECTED) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
     /**
      * Масове створення замовлень для тестування навантаження
+     * Замовлення публікуються пакетами; відповідь рахує лише ті, що підтвердив брокер
      */
     @PostMapping("/bulk")
     public ResponseEntity<Map<String, Object>> createBulkOrders(
             @RequestParam(defaultValue = "100") int count,
             @RequestParam(defaultValue = "STANDARD") OrderPriority priority) {
         
+        if (count < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "count must not be negative"));
+        }
+
         log.info("Creating {} orders with priority: {}", count, priority);
-        
+
+        List<CompletableFuture<OrderEvent>> confirmations = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
             String orderId = UUID.randomUUID().toString();
             
@@ -85,13 +100,19 @@ public class OrderController {
                     .status("PENDING")
                     .build();
             
-            queueService.enqueueOrder(event);
+            confirmations.add(queueService.enqueueOrderConfirmed(event));
         }
         
+        // Кожен future обмежений тайм-аутом підтвердження, тож очікування скінченне
+        long confirmed = confirmations.stream()
+                .filter(confirmation -> confirmation.handle((order, error) -> error == null).join())
+                .count();
+        
         Map<String, Object> response = new HashMap<>();
-        response.put("created", count);
+        response.put("created", confirmed);
+        response.put("failed", count - confirmed);
         response.put("priority", priority);
-        response.put("status", "ENQUEUED");
+        response.put("status", confirmed == count ? "ENQUEUED" : "PARTIALLY_ENQUEUED");
         
         return ResponseEntity.ok(response);
     }
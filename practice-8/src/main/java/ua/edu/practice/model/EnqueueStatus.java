@@ -0,0 +1,21 @@
+package ua.edu.practice.model;
+
+/**
+ * Результат додавання замовлення в чергу
+ */
+public enum EnqueueStatus {
+    ACCEPTED("Передано брокеру"),
+    PENDING("Брокер не відповів вчасно, публікація завершується у фоні"),
+    RETRYING("Брокер недоступний, заплановано повторну спробу"),
+    REJECTED("Вичерпано спроби або бюджет повторів");
+
+    private final String description;
+
+    EnqueueStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -4,17 +4,19 @@ package ua.edu.practice.model;
  * Енумерація пріоритетів замовлень
  */
 public enum OrderPriority {
-    URGENT(0, "Термінові замовлення"),
-    VIP(1, "VIP-клієнти"),
-    STANDARD(2, "Стандартні замовлення"),
-    BACKGROUND(3, "Фонові задачі");
+    URGENT(0, "Термінові замовлення", 5),
+    VIP(1, "VIP-клієнти", 30),
+    STANDARD(2, "Стандартні замовлення", 120),
+    BACKGROUND(3, "Фонові задачі", Long.MAX_VALUE);
 
     private final int level;
     private final String description;
+    private final long maxWaitSeconds;
 
-    OrderPriority(int level, String description) {
+    OrderPriority(int level, String description, long maxWaitSeconds) {
         this.level = level;
         this.description = description;
+        this.maxWaitSeconds = maxWaitSeconds;
     }
 
     public int getLevel() {
@@ -24,5 +26,16 @@ public enum OrderPriority {
     public String getDescription() {
         return description;
     }
+
+    /**
+     * Максимальний час очікування в черзі (SLA); Long.MAX_VALUE - без обмеження
+     */
+    public long getMaxWaitSeconds() {
+        return maxWaitSeconds;
+    }
+
+    public boolean hasMaxWait() {
+        return maxWaitSeconds != Long.MAX_VALUE;
+    }
 }
 
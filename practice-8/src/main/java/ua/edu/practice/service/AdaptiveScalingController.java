@@ -0,0 +1,264 @@
+package ua.edu.practice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ua.edu.practice.config.ListenerLimits;
+import ua.edu.practice.config.RetryTopology;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Адаптивне масштабування споживачів за відставанням черг
+ *
+ * Кожні queue.scaling.interval-ms мілісекунд для кожного пріоритету рахується
+ * відставання: більше з p95 часу очікування за останні ~30 секунд і часу, за
+ * який поточна глибина черги буде оброблена з поточною швидкістю. Відношення
+ * відставання до SLA пріоритету (OrderPriority.getMaxWaitSeconds) - тиск:
+ * - тиск понад 0.8: стеля споживачів +1; якщо вичерпано
+ *   queue.scaling.max-total-consumers, одиниця стелі забирається в нижчого
+ *   пріоритету, починаючи з BACKGROUND
+ * - тиск нижче 0.3 три цикли поспіль: стеля -1
+ * - поки відстає URGENT, BACKGROUND обмежується одним споживачем; він
+ *   отримує більше, лише коли всі пріоритети з SLA мають тиск нижче 0.5
+ *
+ * Контролер змінює лише maxConcurrentConsumers у межах ListenerLimits, а
+ * власне масштабування SimpleMessageListenerContainer лишається ввімкненим:
+ * контейнер додає споживачів, поки вони зайняті, до стелі і зупиняє зайвих,
+ * коли ті простоюють. Тому знижена стеля діє з першим простоєм споживачів,
+ * а не миттєво. Prefetch не змінюється: контейнер застосовує його лише до
+ * нових споживачів. У режимі віртуальних потоків кількість замовлень в
+ * обробці визначає DeliveryDispatcher, і контролер не втручається.
+ */
+@Service
+@Slf4j
+public class AdaptiveScalingController {
+
+    private static final double LAGGING = 0.8;
+    private static final double RECOVERED = 0.5;
+    private static final double IDLE = 0.3;
+    private static final int IDLE_TICKS_BEFORE_SCALE_DOWN = 3;
+
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final QueueMonitor queueMonitor;
+    private final MetricsCollector metricsCollector;
+    private final RetryTopology retryTopology;
+    private final boolean enabled;
+    private final Map<OrderPriority, Capacity> capacities = new EnumMap<>(OrderPriority.class);
+    private final Map<OrderPriority, Integer> lastProcessed = new EnumMap<>(OrderPriority.class);
+    private long lastSampleNanos = System.nanoTime();
+
+    @Value("${queue.scaling.max-total-consumers:15}")
+    private int maxTotalConsumers;
+
+    public AdaptiveScalingController(RabbitListenerEndpointRegistry listenerRegistry,
+                                     QueueMonitor queueMonitor,
+                                     MetricsCollector metricsCollector,
+                                     RetryTopology retryTopology,
+                                     ListenerLimits listenerLimits,
+                                     DeliveryDispatcher deliveryDispatcher,
+                                     @Value("${queue.scaling.enabled:true}") boolean enabled) {
+        this.listenerRegistry = listenerRegistry;
+        this.queueMonitor = queueMonitor;
+        this.metricsCollector = metricsCollector;
+        this.retryTopology = retryTopology;
+        this.enabled = enabled && !deliveryDispatcher.isEnabled();
+
+        for (OrderPriority priority : OrderPriority.values()) {
+            int concurrent = listenerLimits.getConcurrentConsumers(priority);
+            // BACKGROUND без SLA може поступитися всім, крім одного споживача
+            int min = priority.hasMaxWait() ? concurrent : 1;
+            Capacity capacity = new Capacity(min, concurrent, listenerLimits.getMaxConcurrentConsumers(priority));
+            capacities.put(priority, capacity);
+            lastProcessed.put(priority, 0);
+            metricsCollector.registerListenerCapacity(priority, () -> capacity.limit);
+        }
+        log.info("AdaptiveScalingController initialized, enabled: {}", this.enabled);
+    }
+
+    @Scheduled(fixedDelayString = "${queue.scaling.interval-ms:5000}",
+            initialDelayString = "${queue.scaling.interval-ms:5000}")
+    public void adjust() {
+        if (!enabled) {
+            return;
+        }
+
+        Map<OrderPriority, Double> pressure = samplePressure();
+        boolean urgentLagging = pressure.get(OrderPriority.URGENT) > LAGGING;
+        boolean allRecovered = true;
+
+        // Фонові задачі поступаються першими
+        Capacity background = capacities.get(OrderPriority.BACKGROUND);
+        if (urgentLagging) {
+            background.limit = background.minConsumers;
+        }
+
+        for (OrderPriority priority : OrderPriority.values()) {
+            if (!priority.hasMaxWait()) {
+                continue;
+            }
+            double value = pressure.get(priority);
+            allRecovered &= value < RECOVERED;
+            if (value > LAGGING) {
+                scaleUp(priority);
+            } else if (value < IDLE) {
+                scaleDown(priority);
+            } else {
+                capacities.get(priority).idleTicks = 0;
+            }
+        }
+
+        // BACKGROUND без SLA: росте лише з вільного бюджету, коли решта встигає
+        if (allRecovered && !urgentLagging) {
+            int depth = queueMonitor.getBrokerQueueDepth(retryTopology.workQueue(OrderPriority.BACKGROUND));
+            if (depth > 0 && background.limit < background.maxConsumers
+                    && totalConsumers() < maxTotalConsumers) {
+                background.limit++;
+            } else if (depth <= 0) {
+                background.limit = Math.max(background.minConsumers, background.limit - 1);
+            }
+        }
+
+        capacities.forEach(this::apply);
+    }
+
+    /**
+     * Тиск кожного пріоритету: відставання / SLA (0 для пріоритетів без SLA)
+     */
+    Map<OrderPriority, Double> samplePressure() {
+        long now = System.nanoTime();
+        double elapsedSeconds = Math.max((now - lastSampleNanos) / 1e9, 1e-3);
+        lastSampleNanos = now;
+
+        Map<OrderPriority, Double> pressure = new EnumMap<>(OrderPriority.class);
+        for (OrderPriority priority : OrderPriority.values()) {
+            int processed = queueMonitor.getProcessedCount(priority.name());
+            // Після QueueMonitor.reset лічильник починається з нуля
+            int completed = Math.max(0, processed - lastProcessed.put(priority, processed));
+            double rate = completed / elapsedSeconds;
+            int depth = Math.max(0, queueMonitor.getBrokerQueueDepth(retryTopology.workQueue(priority)));
+
+            if (!priority.hasMaxWait()) {
+                pressure.put(priority, 0.0);
+                continue;
+            }
+            double sla = priority.getMaxWaitSeconds();
+            double drainSeconds = depth == 0 ? 0 : rate > 0 ? depth / rate : sla;
+            double waitP95 = metricsCollector.getWaitTimePercentile(priority, 0.95);
+            double lag = Math.max(Double.isNaN(waitP95) ? 0 : waitP95, drainSeconds);
+            pressure.put(priority, lag / sla);
+
+            log.debug("Priority {}: wait p95 {}s, depth {}, rate {}/s, pressure {}",
+                    priority, String.format("%.2f", waitP95), depth,
+                    String.format("%.1f", rate), String.format("%.2f", lag / sla));
+        }
+        return pressure;
+    }
+
+    /**
+     * Підвищує стелю пріоритету, за потреби забираючи одиницю в нижчого
+     */
+    void scaleUp(OrderPriority priority) {
+        Capacity capacity = capacities.get(priority);
+        capacity.idleTicks = 0;
+        if (capacity.limit < capacity.maxConsumers
+                && (totalConsumers() < maxTotalConsumers || reclaimBelow(priority))) {
+            capacity.limit++;
+        }
+    }
+
+    /**
+     * Знижує стелю пріоритету після IDLE_TICKS_BEFORE_SCALE_DOWN циклів простою
+     */
+    void scaleDown(OrderPriority priority) {
+        Capacity capacity = capacities.get(priority);
+        if (++capacity.idleTicks < IDLE_TICKS_BEFORE_SCALE_DOWN) {
+            return;
+        }
+        capacity.idleTicks = 0;
+        if (capacity.limit > capacity.minConsumers) {
+            capacity.limit--;
+        }
+    }
+
+    /**
+     * Поточна стеля споживачів пріоритету
+     */
+    int consumerLimit(OrderPriority priority) {
+        return capacities.get(priority).limit;
+    }
+
+    /**
+     * Забирає одиницю стелі в найнижчого пріоритету, нижчого за заданий
+     */
+    private boolean reclaimBelow(OrderPriority priority) {
+        OrderPriority[] priorities = OrderPriority.values();
+        for (int i = priorities.length - 1; i > priority.ordinal(); i--) {
+            Capacity lower = capacities.get(priorities[i]);
+            if (lower.limit > lower.minConsumers) {
+                lower.limit--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int totalConsumers() {
+        return capacities.values().stream().mapToInt(capacity -> capacity.limit).sum();
+    }
+
+    /**
+     * Застосовує змінену стелю до контейнера пріоритету
+     * concurrentConsumers не може перевищувати maxConcurrentConsumers, тому
+     * порядок викликів залежить від напрямку зміни
+     */
+    private void apply(OrderPriority priority, Capacity capacity) {
+        if (capacity.limit == capacity.appliedLimit) {
+            return;
+        }
+        MessageListenerContainer listener = listenerRegistry.getListenerContainer(OrderProcessor.listenerId(priority));
+        if (!(listener instanceof SimpleMessageListenerContainer container)) {
+            return;
+        }
+
+        log.info("Scaling {} listener: max consumers {} -> {}", priority, capacity.appliedLimit, capacity.limit);
+
+        int concurrent = Math.min(capacity.concurrentConsumers, capacity.limit);
+        if (concurrent < capacity.appliedConcurrent) {
+            container.setConcurrentConsumers(concurrent);
+            container.setMaxConcurrentConsumers(capacity.limit);
+        } else {
+            container.setMaxConcurrentConsumers(capacity.limit);
+            container.setConcurrentConsumers(concurrent);
+        }
+        capacity.appliedLimit = capacity.limit;
+        capacity.appliedConcurrent = concurrent;
+    }
+
+    /**
+     * Межі, поточна і застосована стеля споживачів контейнера пріоритету
+     */
+    private static final class Capacity {
+        private final int minConsumers;
+        private final int concurrentConsumers;
+        private final int maxConsumers;
+        private volatile int limit;
+        private int appliedLimit = -1;
+        private int appliedConcurrent;
+        private int idleTicks;
+
+        private Capacity(int minConsumers, int concurrentConsumers, int maxConsumers) {
+            this.minConsumers = minConsumers;
+            this.concurrentConsumers = concurrentConsumers;
+            this.maxConsumers = maxConsumers;
+            this.limit = concurrentConsumers;
+            this.appliedConcurrent = concurrentConsumers;
+        }
+    }
+}
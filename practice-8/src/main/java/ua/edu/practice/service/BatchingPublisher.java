@@ -0,0 +1,189 @@
+package ua.edu.practice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ua.edu.practice.model.OrderEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пакетна публікація замовлень з асинхронними підтвердженнями брокера (publisher confirms)
+ *
+ * Події групуються за routing key і відправляються пакетом на одному каналі,
+ * коли пакет досягає queue.processing.batch-size або минає linger-час.
+ * Кожне замовлення публікується з власним CorrelationData, тому ack/nack
+ * брокера зіставляється з конкретним замовленням, а його future завершується
+ * лише після підтвердження (або помилкою при nack, поверненні як unroutable
+ * чи тайм-ауті підтвердження). Якщо пакет обривається посередині, помилкою
+ * одразу завершуються лише невідправлені замовлення; відправлені чекають
+ * свого ack/nack. Публікує через окремий шаблон confirmingRabbitTemplate
+ * з mandatory.
+ */
+@Service
+@Slf4j
+public class BatchingPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final LoadBalancer loadBalancer;
+    private final QueueMonitor queueMonitor;
+    private final MetricsCollector metricsCollector;
+    private final Map<String, List<PendingOrder>> batches = new HashMap<>();
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${queue.order.exchanges.main}")
+    private String mainExchange;
+
+    @Value("${queue.processing.batch-size}")
+    private int batchSize;
+
+    @Value("${queue.processing.linger-ms:5}")
+    private long lingerMillis;
+
+    @Value("${queue.processing.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMillis;
+
+    public BatchingPublisher(@Qualifier("confirmingRabbitTemplate") RabbitTemplate rabbitTemplate,
+                             LoadBalancer loadBalancer,
+                             QueueMonitor queueMonitor,
+                             MetricsCollector metricsCollector) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.loadBalancer = loadBalancer;
+        this.queueMonitor = queueMonitor;
+        this.metricsCollector = metricsCollector;
+    }
+
+    /**
+     * Додає замовлення до пакета його routing key
+     * @return future, що завершується замовленням після підтвердження брокером
+     */
+    public CompletableFuture<OrderEvent> publish(OrderEvent event) {
+        String routingKey = loadBalancer.determineRoutingKey(event.getPriority());
+        PendingOrder order = new PendingOrder(event, new CompletableFuture<>());
+        List<PendingOrder> full = null;
+
+        synchronized (batches) {
+            List<PendingOrder> batch = batches.computeIfAbsent(routingKey, key -> new ArrayList<>(batchSize));
+            batch.add(order);
+            if (batch.size() >= batchSize) {
+                full = batches.remove(routingKey);
+            } else if (batch.size() == 1) {
+                // Перше замовлення пакета запускає linger-таймер; якщо пакет уже пішов
+                // за розміром, таймер лише раніше відправить наступний пакет
+                publisher.schedule(() -> flush(routingKey), lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full != null) {
+            List<PendingOrder> toSend = full;
+            publisher.execute(() -> send(routingKey, toSend));
+        }
+        return order.confirmed().orTimeout(confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Відправляє накопичений пакет routing key, не чекаючи заповнення
+     */
+    private void flush(String routingKey) {
+        List<PendingOrder> batch;
+        synchronized (batches) {
+            batch = batches.remove(routingKey);
+        }
+        if (batch != null) {
+            send(routingKey, batch);
+        }
+    }
+
+    /**
+     * Публікує пакет на одному каналі; підтвердження приходять асинхронно
+     */
+    private void send(String routingKey, List<PendingOrder> batch) {
+        AtomicInteger sent = new AtomicInteger();
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingOrder order : batch) {
+                    OrderEvent event = order.event();
+                    int priority = loadBalancer.determinePriority(event.getPriority());
+                    CorrelationData correlation = new CorrelationData(event.getOrderId());
+                    correlation.getFuture().whenComplete((confirm, error) -> {
+                        if (error == null && confirm.isAck() && correlation.getReturned() == null) {
+                            confirmed(order);
+                        } else {
+                            String reason = error != null ? error.getMessage()
+                                    : correlation.getReturned() != null
+                                    ? "unroutable: " + correlation.getReturned().getReplyText()
+                                    : confirm.getReason();
+                            rejected(order, new AmqpException("Broker rejected order "
+                                    + event.getOrderId() + ": " + reason));
+                        }
+                    });
+                    operations.convertAndSend(mainExchange, routingKey, event, message -> {
+                        message.getMessageProperties().setPriority(priority);
+                        return message;
+                    }, correlation);
+                    sent.incrementAndGet();
+                }
+                return null;
+            });
+            metricsCollector.recordPublishBatch(routingKey, batch.size());
+            log.debug("Published batch of {} orders to routing key: {}", batch.size(), routingKey);
+        } catch (Exception e) {
+            // Відправлені замовлення завершить їхній ack/nack (закритий канал nack-ає очікувані)
+            List<PendingOrder> unsent = batch.subList(sent.get(), batch.size());
+            log.error("Failed to publish {} of {} orders to routing key: {}",
+                    unsent.size(), batch.size(), routingKey, e);
+            unsent.forEach(order -> rejected(order, e));
+        }
+    }
+
+    private void confirmed(PendingOrder order) {
+        if (order.confirmed().complete(order.event())) {
+            queueMonitor.recordEnqueue(order.event());
+            metricsCollector.recordEnqueue(order.event());
+            log.debug("Broker confirmed order: {}", order.event().getOrderId());
+        }
+    }
+
+    private void rejected(PendingOrder order, Exception e) {
+        if (order.confirmed().completeExceptionally(e)) {
+            log.warn("Order {} was not confirmed: {}", order.event().getOrderId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Відправляє всі неповні пакети перед зупинкою застосунку
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        List<String> routingKeys;
+        synchronized (batches) {
+            routingKeys = new ArrayList<>(batches.keySet());
+        }
+        routingKeys.forEach(routingKey -> publisher.execute(() -> flush(routingKey)));
+        publisher.shutdown();
+        publisher.awaitTermination(confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Замовлення в пакеті та future його підтвердження
+     */
+    private record PendingOrder(OrderEvent event, CompletableFuture<OrderEvent> confirmed) {
+    }
+}
@@ -0,0 +1,88 @@
+package ua.edu.practice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker навколо публікації в RabbitMQ
+ *
+ * Після failure-threshold помилок поспіль публікації не виконуються open-ms
+ * мілісекунд, тож потоки запитів не чекають на недоступний брокер. Потім
+ * пропускається одна пробна публікація: успіх закриває breaker, помилка
+ * відкриває його знову.
+ */
+@Service
+@Slf4j
+public class BrokerCircuitBreaker {
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long changedAt;
+
+    public BrokerCircuitBreaker(@Value("${queue.processing.retry.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                @Value("${queue.processing.retry.circuit-breaker.open-ms:5000}") long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Чи можна зараз публікувати
+     * У стані HALF_OPEN дозволяє лише одну пробну публікацію; якщо її результат
+     * не надійшов за open-ms, дозволяє наступну
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (System.nanoTime() - changedAt < openNanos) {
+            return false;
+        }
+        if (state == State.OPEN) {
+            log.info("Broker circuit half-open, probing with one publish");
+        }
+        state = State.HALF_OPEN;
+        changedAt = System.nanoTime();
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Broker circuit closed after successful publish");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Broker circuit opened after {} consecutive failures", consecutiveFailures);
+            }
+            state = State.OPEN;
+            changedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Скільки мілісекунд breaker ще лишатиметься відкритим (0, якщо закритий)
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (state == State.CLOSED) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openNanos - (System.nanoTime() - changedAt)));
+    }
+
+    public synchronized boolean isOpen() {
+        return state != State.CLOSED;
+    }
+}
@@ -0,0 +1,201 @@
+package ua.edu.practice.service;
+
+import com.rabbitmq.client.Channel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ErrorHandler;
+import ua.edu.practice.model.OrderPriority;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Виконання доставок з черг у режимі віртуальних потоків
+ *
+ * За замовчуванням доставка обробляється в потоці контейнера, і кількість
+ * замовлень в обробці обмежена кількістю споживачів. З увімкненим
+ * queue.processing.virtual-threads.enabled кожна доставка виконується у
+ * власному віртуальному потоці, а потік контейнера одразу бере наступну.
+ * Ack або nack надсилається вручну, коли завершується future обробки (для
+ * невдалого замовлення - після confirm брокера на його повтор), тож брокер
+ * тримає не більше prefetch непідтверджених повідомлень на чергу; семафор
+ * з тим самим лімітом захищає від перевищення на боці застосунку.
+ * Доставку, що не дійшла до dispatch (наприклад, через помилку конвертації
+ * payload), відхиляє errorHandler контейнера, інакше вона лишилася б без ack.
+ * Віртуальні потоки потребують Java 21; на Java 17 використовуються
+ * звичайні потоки з тим самим лімітом.
+ */
+@Service
+@Slf4j
+public class DeliveryDispatcher {
+
+    private final boolean enabled;
+    private final int inFlightLimit;
+    private final Map<OrderPriority, Semaphore> inFlight = new EnumMap<>(OrderPriority.class);
+    private final ExecutorService workers;
+
+    public DeliveryDispatcher(MetricsCollector metricsCollector,
+                              @Value("${queue.processing.virtual-threads.enabled:false}") boolean enabled,
+                              @Value("${queue.processing.virtual-threads.in-flight:250}") int inFlightLimit) {
+        this.enabled = enabled;
+        this.inFlightLimit = inFlightLimit;
+        this.workers = enabled ? newWorkerExecutor() : null;
+
+        for (OrderPriority priority : OrderPriority.values()) {
+            Semaphore permits = new Semaphore(inFlightLimit);
+            inFlight.put(priority, permits);
+            metricsCollector.registerInFlight(priority, () -> inFlightLimit - permits.availablePermits());
+        }
+        log.info("DeliveryDispatcher initialized, virtual threads: {}, in-flight limit: {}", enabled, inFlightLimit);
+    }
+
+    /**
+     * Чи працюють контейнери в режимі ручного ack з окремими потоками обробки
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ліміт замовлень в обробці на чергу; RabbitMQConfig використовує його як prefetch
+     */
+    public int getInFlightLimit() {
+        return inFlightLimit;
+    }
+
+    /**
+     * Обробник помилок контейнера в режимі ручного ack
+     * Виняток доходить до контейнера, лише якщо доставку не передано dispatch
+     * (конвертація payload, виклик методу слухача) - вона ще не підтверджена,
+     * тож контейнер відхиляє її без повернення в чергу, і DLX переносить її в
+     * parking-lot. Без rejectManual контейнер у режимі MANUAL не надсилає нічого,
+     * і доставка займає місце в prefetch до закриття каналу.
+     */
+    public ErrorHandler errorHandler() {
+        return error -> {
+            throw new AmqpRejectAndDontRequeueException("Delivery failed before dispatch", true, error);
+        };
+    }
+
+    /**
+     * Обробляє доставку
+     * work повертає future, що завершується, коли доставку можна підтвердити.
+     * Без віртуальних потоків потік контейнера чекає на нього (auto ack);
+     * інакше work виконується в окремому потоці, а ack або nack надсилається з
+     * колбеку future, тож ні потік контейнера, ні робочий потік не чекають
+     * confirm брокера. Виняток з work або future означає nack без повернення
+     * в чергу - повідомлення йде в DLX черги
+     */
+    public void dispatch(OrderPriority priority, Channel channel, long deliveryTag,
+                         Supplier<CompletableFuture<?>> work) {
+        if (!enabled) {
+            try {
+                work.get().join();
+            } catch (CompletionException e) {
+                // Контейнер відхиляє доставку за винятком обробки, а не за обгорткою future
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+            return;
+        }
+
+        Semaphore permits = inFlight.get(priority);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            basicNack(channel, deliveryTag, true);
+            return;
+        }
+
+        try {
+            workers.execute(() -> {
+                CompletableFuture<?> outcome;
+                try {
+                    outcome = work.get();
+                } catch (Exception e) {
+                    outcome = CompletableFuture.failedFuture(e);
+                }
+                // Для повтору колбек виконується в потоці, що отримав confirm; basicAck його не блокує
+                outcome.whenComplete((result, error) -> {
+                    try {
+                        if (error == null) {
+                            basicAck(channel, deliveryTag);
+                        } else {
+                            log.error("Delivery {} failed, rejecting to dead-letter exchange", deliveryTag, error);
+                            basicNack(channel, deliveryTag, false);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            // Застосунок зупиняється: доставку вже nack-нуто, тож виняток не йде в errorHandler
+            log.warn("Workers shut down, returning delivery {} to the queue", deliveryTag);
+            permits.release();
+            basicNack(channel, deliveryTag, true);
+        }
+    }
+
+    private void basicAck(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException | RuntimeException e) {
+            // Канал закрито: брокер повторно доставить повідомлення іншому споживачу
+            log.warn("Could not ack delivery {}: {}", deliveryTag, e.getMessage());
+        }
+    }
+
+    private void basicNack(Channel channel, long deliveryTag, boolean requeue) {
+        try {
+            channel.basicNack(deliveryTag, false, requeue);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not nack delivery {}: {}", deliveryTag, e.getMessage());
+        }
+    }
+
+    /**
+     * Віртуальний потік на задачу на Java 21+, інакше пул звичайних потоків
+     * Кількість задач обмежена семафорами, тому пул не росте понад 4 * in-flight
+     */
+    private static ExecutorService newWorkerExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads require Java 21, using platform threads for order processing");
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "order-worker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (workers != null) {
+            // Непідтверджені доставки брокер поверне в черги після закриття каналів
+            workers.shutdown();
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package ua.edu.practice.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ua.edu.practice.model.OrderEvent;
+import ua.edu.practice.model.OrderPriority;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Збір метрик продуктивності системи
@@ -96,12 +103,48 @@ public class MetricsCollector {
         log.error("Error processing order: {}", event.getOrderId(), e);
     }
 
+    public void recordWaitTime(OrderPriority priority, Duration waitTime) {
+        waitTimer(priority).record(waitTime);
+    }
+
+    /**
+     * Перцентиль часу очікування за останні ~30 секунд
+     * @param percentile одне з 0.5, 0.95, 0.99
+     * @return секунди (0, якщо замовлень не було), або NaN для іншого перцентиля
+     */
+    public double getWaitTimePercentile(OrderPriority priority, double percentile) {
+        for (ValueAtPercentile value : waitTimer(priority).takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.SECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private Timer waitTimer(OrderPriority priority) {
+        return Timer.builder("orders.wait.time")
+                .tag("priority", priority.name())
+                .description("Час очікування замовлення в черзі")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .distributionStatisticExpiry(Duration.ofSeconds(30))
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+    }
+
     public void recordQueueSize(String queueName, int size) {
         meterRegistry.gauge("queue.size", 
                 java.util.Collections.singletonList(io.micrometer.core.instrument.Tag.of("queue", queueName)), 
                 size);
     }
 
+    public void recordPublishBatch(String routingKey, int size) {
+        DistributionSummary.builder("orders.publish.batch.size")
+                .tag("routing_key", routingKey)
+                .description("Розмір пакетів, опублікованих з publisher confirms")
+                .register(meterRegistry)
+                .record(size);
+    }
+
     public void recordRetry(OrderEvent event) {
         Counter.builder("orders.retried")
                 .tag("priority", event.getPriority().name())
@@ -113,5 +156,59 @@ public class MetricsCollector {
         log.debug("Retry recorded for order: {} (attempt: {})", 
                 event.getOrderId(), event.getRetryCount());
     }
+
+    public void recordPublishRetry(OrderEvent event, int attempt) {
+        Counter.builder("orders.publish.retried")
+                .tag("priority", event.getPriority().name())
+                .tag("attempt", String.valueOf(attempt))
+                .description("Повторні спроби публікації в брокер")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordParked(OrderEvent event) {
+        Counter.builder("orders.parked")
+                .tag("priority", event.getPriority().name())
+                .description("Замовлення, перенесені в parking-lot після вичерпання повторів")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void registerQueueDepth(String name, String queueName, String priority, AtomicInteger depth) {
+        Gauge.builder(name, depth, AtomicInteger::get)
+                .tag("queue", queueName)
+                .tag("priority", priority)
+                .description("Кількість повідомлень у черзі брокера")
+                .register(meterRegistry);
+    }
+
+    public void registerInFlight(OrderPriority priority, Supplier<Number> inFlight) {
+        Gauge.builder("orders.inflight", inFlight)
+                .tag("priority", priority.name())
+                .description("Замовлення в обробці без ack (режим віртуальних потоків)")
+                .register(meterRegistry);
+    }
+
+    public void registerListenerCapacity(OrderPriority priority, Supplier<Number> maxConsumers) {
+        Gauge.builder("orders.listener.consumers.max", maxConsumers)
+                .tag("priority", priority.name())
+                .description("Стеля споживачів контейнера, задана AdaptiveScalingController")
+                .register(meterRegistry);
+    }
+
+    public void recordRetryRejected(OrderEvent event) {
+        Counter.builder("orders.retry.rejected")
+                .tag("priority", event.getPriority().name())
+                .description("Замовлення, відхилені через вичерпаний бюджет повторів")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void registerPendingRetries(OrderPriority priority, AtomicInteger pending) {
+        Gauge.builder("orders.retry.pending", pending, AtomicInteger::get)
+                .tag("priority", priority.name())
+                .description("Замовлення, що чекають повторної публікації")
+                .register(meterRegistry);
+    }
 }
 
@@ -1,28 +1,64 @@
 package ua.edu.practice.service;
 
+import com.rabbitmq.client.Channel;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
+import ua.edu.practice.config.RetryTopology;
 import ua.edu.practice.model.OrderEvent;
 import ua.edu.practice.model.OrderPriority;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Обробник замовлень з різних черг
+ * Доставки виконуються через DeliveryDispatcher: у потоці контейнера або,
+ * в режимі віртуальних потоків, в окремому потоці з ручним ack
  */
 @Service
 @Slf4j
 public class OrderProcessor {
 
+    /** Ідентифікатори контейнерів у RabbitListenerEndpointRegistry */
+    public static final String URGENT_LISTENER_ID = "urgentOrderListener";
+    public static final String VIP_LISTENER_ID = "vipOrderListener";
+    public static final String STANDARD_LISTENER_ID = "standardOrderListener";
+    public static final String BACKGROUND_LISTENER_ID = "backgroundTaskListener";
+
     private final QueueMonitor queueMonitor;
     private final MetricsCollector metricsCollector;
+    private final RabbitTemplate rabbitTemplate;
+    private final RetryTopology retryTopology;
+    private final LoadBalancer loadBalancer;
+    private final DeliveryDispatcher deliveryDispatcher;
+
+    @Value("${queue.processing.retry-confirm-timeout-ms:1000}")
+    private long confirmTimeoutMillis;
 
-    public OrderProcessor(QueueMonitor queueMonitor, MetricsCollector metricsCollector) {
+    public OrderProcessor(QueueMonitor queueMonitor,
+                          MetricsCollector metricsCollector,
+                          @Qualifier("confirmingRabbitTemplate") RabbitTemplate rabbitTemplate,
+                          RetryTopology retryTopology,
+                          LoadBalancer loadBalancer,
+                          DeliveryDispatcher deliveryDispatcher) {
         this.queueMonitor = queueMonitor;
         this.metricsCollector = metricsCollector;
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryTopology = retryTopology;
+        this.loadBalancer = loadBalancer;
+        this.deliveryDispatcher = deliveryDispatcher;
     }
 
     /**
@@ -30,12 +66,15 @@ public class OrderProcessor {
      * Максимальний час очікування: 5 секунд
      */
     @RabbitListener(
+            id = URGENT_LISTENER_ID,
             queues = "${queue.order.queues.urgent}",
             containerFactory = "urgentRabbitListenerContainerFactory"
     )
-    public void processUrgentOrder(OrderEvent event) {
+    public void processUrgentOrder(OrderEvent event, Channel channel,
+                                   @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
         log.info("Processing URGENT order: {}", event.getOrderId());
-        processOrderWithPriority(event, OrderPriority.URGENT);
+        deliveryDispatcher.dispatch(OrderPriority.URGENT, channel, deliveryTag,
+                () -> processOrderWithPriority(event, OrderPriority.URGENT));
     }
 
     /**
@@ -43,12 +82,15 @@ public class OrderProcessor {
      * Максимальний час очікування: 30 секунд
      */
     @RabbitListener(
+            id = VIP_LISTENER_ID,
             queues = "${queue.order.queues.vip}",
             containerFactory = "vipRabbitListenerContainerFactory"
     )
-    public void processVipOrder(OrderEvent event) {
+    public void processVipOrder(OrderEvent event, Channel channel,
+                                @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
         log.info("Processing VIP order: {}", event.getOrderId());
-        processOrderWithPriority(event, OrderPriority.VIP);
+        deliveryDispatcher.dispatch(OrderPriority.VIP, channel, deliveryTag,
+                () -> processOrderWithPriority(event, OrderPriority.VIP));
     }
 
     /**
@@ -56,30 +98,49 @@ public class OrderProcessor {
      * Максимальний час очікування: 2 хвилини
      */
     @RabbitListener(
+            id = STANDARD_LISTENER_ID,
             queues = "${queue.order.queues.standard}",
             containerFactory = "standardRabbitListenerContainerFactory"
     )
-    public void processStandardOrder(OrderEvent event) {
+    public void processStandardOrder(OrderEvent event, Channel channel,
+                                     @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
         log.info("Processing STANDARD order: {}", event.getOrderId());
-        processOrderWithPriority(event, OrderPriority.STANDARD);
+        deliveryDispatcher.dispatch(OrderPriority.STANDARD, channel, deliveryTag,
+                () -> processOrderWithPriority(event, OrderPriority.STANDARD));
     }
 
     /**
      * Обробка фонових задач (низький пріоритет)
      */
     @RabbitListener(
+            id = BACKGROUND_LISTENER_ID,
             queues = "${queue.order.queues.background}",
-            containerFactory = "standardRabbitListenerContainerFactory"
+            containerFactory = "backgroundRabbitListenerContainerFactory"
     )
-    public void processBackgroundTask(OrderEvent event) {
+    public void processBackgroundTask(OrderEvent event, Channel channel,
+                                      @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
         log.info("Processing BACKGROUND task: {}", event.getOrderId());
-        processOrderWithPriority(event, OrderPriority.BACKGROUND);
+        deliveryDispatcher.dispatch(OrderPriority.BACKGROUND, channel, deliveryTag,
+                () -> processOrderWithPriority(event, OrderPriority.BACKGROUND));
+    }
+
+    /**
+     * Ідентифікатор контейнера, що споживає чергу пріоритету
+     */
+    public static String listenerId(OrderPriority priority) {
+        return switch (priority) {
+            case URGENT -> URGENT_LISTENER_ID;
+            case VIP -> VIP_LISTENER_ID;
+            case STANDARD -> STANDARD_LISTENER_ID;
+            case BACKGROUND -> BACKGROUND_LISTENER_ID;
+        };
     }
 
     /**
      * Основна логіка обробки замовлення
+     * @return future, після завершення якого доставку можна підтвердити
      */
-    private void processOrderWithPriority(OrderEvent event, OrderPriority priority) {
+    private CompletableFuture<Void> processOrderWithPriority(OrderEvent event, OrderPriority priority) {
         LocalDateTime startTime = LocalDateTime.now();
         
         try {
@@ -99,11 +160,12 @@ public class OrderProcessor {
             Duration processingTime = Duration.between(startTime, LocalDateTime.now());
             log.info("Successfully processed order: {} with priority: {} in {} ms",
                     event.getOrderId(), priority, processingTime.toMillis());
+            return CompletableFuture.completedFuture(null);
             
         } catch (Exception e) {
             log.error("Error processing order: {} with priority: {}", 
                     event.getOrderId(), priority, e);
-            handleProcessingError(event, e);
+            return handleProcessingError(event, priority, e);
         }
     }
 
@@ -114,12 +176,12 @@ public class OrderProcessor {
         Duration waitingTime = Duration.between(event.getCreatedAt(), LocalDateTime.now());
         long waitingSeconds = waitingTime.getSeconds();
         
-        long maxWaitingSeconds = switch (priority) {
-            case URGENT -> 5;
-            case VIP -> 30;
-            case STANDARD -> 120;
-            case BACKGROUND -> Long.MAX_VALUE;
-        };
+        long maxWaitingSeconds = priority.getMaxWaitSeconds();
+        
+        // Повтори чекали ще й у delay-черзі, тож у статистику очікування не йдуть
+        if (event.getRetryCount() == 0) {
+            metricsCollector.recordWaitTime(priority, waitingTime);
+        }
         
         if (waitingSeconds > maxWaitingSeconds) {
             log.warn("Order {} exceeded maximum waiting time: {} seconds (max: {} seconds)",
@@ -156,15 +218,90 @@ public class OrderProcessor {
 
     /**
      * Обробка помилки
+     * Замовлення з retryCount < N публікується в delay-чергу retry.(retryCount + 1)
+     * dead-letter exchange свого пріоритету і повернеться в робочу чергу після TTL;
+     * потік споживача не чекає на TTL, а інші замовлення не затримуються. Після N
+     * спроб замовлення потрапляє в parking-lot для ручного розбору.
+     * Повернутий future завершується після ack брокера на копію, і лише тоді
+     * DeliveryDispatcher підтверджує оригінал. Якщо копію не підтверджено (nack,
+     * unroutable або тайм-аут queue.processing.retry-confirm-timeout-ms), future
+     * завершується з AmqpRejectAndDontRequeueException: оригінал відхиляється
+     * без повторної доставки, і DLX робочої черги переносить його в parking-lot,
+     * тож замовлення не губиться між двома чергами.
      */
-    private void handleProcessingError(OrderEvent event, Exception e) {
-        event.setStatus("FAILED");
+    CompletableFuture<Void> handleProcessingError(OrderEvent event, OrderPriority priority, Exception e) {
         metricsCollector.recordProcessingError(event, e);
-        queueMonitor.recordDequeue(event);
-        
-        // В реальній системі тут може бути логіка повторної спроби
-        // або відправка в dead-letter queue
-        log.error("Order {} processing failed: {}", event.getOrderId(), e.getMessage());
+
+        boolean retry = event.getRetryCount() < retryTopology.getStageCount();
+        if (retry) {
+            event.setRetryCount(event.getRetryCount() + 1);
+            event.setStatus("RETRYING");
+        } else {
+            event.setStatus("FAILED");
+        }
+        String routingKey = retry
+                ? retryTopology.retryRoutingKey(event.getRetryCount())
+                : RetryTopology.PARKING_ROUTING_KEY;
+
+        return publishConfirmed(retryTopology.deadLetterExchange(priority), routingKey, event, priority)
+                .handle((confirmed, publishError) -> {
+                    if (publishError != null) {
+                        event.setStatus("FAILED");
+                        queueMonitor.recordDequeue(event);
+                        metricsCollector.recordParked(event);
+                        // Брокер відхилить оригінал без повторної доставки, і DLX черги перенесе його в parking-lot
+                        throw new AmqpRejectAndDontRequeueException("Failed to route order " + event.getOrderId()
+                                + " for retry", publishError);
+                    }
+
+                    if (retry) {
+                        metricsCollector.recordRetry(event);
+                        log.warn("Order {} will be retried in {} ms (attempt {})", event.getOrderId(),
+                                retryTopology.getDelayMillis(event.getRetryCount()), event.getRetryCount());
+                    } else {
+                        queueMonitor.recordDequeue(event);
+                        metricsCollector.recordParked(event);
+                        log.error("Order {} processing failed after {} retries, parking: {}",
+                                event.getOrderId(), event.getRetryCount(), e.getMessage());
+                    }
+                    return null;
+                });
     }
-}
 
+    /**
+     * Публікує копію замовлення без очікування publisher confirm
+     * Future завершується з AmqpException, якщо публікація не вдалася, брокер
+     * відповів nack, повернув повідомлення як unroutable або не підтвердив його
+     * за confirmTimeoutMillis
+     */
+    private CompletableFuture<Void> publishConfirmed(String exchange, String routingKey, OrderEvent event,
+                                                     OrderPriority priority) {
+        CorrelationData correlation = new CorrelationData(event.getOrderId());
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, event, message -> {
+                message.getMessageProperties().setPriority(loadBalancer.determinePriority(priority));
+                return message;
+            }, correlation);
+        } catch (AmqpException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> confirmed = new CompletableFuture<>();
+        correlation.getFuture().whenComplete((confirm, error) -> {
+            if (error != null) {
+                confirmed.completeExceptionally(new AmqpException("Confirm failed", error));
+            } else if (correlation.getReturned() != null) {
+                // Брокер надсилає basic.return раніше за ack, тож returned уже заповнений
+                confirmed.completeExceptionally(
+                        new AmqpException("Unroutable: " + correlation.getReturned().getReplyText()));
+            } else if (!confirm.isAck()) {
+                confirmed.completeExceptionally(new AmqpException("Nacked by broker: " + confirm.getReason()));
+            } else {
+                confirmed.complete(null);
+            }
+        });
+        CompletableFuture.delayedExecutor(confirmTimeoutMillis, TimeUnit.MILLISECONDS).execute(() ->
+                confirmed.completeExceptionally(new AmqpException("No confirm within " + confirmTimeoutMillis + " ms")));
+        return confirmed;
+    }
+}
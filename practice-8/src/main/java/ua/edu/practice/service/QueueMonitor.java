@@ -1,8 +1,14 @@
 package ua.edu.practice.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import ua.edu.practice.config.RetryTopology;
 import ua.edu.practice.model.OrderEvent;
+import ua.edu.practice.model.OrderPriority;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,11 +22,55 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class QueueMonitor {
 
     private final MetricsCollector metricsCollector;
+    private final AmqpAdmin amqpAdmin;
     private final Map<String, AtomicInteger> queueSizes = new ConcurrentHashMap<>();
     private final Map<String, AtomicInteger> processedCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> brokerDepths = new ConcurrentHashMap<>();
 
-    public QueueMonitor(MetricsCollector metricsCollector) {
+    public QueueMonitor(MetricsCollector metricsCollector, AmqpAdmin amqpAdmin, RetryTopology retryTopology) {
         this.metricsCollector = metricsCollector;
+        this.amqpAdmin = amqpAdmin;
+
+        for (OrderPriority priority : OrderPriority.values()) {
+            registerBrokerQueue("orders.queue.depth", retryTopology.workQueue(priority), priority.name());
+            for (String queue : retryTopology.delayQueues(priority)) {
+                registerBrokerQueue("orders.retry.queue.depth", queue, priority.name());
+            }
+        }
+        registerBrokerQueue("orders.parking-lot.depth", retryTopology.parkingLotQueue(), "ALL");
+    }
+
+    private void registerBrokerQueue(String metric, String queue, String priority) {
+        AtomicInteger depth = new AtomicInteger();
+        brokerDepths.put(queue, depth);
+        metricsCollector.registerQueueDepth(metric, queue, priority, depth);
+    }
+
+    /**
+     * Періодично зчитує глибину робочих, delay- та parking-lot черг з брокера
+     * Лічильники вище рахують лише події цього застосунку, а повідомлення в
+     * delay-чергах переміщує сам брокер
+     */
+    @Scheduled(fixedDelayString = "${queue.monitor.sample-interval-ms:5000}")
+    public void sampleBrokerQueues() {
+        brokerDepths.forEach((queue, depth) -> {
+            try {
+                QueueInformation info = amqpAdmin.getQueueInfo(queue);
+                if (info != null) {
+                    depth.set(info.getMessageCount());
+                }
+            } catch (AmqpException e) {
+                log.debug("Could not sample queue {}: {}", queue, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Остання зчитана глибина черги брокера (-1, якщо черга не відстежується)
+     */
+    public int getBrokerQueueDepth(String queueName) {
+        AtomicInteger depth = brokerDepths.get(queueName);
+        return depth != null ? depth.get() : -1;
     }
 
     /**
@@ -1,12 +1,25 @@
 package ua.edu.practice.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ua.edu.practice.model.EnqueueStatus;
 import ua.edu.practice.model.OrderEvent;
 import ua.edu.practice.model.OrderPriority;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Сервіс для роботи з чергами повідомлень
  */
@@ -18,27 +31,104 @@ public class QueueService {
     private final LoadBalancer loadBalancer;
     private final QueueMonitor queueMonitor;
     private final MetricsCollector metricsCollector;
+    private final BatchingPublisher batchingPublisher;
+    private final RetryScheduler retryScheduler;
+    private final BrokerCircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor publishExecutor;
 
     @Value("${queue.order.exchanges.main}")
     private String mainExchange;
 
-    @Value("${queue.processing.retry-attempts}")
-    private int maxRetryAttempts;
+    @Value("${queue.processing.publish.timeout-ms:500}")
+    private long publishTimeoutMillis;
 
     public QueueService(RabbitTemplate rabbitTemplate,
                         LoadBalancer loadBalancer,
                         QueueMonitor queueMonitor,
-                        MetricsCollector metricsCollector) {
+                        MetricsCollector metricsCollector,
+                        BatchingPublisher batchingPublisher,
+                        RetryScheduler retryScheduler,
+                        BrokerCircuitBreaker circuitBreaker,
+                        @Value("${queue.processing.publish.threads:4}") int publishThreads,
+                        @Value("${queue.processing.publish.queue-capacity:1000}") int publishQueueCapacity) {
         this.rabbitTemplate = rabbitTemplate;
         this.loadBalancer = loadBalancer;
         this.queueMonitor = queueMonitor;
         this.metricsCollector = metricsCollector;
+        this.batchingPublisher = batchingPublisher;
+        this.retryScheduler = retryScheduler;
+        this.circuitBreaker = circuitBreaker;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.publishExecutor = new ThreadPoolExecutor(publishThreads, publishThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(publishQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "order-enqueue-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Додає замовлення в чергу пакетно, з підтвердженням брокера
+     * Замовлення вважається доданим лише після ack від RabbitMQ
+     * @return future, що завершується після підтвердження або помилкою
+     */
+    public CompletableFuture<OrderEvent> enqueueOrderConfirmed(OrderEvent event) {
+        return batchingPublisher.publish(event);
     }
 
     /**
      * Додає замовлення в чергу з урахуванням пріоритету
+     * Публікація виконується в потоках order-enqueue, потік запиту чекає її не
+     * довше queue.processing.publish.timeout-ms. Якщо брокер не відповів за цей
+     * час, повертається PENDING, а публікація завершується у фоні (при невдачі -
+     * через RetryScheduler). При недоступному брокері чи заповненій черзі
+     * публікацій замовлення одразу передається RetryScheduler, а поки circuit
+     * breaker відкритий - без спроби публікації
      */
-    public void enqueueOrder(OrderEvent event) {
+    public EnqueueStatus enqueueOrder(OrderEvent event) {
+        if (!circuitBreaker.allowRequest()) {
+            log.warn("Broker circuit open, deferring order: {}", event.getOrderId());
+            return handleEnqueueError(event, new AmqpException("Broker circuit breaker is open"));
+        }
+
+        CompletableFuture<EnqueueStatus> status;
+        try {
+            status = CompletableFuture.runAsync(() -> publish(event), publishExecutor)
+                    .handle((ignored, error) -> error == null
+                            ? EnqueueStatus.ACCEPTED
+                            : handlePublishError(event, error));
+        } catch (RejectedExecutionException e) {
+            log.warn("Publish queue full, deferring order: {}", event.getOrderId());
+            return handleEnqueueError(event, e);
+        }
+
+        try {
+            return status.get(publishTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Publish of order {} exceeded {} ms, completing in background",
+                    event.getOrderId(), publishTimeoutMillis);
+            return EnqueueStatus.PENDING;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EnqueueStatus.PENDING;
+        } catch (ExecutionException e) {
+            // handle() завершує future значенням; сюди потрапляє лише збій самого RetryScheduler
+            log.error("Failed to enqueue order: {}", event.getOrderId(), e.getCause());
+            return EnqueueStatus.REJECTED;
+        }
+    }
+
+    private EnqueueStatus handlePublishError(OrderEvent event, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        log.error("Failed to enqueue order: {}", event.getOrderId(), cause);
+        return handleEnqueueError(event, cause instanceof Exception exception ? exception : new AmqpException(cause));
+    }
+
+    /**
+     * Публікує замовлення і повідомляє circuit breaker про результат
+     */
+    private void publish(OrderEvent event) {
         try {
             String routingKey = loadBalancer.determineRoutingKey(event.getPriority());
             int priority = loadBalancer.determinePriority(event.getPriority());
@@ -53,6 +143,7 @@ public class QueueService {
                         return message;
                     }
             );
+            circuitBreaker.recordSuccess();
             
             queueMonitor.recordEnqueue(event);
             metricsCollector.recordEnqueue(event);
@@ -60,35 +151,29 @@ public class QueueService {
             log.info("Successfully enqueued order: {} with priority: {} to routing key: {}", 
                     event.getOrderId(), event.getPriority(), routingKey);
             
-        } catch (Exception e) {
-            log.error("Failed to enqueue order: {}", event.getOrderId(), e);
-            handleEnqueueError(event, e);
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            throw e;
         }
     }
 
     /**
      * Обробка помилки додавання в чергу
+     * Повтор виконується в потоці RetryScheduler з експоненційною затримкою
      */
-    private void handleEnqueueError(OrderEvent event, Exception e) {
-        if (event.getRetryCount() < maxRetryAttempts) {
-            event.setRetryCount(event.getRetryCount() + 1);
-            metricsCollector.recordRetry(event);
-            
-            log.warn("Retrying enqueue for order: {} (attempt {})", 
-                    event.getOrderId(), event.getRetryCount());
-            
-            // Exponential backoff
-            try {
-                Thread.sleep(1000L * event.getRetryCount());
-                enqueueOrder(event);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                log.error("Retry interrupted for order: {}", event.getOrderId(), ie);
-            }
-        } else {
-            log.error("Max retry attempts reached for order: {}", event.getOrderId());
-            metricsCollector.recordProcessingError(event, e);
+    private EnqueueStatus handleEnqueueError(OrderEvent event, Exception e) {
+        if (retryScheduler.schedule(event, this::publish)) {
+            return EnqueueStatus.RETRYING;
         }
+        log.error("Order {} rejected: retry attempts or retry budget exhausted", event.getOrderId());
+        metricsCollector.recordProcessingError(event, e);
+        return EnqueueStatus.REJECTED;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        publishExecutor.shutdown();
+        publishExecutor.awaitTermination(publishTimeoutMillis, TimeUnit.MILLISECONDS);
     }
 
     /**
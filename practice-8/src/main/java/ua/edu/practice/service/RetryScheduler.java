@@ -0,0 +1,179 @@
+package ua.edu.practice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ua.edu.practice.model.OrderEvent;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Неблокуючі повторні спроби публікації замовлень
+ *
+ * Невдалі публікації передаються планувальнику замість Thread.sleep у потоці
+ * запиту. Затримка зростає експоненційно (initial-delay-ms * multiplier^(n-1),
+ * не більше max-delay-ms) з випадковим jitter, щоб повтори не йшли хвилею.
+ * Кожен пріоритет має власний бюджет - максимум замовлень, що одночасно
+ * чекають повтору, тож збій BACKGROUND не витісняє URGENT. Поки circuit
+ * breaker відкритий, спроби відкладаються без витрати лічильника повторів,
+ * але не більше max-deferrals разів на замовлення: після цього замовлення
+ * відхиляється, як при вичерпаних спробах, і звільняє місце в бюджеті.
+ * Повтори зберігаються лише в пам'яті і втрачаються при зупинці застосунку.
+ */
+@Service
+@Slf4j
+public class RetryScheduler {
+
+    private final BrokerCircuitBreaker circuitBreaker;
+    private final MetricsCollector metricsCollector;
+    private final Map<OrderPriority, Integer> budgets = new EnumMap<>(OrderPriority.class);
+    private final Map<OrderPriority, AtomicInteger> pending = new EnumMap<>(OrderPriority.class);
+    private final ScheduledExecutorService scheduler;
+
+    @Value("${queue.processing.retry-attempts}")
+    private int maxRetryAttempts;
+
+    @Value("${queue.processing.retry.initial-delay-ms:500}")
+    private long initialDelayMillis;
+
+    @Value("${queue.processing.retry.max-delay-ms:30000}")
+    private long maxDelayMillis;
+
+    @Value("${queue.processing.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value("${queue.processing.retry.max-deferrals:12}")
+    private int maxDeferrals;
+
+    public RetryScheduler(BrokerCircuitBreaker circuitBreaker,
+                          MetricsCollector metricsCollector,
+                          @Value("${queue.processing.retry.threads:2}") int threads,
+                          @Value("${queue.processing.retry.budget.urgent:1000}") int urgentBudget,
+                          @Value("${queue.processing.retry.budget.vip:500}") int vipBudget,
+                          @Value("${queue.processing.retry.budget.standard:200}") int standardBudget,
+                          @Value("${queue.processing.retry.budget.background:50}") int backgroundBudget) {
+        this.circuitBreaker = circuitBreaker;
+        this.metricsCollector = metricsCollector;
+        budgets.put(OrderPriority.URGENT, urgentBudget);
+        budgets.put(OrderPriority.VIP, vipBudget);
+        budgets.put(OrderPriority.STANDARD, standardBudget);
+        budgets.put(OrderPriority.BACKGROUND, backgroundBudget);
+        for (OrderPriority priority : OrderPriority.values()) {
+            AtomicInteger count = new AtomicInteger();
+            pending.put(priority, count);
+            metricsCollector.registerPendingRetries(priority, count);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "order-retry-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Планує повторну публікацію замовлення
+     * @param publish публікація, що кидає виняток при невдачі
+     * @return false, якщо спроби вичерпано або бюджет пріоритету заповнений
+     */
+    public boolean schedule(OrderEvent event, Consumer<OrderEvent> publish) {
+        if (maxRetryAttempts <= 0) {
+            return false;
+        }
+        AtomicInteger count = pending.get(event.getPriority());
+        if (count.incrementAndGet() > budgets.get(event.getPriority())) {
+            count.decrementAndGet();
+            metricsCollector.recordRetryRejected(event);
+            log.warn("Retry budget exhausted for priority {}, order: {}",
+                    event.getPriority(), event.getOrderId());
+            return false;
+        }
+        scheduleAttempt(event, publish, 1, 0);
+        return true;
+    }
+
+    /**
+     * Кількість замовлень пріоритету, що чекають повтору
+     */
+    public int getPendingRetries(OrderPriority priority) {
+        return pending.get(priority).get();
+    }
+
+    /**
+     * Номер спроби рахується окремо від OrderEvent.retryCount, який належить
+     * повторам обробки в OrderProcessor
+     */
+    private void scheduleAttempt(OrderEvent event, Consumer<OrderEvent> publish, int attempt, int deferrals) {
+        metricsCollector.recordPublishRetry(event, attempt);
+
+        long delay = Math.max(backoff(attempt), circuitBreaker.getRemainingOpenMillis());
+        log.warn("Retrying enqueue for order: {} (attempt {}) in {} ms",
+                event.getOrderId(), attempt, delay);
+        scheduler.schedule(() -> attempt(event, publish, attempt, deferrals), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param deferrals скільки разів замовлення вже відкладалося через відкритий breaker
+     */
+    private void attempt(OrderEvent event, Consumer<OrderEvent> publish, int attempt, int deferrals) {
+        if (!circuitBreaker.allowRequest()) {
+            if (deferrals >= maxDeferrals) {
+                pending.get(event.getPriority()).decrementAndGet();
+                log.error("Broker unavailable after {} deferrals, giving up on order: {}",
+                        deferrals, event.getOrderId());
+                metricsCollector.recordProcessingError(event, new AmqpException("Broker circuit breaker is open"));
+                return;
+            }
+            // Брокер ще недоступний - чекаємо, не витрачаючи спробу
+            long delay = Math.max(circuitBreaker.getRemainingOpenMillis(), initialDelayMillis);
+            scheduler.schedule(() -> attempt(event, publish, attempt, deferrals + 1),
+                    jitter(delay), TimeUnit.MILLISECONDS);
+            return;
+        }
+        try {
+            publish.accept(event);
+            pending.get(event.getPriority()).decrementAndGet();
+        } catch (Exception e) {
+            if (attempt < maxRetryAttempts) {
+                scheduleAttempt(event, publish, attempt + 1, deferrals);
+            } else {
+                pending.get(event.getPriority()).decrementAndGet();
+                log.error("Max retry attempts reached for order: {}", event.getOrderId());
+                metricsCollector.recordProcessingError(event, e);
+            }
+        }
+    }
+
+    /**
+     * Експоненційна затримка спроби з jitter у межах [delay/2, delay]
+     */
+    private long backoff(int attempt) {
+        double delay = initialDelayMillis * Math.pow(multiplier, attempt - 1);
+        return jitter((long) Math.min(delay, maxDelayMillis));
+    }
+
+    private long jitter(long delay) {
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int lost = pending.values().stream().mapToInt(AtomicInteger::get).sum();
+        if (lost > 0) {
+            log.warn("Shutting down with {} orders still waiting for retry", lost);
+        }
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,130 @@
+package ua.edu.practice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import ua.edu.practice.config.ListenerLimits;
+import ua.edu.practice.config.RetryTopology;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdaptiveScalingControllerTest {
+
+    private final RabbitListenerEndpointRegistry listenerRegistry = mock(RabbitListenerEndpointRegistry.class);
+    private final QueueMonitor queueMonitor = mock(QueueMonitor.class);
+    private final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+    private final SimpleMessageListenerContainer backgroundContainer = mock(SimpleMessageListenerContainer.class);
+    private AdaptiveScalingController controller;
+
+    @BeforeEach
+    void setUp() {
+        RetryTopology retryTopology = new RetryTopology("order-dlx", "orders-parking-lot", List.of(1000L),
+                "urgent-orders", "vip-orders", "standard-orders", "background-tasks",
+                "order.urgent", "order.vip", "order.standard", "order.background");
+        ListenerLimits listenerLimits = new ListenerLimits("3-6", 5, "2-5", 10, "2-4", 20, "2-4", 20);
+        when(metricsCollector.getWaitTimePercentile(eq(OrderPriority.URGENT), anyDouble())).thenReturn(0.0);
+        when(listenerRegistry.getListenerContainer(OrderProcessor.BACKGROUND_LISTENER_ID))
+                .thenReturn(backgroundContainer);
+
+        controller = new AdaptiveScalingController(listenerRegistry, queueMonitor, metricsCollector,
+                retryTopology, listenerLimits, mock(DeliveryDispatcher.class), true);
+        ReflectionTestUtils.setField(controller, "maxTotalConsumers", 10);
+    }
+
+    @Test
+    void pressureIsLagOverSla() {
+        // 10 секунд з попереднього заміру, за які оброблено 20 URGENT: 2 замовлення/с
+        ReflectionTestUtils.setField(controller, "lastSampleNanos", System.nanoTime() - TimeUnit.SECONDS.toNanos(10));
+        when(queueMonitor.getProcessedCount("URGENT")).thenReturn(20);
+        when(queueMonitor.getBrokerQueueDepth("urgent-orders")).thenReturn(8);
+        when(metricsCollector.getWaitTimePercentile(OrderPriority.VIP, 0.95)).thenReturn(12.0);
+        when(queueMonitor.getBrokerQueueDepth("background-tasks")).thenReturn(1000);
+
+        Map<OrderPriority, Double> pressure = controller.samplePressure();
+
+        // URGENT: черга з 8 замовлень розходиться за 4 с при SLA 5 с
+        assertThat(pressure.get(OrderPriority.URGENT)).isCloseTo(0.8, within(0.01));
+        // VIP: p95 очікування 12 с при SLA 30 с
+        assertThat(pressure.get(OrderPriority.VIP)).isCloseTo(0.4, within(1e-9));
+        assertThat(pressure.get(OrderPriority.STANDARD)).isZero();
+        assertThat(pressure.get(OrderPriority.BACKGROUND)).isZero();
+    }
+
+    @Test
+    void stalledQueueCountsAsFullSla() {
+        when(queueMonitor.getBrokerQueueDepth("vip-orders")).thenReturn(5);
+
+        assertThat(controller.samplePressure().get(OrderPriority.VIP)).isEqualTo(1.0);
+    }
+
+    @Test
+    void scaleUpStopsAtConfiguredMaximum() {
+        ReflectionTestUtils.setField(controller, "maxTotalConsumers", 20);
+        for (int i = 0; i < 10; i++) {
+            controller.scaleUp(OrderPriority.URGENT);
+        }
+
+        assertThat(controller.consumerLimit(OrderPriority.URGENT)).isEqualTo(6);
+    }
+
+    @Test
+    void scaleUpOverBudgetReclaimsFromLowestPriority() {
+        // Початкові стелі 3 + 2 + 2 + 2 = 9 з бюджету 10
+        controller.scaleUp(OrderPriority.URGENT);
+        controller.scaleUp(OrderPriority.URGENT);
+
+        assertThat(controller.consumerLimit(OrderPriority.URGENT)).isEqualTo(5);
+        assertThat(controller.consumerLimit(OrderPriority.BACKGROUND)).isEqualTo(1);
+
+        // BACKGROUND уже на мінімумі, а VIP і STANDARD - на своїх початкових значеннях
+        controller.scaleUp(OrderPriority.URGENT);
+        assertThat(controller.consumerLimit(OrderPriority.URGENT)).isEqualTo(5);
+        assertThat(controller.consumerLimit(OrderPriority.STANDARD)).isEqualTo(2);
+    }
+
+    @Test
+    void scaleDownWaitsForIdleTicksAndKeepsMinimum() {
+        controller.scaleUp(OrderPriority.VIP);
+        assertThat(controller.consumerLimit(OrderPriority.VIP)).isEqualTo(3);
+
+        controller.scaleDown(OrderPriority.VIP);
+        controller.scaleDown(OrderPriority.VIP);
+        assertThat(controller.consumerLimit(OrderPriority.VIP)).isEqualTo(3);
+
+        controller.scaleDown(OrderPriority.VIP);
+        assertThat(controller.consumerLimit(OrderPriority.VIP)).isEqualTo(2);
+
+        for (int i = 0; i < 6; i++) {
+            controller.scaleDown(OrderPriority.VIP);
+        }
+        assertThat(controller.consumerLimit(OrderPriority.VIP)).isEqualTo(2);
+    }
+
+    @Test
+    void laggingUrgentCapsBackgroundWithoutStoppingIt() {
+        when(queueMonitor.getBrokerQueueDepth("urgent-orders")).thenReturn(50);
+
+        controller.adjust();
+
+        assertThat(controller.consumerLimit(OrderPriority.BACKGROUND)).isEqualTo(1);
+        verify(backgroundContainer).setConcurrentConsumers(1);
+        verify(backgroundContainer).setMaxConcurrentConsumers(1);
+        verify(backgroundContainer, never()).stop();
+        verify(backgroundContainer, never()).setPrefetchCount(anyInt());
+    }
+}
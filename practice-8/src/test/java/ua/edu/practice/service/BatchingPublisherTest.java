@@ -0,0 +1,141 @@
+package ua.edu.practice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import ua.edu.practice.model.OrderEvent;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchingPublisherTest {
+
+    private static final int BATCH_SIZE = 4;
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RabbitOperations channel = mock(RabbitOperations.class);
+    private final List<CorrelationData> correlations = new ArrayList<>();
+    private final CountDownLatch batchSent = new CountDownLatch(1);
+    private BatchingPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        LoadBalancer loadBalancer = mock(LoadBalancer.class);
+        when(loadBalancer.determineRoutingKey(any())).thenReturn("order.standard");
+        when(loadBalancer.determinePriority(any())).thenReturn(5);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            try {
+                return invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(channel);
+            } finally {
+                batchSent.countDown();
+            }
+        });
+
+        publisher = new BatchingPublisher(rabbitTemplate, loadBalancer,
+                mock(QueueMonitor.class), mock(MetricsCollector.class));
+        ReflectionTestUtils.setField(publisher, "mainExchange", "order-exchange");
+        ReflectionTestUtils.setField(publisher, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(publisher, "lingerMillis", 1000L);
+        ReflectionTestUtils.setField(publisher, "confirmTimeoutMillis", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        publisher.shutdown();
+    }
+
+    @Test
+    void partialBatchFailureRejectsOnlyUnsentOrders() throws Exception {
+        failSendAfter(2);
+
+        List<CompletableFuture<OrderEvent>> futures = publishBatch();
+
+        // Два відправлені замовлення чекають підтвердження брокера
+        assertThat(correlations).hasSize(2);
+        assertThat(futures.get(0)).isNotDone();
+        assertThat(futures.get(1)).isNotDone();
+        assertRejected(futures.get(2), "channel closed");
+        assertRejected(futures.get(3), "channel closed");
+
+        correlations.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        correlations.get(1).getFuture().complete(new CorrelationData.Confirm(true, null));
+        assertThat(futures.get(0).get(1, TimeUnit.SECONDS).getOrderId()).isEqualTo("order-0");
+        assertThat(futures.get(1).get(1, TimeUnit.SECONDS).getOrderId()).isEqualTo("order-1");
+    }
+
+    @Test
+    void ordersCompleteOnlyAfterTheirOwnConfirm() throws Exception {
+        failSendAfter(Integer.MAX_VALUE);
+
+        List<CompletableFuture<OrderEvent>> futures = publishBatch();
+        assertThat(correlations).hasSize(BATCH_SIZE);
+        assertThat(futures).noneMatch(CompletableFuture::isDone);
+
+        correlations.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        correlations.get(1).getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+        correlations.get(2).setReturned(new ReturnedMessage(new Message(new byte[0]), 312, "NO_ROUTE",
+                "order-exchange", "order.standard"));
+        correlations.get(2).getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertThat(futures.get(0).get(1, TimeUnit.SECONDS).getOrderId()).isEqualTo("order-0");
+        assertRejected(futures.get(1), "queue full");
+        assertRejected(futures.get(2), "unroutable: NO_ROUTE");
+        assertThat(futures.get(3)).isNotDone();
+    }
+
+    /**
+     * Канал приймає перші sends публікацій, а далі кидає виняток, як закритий канал
+     */
+    private void failSendAfter(int sends) {
+        doAnswer(invocation -> {
+            if (correlations.size() >= sends) {
+                throw new AmqpException("channel closed");
+            }
+            correlations.add(invocation.getArgument(4));
+            return null;
+        }).when(channel).convertAndSend(eq("order-exchange"), anyString(), any(Object.class),
+                any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    private List<CompletableFuture<OrderEvent>> publishBatch() throws InterruptedException {
+        List<CompletableFuture<OrderEvent>> futures = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            futures.add(publisher.publish(OrderEvent.builder()
+                    .orderId("order-" + i)
+                    .priority(OrderPriority.STANDARD)
+                    .build()));
+        }
+        // Повний пакет відправляється в потоці order-publisher
+        assertThat(batchSent.await(2, TimeUnit.SECONDS)).isTrue();
+        return futures;
+    }
+
+    private static void assertRejected(CompletableFuture<OrderEvent> future, String reason) {
+        assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(AmqpException.class)
+                .cause().hasMessageContaining(reason);
+    }
+}
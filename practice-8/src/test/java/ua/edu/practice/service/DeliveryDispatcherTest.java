@@ -0,0 +1,107 @@
+package ua.edu.practice.service;
+
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+class DeliveryDispatcherTest {
+
+    private final Channel channel = mock(Channel.class);
+    private final DeliveryDispatcher dispatcher = new DeliveryDispatcher(mock(MetricsCollector.class), true, 2);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void completedDeliveryIsAcked() throws Exception {
+        dispatcher.dispatch(OrderPriority.URGENT, channel, 1, () -> CompletableFuture.completedFuture(null));
+
+        verify(channel, timeout(1000)).basicAck(1, false);
+    }
+
+    @Test
+    void deliveryIsAckedWhenItsFutureCompletes() throws Exception {
+        // Повтор ще чекає confirm брокера: доставка лишається непідтвердженою
+        CompletableFuture<Void> confirmed = new CompletableFuture<>();
+        dispatcher.dispatch(OrderPriority.URGENT, channel, 4, () -> confirmed);
+
+        verify(channel, after(200).never()).basicAck(anyLong(), anyBoolean());
+        confirmed.complete(null);
+        verify(channel, timeout(1000)).basicAck(4, false);
+    }
+
+    @Test
+    void failedFutureIsRejectedToDeadLetterExchange() throws Exception {
+        dispatcher.dispatch(OrderPriority.URGENT, channel, 5, () -> CompletableFuture.failedFuture(
+                new AmqpRejectAndDontRequeueException("Nacked by broker")));
+
+        verify(channel, timeout(1000)).basicNack(5, false, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void autoAckModeRethrowsFailureForContainer() {
+        DeliveryDispatcher autoAck = new DeliveryDispatcher(mock(MetricsCollector.class), false, 2);
+        AmqpRejectAndDontRequeueException rejection = new AmqpRejectAndDontRequeueException("Nacked by broker");
+
+        // Контейнер має отримати сам виняток обробки, а не CompletionException
+        assertThatThrownBy(() -> autoAck.dispatch(OrderPriority.URGENT, channel, 6,
+                () -> CompletableFuture.failedFuture(rejection)))
+                .isSameAs(rejection);
+    }
+
+    @Test
+    void failedDeliveryIsRejectedToDeadLetterExchange() throws Exception {
+        dispatcher.dispatch(OrderPriority.URGENT, channel, 2, () -> {
+            throw new IllegalStateException("Simulated processing error");
+        });
+
+        verify(channel, timeout(1000)).basicNack(2, false, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void failureBeforeDispatchIsRejectedByContainer() {
+        ListenerExecutionFailedException conversionFailure = new ListenerExecutionFailedException("Listener failed",
+                new MessageConversionException("Cannot convert payload"), new Message(new byte[0]));
+
+        AmqpRejectAndDontRequeueException rejection = catchThrowableOfType(
+                () -> dispatcher.errorHandler().handleError(conversionFailure),
+                AmqpRejectAndDontRequeueException.class);
+
+        // Без rejectManual контейнер у режимі MANUAL лишив би доставку без ack
+        assertThat(rejection.isRejectManual()).isTrue();
+        assertThat(rejection).hasCause(conversionFailure);
+    }
+
+    @Test
+    void deliveryAfterShutdownIsRequeuedWithoutThrowing() throws Exception {
+        dispatcher.shutdown();
+
+        assertThatCode(() -> dispatcher.dispatch(OrderPriority.URGENT, channel, 3,
+                () -> CompletableFuture.completedFuture(null)))
+                .doesNotThrowAnyException();
+        verify(channel).basicNack(3, false, true);
+    }
+}
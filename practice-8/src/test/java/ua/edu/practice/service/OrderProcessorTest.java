@@ -0,0 +1,121 @@
+package ua.edu.practice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import ua.edu.practice.config.RetryTopology;
+import ua.edu.practice.model.OrderEvent;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class OrderProcessorTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+    private final RuntimeException failure = new RuntimeException("Simulated processing error");
+    private OrderProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        RetryTopology retryTopology = new RetryTopology("order-dlx", "orders-parking-lot", List.of(1000L, 5000L),
+                "urgent-orders", "vip-orders", "standard-orders", "background-tasks",
+                "order.urgent", "order.vip", "order.standard", "order.background");
+        processor = new OrderProcessor(mock(QueueMonitor.class), metricsCollector, rabbitTemplate,
+                retryTopology, mock(LoadBalancer.class), mock(DeliveryDispatcher.class));
+        ReflectionTestUtils.setField(processor, "confirmTimeoutMillis", 200L);
+    }
+
+    @Test
+    void confirmedRetryCopyAcksOriginal() {
+        brokerReplies(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(true, null)));
+
+        assertThat(processor.handleProcessingError(order(0), OrderPriority.VIP, failure))
+                .succeedsWithin(1, TimeUnit.SECONDS);
+        verify(metricsCollector).recordRetry(any());
+        verify(metricsCollector, never()).recordParked(any());
+    }
+
+    @Test
+    void originalWaitsForConfirmWithoutBlockingCaller() {
+        // Брокер ще не відповів: виклик повертається одразу з незавершеним future
+        brokerReplies(correlation -> { });
+
+        CompletableFuture<Void> outcome = processor.handleProcessingError(order(0), OrderPriority.VIP, failure);
+
+        assertThat(outcome).isNotDone();
+        verify(metricsCollector, never()).recordRetry(any());
+    }
+
+    @Test
+    void nackedRetryCopyRejectsOriginal() {
+        brokerReplies(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(false, "queue full")));
+
+        assertRejected(order(0), "Nacked by broker: queue full");
+        verify(metricsCollector, never()).recordRetry(any());
+        verify(metricsCollector).recordParked(any());
+    }
+
+    @Test
+    void unroutableRetryCopyRejectsOriginal() {
+        brokerReplies(correlation -> {
+            correlation.setReturned(new ReturnedMessage(new Message(new byte[0]), 312, "NO_ROUTE",
+                    "order-dlx.vip", "retry.1"));
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+        });
+
+        assertRejected(order(0), "Unroutable: NO_ROUTE");
+    }
+
+    @Test
+    void unconfirmedParkingCopyRejectsOriginal() {
+        // Брокер не відповідає: чекаємо не довше confirmTimeoutMillis
+        brokerReplies(correlation -> { });
+
+        assertRejected(order(2), "No confirm within 200 ms");
+    }
+
+    private void brokerReplies(Consumer<CorrelationData> reply) {
+        doAnswer(invocation -> {
+            reply.accept(invocation.getArgument(4));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq("order-dlx.vip"), any(String.class), any(Object.class),
+                any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    private void assertRejected(OrderEvent event, String reason) {
+        CompletableFuture<Void> outcome = processor.handleProcessingError(event, OrderPriority.VIP, failure);
+
+        assertThatThrownBy(() -> outcome.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(AmqpRejectAndDontRequeueException.class)
+                .cause().hasMessageContaining(reason);
+    }
+
+    private static OrderEvent order(int retryCount) {
+        return OrderEvent.builder()
+                .orderId("order-1")
+                .priority(OrderPriority.VIP)
+                .retryCount(retryCount)
+                .build();
+    }
+}
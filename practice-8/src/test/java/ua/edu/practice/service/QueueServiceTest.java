@@ -0,0 +1,110 @@
+package ua.edu.practice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import ua.edu.practice.model.EnqueueStatus;
+import ua.edu.practice.model.OrderEvent;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QueueServiceTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RetryScheduler retryScheduler = mock(RetryScheduler.class);
+    private final BrokerCircuitBreaker circuitBreaker = mock(BrokerCircuitBreaker.class);
+    private final OrderEvent event = OrderEvent.builder()
+            .orderId("order-1")
+            .priority(OrderPriority.URGENT)
+            .build();
+    private QueueService queueService;
+
+    @BeforeEach
+    void setUp() {
+        LoadBalancer loadBalancer = mock(LoadBalancer.class);
+        when(loadBalancer.determineRoutingKey(any())).thenReturn("order.urgent");
+        when(loadBalancer.determinePriority(any())).thenReturn(10);
+        when(circuitBreaker.allowRequest()).thenReturn(true);
+        when(retryScheduler.schedule(any(), any())).thenReturn(true);
+
+        queueService = new QueueService(rabbitTemplate, loadBalancer, mock(QueueMonitor.class),
+                mock(MetricsCollector.class), mock(BatchingPublisher.class), retryScheduler, circuitBreaker, 1, 1);
+        ReflectionTestUtils.setField(queueService, "mainExchange", "order-exchange");
+        ReflectionTestUtils.setField(queueService, "publishTimeoutMillis", 200L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queueService.shutdown();
+    }
+
+    @Test
+    void publishedOrderIsAccepted() {
+        assertThat(queueService.enqueueOrder(event)).isEqualTo(EnqueueStatus.ACCEPTED);
+        verify(circuitBreaker).recordSuccess();
+        verify(retryScheduler, never()).schedule(any(), any());
+    }
+
+    @Test
+    void failedPublishIsRetried() {
+        doThrow(new AmqpException("connection refused")).when(rabbitTemplate)
+                .convertAndSend(eq("order-exchange"), anyString(), any(Object.class), any(MessagePostProcessor.class));
+
+        assertThat(queueService.enqueueOrder(event)).isEqualTo(EnqueueStatus.RETRYING);
+        verify(circuitBreaker).recordFailure();
+        verify(retryScheduler).schedule(eq(event), any());
+    }
+
+    @Test
+    void slowBrokerDoesNotHoldRequestThread() throws Exception {
+        CountDownLatch brokerResponds = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            brokerResponds.await();
+            throw new AmqpException("connection timed out");
+        }).when(rabbitTemplate)
+                .convertAndSend(eq("order-exchange"), anyString(), any(Object.class), any(MessagePostProcessor.class));
+
+        long start = System.nanoTime();
+        assertThat(queueService.enqueueOrder(event)).isEqualTo(EnqueueStatus.PENDING);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+        // Публікація, що завершилася помилкою вже після відповіді, все одно йде на повтор
+        brokerResponds.countDown();
+        verify(retryScheduler, timeout(1000)).schedule(eq(event), any());
+    }
+
+    @Test
+    void fullPublishQueueDefersToRetryScheduler() throws Exception {
+        CountDownLatch brokerResponds = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            brokerResponds.await();
+            return null;
+        }).when(rabbitTemplate)
+                .convertAndSend(eq("order-exchange"), anyString(), any(Object.class), any(MessagePostProcessor.class));
+
+        // Один потік зайнятий, одне місце в черзі - третє замовлення не поміщається
+        assertThat(queueService.enqueueOrder(event)).isEqualTo(EnqueueStatus.PENDING);
+        assertThat(queueService.enqueueOrder(event)).isEqualTo(EnqueueStatus.PENDING);
+        assertThat(queueService.enqueueOrder(event)).isEqualTo(EnqueueStatus.RETRYING);
+        verify(retryScheduler).schedule(eq(event), any());
+        brokerResponds.countDown();
+    }
+}
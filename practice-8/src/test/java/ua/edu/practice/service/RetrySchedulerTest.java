@@ -0,0 +1,78 @@
+package ua.edu.practice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ua.edu.practice.model.OrderEvent;
+import ua.edu.practice.model.OrderPriority;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetrySchedulerTest {
+
+    private static final int MAX_DEFERRALS = 3;
+
+    private final BrokerCircuitBreaker circuitBreaker = mock(BrokerCircuitBreaker.class);
+    private final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+    private final List<OrderEvent> published = new CopyOnWriteArrayList<>();
+    private final OrderEvent event = OrderEvent.builder()
+            .orderId("order-1")
+            .priority(OrderPriority.VIP)
+            .build();
+    private RetryScheduler retryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        retryScheduler = new RetryScheduler(circuitBreaker, metricsCollector, 1, 10, 10, 10, 10);
+        ReflectionTestUtils.setField(retryScheduler, "maxRetryAttempts", 3);
+        ReflectionTestUtils.setField(retryScheduler, "initialDelayMillis", 10L);
+        ReflectionTestUtils.setField(retryScheduler, "maxDelayMillis", 50L);
+        ReflectionTestUtils.setField(retryScheduler, "multiplier", 2.0);
+        ReflectionTestUtils.setField(retryScheduler, "maxDeferrals", MAX_DEFERRALS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryScheduler.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void openBreakerDefersWithoutSpendingAttempts() {
+        Consumer<OrderEvent> publish = mock(Consumer.class);
+        // Breaker відкритий для перших двох спроб, далі брокер приймає
+        when(circuitBreaker.allowRequest()).thenReturn(false, false, true);
+
+        assertThat(retryScheduler.schedule(event, publish)).isTrue();
+
+        verify(publish, timeout(2000)).accept(event);
+        verify(metricsCollector).recordPublishRetry(event, 1);
+        verify(circuitBreaker, times(3)).allowRequest();
+        verify(metricsCollector, never()).recordProcessingError(any(), any());
+    }
+
+    @Test
+    void breakerThatStaysOpenRejectsAfterMaxDeferrals() {
+        when(circuitBreaker.allowRequest()).thenReturn(false);
+
+        assertThat(retryScheduler.schedule(event, published::add)).isTrue();
+
+        verify(metricsCollector, timeout(2000)).recordProcessingError(eq(event), any());
+        verify(circuitBreaker, timeout(2000).times(MAX_DEFERRALS + 1)).allowRequest();
+        assertThat(retryScheduler.getPendingRetries(OrderPriority.VIP)).isZero();
+        assertThat(published).isEmpty();
+    }
+}